@@ -172,6 +172,33 @@ enum CgmIdentifier {
 
     private static final Logger LOG = LoggerFactory.getLogger(CgmIdentifier.class);
 
+    // Lookup table indexed by [class - MIN_CLASS][id - MIN_ID], so findIdentifier() doesn't need to search.
+    private static final int MIN_CLASS;
+    private static final int MIN_ID;
+    private static final CgmIdentifier[][] LOOKUP;
+
+    static {
+        int minClass = 0;
+        int maxClass = 0;
+        int minId = 0;
+        int maxId = 0;
+        for (CgmIdentifier cgmIdentifier : values()) {
+            minClass = Math.min(minClass, cgmIdentifier.classId.getClassIdentifier());
+            maxClass = Math.max(maxClass, cgmIdentifier.classId.getClassIdentifier());
+            minId = Math.min(minId, cgmIdentifier.id);
+            maxId = Math.max(maxId, cgmIdentifier.id);
+        }
+        MIN_CLASS = minClass;
+        MIN_ID = minId;
+        LOOKUP = new CgmIdentifier[maxClass - minClass + 1][maxId - minId + 1];
+        for (CgmIdentifier cgmIdentifier : values()) {
+            CgmIdentifier[] classEntries = LOOKUP[cgmIdentifier.classId.getClassIdentifier() - MIN_CLASS];
+            if (classEntries[cgmIdentifier.id - MIN_ID] == null) {
+                classEntries[cgmIdentifier.id - MIN_ID] = cgmIdentifier;
+            }
+        }
+    }
+
     private final CgmClass classId;
     private final int id;
     private final String friendlyName;
@@ -188,10 +215,11 @@ enum CgmIdentifier {
 
     static CgmIdentifier findIdentifier(final int elementClass, final int elementId) {
         // System.out.println(String.format("Searching for for %d:%d", elementClass, elementId));
-        for (CgmIdentifier cgmIdentifier : values()) {
-            if ((cgmIdentifier.classId.getClassIdentifier() == elementClass) && (cgmIdentifier.id == elementId)) {
-                return cgmIdentifier;
-            }
+        int classIndex = elementClass - MIN_CLASS;
+        int idIndex = elementId - MIN_ID;
+        if ((classIndex >= 0) && (classIndex < LOOKUP.length) && (idIndex >= 0) && (idIndex < LOOKUP[classIndex].length)
+                && (LOOKUP[classIndex][idIndex] != null)) {
+            return LOOKUP[classIndex][idIndex];
         }
         LOG.warn(String.format("Could not find identifier for %d:%d", elementClass, elementId));
         return UNKNOWN;
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2014, Codice
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.codice.imaging.cgm;
+
+/**
+ * Microbenchmark for CgmIdentifier.findIdentifier().
+ *
+ * This is not a unit test. Run it after "mvn test-compile" with:
+ *
+ * java -cp target/classes:target/test-classes:$CORE_JAR:$SLF4J_JAR org.codice.imaging.cgm.CgmIdentifierLookupBenchmark [iterations]
+ *
+ * It looks up every element class and identifier, and reports the time per lookup for a search of
+ * values() (the previous approach) and for findIdentifier(), which uses a lookup table.
+ */
+public final class CgmIdentifierLookupBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 20000;
+    private static final int WARMUP_ITERATIONS = 5000;
+
+    private static CgmIdentifier sink;
+
+    private CgmIdentifierLookupBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int iterations = DEFAULT_ITERATIONS;
+        if (args.length > 0) {
+            iterations = Integer.parseInt(args[0]);
+        }
+        CgmIdentifier[] identifiers = CgmIdentifier.values();
+        int[] classes = new int[identifiers.length];
+        int[] ids = new int[identifiers.length];
+        for (int i = 0; i < identifiers.length; ++i) {
+            classes[i] = identifiers[i].getClassIdentifier().getClassIdentifier();
+            ids[i] = identifiers[i].getElementIdentifier();
+        }
+        measure(classes, ids, WARMUP_ITERATIONS, false);
+        measure(classes, ids, WARMUP_ITERATIONS, true);
+        long lookups = (long) iterations * identifiers.length;
+        System.out.println(String.format("%d identifiers, %d iterations", identifiers.length, iterations));
+        System.out.println(String.format("search of values(): %.1f ns per lookup", (double) measure(classes, ids, iterations, false) / lookups));
+        System.out.println(String.format("lookup table: %.1f ns per lookup", (double) measure(classes, ids, iterations, true) / lookups));
+    }
+
+    private static long measure(int[] classes, int[] ids, int iterations, boolean useTable) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            for (int j = 0; j < classes.length; ++j) {
+                if (useTable) {
+                    sink = CgmIdentifier.findIdentifier(classes[j], ids[j]);
+                } else {
+                    sink = search(classes[j], ids[j]);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static CgmIdentifier search(int elementClass, int elementId) {
+        for (CgmIdentifier cgmIdentifier : CgmIdentifier.values()) {
+            if ((cgmIdentifier.getClassIdentifier().getClassIdentifier() == elementClass) && (cgmIdentifier.getElementIdentifier() == elementId)) {
+                return cgmIdentifier;
+            }
+        }
+        return CgmIdentifier.UNKNOWN;
+    }
+}
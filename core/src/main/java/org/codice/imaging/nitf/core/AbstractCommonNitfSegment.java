@@ -14,11 +14,16 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
 /**
     Common data elements for NITF segment subheaders.
 */
 public abstract class AbstractCommonNitfSegment extends AbstractNitfSegment {
 
+    private static final long serialVersionUID = 1L;
+
     private String segmentIdentifier = null;
     private NitfSecurityMetadata securityMetadata = null;
 
@@ -54,6 +59,7 @@ public abstract class AbstractCommonNitfSegment extends AbstractNitfSegment {
         @param nitfSecurityMetadata the security metadata values to set.
     */
     public final void setSecurityMetadata(final NitfSecurityMetadata nitfSecurityMetadata) {
+        loadDeferredSecurityMetadata();
         securityMetadata = nitfSecurityMetadata;
     }
 
@@ -63,7 +69,21 @@ public abstract class AbstractCommonNitfSegment extends AbstractNitfSegment {
         @return security metadata
     */
     public final NitfSecurityMetadata getSecurityMetadata() {
+        loadDeferredSecurityMetadata();
         return securityMetadata;
     }
 
+    /**
+        Decode the security metadata, if it was deferred when the segment was parsed.
+        <p>
+        This is called before the security metadata is used or changed. It does nothing unless the segment
+        supports lazy parsing.
+    */
+    void loadDeferredSecurityMetadata() {
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        loadDeferredSecurityMetadata();
+        out.defaultWriteObject();
+    }
 }
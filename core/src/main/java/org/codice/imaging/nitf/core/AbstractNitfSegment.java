@@ -14,6 +14,9 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -21,7 +24,9 @@ import java.util.TreeMap;
 /**
     Common data elements for NITF segment subheaders and file header.
 */
-public abstract class AbstractNitfSegment {
+public abstract class AbstractNitfSegment implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final TreCollection treCollection = new TreCollection();
 
@@ -31,6 +36,7 @@ public abstract class AbstractNitfSegment {
         @return TRE collection
     */
     public final TreCollection getTREsRawStructure() {
+        loadDeferredTREs();
         return treCollection;
     }
 
@@ -42,6 +48,7 @@ public abstract class AbstractNitfSegment {
         @return TRE map.
     */
     public final Map<String, String> getTREsFlat() {
+        loadDeferredTREs();
         Map<String, String> tresFlat = new TreeMap<String, String>();
         for (String treName : treCollection.getUniqueNamesOfTRE()) {
             List<Tre> tresWithName = treCollection.getTREsWithName(treName);
@@ -114,6 +121,21 @@ public abstract class AbstractNitfSegment {
         @param tresToAdd the TRE collection to add.
     */
     protected final void mergeTREs(final TreCollection tresToAdd) {
+        loadDeferredTREs();
         treCollection.add(tresToAdd);
     }
+
+    /**
+        Decode any TREs that were deferred when the segment was parsed.
+        <p>
+        This is called before the TREs are used or changed. It does nothing unless the segment
+        supports lazy parsing.
+    */
+    void loadDeferredTREs() {
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        loadDeferredTREs();
+        out.defaultWriteObject();
+    }
 }
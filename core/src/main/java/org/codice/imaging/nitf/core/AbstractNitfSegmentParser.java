@@ -18,6 +18,8 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.slf4j.Logger;
@@ -25,15 +27,200 @@ import org.slf4j.LoggerFactory;
 
 /**
     Common segment parsing functionality.
+    <p>
+    A parser can be reused for any number of segments, but only on one thread at a time. The helpers it
+    creates while parsing (the security metadata parser, date formats and calendar) are kept for the next
+    segment, rather than being created for each field.
 */
 abstract class AbstractNitfSegmentParser {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractNitfSegmentParser.class);
 
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private static final int MIN_CODE_BUFFER_LENGTH = 16;
+
     protected NitfReader reader = null;
     protected NitfParseStrategy parsingStrategy;
 
+    private NitfSecurityMetadataParser securityMetadataParser = null;
+    private Map<String, SimpleDateFormat> dateFormats = null;
+    private Calendar calendar = null;
+    private byte[] codeBuffer = null;
+    private NitfFieldSink fieldSink = ModelFieldSink.INSTANCE;
+
+    /**
+        Drop the references to the reader and parse strategy of the last parse.
+        <p>
+        This is called at the end of each parse, so that a reused parser does not keep them reachable.
+    */
+    protected final void releaseReader() {
+        reader = null;
+        parsingStrategy = null;
+    }
+
+    /**
+        Set the sink for the fields that this parser reads.
+
+        @param sink the field sink (the default is ModelFieldSink, which builds the model).
+    */
+    final void setFieldSink(final NitfFieldSink sink) {
+        fieldSink = sink;
+    }
+
+    /**
+        Return the sink for the fields that this parser reads.
+
+        @return the field sink.
+    */
+    protected final NitfFieldSink getFieldSink() {
+        return fieldSink;
+    }
+
+    /**
+        Check whether this parser builds the model, or only walks over the fields (see NitfFieldSink).
+
+        @return true if the model is being built.
+    */
+    protected final boolean isBuildingModel() {
+        return fieldSink.isBuildingModel();
+    }
+
+    /**
+        Mark the start of a field at the current offset.
+        <p>
+        Each read of a field should be preceded by a mark, because the field runs up to the next mark.
+
+        @param fieldId the field name from MIL-STD-2500C (e.g. "FTITLE").
+        @throws ParseException if the previous field could not be handled.
+    */
+    protected final void field(final String fieldId) throws ParseException {
+        fieldSink.field(fieldId, reader.getCurrentOffset());
+    }
+
+    /**
+        Mark the start of a field at a specific offset.
+        <p>
+        This is for fields that are read together with the previous field.
+
+        @param fieldId the field name from MIL-STD-2500C.
+        @param offset the offset of the field in the file.
+        @throws ParseException if the previous field could not be handled.
+    */
+    protected final void field(final String fieldId, final long offset) throws ParseException {
+        fieldSink.field(fieldId, offset);
+    }
+
+    /**
+        Mark the start of a field that is only needed for the model.
+        <p>
+        If the model is not being built, the field is skipped.
+
+        @param fieldId the field name from MIL-STD-2500C.
+        @param length the length of the field.
+        @return true if the field should be read into the model, false if it has been skipped.
+        @throws ParseException if the previous field could not be handled, or the field could not be skipped.
+    */
+    protected final boolean decodeField(final String fieldId, final int length) throws ParseException {
+        field(fieldId);
+        if (fieldSink.isBuildingModel()) {
+            return true;
+        }
+        reader.skip(length);
+        return false;
+    }
+
+    /**
+        Mark the end of the last field at the current offset.
+
+        @throws ParseException if the last field could not be handled.
+    */
+    protected final void endFields() throws ParseException {
+        fieldSink.endField(reader.getCurrentOffset());
+    }
+
+    /**
+        Read the security metadata for a segment.
+        <p>
+        If the model is not being built, the security fields are only marked, and the segment is not used.
+
+        @param segment the segment to set the security metadata on.
+        @throws ParseException if the security metadata could not be read.
+    */
+    protected final void readNitfSecurityMetadata(final AbstractCommonNitfSegment segment) throws ParseException {
+        if (securityMetadataParser == null) {
+            securityMetadataParser = new NitfSecurityMetadataParser();
+        }
+        if (fieldSink.isBuildingModel()) {
+            segment.setSecurityMetadata(securityMetadataParser.parseShared(reader, SecurityMetadataPool.forStrategy(parsingStrategy)));
+        } else {
+            securityMetadataParser.setFieldSink(fieldSink);
+            securityMetadataParser.parse(reader, null);
+        }
+    }
+
+    /**
+        Read TREs, and add them to a segment.
+        <p>
+        The TREs are parsed by the parse strategy. If the model is not being built, the segment is not used.
+
+        @param segment the segment to add the TREs to.
+        @param length the length of the TREs.
+        @throws ParseException if the TREs could not be read.
+    */
+    protected final void readTREs(final AbstractNitfSegment segment, final int length) throws ParseException {
+        TreCollection tres = parsingStrategy.parseTREs(reader, length);
+        if (fieldSink.isBuildingModel()) {
+            segment.mergeTREs(tres);
+        }
+    }
+
+    /**
+        Read a coded field into the code buffer, without converting it to a String.
+        <p>
+        The field is left as it is in the file, for exact lookup with the getEnumValue(byte[], int, int)
+        methods of the code enumerations.
+
+        @param count the length of the field.
+        @return the length of the code, which starts at the beginning of the code buffer.
+        @throws ParseException if the field could not be read.
+    */
+    protected final int readCode(final int count) throws ParseException {
+        if ((codeBuffer == null) || (codeBuffer.length < count)) {
+            codeBuffer = new byte[Math.max(count, MIN_CODE_BUFFER_LENGTH)];
+        }
+        reader.readBytesRaw(codeBuffer, 0, count);
+        return count;
+    }
+
+    /**
+        Read a coded field into the code buffer, and trim whitespace from the right hand end.
+        <p>
+        This is the raw bytes equivalent of NitfReader.readTrimmedBytes().
+
+        @param count the length of the field.
+        @return the length of the trimmed code, which starts at the beginning of the code buffer.
+        @throws ParseException if the field could not be read.
+    */
+    protected final int readTrimmedCode(final int count) throws ParseException {
+        int length = readCode(count);
+        while ((length > 0) && (codeBuffer[length - 1] >= 0) && Character.isWhitespace((char) codeBuffer[length - 1])) {
+            length--;
+        }
+        return length;
+    }
+
+    /**
+        Return the buffer holding the last code read by readCode() or readTrimmedCode().
+
+        @return the code buffer.
+    */
+    protected final byte[] getCodeBuffer() {
+        return codeBuffer;
+    }
+
     protected final void readENCRYP() throws ParseException {
+        field("ENCRYP");
         if (!"0".equals(reader.readBytes(NitfConstants.ENCRYP_LENGTH))) {
             LOG.warn("Mismatch while reading ENCRYP");
             throw new ParseException("Unexpected ENCRYP value", (int) reader.getCurrentOffset());
@@ -53,11 +240,15 @@ abstract class AbstractNitfSegmentParser {
 
         switch (reader.getFileType()) {
             case NITF_TWO_ZERO:
-                parseNitf20Date(sourceString, dateTime);
+                if (!NitfDateTimeParser.parseNitf20(sourceString, dateTime)) {
+                    parseNitf20Date(sourceString, dateTime);
+                }
                 break;
             case NITF_TWO_ONE:
             case NSIF_ONE_ZERO:
-                parseNitf21Date(sourceString, dateTime);
+                if (!NitfDateTimeParser.parseNitf21(sourceString, dateTime)) {
+                    parseNitf21Date(sourceString, dateTime);
+                }
                 break;
             case UNKNOWN:
             default:
@@ -68,11 +259,13 @@ abstract class AbstractNitfSegmentParser {
         return dateTime;
     }
 
+    // The SimpleDateFormat based parsing is only used for values that NitfDateTimeParser does not handle
+    // (e.g. out of range fields, which SimpleDateFormat rolls over), so the lenient behaviour is unchanged.
     private void parseNitf20Date(final String sourceString, final NitfDateTime dateTime) throws ParseException {
         String strippedSourceString = sourceString.trim();
         SimpleDateFormat dateFormat = null;
         if (strippedSourceString.length() == NitfConstants.STANDARD_DATE_TIME_LENGTH) {
-            dateFormat = new SimpleDateFormat(NitfConstants.NITF20_DATE_FORMAT);
+            dateFormat = getDateFormat(NitfConstants.NITF20_DATE_FORMAT);
         } else if (strippedSourceString.length() == 0) {
             return;
         }
@@ -84,13 +277,26 @@ abstract class AbstractNitfSegmentParser {
 
         SimpleDateFormat dateFormat = null;
         if (strippedSourceString.length() == NitfConstants.STANDARD_DATE_TIME_LENGTH) {
-            dateFormat = new SimpleDateFormat(NitfConstants.NITF21_DATE_FORMAT);
+            dateFormat = getDateFormat(NitfConstants.NITF21_DATE_FORMAT);
         } else if ((strippedSourceString.length() < NitfConstants.STANDARD_DATE_TIME_LENGTH) && (strippedSourceString.length() % 2 == 0)) {
-            dateFormat = new SimpleDateFormat(NitfConstants.NITF21_DATE_FORMAT.substring(0, strippedSourceString.length()));
+            dateFormat = getDateFormat(NitfConstants.NITF21_DATE_FORMAT.substring(0, strippedSourceString.length()));
         }
         parseDateString(sourceString, dateFormat, dateTime);
     }
 
+    private SimpleDateFormat getDateFormat(final String pattern) {
+        if (dateFormats == null) {
+            dateFormats = new HashMap<>();
+        }
+        SimpleDateFormat dateFormat = dateFormats.get(pattern);
+        if (dateFormat == null) {
+            dateFormat = new SimpleDateFormat(pattern);
+            dateFormat.setTimeZone(UTC);
+            dateFormats.put(pattern, dateFormat);
+        }
+        return dateFormat;
+    }
+
     public static String removeHyphens(final String s) {
         int i = s.length() - 1;
         while ((i >= 0) && (s.charAt(i) == '-')) {
@@ -101,14 +307,14 @@ abstract class AbstractNitfSegmentParser {
 
     private void parseDateString(final String sourceString, final SimpleDateFormat dateFormat, final NitfDateTime dateTime) throws ParseException {
         if (dateFormat != null) {
-            dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
             Date date = dateFormat.parse(sourceString);
             if (date == null) {
                 throw new ParseException(String.format("Bad DATETIME format: %s", sourceString), (int) reader.getCurrentOffset());
             }
-            Calendar calendar = Calendar.getInstance();
+            if (calendar == null) {
+                calendar = Calendar.getInstance(UTC);
+            }
             calendar.clear();
-            calendar.setTimeZone(TimeZone.getTimeZone("UTC"));
             calendar.setTime(date);
             dateTime.set(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH),
                         calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), calendar.get(Calendar.SECOND));
@@ -21,6 +21,8 @@ package org.codice.imaging.nitf.core;
 */
 public abstract class AbstractNitfSubSegment extends AbstractCommonNitfSegment {
 
+    private static final long serialVersionUID = 1L;
+
     private int extendedHeaderDataOverflow = 0;
     private int segmentAttachmentLevel = 0;
 
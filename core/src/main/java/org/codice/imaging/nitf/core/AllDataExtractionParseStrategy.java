@@ -18,6 +18,9 @@ import java.text.ParseException;
 
 /**
  * Parse strategy that extracts all the segments' data.
+ *
+ * The data is copied into memory. To pass segment data to a decoder without copying it, use
+ * getSegmentDataView() with a seekable reader, which works with any strategy.
  */
 public class AllDataExtractionParseStrategy extends SlottedNitfParseStrategy {
 
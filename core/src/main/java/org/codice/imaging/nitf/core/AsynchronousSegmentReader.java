@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    Asynchronous access to the segment data in a NITF file.
+    <p>
+    This is intended for services that read many ranges (e.g. image blocks) from a file, and do not want
+    to block a thread for each read. The file is parsed first, with any SlottedNitfParseStrategy (usually
+    HeaderOnlyNitfParseStrategy), and the segment offsets and image headers from that parse are used to
+    locate the data. The reads are performed with an AsynchronousFileChannel, so many reads can be in
+    flight at once, on a small thread pool.
+    <p>
+    Each read can either return a Future, or call a CompletionHandler when the read is complete. The
+    completion handler is called on a thread belonging to the channel.
+*/
+public class AsynchronousSegmentReader implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsynchronousSegmentReader.class);
+
+    private static final int BITS_PER_BYTE = 8;
+
+    private final AsynchronousFileChannel channel;
+    private final SlottedNitfParseStrategy parsedFile;
+
+    /**
+        Constructor, using the default thread pool for the channel.
+
+        @param file the NITF file to read from.
+        @param parseStrategy the strategy that was used to parse the file.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public AsynchronousSegmentReader(final File file, final SlottedNitfParseStrategy parseStrategy) throws ParseException {
+        this(file, parseStrategy, null);
+    }
+
+    /**
+        Constructor, using a specific thread pool for the channel.
+
+        @param file the NITF file to read from.
+        @param parseStrategy the strategy that was used to parse the file.
+        @param executor the thread pool to handle I/O events and completion handlers, or null for the default pool.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public AsynchronousSegmentReader(final File file, final SlottedNitfParseStrategy parseStrategy, final ExecutorService executor)
+            throws ParseException {
+        parsedFile = parseStrategy;
+        try {
+            Set<OpenOption> options = Collections.<OpenOption>singleton(StandardOpenOption.READ);
+            channel = AsynchronousFileChannel.open(file.toPath(), options, executor);
+        } catch (NoSuchFileException ex) {
+            LOG.warn(NitfConstants.FILE_NOT_FOUND_EXCEPTION_MESSAGE + file.getPath(), ex);
+            throw new ParseException(file.getPath() + NitfConstants.NOT_FOUND_MESSAGE_JOINER + ex.getMessage(), 0);
+        } catch (IOException ex) {
+            LOG.warn("IO Exception opening asynchronous file channel", ex);
+            throw new ParseException("Unable to open " + file.getPath() + ": " + ex.getMessage(), 0);
+        }
+    }
+
+    /**
+        Read a range of the file.
+
+        @param offset the absolute offset into the file to start reading from.
+        @param length the number of bytes to read.
+        @return future for a buffer containing the requested bytes, positioned at zero.
+    */
+    public final Future<ByteBuffer> readRange(final long offset, final int length) {
+        return readRange(offset, length, null, null);
+    }
+
+    /**
+        Read a range of the file, calling a completion handler when the read completes.
+
+        @param <A> the type of the attachment
+        @param offset the absolute offset into the file to start reading from.
+        @param length the number of bytes to read.
+        @param attachment the object to pass to the completion handler, may be null.
+        @param handler the handler to call when the read completes or fails, may be null.
+        @return future for a buffer containing the requested bytes, positioned at zero.
+    */
+    public final <A> Future<ByteBuffer> readRange(final long offset, final int length, final A attachment,
+            final CompletionHandler<ByteBuffer, ? super A> handler) {
+        return new RangeReadFuture<>(channel, length, attachment, handler).start(new long[] {offset}, new int[] {length});
+    }
+
+    /**
+        Read all the data for a segment.
+
+        @param segmentType the type of segment.
+        @param index the index (zero base) of the segment within its type.
+        @return future for a buffer containing the segment data, positioned at zero.
+        @throws ParseException if the segment does not exist, or the data is too large for a single buffer.
+    */
+    public final Future<ByteBuffer> readSegmentData(final SegmentType segmentType, final int index) throws ParseException {
+        return readSegmentData(segmentType, index, null, null);
+    }
+
+    private <A> Future<ByteBuffer> readSegmentData(final SegmentType segmentType, final int index, final A attachment,
+            final CompletionHandler<ByteBuffer, ? super A> handler) throws ParseException {
+        long offset = parsedFile.getSegmentDataOffset(segmentType, index);
+        long length = parsedFile.getSegmentDataLength(segmentType, index);
+        if (length > Integer.MAX_VALUE) {
+            throw new ParseException(String.format("%s segment %d is too large for a single buffer", segmentType, index), 0);
+        }
+        return readRange(offset, (int) length, attachment, handler);
+    }
+
+    /**
+        Read a block of an uncompressed image.
+        <p>
+        The returned buffer holds the block in the same layout as the file. For band sequential images
+        (IMODE of S), the block is stored separately for each band, and the bands are concatenated in order.
+
+        @param segment the index (zero base) of the image segment.
+        @param blockRow the row (zero base) of the block.
+        @param blockColumn the column (zero base) of the block.
+        @return future for a buffer containing the block, positioned at zero.
+        @throws ParseException if the segment or block does not exist, or the image is compressed or masked.
+    */
+    public final Future<ByteBuffer> fetchImageBlock(final int segment, final int blockRow, final int blockColumn) throws ParseException {
+        return fetchImageBlock(segment, blockRow, blockColumn, null, null);
+    }
+
+    /**
+        Read a block of an uncompressed image, calling a completion handler when the read completes.
+        <p>
+        See fetchImageBlock(int, int, int) for the block layout.
+
+        @param <A> the type of the attachment
+        @param segment the index (zero base) of the image segment.
+        @param blockRow the row (zero base) of the block.
+        @param blockColumn the column (zero base) of the block.
+        @param attachment the object to pass to the completion handler, may be null.
+        @param handler the handler to call when the read completes or fails, may be null.
+        @return future for a buffer containing the block, positioned at zero.
+        @throws ParseException if the segment or block does not exist, or the image is compressed or masked.
+    */
+    public final <A> Future<ByteBuffer> fetchImageBlock(final int segment, final int blockRow, final int blockColumn,
+            final A attachment, final CompletionHandler<ByteBuffer, ? super A> handler) throws ParseException {
+        long dataOffset = parsedFile.getSegmentDataOffset(SegmentType.IMAGE, segment);
+        NitfImageSegmentHeader header = parsedFile.getImageSegmentHeaders().get(segment);
+        if (header.getImageCompression() != ImageCompression.NOTCOMPRESSED) {
+            throw new ParseException("Block access requires an uncompressed image without a mask, got " + header.getImageCompression(), 0);
+        }
+        if ((blockRow < 0) || (blockRow >= header.getNumberOfBlocksPerColumn())
+                || (blockColumn < 0) || (blockColumn >= header.getNumberOfBlocksPerRow())) {
+            throw new ParseException(String.format("No block at row %d, column %d in image segment %d", blockRow, blockColumn, segment), 0);
+        }
+        long numBlocks = (long) header.getNumberOfBlocksPerRow() * header.getNumberOfBlocksPerColumn();
+        if (numBlocks == 1) {
+            // A single block may have padding bits at the end, so just use all the data.
+            return readSegmentData(SegmentType.IMAGE, segment, attachment, handler);
+        }
+        long blockIndex = (long) blockRow * header.getNumberOfBlocksPerRow() + blockColumn;
+        long bitsPerBandBlock = (long) header.getNumberOfPixelsPerBlockHorizontal() * header.getNumberOfPixelsPerBlockVertical()
+                * header.getNumberOfBitsPerPixelPerBand();
+        if (bitsPerBandBlock % BITS_PER_BYTE != 0) {
+            throw new ParseException("Block access requires blocks that are a whole number of bytes", 0);
+        }
+        long bytesPerBandBlock = bitsPerBandBlock / BITS_PER_BYTE;
+        int numBands = header.getNumBands();
+        int bytesPerBlock = checkBlockLength(bytesPerBandBlock * numBands, segment);
+        if (header.getImageMode() != ImageMode.BANDSEQUENTIAL) {
+            long blockOffset = dataOffset + blockIndex * bytesPerBlock;
+            return new RangeReadFuture<>(channel, bytesPerBlock, attachment, handler)
+                    .start(new long[] {blockOffset}, new int[] {bytesPerBlock});
+        }
+        long[] offsets = new long[numBands];
+        int[] lengths = new int[numBands];
+        for (int band = 0; band < numBands; ++band) {
+            offsets[band] = dataOffset + (band * numBlocks + blockIndex) * bytesPerBandBlock;
+            lengths[band] = (int) bytesPerBandBlock;
+        }
+        return new RangeReadFuture<>(channel, bytesPerBlock, attachment, handler).start(offsets, lengths);
+    }
+
+    private static int checkBlockLength(final long length, final int segment) throws ParseException {
+        if (length > Integer.MAX_VALUE) {
+            throw new ParseException(String.format("Blocks in image segment %d are too large for a single buffer", segment), 0);
+        }
+        return (int) length;
+    }
+
+    /**
+        Close the channel.
+        <p>
+        Reads that are still in progress will fail.
+
+        @throws IOException if closing the channel fails.
+    */
+    @Override
+    public final void close() throws IOException {
+        channel.close();
+    }
+}
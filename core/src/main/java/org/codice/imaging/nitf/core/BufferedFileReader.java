@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.text.ParseException;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    NitfReader implementation using a (random access) File, with a read-ahead buffer.
+    <p>
+    The buffer is filled lazily, one block at a time, so reading the many short header fields
+    only costs a system call per block. Skips and seeks just move the read position, and only
+    cause a read if the new position is outside the buffered block.
+*/
+public class BufferedFileReader extends PositionalReader implements NitfReader {
+
+    /**
+        The default size of the read-ahead buffer, in bytes.
+    */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(BufferedFileReader.class);
+
+    private RandomAccessFile nitfFile = null;
+    private long fileLength = 0;
+
+    /**
+        Constructor for File, using the default buffer size.
+
+        @param file the File to read the NITF file contents from.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public BufferedFileReader(final File file) throws ParseException {
+        this(file, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+        Constructor for string file name, using the default buffer size.
+
+        @param filename the name of the file to read the NITF file contents from.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public BufferedFileReader(final String filename) throws ParseException {
+        this(new File(filename), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+        Constructor for File, with a specific buffer size.
+
+        @param file the File to read the NITF file contents from.
+        @param bufferSize the size of the read-ahead buffer, in bytes.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public BufferedFileReader(final File file, final int bufferSize) throws ParseException {
+        super(bufferSize);
+        try {
+            nitfFile = new RandomAccessFile(file, NitfConstants.READ_MODE);
+            fileLength = nitfFile.length();
+        } catch (FileNotFoundException ex) {
+            LOG.warn(NitfConstants.FILE_NOT_FOUND_EXCEPTION_MESSAGE + file.getPath(), ex);
+            throw new ParseException(file.getPath() + NitfConstants.NOT_FOUND_MESSAGE_JOINER + ex.getMessage(), 0);
+        } catch (IOException ex) {
+            LOG.warn("IO Exception getting file length", ex);
+            throw new ParseException("Unable to get file length: " + ex.getMessage(), 0);
+        }
+    }
+
+    @Override
+    protected final int readAt(final long offset, final byte[] destination, final int destinationOffset, final int count)
+            throws IOException {
+        nitfFile.seek(offset);
+        return nitfFile.read(destination, destinationOffset, count);
+    }
+
+    @Override
+    protected final long getFileLength() {
+        return fileLength;
+    }
+
+    @Override
+    public final ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        return defaultMapDataView(nitfFile.getChannel(), absoluteOffset, length);
+    }
+
+    /**
+     * Get an input stream at a specified point in the file.
+     *
+     * @param offset the point in the file the input stream should read from
+     * @return input stream for the specified content
+     * @throws ParseException if creating the input stream fails.
+     */
+    public final InputStream getInputStreamAt(final long offset) throws ParseException {
+        try {
+            return Channels.newInputStream(nitfFile.getChannel().position(offset));
+        } catch (IOException ex) {
+            throw new ParseException("IOException while getting input stream: " + ex, (int) offset);
+        }
+    }
+
+    /**
+     * Get an image input stream at a specified point in the file.
+     *
+     * @param offset the point in the file the image input stream should read from
+     * @return image input stream for the specified content
+     * @throws ParseException if creating the image input stream fails.
+     */
+    public final ImageInputStream getImageInputStreamAt(final long offset) throws ParseException {
+        try {
+            ImageInputStream iis = new FileImageInputStream(nitfFile);
+            iis.seek(offset);
+            return iis;
+        } catch (IOException ex) {
+            LOG.warn("IO Exception creating image input stream", ex);
+            throw new ParseException("Error seeking while creating image input stream: " + ex, (int) offset);
+        }
+    }
+}
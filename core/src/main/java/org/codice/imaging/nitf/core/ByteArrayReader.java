@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+    NitfReader implementation over part of a NITF file that is already in memory.
+    <p>
+    Offsets are reported relative to the start of the original file, so a block of bytes that was
+    read in one go (e.g. a segment subheader) can be parsed exactly as if it was read from the file.
+*/
+final class ByteArrayReader extends SharedReader implements NitfReader {
+
+    private byte[] data;
+    private final long baseOffset;
+    private final NitfReader continuation;
+    private int position = 0;
+
+    /**
+        Constructor.
+
+        @param bytes the bytes to read. These are not copied, and must not be changed while they are being read.
+        @param offset the offset in the original file of the first byte.
+    */
+    ByteArrayReader(final byte[] bytes, final long offset) {
+        this(bytes, offset, null);
+    }
+
+    /**
+        Constructor, for bytes that continue in another reader.
+        <p>
+        Reads past the end of the bytes are satisfied by reading just the missing bytes from the continuation
+        reader, which must be positioned straight after the bytes. This is used for a file header that turns
+        out to be longer than expected.
+
+        @param bytes the bytes to read. These are not copied, and must not be changed while they are being read.
+        @param offset the offset in the original file of the first byte.
+        @param continuationReader the reader to read any further bytes from, or null if there are none.
+    */
+    ByteArrayReader(final byte[] bytes, final long offset, final NitfReader continuationReader) {
+        data = bytes;
+        baseOffset = offset;
+        continuation = continuationReader;
+    }
+
+    @Override
+    public Boolean canSeek() {
+        return true;
+    }
+
+    @Override
+    public long getCurrentOffset() {
+        return baseOffset + position;
+    }
+
+    @Override
+    public long available() {
+        return data.length - position;
+    }
+
+    @Override
+    public void seekToEndOfFile() throws ParseException {
+        position = data.length;
+    }
+
+    @Override
+    public void seekBackwards(final long relativeOffset) throws ParseException {
+        seekToAbsoluteOffset(getCurrentOffset() - relativeOffset);
+    }
+
+    @Override
+    public void seekToAbsoluteOffset(final long absoluteOffset) throws ParseException {
+        if ((absoluteOffset < baseOffset) || (absoluteOffset > baseOffset + data.length)) {
+            throw new ParseException("Unable to seek to absolute offset: " + absoluteOffset, (int) getCurrentOffset());
+        }
+        position = (int) (absoluteOffset - baseOffset);
+    }
+
+    @Override
+    public byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
+        checkAvailable(count);
+        System.arraycopy(data, position, destination, offset, count);
+        position += count;
+    }
+
+    @Override
+    public ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        checkDataViewRange(absoluteOffset - baseOffset, length, data.length);
+        return ByteBuffer.wrap(data, (int) (absoluteOffset - baseOffset), (int) length).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public void skip(final long count) throws ParseException {
+        checkAvailable(count);
+        position += count;
+    }
+
+    private void checkAvailable(final long count) throws ParseException {
+        if ((continuation != null) && (count >= 0) && (position + count > data.length) && (position + count <= Integer.MAX_VALUE)) {
+            int length = data.length;
+            data = Arrays.copyOf(data, (int) (position + count));
+            continuation.readBytesRaw(data, length, data.length - length);
+        }
+        if ((count < 0) || (position + count > data.length)) {
+            throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + "end of data", (int) getCurrentOffset());
+        }
+    }
+}
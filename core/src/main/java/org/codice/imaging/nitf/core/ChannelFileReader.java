@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    NitfReader implementation using positional reads on a FileChannel.
+    <p>
+    Every read states its own file position, so the reader never depends on, or changes, the position
+    of the underlying channel. That allows several cursors (see newCursor()) to share one open channel,
+    with each cursor holding its own position and read-ahead buffer. A single cursor is not thread safe,
+    but different threads can each use their own cursor over the same file at the same time, for example
+    to decode different image segments in parallel.
+    <p>
+    Input streams and image input streams returned by this reader also use positional reads, and have their
+    own position, independent of the reader and of each other.
+    <p>
+    Closing the reader closes the channel, so it also closes every cursor over the file.
+*/
+public class ChannelFileReader extends PositionalReader implements NitfReader, Closeable {
+
+    /**
+        The default size of the read-ahead buffer, in bytes.
+    */
+    public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChannelFileReader.class);
+
+    private static final int BYTE_MASK = 0xFF;
+
+    private final FileChannel channel;
+    private final long fileLength;
+
+    /**
+        Constructor for File, using the default buffer size.
+
+        @param file the File to read the NITF file contents from.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public ChannelFileReader(final File file) throws ParseException {
+        this(file, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+        Constructor for string file name, using the default buffer size.
+
+        @param filename the name of the file to read the NITF file contents from.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public ChannelFileReader(final String filename) throws ParseException {
+        this(new File(filename), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+        Constructor for File, with a specific buffer size.
+
+        @param file the File to read the NITF file contents from.
+        @param bufferSize the size of the read-ahead buffer for this reader and its cursors, in bytes.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public ChannelFileReader(final File file, final int bufferSize) throws ParseException {
+        super(bufferSize);
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            fileLength = channel.size();
+        } catch (NoSuchFileException ex) {
+            LOG.warn(NitfConstants.FILE_NOT_FOUND_EXCEPTION_MESSAGE + file.getPath(), ex);
+            throw new ParseException(file.getPath() + NitfConstants.NOT_FOUND_MESSAGE_JOINER + ex.getMessage(), 0);
+        } catch (IOException ex) {
+            LOG.warn("IO Exception opening file channel", ex);
+            throw new ParseException("Unable to open " + file.getPath() + ": " + ex.getMessage(), 0);
+        }
+    }
+
+    private ChannelFileReader(final ChannelFileReader parent, final long offset) throws ParseException {
+        super(parent.getBufferSize());
+        channel = parent.channel;
+        fileLength = parent.fileLength;
+        setFileType(parent.getFileType());
+        seekToAbsoluteOffset(offset);
+    }
+
+    /**
+        Create a new cursor over the same file.
+        <p>
+        The cursor shares the open channel, but has its own position (starting at the beginning of
+        the file) and its own read-ahead buffer. It also starts with the file type of this reader.
+        Creating a cursor does not open the file again, or perform any reads.
+
+        @return new reader for the same file.
+        @throws ParseException if the cursor could not be created.
+    */
+    public final ChannelFileReader newCursor() throws ParseException {
+        return newCursor(0);
+    }
+
+    /**
+        Create a new cursor over the same file, at a specified point in the file.
+        <p>
+        See newCursor() for details.
+
+        @param offset the absolute offset into the file where the cursor should be positioned.
+        @return new reader for the same file.
+        @throws ParseException if the offset is outside the file.
+    */
+    public final ChannelFileReader newCursor(final long offset) throws ParseException {
+        return new ChannelFileReader(this, offset);
+    }
+
+    /**
+        Close the file channel.
+        <p>
+        This closes the file for this reader and for all cursors created from it.
+
+        @throws IOException if closing the channel fails.
+    */
+    @Override
+    public final void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    protected final int readAt(final long offset, final byte[] destination, final int destinationOffset, final int count)
+            throws IOException {
+        return channel.read(ByteBuffer.wrap(destination, destinationOffset, count), offset);
+    }
+
+    @Override
+    protected final long getFileLength() {
+        return fileLength;
+    }
+
+    @Override
+    public final ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        return defaultMapDataView(channel, absoluteOffset, length);
+    }
+
+    /**
+     * Get an input stream at a specified point in the file.
+     * <p>
+     * The stream uses positional reads, and has its own position, independent of the reader.
+     *
+     * @param offset the point in the file the input stream should read from
+     * @return input stream for the specified content
+     * @throws ParseException if the offset is outside the file.
+     */
+    public final InputStream getInputStreamAt(final long offset) throws ParseException {
+        if ((offset < 0) || (offset > fileLength)) {
+            throw new ParseException("Invalid offset for input stream: " + offset, (int) getCurrentOffset());
+        }
+        return new ChannelInputStream(offset);
+    }
+
+    /**
+     * Get an image input stream at a specified point in the file.
+     * <p>
+     * The stream uses positional reads, and has its own position, independent of the reader.
+     *
+     * @param offset the point in the file the image input stream should read from
+     * @return image input stream for the specified content
+     * @throws ParseException if creating the image input stream fails.
+     */
+    public final ImageInputStream getImageInputStreamAt(final long offset) throws ParseException {
+        try {
+            ImageInputStream iis = new ChannelImageInputStream();
+            iis.seek(offset);
+            return iis;
+        } catch (IOException ex) {
+            LOG.warn("IO Exception seeking channel image input stream", ex);
+            throw new ParseException("Error seeking while creating image input stream: " + ex, (int) offset);
+        }
+    }
+
+    private int readFromChannel(final long offset, final byte[] destination, final int destinationOffset, final int count)
+            throws IOException {
+        if (offset >= fileLength) {
+            return -1;
+        }
+        int thisRead = (int) Math.min(count, fileLength - offset);
+        return channel.read(ByteBuffer.wrap(destination, destinationOffset, thisRead), offset);
+    }
+
+    private final class ChannelInputStream extends InputStream {
+        private long streamPosition;
+        private long markPosition;
+        private final byte[] singleByte = new byte[1];
+
+        private ChannelInputStream(final long offset) {
+            streamPosition = offset;
+            markPosition = offset;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (read(singleByte, 0, 1) <= 0) {
+                return -1;
+            }
+            return singleByte[0] & BYTE_MASK;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int thisRead = readFromChannel(streamPosition, b, off, len);
+            if (thisRead > 0) {
+                streamPosition += thisRead;
+            }
+            return thisRead;
+        }
+
+        @Override
+        public long skip(final long n) {
+            long count = Math.max(0, Math.min(n, fileLength - streamPosition));
+            streamPosition += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, fileLength - streamPosition));
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(final int readlimit) {
+            markPosition = streamPosition;
+        }
+
+        @Override
+        public synchronized void reset() {
+            streamPosition = markPosition;
+        }
+    }
+
+    private final class ChannelImageInputStream extends ImageInputStreamImpl {
+        private final byte[] singleByte = new byte[1];
+
+        @Override
+        public int read() throws IOException {
+            if (read(singleByte, 0, 1) <= 0) {
+                return -1;
+            }
+            return singleByte[0] & BYTE_MASK;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (len == 0) {
+                return 0;
+            }
+            int thisRead = readFromChannel(streamPos, b, off, len);
+            if (thisRead > 0) {
+                streamPos += thisRead;
+            }
+            return thisRead;
+        }
+
+        @Override
+        public long length() {
+            return fileLength;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+    Lookup table from the text codes used in NITF fields to enumerated values.
+    <p>
+    This is an open addressing hash table over the code characters, so a lookup takes constant time,
+    and can be done directly from the raw bytes of a field, without creating a String. Codes are matched
+    exactly (including any spaces), as String.equals() would. Codes are expected to be ASCII.
+    <p>
+    The code enumerations (FileType, ImageCompression, etc) each have a package-private
+    getEnumValue(byte[], int, int) over one of these tables, so the subheader parsers can decode coded
+    fields without creating a String for each field.
+    <p>
+    The table is filled in when the enumeration is initialised, and is only read after that, so it can be
+    shared between threads.
+
+    @param <E> the enumerated type.
+*/
+final class CodeLookupTable<E> {
+
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final int BYTE_MASK = 0xFF;
+
+    private final byte[][] codes;
+    private final Object[] values;
+    private final int mask;
+    private final E defaultValue;
+
+    /**
+        Constructor.
+
+        @param capacity the maximum number of codes that will be added.
+        @param notFoundValue the value to return for codes that are not in the table.
+    */
+    CodeLookupTable(final int capacity, final E notFoundValue) {
+        int size = 2;
+        while (size < capacity * 2) {
+            size *= 2;
+        }
+        codes = new byte[size][];
+        values = new Object[size];
+        mask = size - 1;
+        defaultValue = notFoundValue;
+    }
+
+    /**
+        Add a code to the table.
+        <p>
+        If the code is already in the table, the existing value is kept, so that the first value added for a
+        code wins (as for a linear search of the values in declaration order).
+
+        @param code the code, or null if the value has no code.
+        @param value the value for the code.
+    */
+    void add(final String code, final E value) {
+        if (code == null) {
+            return;
+        }
+        byte[] codeBytes = code.getBytes(StandardCharsets.US_ASCII);
+        int index = hash(codeBytes, 0, codeBytes.length) & mask;
+        while (codes[index] != null) {
+            if (matches(codes[index], codeBytes, 0, codeBytes.length)) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        codes[index] = codeBytes;
+        values[index] = value;
+    }
+
+    /**
+        Look up a code.
+
+        @param code the code.
+        @return the value for the code, or the not found value if the code is not in the table.
+    */
+    @SuppressWarnings("unchecked")
+    E get(final CharSequence code) {
+        int hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < code.length(); ++i) {
+            hash = (hash ^ (code.charAt(i) & BYTE_MASK)) * FNV_PRIME;
+        }
+        int index = hash & mask;
+        while (codes[index] != null) {
+            if (matches(codes[index], code)) {
+                return (E) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    /**
+        Look up a code from raw bytes.
+
+        @param bytes the array holding the code.
+        @param offset the offset of the code in the array.
+        @param length the length of the code.
+        @return the value for the code, or the not found value if the code is not in the table.
+    */
+    @SuppressWarnings("unchecked")
+    E get(final byte[] bytes, final int offset, final int length) {
+        int index = hash(bytes, offset, length) & mask;
+        while (codes[index] != null) {
+            if (matches(codes[index], bytes, offset, length)) {
+                return (E) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    private static int hash(final byte[] bytes, final int offset, final int length) {
+        int hash = FNV_OFFSET_BASIS;
+        for (int i = offset; i < offset + length; ++i) {
+            hash = (hash ^ (bytes[i] & BYTE_MASK)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static boolean matches(final byte[] code, final byte[] bytes, final int offset, final int length) {
+        if (code.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (code[i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(final byte[] code, final CharSequence value) {
+        if (code.length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < code.length; ++i) {
+            if (code[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+/**
+    Consumer for the results of a CorpusScanner scan.
+    <p>
+    Results are delivered on the thread that called CorpusScanner.scan(), one at a time, so implementations
+    do not need to be thread safe. Results are delivered in the order the parses finish, which is not
+    necessarily the order the files were found in.
+*/
+public interface CorpusScanListener {
+
+    /**
+        Called when a file has been scanned, whether or not the parse succeeded.
+        <p>
+        The scanner does not keep a reference to the result after this returns.
+
+        @param result the result of the scan.
+    */
+    void onResult(CorpusScanResult result);
+}
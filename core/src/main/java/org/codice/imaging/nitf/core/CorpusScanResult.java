@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.File;
+
+/**
+    The result of scanning one file with CorpusScanner.
+    <p>
+    This holds either the parsed headers, or the exception that stopped the parse, along with the time
+    the parse took.
+*/
+public final class CorpusScanResult {
+
+    private final File file;
+    private final SlottedNitfParseStrategy headers;
+    private final Exception exception;
+    private final long parseTimeNanos;
+
+    /**
+        Constructor.
+
+        @param scannedFile the file that was scanned.
+        @param parsedHeaders the parsed headers, or null if the parse failed.
+        @param parseException the exception that stopped the parse, or null if the parse succeeded.
+        @param parseTime the time taken to parse the file, in nanoseconds.
+    */
+    CorpusScanResult(final File scannedFile, final SlottedNitfParseStrategy parsedHeaders, final Exception parseException,
+                     final long parseTime) {
+        file = scannedFile;
+        headers = parsedHeaders;
+        exception = parseException;
+        parseTimeNanos = parseTime;
+    }
+
+    /**
+        Return the file that was scanned.
+
+        @return the scanned file.
+    */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+        Return whether the file was parsed successfully.
+
+        @return true if the headers were parsed, false if the parse failed.
+    */
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    /**
+        Return the parsed file header.
+
+        @return the file header, or null if the parse failed.
+    */
+    public Nitf getNitfHeader() {
+        if (headers == null) {
+            return null;
+        }
+        return headers.getNitfHeader();
+    }
+
+    /**
+        Return the parsed headers.
+        <p>
+        This gives access to the segment subheaders as well as the file header.
+
+        @return the parse strategy holding the headers, or null if the parse failed.
+    */
+    public SlottedNitfParseStrategy getHeaders() {
+        return headers;
+    }
+
+    /**
+        Return the exception that stopped the parse.
+
+        @return the exception, or null if the parse succeeded.
+    */
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+        Return the time taken to parse the file.
+        <p>
+        This covers opening and reading the file, but not the time spent waiting for a worker thread.
+
+        @return the parse time in nanoseconds.
+    */
+    public long getParseTimeNanos() {
+        return parseTimeNanos;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+    Scanner for the headers of a collection (corpus) of NITF files.
+    <p>
+    The scanner walks one or more directory trees on the calling thread, and parses the headers of each
+    file on an executor, so files are parsed concurrently on as many threads as the executor provides.
+    Each result (the headers or the exception, and the parse time) is passed to a CorpusScanListener as
+    soon as it is available, and is not held by the scanner afterwards.
+    <p>
+    Results that are ready are delivered as the walk goes along. The number of files that are being
+    parsed, or have been parsed but not yet delivered, is bounded. When that limit is reached, the walk
+    pauses and waits for results until there is room for another file, so memory use does not depend on
+    the size of the corpus, and a slow listener slows the scan down rather than letting results pile up.
+    <p>
+    The TRE specification is loaded once and shared by the parses of all of the files.
+    <p>
+    Each file is read through a ChannelFileReader that is closed when the parse finishes, so streaming
+    mode files are read by seeking to the streaming file header.
+    <p>
+    Symbolic links found while walking the directory trees are not followed, so a link back up the tree
+    cannot make the walk loop, and a file is not scanned twice through different paths. The roots are
+    always scanned, even if they are links.
+*/
+public class CorpusScanner {
+
+    /**
+        The default number of files that can be in flight at once.
+    */
+    public static final int DEFAULT_MAX_FILES_IN_FLIGHT = 64;
+
+    private final Executor executor;
+    private final int maxFilesInFlight;
+    private FileFilter fileFilter = null;
+    private boolean lazyTREs = false;
+    private boolean shareSecurityMetadata = false;
+    private NitfHeaderCache headerCache = null;
+
+    /**
+        Constructor, using the default limit on files in flight.
+
+        @param parseExecutor the executor to parse the files on.
+    */
+    public CorpusScanner(final Executor parseExecutor) {
+        this(parseExecutor, DEFAULT_MAX_FILES_IN_FLIGHT);
+    }
+
+    /**
+        Constructor, with a specific limit on files in flight.
+
+        @param parseExecutor the executor to parse the files on.
+        @param maxInFlight the maximum number of files that can be queued, being parsed, or waiting for delivery at once.
+    */
+    public CorpusScanner(final Executor parseExecutor, final int maxInFlight) {
+        if (parseExecutor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Files in flight must be positive: " + maxInFlight);
+        }
+        executor = parseExecutor;
+        maxFilesInFlight = maxInFlight;
+    }
+
+    /**
+        Set the filter for the files to scan.
+        <p>
+        The filter is only applied to regular files. Directories (other than links) are always walked. By default, all regular
+        files are scanned.
+
+        @param filter the filter, or null to scan all files.
+    */
+    public final void setFileFilter(final FileFilter filter) {
+        fileFilter = filter;
+    }
+
+    /**
+        Set whether to defer decoding TREs until their entries are used.
+        <p>
+        This is worthwhile when most of the TREs in the corpus are not looked at by the listener. It is off by
+        default.
+
+        @param lazy true to defer decoding of TREs, false to decode them during the parse.
+    */
+    public final void setLazyTREs(final boolean lazy) {
+        lazyTREs = lazy;
+    }
+
+    /**
+        Set whether segments share their security metadata.
+        <p>
+        When this is on, each scan has a SecurityMetadataPool, so all the segments in the scan that have the
+        same security fields share one instance, which cannot be modified. This is worthwhile when the listener
+        keeps the headers. It is off by default.
+
+        @param share true to share security metadata between the segments of a scan, false to not share it.
+    */
+    public final void setShareSecurityMetadata(final boolean share) {
+        shareSecurityMetadata = share;
+    }
+
+    /**
+        Set a cache to get the headers from, instead of parsing every file.
+        <p>
+        Files that are in the cache, and have not changed, are not opened. Files that are not are parsed
+        and added to the cache. TREs are always decoded when the headers come from a cache.
+
+        @param cache the cache, or null to parse every file.
+    */
+    public final void setHeaderCache(final NitfHeaderCache cache) {
+        headerCache = cache;
+    }
+
+    /**
+        Scan files and directory trees.
+        <p>
+        This returns once every file has been scanned and its result has been delivered. The listener is
+        called on the calling thread.
+
+        @param roots the files and directories to scan.
+        @param listener the listener to deliver the results to.
+        @throws InterruptedException if the calling thread is interrupted while waiting for results.
+    */
+    public final void scan(final Iterable<File> roots, final CorpusScanListener listener) throws InterruptedException {
+        Scan scan = new Scan(listener);
+        for (File root : roots) {
+            scan.walkRoot(root);
+        }
+        scan.finish();
+    }
+
+    /**
+        Parse the headers of one file.
+
+        @param file the file to parse.
+        @param securityMetadataPool the pool to share security metadata through, or null to not share it.
+        @return the result of the parse.
+    */
+    final CorpusScanResult parseFile(final File file, final SecurityMetadataPool securityMetadataPool) {
+        long start = System.nanoTime();
+        if (headerCache != null) {
+            try {
+                return new CorpusScanResult(file, headerCache.parse(file), null, System.nanoTime() - start);
+            } catch (ParseException | RuntimeException ex) {
+                return new CorpusScanResult(file, null, ex, System.nanoTime() - start);
+            }
+        }
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        strategy.setLazyTREs(lazyTREs);
+        strategy.setSecurityMetadataPool(securityMetadataPool);
+        try (ChannelFileReader reader = new ChannelFileReader(file)) {
+            NitfFileParser.parse(reader, strategy);
+            return new CorpusScanResult(file, strategy, null, System.nanoTime() - start);
+        } catch (ParseException | IOException | RuntimeException ex) {
+            return new CorpusScanResult(file, null, ex, System.nanoTime() - start);
+        }
+    }
+
+    /**
+        The state of one call to scan().
+    */
+    private final class Scan {
+        private final CorpusScanListener listener;
+        private final Semaphore inFlight = new Semaphore(maxFilesInFlight);
+        private final BlockingQueue<CorpusScanResult> results = new ArrayBlockingQueue<>(maxFilesInFlight);
+        private final SecurityMetadataPool securityMetadataPool;
+
+        Scan(final CorpusScanListener scanListener) {
+            listener = scanListener;
+            if (shareSecurityMetadata) {
+                securityMetadataPool = new SecurityMetadataPool();
+            } else {
+                securityMetadataPool = null;
+            }
+        }
+
+        void walkRoot(final File root) throws InterruptedException {
+            if (root.isDirectory()) {
+                walkChildren(root);
+            } else {
+                scanFile(root);
+            }
+        }
+
+        private void walk(final File file) throws InterruptedException {
+            if (Files.isSymbolicLink(file.toPath())) {
+                return;
+            }
+            if (file.isDirectory()) {
+                walkChildren(file);
+            } else {
+                scanFile(file);
+            }
+        }
+
+        private void walkChildren(final File directory) throws InterruptedException {
+            File[] children = directory.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    deliverCompleted();
+                    walk(child);
+                }
+            }
+        }
+
+        private void scanFile(final File file) throws InterruptedException {
+            if (file.isFile() && ((fileFilter == null) || fileFilter.accept(file))) {
+                submit(file);
+            }
+        }
+
+        void submit(final File file) throws InterruptedException {
+            deliverCompleted();
+            while (!inFlight.tryAcquire()) {
+                deliver(results.take());
+            }
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        CorpusScanResult result = null;
+                        try {
+                            result = parseFile(file, securityMetadataPool);
+                        } finally {
+                            if (result == null) {
+                                result = new CorpusScanResult(file, null, new IllegalStateException("Parse did not complete"), 0);
+                            }
+                            results.add(result);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                inFlight.release();
+                throw ex;
+            }
+        }
+
+        void finish() throws InterruptedException {
+            while (inFlight.availablePermits() < maxFilesInFlight) {
+                deliver(results.take());
+            }
+        }
+
+        private void deliverCompleted() {
+            CorpusScanResult result = results.poll();
+            while (result != null) {
+                deliver(result);
+                result = results.poll();
+            }
+        }
+
+        private void deliver(final CorpusScanResult result) {
+            inFlight.release();
+            listener.onResult(result);
+        }
+    }
+}
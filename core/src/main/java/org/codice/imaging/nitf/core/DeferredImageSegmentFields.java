@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+    The groups of image segment subheader fields that were not decoded during a lazy parse.
+    <p>
+    This holds the raw subheader, and the location of each group (security metadata, image coordinates,
+    image bands and TREs) within it. Each group is decoded when it is first used, and is then no longer
+    deferred. A group that fails to decode stays deferred, so each later use fails in the same way, rather
+    than getting missing data.
+*/
+final class DeferredImageSegmentFields {
+
+    private static final long NOT_DEFERRED = -1;
+
+    private static final String DECODE_ERROR_MESSAGE = "Could not decode deferred image segment %s: %s";
+
+    private final byte[] subheader;
+    private final long subheaderOffset;
+    private final FileType fileType;
+    private final NitfParseStrategy parseStrategy;
+
+    private long securityMetadataOffset = NOT_DEFERRED;
+    private long imageCoordinatesOffset = NOT_DEFERRED;
+    private ImageCoordinatesRepresentation imageCoordinatesRepresentation = ImageCoordinatesRepresentation.UNKNOWN;
+    private long imageBandsOffset = NOT_DEFERRED;
+    private int numberOfImageBands = 0;
+    private long userDefinedTresOffset = NOT_DEFERRED;
+    private int userDefinedTresLength = 0;
+    private long extendedTresOffset = NOT_DEFERRED;
+    private int extendedTresLength = 0;
+
+    /**
+        Constructor.
+
+        @param subheaderBytes the raw subheader.
+        @param offset the offset of the subheader in the file.
+        @param nitfFileType the type of file that the subheader came from.
+        @param strategy the parse strategy, used to decode TREs.
+    */
+    DeferredImageSegmentFields(final byte[] subheaderBytes, final long offset, final FileType nitfFileType, final NitfParseStrategy strategy) {
+        subheader = subheaderBytes;
+        subheaderOffset = offset;
+        fileType = nitfFileType;
+        parseStrategy = strategy;
+    }
+
+    void setSecurityMetadataOffset(final long offset) {
+        securityMetadataOffset = offset;
+    }
+
+    void setImageCoordinatesOffset(final long offset, final ImageCoordinatesRepresentation representation) {
+        imageCoordinatesOffset = offset;
+        imageCoordinatesRepresentation = representation;
+    }
+
+    void setImageBandsOffset(final long offset, final int numberOfBands) {
+        imageBandsOffset = offset;
+        numberOfImageBands = numberOfBands;
+    }
+
+    void setUserDefinedTresOffset(final long offset, final int length) {
+        userDefinedTresOffset = offset;
+        userDefinedTresLength = length;
+    }
+
+    void setExtendedTresOffset(final long offset, final int length) {
+        extendedTresOffset = offset;
+        extendedTresLength = length;
+    }
+
+    boolean hasSecurityMetadata() {
+        return securityMetadataOffset != NOT_DEFERRED;
+    }
+
+    boolean hasImageCoordinates() {
+        return imageCoordinatesOffset != NOT_DEFERRED;
+    }
+
+    boolean hasImageBands() {
+        return imageBandsOffset != NOT_DEFERRED;
+    }
+
+    int getNumberOfImageBands() {
+        return numberOfImageBands;
+    }
+
+    boolean hasTREs() {
+        return (userDefinedTresOffset != NOT_DEFERRED) || (extendedTresOffset != NOT_DEFERRED);
+    }
+
+    /**
+        Check whether any group is still deferred.
+
+        @return true if at least one group has not yet been decoded.
+    */
+    boolean hasDeferredFields() {
+        return hasSecurityMetadata() || hasImageCoordinates() || hasImageBands() || hasTREs();
+    }
+
+    /**
+        Decode the security metadata.
+
+        @return the security metadata.
+    */
+    NitfSecurityMetadata decodeSecurityMetadata() {
+        try {
+            NitfSecurityMetadata securityMetadata = new NitfSecurityMetadataParser()
+                    .parseShared(newReader(securityMetadataOffset), SecurityMetadataPool.forStrategy(parseStrategy));
+            securityMetadataOffset = NOT_DEFERRED;
+            return securityMetadata;
+        } catch (ParseException ex) {
+            throw new IllegalStateException(String.format(DECODE_ERROR_MESSAGE, "security metadata", ex.getMessage()), ex);
+        }
+    }
+
+    /**
+        Decode the image coordinates (IGEOLO).
+
+        @return the image coordinates.
+    */
+    ImageCoordinates decodeImageCoordinates() {
+        try {
+            String igeolo = newReader(imageCoordinatesOffset).readBytes(NitfConstants.IGEOLO_LENGTH);
+            ImageCoordinates imageCoordinates = NitfImageSegmentHeaderParser.parseImageCoordinates(igeolo, imageCoordinatesRepresentation);
+            imageCoordinatesOffset = NOT_DEFERRED;
+            return imageCoordinates;
+        } catch (ParseException ex) {
+            throw new IllegalStateException(String.format(DECODE_ERROR_MESSAGE, "coordinates", ex.getMessage()), ex);
+        }
+    }
+
+    /**
+        Decode the image bands, including any LUTs.
+
+        @return the image bands, in order.
+    */
+    List<NitfImageBand> decodeImageBands() {
+        try {
+            NitfReader reader = newReader(imageBandsOffset);
+            List<NitfImageBand> imageBands = new ArrayList<>();
+            NitfImageBandParser imageBandParser = new NitfImageBandParser();
+            for (int i = 0; i < numberOfImageBands; ++i) {
+                NitfImageBand imageBand = new NitfImageBand();
+                imageBandParser.parse(reader, imageBand);
+                imageBands.add(imageBand);
+            }
+            imageBandsOffset = NOT_DEFERRED;
+            return imageBands;
+        } catch (ParseException ex) {
+            throw new IllegalStateException(String.format(DECODE_ERROR_MESSAGE, "bands", ex.getMessage()), ex);
+        }
+    }
+
+    /**
+        Decode the TREs from the user defined (UDID) and extended (IXSHD) subheader data.
+
+        @return the TREs, in the same order as an eager parse.
+    */
+    TreCollection decodeTREs() {
+        try {
+            TreCollection tres = new TreCollection();
+            if (userDefinedTresOffset != NOT_DEFERRED) {
+                tres.add(parseStrategy.parseTREs(newReader(userDefinedTresOffset), userDefinedTresLength));
+            }
+            if (extendedTresOffset != NOT_DEFERRED) {
+                tres.add(parseStrategy.parseTREs(newReader(extendedTresOffset), extendedTresLength));
+            }
+            userDefinedTresOffset = NOT_DEFERRED;
+            extendedTresOffset = NOT_DEFERRED;
+            return tres;
+        } catch (ParseException ex) {
+            throw new IllegalStateException(String.format(DECODE_ERROR_MESSAGE, "TREs", ex.getMessage()), ex);
+        }
+    }
+
+    private NitfReader newReader(final long offset) throws ParseException {
+        NitfReader reader = new ByteArrayReader(subheader, subheaderOffset);
+        reader.setFileType(fileType);
+        reader.seekToAbsoluteOffset(offset);
+        return reader;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.text.ParseException;
+import java.util.List;
+
+/**
+    The location of the data for a TRE that has not been decoded yet.
+    <p>
+    The TRE data is a range within a block of TRE data that was read in one go (e.g. all of the TREs
+    in one extended header data field), so all of the TREs in the block share it.
+*/
+final class DeferredTreData {
+
+    private final TreParser treParser;
+    private final byte[] block;
+    private final long blockOffset;
+    private final long treOffset;
+    private final int treLength;
+
+    /**
+        Constructor.
+
+        @param parser the parser to decode the TRE with.
+        @param treBlock the block of TRE data that holds this TRE.
+        @param treBlockOffset the offset in the file of the start of the block.
+        @param offset the offset in the file of the start of the TRE data (after the tag and length).
+        @param length the length of the TRE data.
+    */
+    DeferredTreData(final TreParser parser, final byte[] treBlock, final long treBlockOffset, final long offset, final int length) {
+        treParser = parser;
+        block = treBlock;
+        blockOffset = treBlockOffset;
+        treOffset = offset;
+        treLength = length;
+    }
+
+    /**
+        Decode the TRE against its specification.
+
+        @param tag the name of the TRE.
+        @return the entries for the TRE.
+    */
+    List<TreEntry> decode(final String tag) {
+        try {
+            NitfReader reader = new ByteArrayReader(block, blockOffset);
+            reader.seekToAbsoluteOffset(treOffset);
+            return treParser.parseOneTre(reader, tag, treLength).getEntries();
+        } catch (ParseException ex) {
+            throw new IllegalStateException(String.format("Could not decode deferred TRE %s: %s", tag, ex.getMessage()), ex);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ **/
+package org.codice.imaging.nitf.core;
+
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+    NitfReader decorator and field sink that reports the fields read by the parsers to a NitfFieldListener.
+    <p>
+    As a field sink, this has the parsers walk over the fields without building the model (see NitfFieldSink).
+    The parsers mark the start of each field with the offset in the file. While capturing, this keeps a copy
+    of the bytes read through it since the start of the current segment, and reports each field as a view over
+    that copy when the next field starts. The copy is reused for each segment, so it only grows to the size of
+    the largest header.
+    <p>
+    The marks can come from a parser reading from a different reader (e.g. the in-memory copy of the file
+    header), as long as the bytes were read through this reader.
+*/
+final class FieldEventReader extends SharedReader implements NitfReader, NitfFieldSink {
+
+    private static final int INITIAL_CAPTURE_LENGTH = 1024;
+
+    private static final String[] SECURITY_FIELD_IDS = {"CLAS", "CLSY", "CODE", "CTLH", "REL", "DCTP", "DCDT", "DCXM", "DG", "DGDT",
+                                                        "CLTX", "CATP", "CAUT", "CRSN", "SRDT", "CTLN", "DWNG", "DEVT"};
+    private static final Map<String, String> FILE_SECURITY_FIELD_IDS = prefixFieldIds("FS");
+    private static final Map<SegmentType, Map<String, String>> SEGMENT_SECURITY_FIELD_IDS = getSegmentSecurityFieldIds();
+
+    private final NitfReader source;
+    private final NitfFieldListener listener;
+    private final FieldValue value = new FieldValue();
+    private final FieldValue tag = new FieldValue();
+
+    private byte[] capture = new byte[INITIAL_CAPTURE_LENGTH];
+    private long captureStart = 0;
+    private int captureLength = 0;
+    private boolean capturing = false;
+
+    private SegmentType segmentType = null;
+    private int segmentIndex = 0;
+    private String pendingFieldId = null;
+    private long pendingFieldStart = 0;
+
+    /**
+        Constructor.
+
+        @param nitfReader the reader to read the file from.
+        @param fieldListener the listener to report the fields to.
+    */
+    FieldEventReader(final NitfReader nitfReader, final NitfFieldListener fieldListener) {
+        source = nitfReader;
+        listener = fieldListener;
+    }
+
+    /**
+        Report the start of the file header or a segment, and start capturing its bytes.
+
+        @param type the type of segment, or null for the file header.
+        @param index the index (zero base) of the segment within its type.
+    */
+    void startSegment(final SegmentType type, final int index) {
+        segmentType = type;
+        segmentIndex = index;
+        pendingFieldId = null;
+        captureStart = source.getCurrentOffset();
+        captureLength = 0;
+        capturing = true;
+        listener.onSegmentStart(segmentType, segmentIndex);
+    }
+
+    /**
+        Stop capturing, for example to skip over the segment data.
+    */
+    void stopCapturing() {
+        capturing = false;
+    }
+
+    /**
+        Report the end of the file header or current segment.
+    */
+    void endSegment() {
+        capturing = false;
+        listener.onSegmentEnd(segmentType, segmentIndex);
+    }
+
+    @Override
+    public boolean isBuildingModel() {
+        return false;
+    }
+
+    /**
+        Mark the start of a field, which also ends the previous field.
+
+        @param fieldId the field name from MIL-STD-2500C.
+        @param offset the offset of the field in the file.
+        @throws ParseException if the previous field was not read through this reader.
+    */
+    @Override
+    public void field(final String fieldId, final long offset) throws ParseException {
+        endField(offset);
+        pendingFieldId = fieldId;
+        pendingFieldStart = offset;
+    }
+
+    /**
+        Mark the start of a security metadata field.
+        <p>
+        The security fields are shared by the file header and the subheaders, so the prefix for the current
+        segment (e.g. FS for the file header, IS for an image segment) is added to the field name.
+
+        @param fieldId the field name without the prefix (e.g. "CLAS").
+        @param offset the offset of the field in the file.
+        @throws ParseException if the previous field was not read through this reader.
+    */
+    @Override
+    public void securityField(final String fieldId, final long offset) throws ParseException {
+        Map<String, String> fieldIds = FILE_SECURITY_FIELD_IDS;
+        if (segmentType != null) {
+            fieldIds = SEGMENT_SECURITY_FIELD_IDS.get(segmentType);
+        }
+        field(fieldIds.get(fieldId), offset);
+    }
+
+    /**
+        Mark the end of the current field, if there is one, and report it.
+
+        @param offset the offset of the end of the field in the file.
+        @throws ParseException if the field was not read through this reader.
+    */
+    @Override
+    public void endField(final long offset) throws ParseException {
+        if (pendingFieldId != null) {
+            setView(value, pendingFieldStart, offset);
+            listener.onField(segmentType, segmentIndex, pendingFieldId, value);
+            pendingFieldId = null;
+        }
+    }
+
+    /**
+        Report the start of a TRE.
+
+        @param offset the offset of the TRE (i.e. the CETAG field) in the file.
+        @param length the length of the TRE data (CEL).
+        @throws ParseException if the TRE tag was not read through this reader.
+    */
+    void startTre(final long offset, final int length) throws ParseException {
+        endField(offset);
+        setView(tag, offset, offset + NitfConstants.TAG_LENGTH);
+        listener.onTreStart(segmentType, segmentIndex, tag, length);
+    }
+
+    /**
+        Report the end of a TRE.
+
+        @param offset the offset of the end of the TRE in the file.
+        @throws ParseException if the TRE data was not read through this reader.
+    */
+    void endTre(final long offset) throws ParseException {
+        endField(offset);
+        listener.onTreEnd(segmentType, segmentIndex);
+    }
+
+    private void setView(final FieldValue fieldValue, final long start, final long end) throws ParseException {
+        if ((start < captureStart) || (end < start) || (end > captureStart + captureLength)) {
+            throw new ParseException(String.format("Field at offset %d was not captured for field events", start), (int) start);
+        }
+        fieldValue.set(capture, (int) (start - captureStart), (int) (end - start));
+    }
+
+    /**
+        Return the reader that the fields are read from.
+
+        @return the source reader.
+    */
+    NitfReader getSource() {
+        return source;
+    }
+
+    @Override
+    public Boolean canSeek() {
+        return source.canSeek();
+    }
+
+    @Override
+    public long getCurrentOffset() {
+        return source.getCurrentOffset();
+    }
+
+    @Override
+    public void seekToEndOfFile() throws ParseException {
+        source.seekToEndOfFile();
+    }
+
+    @Override
+    public void seekBackwards(final long relativeOffset) throws ParseException {
+        source.seekBackwards(relativeOffset);
+    }
+
+    @Override
+    public void seekToAbsoluteOffset(final long absoluteOffset) throws ParseException {
+        source.seekToAbsoluteOffset(absoluteOffset);
+    }
+
+    @Override
+    public byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
+        if (!capturing) {
+            source.readBytesRaw(destination, offset, count);
+            return;
+        }
+        int captureOffset = prepareCapture(count);
+        source.readBytesRaw(capture, captureOffset, count);
+        System.arraycopy(capture, captureOffset, destination, offset, count);
+    }
+
+    @Override
+    public long available() {
+        return source.available();
+    }
+
+    @Override
+    public ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        return source.getDataView(absoluteOffset, length);
+    }
+
+    @Override
+    public void readAhead(final long absoluteOffset, final long length) {
+        source.readAhead(absoluteOffset, length);
+    }
+
+    @Override
+    public void skip(final long count) throws ParseException {
+        if (!capturing || (count > Integer.MAX_VALUE)) {
+            source.skip(count);
+            return;
+        }
+        // Skipped fields are still reported, so they are read into the capture.
+        int captureOffset = prepareCapture((int) count);
+        source.readBytesRaw(capture, captureOffset, (int) count);
+    }
+
+    // Make room for the next read, and return where it goes in the capture. The capture restarts if the
+    // read does not follow on from it (e.g. after seeking to the streaming file header).
+    private int prepareCapture(final int count) {
+        long offset = source.getCurrentOffset();
+        if (offset != captureStart + captureLength) {
+            captureStart = offset;
+            captureLength = 0;
+        }
+        if (captureLength + count > capture.length) {
+            capture = Arrays.copyOf(capture, Math.max(captureLength + count, capture.length * 2));
+        }
+        int captureOffset = captureLength;
+        captureLength += count;
+        return captureOffset;
+    }
+
+    // The subheader security field prefixes from MIL-STD-2500C (and MIL-STD-2500A for symbols and labels).
+    private static Map<SegmentType, Map<String, String>> getSegmentSecurityFieldIds() {
+        Map<SegmentType, Map<String, String>> fieldIds = new EnumMap<>(SegmentType.class);
+        fieldIds.put(SegmentType.IMAGE, prefixFieldIds("IS"));
+        fieldIds.put(SegmentType.GRAPHIC, prefixFieldIds("SS"));
+        fieldIds.put(SegmentType.SYMBOL, prefixFieldIds("SS"));
+        fieldIds.put(SegmentType.LABEL, prefixFieldIds("LS"));
+        fieldIds.put(SegmentType.TEXT, prefixFieldIds("TS"));
+        fieldIds.put(SegmentType.DATA_EXTENSION, prefixFieldIds("DES"));
+        return Collections.unmodifiableMap(fieldIds);
+    }
+
+    private static Map<String, String> prefixFieldIds(final String prefix) {
+        Map<String, String> fieldIds = new HashMap<>();
+        for (String fieldId : SECURITY_FIELD_IDS) {
+            fieldIds.put(fieldId, prefix + fieldId);
+        }
+        return Collections.unmodifiableMap(fieldIds);
+    }
+
+    /**
+        Field value, as a view over the captured bytes.
+    */
+    private static final class FieldValue implements CharSequence {
+        private static final int BYTE_MASK = 0xFF;
+
+        private byte[] buffer = null;
+        private int start = 0;
+        private int count = 0;
+
+        void set(final byte[] bytes, final int offset, final int length) {
+            buffer = bytes;
+            start = offset;
+            count = length;
+        }
+
+        @Override
+        public int length() {
+            return count;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if ((index < 0) || (index >= count)) {
+                throw new IndexOutOfBoundsException("Index out of range: " + index);
+            }
+            return (char) (buffer[start + index] & BYTE_MASK);
+        }
+
+        // The sub-sequence is another view over the same bytes, so is only valid for as long as this one is.
+        @Override
+        public CharSequence subSequence(final int subSequenceStart, final int subSequenceEnd) {
+            if ((subSequenceStart < 0) || (subSequenceEnd > count) || (subSequenceStart > subSequenceEnd)) {
+                throw new IndexOutOfBoundsException(String.format("Range out of bounds: %d-%d", subSequenceStart, subSequenceEnd));
+            }
+            if ((subSequenceStart == 0) && (subSequenceEnd == count)) {
+                return this;
+            }
+            FieldValue subSequence = new FieldValue();
+            subSequence.set(buffer, start + subSequenceStart, subSequenceEnd - subSequenceStart);
+            return subSequence;
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[count];
+            for (int i = 0; i < count; ++i) {
+                chars[i] = charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.text.ParseException;
 import java.util.logging.Level;
@@ -82,6 +83,16 @@ public class FileReader extends SharedReader implements NitfReader {
         }
     }
 
+    @Override
+    public final long available() {
+        try {
+            return Math.max(0, nitfFile.length() - nitfFile.getFilePointer());
+        } catch (IOException ex) {
+            LOG.warn("IO Exception getting file length", ex);
+            return 0;
+        }
+    }
+
     @Override
     public final void seekToEndOfFile() throws ParseException {
         try {
@@ -114,18 +125,28 @@ public class FileReader extends SharedReader implements NitfReader {
 
     @Override
     public final byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public final void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
         int currentOffset = 0;
         try {
             currentOffset = (int) nitfFile.getFilePointer();
-            byte[] bytes = new byte[count];
-            nitfFile.readFully(bytes);
-            return bytes;
+            nitfFile.readFully(destination, offset, count);
         } catch (IOException ex) {
             LOG.warn("IO Exception reading raw bytes", ex);
             throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), currentOffset);
         }
     }
 
+    @Override
+    public final ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        return defaultMapDataView(nitfFile.getChannel(), absoluteOffset, length);
+    }
+
     @Override
     public final void skip(final long count) throws ParseException {
         long bytesToRead = count;
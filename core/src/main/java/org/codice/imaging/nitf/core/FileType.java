@@ -53,6 +53,14 @@ public enum FileType {
 
     private final String textEquivalent;
 
+    private static final CodeLookupTable<FileType> LOOKUP = new CodeLookupTable<>(values().length, UNKNOWN);
+
+    static {
+        for (FileType version : values()) {
+            LOOKUP.add(version.textEquivalent, version);
+        }
+    }
+
     /**
         Constructor.
         <p>
@@ -74,12 +82,19 @@ public enum FileType {
         @return the file type enumerated value.
     */
     public static FileType getEnumValue(final String textEquivalent) {
-        for (FileType version : values()) {
-            if (textEquivalent.equals(version.textEquivalent)) {
-                return version;
-            }
-        }
-        return UNKNOWN;
+        return LOOKUP.get(textEquivalent);
+    }
+
+    /**
+        Create file type from the raw bytes of the text equivalent.
+
+        @param bytes the array holding the text equivalent.
+        @param offset the offset of the text equivalent in the array.
+        @param length the length of the text equivalent.
+        @return the enumerated value, or UNKNOWN if there is no match.
+    */
+    static FileType getEnumValue(final byte[] bytes, final int offset, final int length) {
+        return LOOKUP.get(bytes, offset, length);
     }
 
 };
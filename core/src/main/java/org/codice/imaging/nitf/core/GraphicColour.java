@@ -51,6 +51,14 @@ public enum GraphicColour {
 
     private final String textEquivalent;
 
+    private static final CodeLookupTable<GraphicColour> LOOKUP = new CodeLookupTable<>(values().length, UNKNOWN);
+
+    static {
+        for (GraphicColour scolor : values()) {
+            LOOKUP.add(scolor.textEquivalent, scolor);
+        }
+    }
+
     /**
         Constructor.
         <p>
@@ -72,12 +80,19 @@ public enum GraphicColour {
         @return the corresponding graphic colour
     */
     public static GraphicColour getEnumValue(final String textEquivalent) {
-        for (GraphicColour scolor : values()) {
-            if (textEquivalent.equals(scolor.textEquivalent)) {
-                return scolor;
-            }
-        }
-        return UNKNOWN;
+        return LOOKUP.get(textEquivalent);
+    }
+
+    /**
+        Create graphic colour from the raw bytes of the text equivalent.
+
+        @param bytes the array holding the text equivalent.
+        @param offset the offset of the text equivalent in the array.
+        @param length the length of the text equivalent.
+        @return the enumerated value, or UNKNOWN if there is no match.
+    */
+    static GraphicColour getEnumValue(final byte[] bytes, final int offset, final int length) {
+        return LOOKUP.get(bytes, offset, length);
     }
 
     /**
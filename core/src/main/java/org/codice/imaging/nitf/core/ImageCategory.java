@@ -258,6 +258,14 @@ public enum ImageCategory {
 
     private final String textEquivalent;
 
+    private static final CodeLookupTable<ImageCategory> LOOKUP = new CodeLookupTable<>(values().length, UNKNOWN);
+
+    static {
+        for (ImageCategory icat : values()) {
+            LOOKUP.add(icat.textEquivalent, icat);
+        }
+    }
+
     /**
         Constructor.
         <p>
@@ -279,12 +287,19 @@ public enum ImageCategory {
         @return the image category enumerated value.
     */
     public static ImageCategory getEnumValue(final String textEquivalent) {
-        for (ImageCategory icat : values()) {
-            if (textEquivalent.equals(icat.textEquivalent)) {
-                return icat;
-            }
-        }
-        return UNKNOWN;
+        return LOOKUP.get(textEquivalent);
+    }
+
+    /**
+        Create image category from the raw bytes of the text equivalent.
+
+        @param bytes the array holding the text equivalent.
+        @param offset the offset of the text equivalent in the array.
+        @param length the length of the text equivalent.
+        @return the enumerated value, or UNKNOWN if there is no match.
+    */
+    static ImageCategory getEnumValue(final byte[] bytes, final int offset, final int length) {
+        return LOOKUP.get(bytes, offset, length);
     }
 
     /**
@@ -157,6 +157,14 @@ public enum ImageCompression {
 
     private final String textEquivalent;
 
+    private static final CodeLookupTable<ImageCompression> LOOKUP = new CodeLookupTable<>(values().length, UNKNOWN);
+
+    static {
+        for (ImageCompression ic : values()) {
+            LOOKUP.add(ic.textEquivalent, ic);
+        }
+    }
+
     /**
         Constructor.
         <p>
@@ -178,12 +186,19 @@ public enum ImageCompression {
         @return the image compression enumerated value.
     */
     public static ImageCompression getEnumValue(final String textEquivalent) {
-        for (ImageCompression ic : values()) {
-            if (textEquivalent.equals(ic.textEquivalent)) {
-                return ic;
-            }
-        }
-        return UNKNOWN;
+        return LOOKUP.get(textEquivalent);
+    }
+
+    /**
+        Create image compression enumerated value from the raw bytes of the text equivalent.
+
+        @param bytes the array holding the text equivalent.
+        @param offset the offset of the text equivalent in the array.
+        @param length the length of the text equivalent.
+        @return the enumerated value, or UNKNOWN if there is no match.
+    */
+    static ImageCompression getEnumValue(final byte[] bytes, final int offset, final int length) {
+        return LOOKUP.get(bytes, offset, length);
     }
 
     /**
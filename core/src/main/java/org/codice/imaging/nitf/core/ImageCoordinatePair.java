@@ -14,12 +14,15 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
 import java.text.ParseException;
 
 /**
     A coordinate pair (latitude / longitude or equivalent).
 */
-public class ImageCoordinatePair {
+public class ImageCoordinatePair implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private double lat = 0.0;
     private double lon = 0.0;
@@ -14,10 +14,14 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
+
 /**
     Coordinates of an image.
 */
-public class ImageCoordinates {
+public class ImageCoordinates implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private ImageCoordinatePair coordinate00;
     private ImageCoordinatePair coordinate0MaxCol;
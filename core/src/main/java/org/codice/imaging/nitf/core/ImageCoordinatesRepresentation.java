@@ -76,6 +76,16 @@ public enum ImageCoordinatesRepresentation {
     private final String textEquivalent;
     private final String textEquivalentNitf20;
 
+    private static final CodeLookupTable<ImageCoordinatesRepresentation> LOOKUP = new CodeLookupTable<>(values().length, UNKNOWN);
+    private static final CodeLookupTable<ImageCoordinatesRepresentation> LOOKUP_NITF20 = new CodeLookupTable<>(values().length, UNKNOWN);
+
+    static {
+        for (ImageCoordinatesRepresentation icr : values()) {
+            LOOKUP.add(icr.textEquivalent, icr);
+            LOOKUP_NITF20.add(icr.textEquivalentNitf20, icr);
+        }
+    }
+
     /**
         Constructor.
         <p>
@@ -100,18 +110,28 @@ public enum ImageCoordinatesRepresentation {
         @return the image coordinate representation (enumerated type)
     */
     public static ImageCoordinatesRepresentation getEnumValue(final String textEquivalent, final FileType nitfFileType) {
-        for (ImageCoordinatesRepresentation icr : values()) {
-            if (nitfFileType == FileType.NITF_TWO_ZERO) {
-                if (textEquivalent.equals(icr.textEquivalentNitf20)) {
-                    return icr;
-                }
-            } else {
-                if (textEquivalent.equals(icr.textEquivalent)) {
-                    return icr;
-                }
-            }
+        if (nitfFileType == FileType.NITF_TWO_ZERO) {
+            return LOOKUP_NITF20.get(textEquivalent);
+        } else {
+            return LOOKUP.get(textEquivalent);
+        }
+    }
+
+    /**
+        Create an image coordinate representation from the raw bytes of the text equivalent.
+
+        @param bytes the array holding the text equivalent.
+        @param offset the offset of the text equivalent in the array.
+        @param length the length of the text equivalent.
+        @param nitfFileType the type (version) of NITF file
+        @return the image coordinate representation (enumerated type)
+    */
+    static ImageCoordinatesRepresentation getEnumValue(final byte[] bytes, final int offset, final int length, final FileType nitfFileType) {
+        if (nitfFileType == FileType.NITF_TWO_ZERO) {
+            return LOOKUP_NITF20.get(bytes, offset, length);
+        } else {
+            return LOOKUP.get(bytes, offset, length);
         }
-        return UNKNOWN;
     }
 
     /**
@@ -55,6 +55,14 @@ public enum ImageMode {
 
     private final String textEquivalent;
 
+    private static final CodeLookupTable<ImageMode> LOOKUP = new CodeLookupTable<>(values().length, UNKNOWN);
+
+    static {
+        for (ImageMode imode : values()) {
+            LOOKUP.add(imode.textEquivalent, imode);
+        }
+    }
+
     /**
         Constructor.
         <p>
@@ -76,12 +84,19 @@ public enum ImageMode {
         @return the image mode enumerated value corresponding to textEquivalent.
     */
     public static ImageMode getEnumValue(final String textEquivalent) {
-        for (ImageMode imode : values()) {
-            if (textEquivalent.equals(imode.textEquivalent)) {
-                return imode;
-            }
-        }
-        return UNKNOWN;
+        return LOOKUP.get(textEquivalent);
+    }
+
+    /**
+        Create image mode from the raw bytes of the text equivalent.
+
+        @param bytes the array holding the text equivalent.
+        @param offset the offset of the text equivalent in the array.
+        @param length the length of the text equivalent.
+        @return the enumerated value, or UNKNOWN if there is no match.
+    */
+    static ImageMode getEnumValue(final byte[] bytes, final int offset, final int length) {
+        return LOOKUP.get(bytes, offset, length);
     }
 
     /**
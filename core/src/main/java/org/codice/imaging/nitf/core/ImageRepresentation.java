@@ -92,6 +92,14 @@ public enum ImageRepresentation {
 
     private final String textEquivalent;
 
+    private static final CodeLookupTable<ImageRepresentation> LOOKUP = new CodeLookupTable<>(values().length, UNKNOWN);
+
+    static {
+        for (ImageRepresentation irep : values()) {
+            LOOKUP.add(irep.textEquivalent, irep);
+        }
+    }
+
     /**
         Constructor.
         <p>
@@ -113,12 +121,19 @@ public enum ImageRepresentation {
         @return the corresponding image representation (enumerated type)
     */
     public static ImageRepresentation getEnumValue(final String textEquivalent) {
-        for (ImageRepresentation irep : values()) {
-            if (textEquivalent.equals(irep.textEquivalent)) {
-                return irep;
-            }
-        }
-        return UNKNOWN;
+        return LOOKUP.get(textEquivalent);
+    }
+
+    /**
+        Create image representation from the raw bytes of the text equivalent.
+
+        @param bytes the array holding the text equivalent.
+        @param offset the offset of the text equivalent in the array.
+        @param length the length of the text equivalent.
+        @return the enumerated value, or UNKNOWN if there is no match.
+    */
+    static ImageRepresentation getEnumValue(final byte[] bytes, final int offset, final int length) {
+        return LOOKUP.get(bytes, offset, length);
     }
 
     /**
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.ParseException;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageInputStreamImpl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    NitfReader implementation using a memory mapped File.
+    <p>
+    The file is mapped in fixed size windows, so files larger than 2GB can be read. Reads, skips
+    and seeks are served from the mapped buffers, so parsing does not make a system call per field.
+*/
+public class MappedFileReader extends SharedReader implements NitfReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedFileReader.class);
+
+    private static final int DEFAULT_WINDOW_SIZE = 1024 * 1024 * 1024;
+
+    private static final int BYTE_MASK = 0xFF;
+
+    private final File mappedFile;
+    private final ByteBuffer[] windows;
+    private final int windowSize;
+    private final long fileLength;
+    private long position = 0;
+
+    /**
+        Constructor for File.
+
+        @param file the File to read the NITF file contents from.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public MappedFileReader(final File file) throws ParseException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+        Constructor for string file name.
+
+        @param filename the name of the file to read the NITF file contents from.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    public MappedFileReader(final String filename) throws ParseException {
+        this(new File(filename), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+        Constructor for File, with a specific mapping window size.
+        <p>
+        This is mainly intended for testing behaviour across window boundaries.
+
+        @param file the File to read the NITF file contents from.
+        @param mappingWindowSize the maximum number of bytes in each mapped window.
+        @throws ParseException if file does not exist as a regular file, or some other errors occurs during opening of the file.
+    */
+    MappedFileReader(final File file, final int mappingWindowSize) throws ParseException {
+        mappedFile = file;
+        windowSize = mappingWindowSize;
+        try (RandomAccessFile nitfFile = new RandomAccessFile(file, NitfConstants.READ_MODE)) {
+            FileChannel channel = nitfFile.getChannel();
+            fileLength = channel.size();
+            int numWindows = (int) ((fileLength + windowSize - 1) / windowSize);
+            windows = new ByteBuffer[numWindows];
+            for (int i = 0; i < numWindows; ++i) {
+                long windowStart = (long) i * windowSize;
+                long windowLength = Math.min(windowSize, fileLength - windowStart);
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            }
+        } catch (FileNotFoundException ex) {
+            LOG.warn(NitfConstants.FILE_NOT_FOUND_EXCEPTION_MESSAGE + file.getPath(), ex);
+            throw new ParseException(file.getPath() + NitfConstants.NOT_FOUND_MESSAGE_JOINER + ex.getMessage(), 0);
+        } catch (IOException ex) {
+            LOG.warn("IO Exception mapping file", ex);
+            throw new ParseException("Unable to map file " + file.getPath() + ": " + ex.getMessage(), 0);
+        }
+    }
+
+    @Override
+    public final Boolean canSeek() {
+        return true;
+    }
+
+    @Override
+    public final long getCurrentOffset() {
+        return position;
+    }
+
+    @Override
+    public final long available() {
+        return Math.max(0, fileLength - position);
+    }
+
+    @Override
+    public final void seekToEndOfFile() throws ParseException {
+        position = fileLength;
+    }
+
+    @Override
+    public final void seekBackwards(final long relativeOffset) throws ParseException {
+        seekToAbsoluteOffset(position - relativeOffset);
+    }
+
+    @Override
+    public final void seekToAbsoluteOffset(final long absoluteOffset) throws ParseException {
+        if ((absoluteOffset < 0) || (absoluteOffset > fileLength)) {
+            throw new ParseException("Unable to seek to absolute offset: " + absoluteOffset, (int) position);
+        }
+        position = absoluteOffset;
+    }
+
+    @Override
+    public final byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public final void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
+        checkAvailable(count);
+        copyFromWindows(position, destination, offset, count);
+        position += count;
+    }
+
+    /**
+        {@inheritDoc}
+        <p>
+        Views within a single mapping window share the existing mapping. Views that span windows are
+        mapped separately.
+    */
+    @Override
+    public final ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        checkDataViewRange(absoluteOffset, length, fileLength);
+        if (length == 0) {
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+        int windowIndex = (int) (absoluteOffset / windowSize);
+        int offsetInWindow = (int) (absoluteOffset % windowSize);
+        if (offsetInWindow + length <= windowSize) {
+            ByteBuffer view = windows[windowIndex].asReadOnlyBuffer();
+            view.position(offsetInWindow);
+            view.limit(offsetInWindow + (int) length);
+            return view.slice();
+        }
+        try (RandomAccessFile nitfFile = new RandomAccessFile(mappedFile, NitfConstants.READ_MODE)) {
+            return nitfFile.getChannel().map(FileChannel.MapMode.READ_ONLY, absoluteOffset, length);
+        } catch (IOException ex) {
+            LOG.warn("IO Exception mapping data view", ex);
+            throw new ParseException("IOException while mapping data view: " + ex, (int) absoluteOffset);
+        }
+    }
+
+    @Override
+    public final void skip(final long count) throws ParseException {
+        checkAvailable(count);
+        position += count;
+    }
+
+    private void checkAvailable(final long count) throws ParseException {
+        if (position + count > fileLength) {
+            throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + "end of file", (int) position);
+        }
+    }
+
+    /**
+        Copy mapped content into a byte array.
+        <p>
+        This does not change the reader position, and uses duplicate buffers where the copy
+        is not on behalf of the reader itself, so streams and the reader do not interfere.
+
+        @param offset the absolute offset in the file to copy from.
+        @param destination the array to copy into.
+        @param destinationOffset the offset into the destination array to start copying to.
+        @param count the number of bytes to copy.
+    */
+    private void copyFromWindows(final long offset, final byte[] destination, final int destinationOffset, final int count) {
+        long sourceOffset = offset;
+        int copied = 0;
+        while (copied < count) {
+            ByteBuffer window = windows[(int) (sourceOffset / windowSize)].duplicate();
+            window.position((int) (sourceOffset % windowSize));
+            int thisCopy = Math.min(count - copied, window.remaining());
+            window.get(destination, destinationOffset + copied, thisCopy);
+            copied += thisCopy;
+            sourceOffset += thisCopy;
+        }
+    }
+
+    private int readByteAt(final long offset) {
+        return windows[(int) (offset / windowSize)].get((int) (offset % windowSize)) & BYTE_MASK;
+    }
+
+    /**
+     * Get an input stream at a specified point in the file.
+     * <p>
+     * The stream reads from the mapped file, and has its own position, independent of the reader.
+     *
+     * @param offset the point in the file the input stream should read from
+     * @return input stream for the specified content
+     * @throws ParseException if the offset is outside the file.
+     */
+    public final InputStream getInputStreamAt(final long offset) throws ParseException {
+        if ((offset < 0) || (offset > fileLength)) {
+            throw new ParseException("Invalid offset for input stream: " + offset, (int) position);
+        }
+        return new MappedInputStream(offset);
+    }
+
+    /**
+     * Get an image input stream at a specified point in the file.
+     * <p>
+     * The stream reads from the mapped file, and has its own position, independent of the reader.
+     *
+     * @param offset the point in the file the image input stream should read from
+     * @return image input stream for the specified content
+     * @throws ParseException if creating the image input stream fails.
+     */
+    public final ImageInputStream getImageInputStreamAt(final long offset) throws ParseException {
+        try {
+            ImageInputStream iis = new MappedImageInputStream();
+            iis.seek(offset);
+            return iis;
+        } catch (IOException ex) {
+            LOG.warn("IO Exception seeking mapped image input stream", ex);
+            throw new ParseException("Error seeking while creating image input stream: " + ex, (int) offset);
+        }
+    }
+
+    private final class MappedInputStream extends InputStream {
+        private long streamPosition;
+        private long markPosition;
+
+        private MappedInputStream(final long offset) {
+            streamPosition = offset;
+            markPosition = offset;
+        }
+
+        @Override
+        public int read() {
+            if (streamPosition >= fileLength) {
+                return -1;
+            }
+            int b = readByteAt(streamPosition);
+            streamPosition++;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (streamPosition >= fileLength) {
+                return -1;
+            }
+            int count = (int) Math.min(len, fileLength - streamPosition);
+            copyFromWindows(streamPosition, b, off, count);
+            streamPosition += count;
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) {
+            long count = Math.max(0, Math.min(n, fileLength - streamPosition));
+            streamPosition += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, fileLength - streamPosition);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(final int readlimit) {
+            markPosition = streamPosition;
+        }
+
+        @Override
+        public synchronized void reset() {
+            streamPosition = markPosition;
+        }
+    }
+
+    private final class MappedImageInputStream extends ImageInputStreamImpl {
+
+        @Override
+        public int read() throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (streamPos >= fileLength) {
+                return -1;
+            }
+            int b = readByteAt(streamPos);
+            streamPos++;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (len == 0) {
+                return 0;
+            }
+            if (streamPos >= fileLength) {
+                return -1;
+            }
+            int count = (int) Math.min(len, fileLength - streamPos);
+            copyFromWindows(streamPos, b, off, count);
+            streamPos += count;
+            return count;
+        }
+
+        @Override
+        public long length() {
+            return fileLength;
+        }
+    }
+}
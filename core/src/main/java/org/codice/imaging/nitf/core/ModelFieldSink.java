@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+/**
+    Field sink that has the parsers build the model.
+    <p>
+    This is the sink for normal parsing. The field marks are not needed, so they are ignored.
+*/
+final class ModelFieldSink implements NitfFieldSink {
+
+    /**
+        The sink instance, which has no state.
+    */
+    static final ModelFieldSink INSTANCE = new ModelFieldSink();
+
+    private ModelFieldSink() {
+    }
+
+    @Override
+    public boolean isBuildingModel() {
+        return true;
+    }
+
+    @Override
+    public void field(final String fieldId, final long offset) {
+    }
+
+    @Override
+    public void securityField(final String fieldId, final long offset) {
+    }
+
+    @Override
+    public void endField(final long offset) {
+    }
+}
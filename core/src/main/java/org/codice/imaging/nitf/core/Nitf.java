@@ -21,6 +21,9 @@ import java.util.List;
     NITF file data.
 */
 public class Nitf extends AbstractNitfSegment {
+
+    private static final long serialVersionUID = 1L;
+
     private FileType fileType = FileType.UNKNOWN;
     private int nitfComplexityLevel = 0;
     private String nitfStandardType = null;
@@ -33,6 +36,7 @@ public class Nitf extends AbstractNitfSegment {
     private String nitfOriginatorsPhoneNumber = null;
     private int nitfUserDefinedHeaderOverflow = 0;
     private int nitfExtendedHeaderDataOverflow = 0;
+    private int nitfHeaderLength = 0;
 
     private final List<Integer> lish = new ArrayList<>();
     private final List<Long> li = new ArrayList<>();
@@ -283,6 +287,30 @@ public class Nitf extends AbstractNitfSegment {
         return nitfOriginatorsPhoneNumber;
     }
 
+    /**
+        Set the file header length (HL) for the file.
+        <p>
+        This is the length of the file header, including any TREs, so it is also the
+        offset of the first segment subheader.
+
+        @param headerLength the length of the file header, in bytes
+    */
+    public final void setHeaderLength(final int headerLength) {
+        nitfHeaderLength = headerLength;
+    }
+
+    /**
+        Return the file header length (HL) for the file.
+        <p>
+        This is the length of the file header, including any TREs, so it is also the
+        offset of the first segment subheader.
+
+        @return the length of the file header, in bytes
+    */
+    public final int getHeaderLength() {
+        return nitfHeaderLength;
+    }
+
     /**
         Set the user defined header overflow (UDHOFL) for the file.
         <p>
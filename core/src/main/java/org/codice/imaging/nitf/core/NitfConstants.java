@@ -189,6 +189,13 @@ public final class NitfConstants {
      */
     protected static final String TRE_OVERFLOW = "TRE_OVERFLOW";
 
+    /**
+     * Marker string for the streaming file header DES.
+     * <p>
+     * See DESID in MIL-STD-2500C Table A-8(B).
+     */
+    protected static final String STREAMING_FILE_HEADER = "STREAMING_FILE_HEADER";
+
     /**
      * Marker string for Tagged Record Overflow DES in NITF 2.0
      * <p>
@@ -19,6 +19,8 @@ package org.codice.imaging.nitf.core;
 */
 public class NitfDataExtensionSegmentHeader extends AbstractCommonNitfSegment {
 
+    private static final long serialVersionUID = 1L;
+
     private int desVersion = -1;
     private String overflowedHeaderType = null;
     private int desItemOverflowed = 0;
@@ -242,10 +244,22 @@ public class NitfDataExtensionSegmentHeader extends AbstractCommonNitfSegment {
      * @return true for TRE overflow, otherwise false
      */
     public final boolean isTreOverflow(final FileType fileType) {
+        return isTreOverflow(getIdentifier(), fileType);
+    }
+
+    /**
+     * Check if a DES identifier is for a TRE overflow DES.
+     *
+     * @param identifier the DES identifier (DESID)
+     * @param fileType the file type (NITF version)
+     * @return true for TRE overflow, otherwise false
+     */
+    static boolean isTreOverflow(final String identifier, final FileType fileType) {
         if (fileType == FileType.NITF_TWO_ZERO) {
-            return isTreOverflowNitf20();
+            return identifier.trim().equals(NitfConstants.REGISTERED_EXTENSIONS)
+                    || identifier.trim().equals(NitfConstants.CONTROLLED_EXTENSIONS);
         } else {
-            return isTreOverflowNitf21();
+            return identifier.trim().equals(NitfConstants.TRE_OVERFLOW);
         }
     }
 }
@@ -21,6 +21,7 @@ import java.text.ParseException;
 */
 class NitfDataExtensionSegmentHeaderParser extends AbstractNitfSegmentParser {
     private int userDefinedSubheaderLength = 0;
+    private String identifier = null;
 
     private NitfDataExtensionSegmentHeader segment = null;
 
@@ -28,49 +29,74 @@ class NitfDataExtensionSegmentHeaderParser extends AbstractNitfSegmentParser {
     NitfDataExtensionSegmentHeaderParser() {
     }
 
-    final NitfDataExtensionSegmentHeader parse(final NitfReader nitfReader) throws ParseException {
+    final NitfDataExtensionSegmentHeader parse(final NitfReader nitfReader, final NitfParseStrategy parseStrategy) throws ParseException {
         reader = nitfReader;
-        segment = new NitfDataExtensionSegmentHeader();
+        parsingStrategy = parseStrategy;
+        if (isBuildingModel()) {
+            segment = new NitfDataExtensionSegmentHeader();
+        }
+        userDefinedSubheaderLength = 0;
 
-        readDE();
-        readDESID();
-        readDESVER();
-        segment.setSecurityMetadata(new NitfSecurityMetadata(reader));
+        try {
+            readDE();
+            readDESID();
+            readDESVER();
+            readNitfSecurityMetadata(segment);
 
-        if (segment.isTreOverflow(reader.getFileType())) {
-            readDESOFLW();
-            readDESITEM();
+            if (NitfDataExtensionSegmentHeader.isTreOverflow(identifier, reader.getFileType())) {
+                readDESOFLW();
+                readDESITEM();
+            }
+            readDSSHL();
+            readDSSHF();
+            endFields();
+            return segment;
+        } finally {
+            releaseReader();
+            segment = null;
+            identifier = null;
         }
-        readDSSHL();
-        readDSSHF();
-        return segment;
     }
 
     private void readDE() throws ParseException {
+        field("DE");
         reader.verifyHeaderMagic(NitfConstants.DE);
     }
 
     private void readDESID() throws ParseException {
-        segment.setIdentifier(reader.readBytes(NitfConstants.DESID_LENGTH));
+        field("DESID");
+        identifier = reader.readBytes(NitfConstants.DESID_LENGTH);
+        if (segment != null) {
+            segment.setIdentifier(identifier);
+        }
     }
 
     private void readDESVER() throws ParseException {
-        segment.setDESVersion(reader.readBytesAsInteger(NitfConstants.DESVER_LENGTH));
+        if (decodeField("DESVER", NitfConstants.DESVER_LENGTH)) {
+            segment.setDESVersion(reader.readInt(NitfConstants.DESVER_LENGTH));
+        }
     }
 
     private void readDESOFLW() throws ParseException {
-        segment.setOverflowedHeaderType(reader.readTrimmedBytes(NitfConstants.DESOFLW_LENGTH));
+        if (decodeField("DESOFLW", NitfConstants.DESOFLW_LENGTH)) {
+            segment.setOverflowedHeaderType(reader.readTrimmedBytes(NitfConstants.DESOFLW_LENGTH));
+        }
     }
 
     private void readDESITEM() throws ParseException {
-        segment.setItemOverflowed(reader.readBytesAsInteger(NitfConstants.DESITEM_LENGTH));
+        if (decodeField("DESITEM", NitfConstants.DESITEM_LENGTH)) {
+            segment.setItemOverflowed(reader.readInt(NitfConstants.DESITEM_LENGTH));
+        }
     }
 
     private void readDSSHL() throws ParseException {
-        userDefinedSubheaderLength = reader.readBytesAsInteger(NitfConstants.DESSHL_LENGTH);
+        field("DESSHL");
+        userDefinedSubheaderLength = reader.readInt(NitfConstants.DESSHL_LENGTH);
     }
 
     private void readDSSHF() throws ParseException {
-        segment.setUserDefinedSubheaderField(reader.readBytes(userDefinedSubheaderLength));
+        if (decodeField("DESSHF", userDefinedSubheaderLength)) {
+            segment.setUserDefinedSubheaderField(reader.readBytes(userDefinedSubheaderLength));
+        }
     }
 }
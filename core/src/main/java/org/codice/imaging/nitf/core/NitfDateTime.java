@@ -14,6 +14,7 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
@@ -21,7 +22,9 @@ import java.util.TimeZone;
 /**
     Date / time representation.
 */
-public class NitfDateTime {
+public class NitfDateTime implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String sourceString = null;
 
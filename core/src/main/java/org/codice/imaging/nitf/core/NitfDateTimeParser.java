@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.util.Calendar;
+
+/**
+    Fixed format parser for NITF date / time fields.
+    <p>
+    This fills in a NitfDateTime directly from the characters of the field, without creating any objects.
+    It handles the well formed values: the NITF 2.1 / NSIF 1.0 form (CCYYMMDDhhmmss, optionally truncated
+    to whole fields, with the rest replaced by hyphens or spaces) and the NITF 2.0 form (DDhhmmssZMONYY).
+    Anything else, such as out of range values, is reported as not handled, so that the caller can apply
+    the lenient SimpleDateFormat rules.
+*/
+final class NitfDateTimeParser {
+
+    private static final int FIELD_LENGTH = 2;
+    private static final int YEAR_LENGTH = 4;
+    private static final int DECIMAL_RADIX = 10;
+    private static final int MONTHS_PER_YEAR = 12;
+    private static final int HOURS_PER_DAY = 24;
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int DAYS_IN_FEBRUARY_LEAP_YEAR = 29;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int LEAP_YEAR_INTERVAL = 4;
+    private static final int CENTURY = 100;
+    private static final int LEAP_CENTURY_INTERVAL = 400;
+
+    // Years before the Gregorian calendar was adopted are left to the Julian rules of GregorianCalendar.
+    private static final int FIRST_GREGORIAN_YEAR = 1583;
+
+    // NITF 2.1 field offsets: CCYYMMDDhhmmss
+    private static final int NITF21_MONTH_OFFSET = 4;
+    private static final int NITF21_DAY_OFFSET = 6;
+    private static final int NITF21_HOUR_OFFSET = 8;
+    private static final int NITF21_MINUTE_OFFSET = 10;
+    private static final int NITF21_SECOND_OFFSET = 12;
+
+    // NITF 2.0 field offsets: DDhhmmssZMONYY
+    private static final int NITF20_HOUR_OFFSET = 2;
+    private static final int NITF20_MINUTE_OFFSET = 4;
+    private static final int NITF20_SECOND_OFFSET = 6;
+    private static final int NITF20_ZULU_OFFSET = 8;
+    private static final int NITF20_MONTH_OFFSET = 9;
+    private static final int NITF20_MONTH_LENGTH = 3;
+    private static final int NITF20_YEAR_OFFSET = 12;
+    private static final String[] NITF20_MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+
+    // SimpleDateFormat places two digit years within 80 years before and 20 years after the current date.
+    private static final int TWO_DIGIT_YEAR_PAST_SPAN = 80;
+    private static final int TWO_DIGIT_YEAR_START = Calendar.getInstance().get(Calendar.YEAR) - TWO_DIGIT_YEAR_PAST_SPAN;
+
+    private static final int NOT_A_NUMBER = -1;
+
+    private NitfDateTimeParser() {
+    }
+
+    /**
+        Parse a NITF 2.1 / NSIF 1.0 date / time field.
+
+        @param source the field value.
+        @param dateTime the date / time to fill in.
+        @return true if the value was parsed, false if it is not a well formed date / time.
+    */
+    static boolean parseNitf21(final String source, final NitfDateTime dateTime) {
+        int length = getNitf21Length(source);
+        if ((length < YEAR_LENGTH) || (length > NitfConstants.STANDARD_DATE_TIME_LENGTH) || (length % FIELD_LENGTH != 0)) {
+            return false;
+        }
+        int year = parseDigits(source, 0, YEAR_LENGTH);
+        int month = parseOptionalField(source, NITF21_MONTH_OFFSET, length, 1);
+        int day = parseOptionalField(source, NITF21_DAY_OFFSET, length, 1);
+        int hour = parseOptionalField(source, NITF21_HOUR_OFFSET, length, 0);
+        int minute = parseOptionalField(source, NITF21_MINUTE_OFFSET, length, 0);
+        int second = parseOptionalField(source, NITF21_SECOND_OFFSET, length, 0);
+        if (!isValid(year, month, day, hour, minute, second)) {
+            return false;
+        }
+        dateTime.set(year, month, day, hour, minute, second);
+        return true;
+    }
+
+    /**
+        Parse a NITF 2.0 date / time field.
+
+        @param source the field value.
+        @param dateTime the date / time to fill in.
+        @return true if the value was parsed, false if it is not a well formed date / time.
+    */
+    static boolean parseNitf20(final String source, final NitfDateTime dateTime) {
+        if ((source.length() != NitfConstants.STANDARD_DATE_TIME_LENGTH) || (source.charAt(NITF20_ZULU_OFFSET) != 'Z')) {
+            return false;
+        }
+        int day = parseDigits(source, 0, FIELD_LENGTH);
+        int hour = parseDigits(source, NITF20_HOUR_OFFSET, FIELD_LENGTH);
+        int minute = parseDigits(source, NITF20_MINUTE_OFFSET, FIELD_LENGTH);
+        int second = parseDigits(source, NITF20_SECOND_OFFSET, FIELD_LENGTH);
+        int month = parseMonthName(source);
+        int twoDigitYear = parseDigits(source, NITF20_YEAR_OFFSET, FIELD_LENGTH);
+        if ((twoDigitYear == NOT_A_NUMBER) || (twoDigitYear == TWO_DIGIT_YEAR_START % CENTURY)) {
+            // The start year of the window depends on the day, so leave it to SimpleDateFormat.
+            return false;
+        }
+        int year = (TWO_DIGIT_YEAR_START / CENTURY) * CENTURY + twoDigitYear;
+        if (year < TWO_DIGIT_YEAR_START) {
+            year += CENTURY;
+        }
+        if (!isValid(year, month, day, hour, minute, second)) {
+            return false;
+        }
+        dateTime.set(year, month, day, hour, minute, second);
+        return true;
+    }
+
+    // The length of the value once trailing spaces, and then trailing hyphens, are removed, or -1 if
+    // there is leading white space.
+    private static int getNitf21Length(final String source) {
+        if (source.isEmpty() || (source.charAt(0) <= ' ')) {
+            return NOT_A_NUMBER;
+        }
+        int end = source.length();
+        while (source.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        while ((end > 0) && (source.charAt(end - 1) == '-')) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int parseOptionalField(final String source, final int offset, final int length, final int defaultValue) {
+        if (offset >= length) {
+            return defaultValue;
+        }
+        return parseDigits(source, offset, FIELD_LENGTH);
+    }
+
+    private static int parseDigits(final String source, final int offset, final int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; ++i) {
+            char c = source.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return NOT_A_NUMBER;
+            }
+            value = value * DECIMAL_RADIX + (c - '0');
+        }
+        return value;
+    }
+
+    private static int parseMonthName(final String source) {
+        for (int i = 0; i < NITF20_MONTHS.length; ++i) {
+            if (source.regionMatches(true, NITF20_MONTH_OFFSET, NITF20_MONTHS[i], 0, NITF20_MONTH_LENGTH)) {
+                return i + 1;
+            }
+        }
+        return NOT_A_NUMBER;
+    }
+
+    private static boolean isValid(final int year, final int month, final int day, final int hour, final int minute, final int second) {
+        if ((year < FIRST_GREGORIAN_YEAR) || (month < 1) || (month > MONTHS_PER_YEAR) || (day < 1) || (day > getDaysInMonth(year, month))) {
+            return false;
+        }
+        return (hour >= 0) && (hour < HOURS_PER_DAY) && (minute >= 0) && (minute < MINUTES_PER_HOUR) && (second >= 0)
+                && (second < SECONDS_PER_MINUTE);
+    }
+
+    private static int getDaysInMonth(final int year, final int month) {
+        if ((month == 2) && isLeapYear(year)) {
+            return DAYS_IN_FEBRUARY_LEAP_YEAR;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return ((year % LEAP_YEAR_INTERVAL == 0) && (year % CENTURY != 0)) || (year % LEAP_CENTURY_INTERVAL == 0);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.text.ParseException;
+
+/**
+    Event driven parser for a NITF file.
+    <p>
+    This reports the fields of the file header and every segment subheader, and the TREs in them, to a
+    NitfFieldListener, as the normal parsers read them. The parsers run with the listener as their field sink
+    (see NitfFieldSink), so they do not build the Nitf and segment header objects: they only decode the fields
+    that determine the layout of the file, and skip the rest. Field values are handed to the listener as views
+    over a re-used buffer, so there is very little allocation per field, and the TREs are not parsed. This
+    suits indexing pipelines that build their own records.
+    <p>
+    Segment data is skipped. For streaming mode files, the file header is reported once, from the streaming
+    file header at the end of the file, which has the real values.
+*/
+public final class NitfFieldEventParser {
+
+    private NitfFieldEventParser() {
+    }
+
+    /**
+     * Parse a NITF file, reporting the fields to a listener.
+     *
+     * @param nitfReader the reader to use, positioned at the start of the file
+     * @param fieldListener the listener to report the fields to
+     * @throws ParseException if an error occurs during parsing
+     */
+    public static void parse(final NitfReader nitfReader, final NitfFieldListener fieldListener) throws ParseException {
+        FieldEventReader events = new FieldEventReader(nitfReader, fieldListener);
+        FieldEventParseStrategy parseStrategy = new FieldEventParseStrategy(events);
+        events.startSegment(null, 0);
+        SegmentDirectory segmentDirectory = NitfFileParser.parseFileHeader(events, parseStrategy, events);
+        events.endSegment();
+        readSegments(events, parseStrategy, segmentDirectory);
+    }
+
+    private static void readSegments(final FieldEventReader events, final NitfParseStrategy parseStrategy,
+            final SegmentDirectory segmentDirectory) throws ParseException {
+        NitfImageSegmentHeaderParser imageSegmentHeaderParser = new NitfImageSegmentHeaderParser();
+        NitfGraphicSegmentHeaderParser graphicSegmentHeaderParser = new NitfGraphicSegmentHeaderParser();
+        NitfSymbolSegmentHeaderParser symbolSegmentHeaderParser = new NitfSymbolSegmentHeaderParser();
+        NitfLabelSegmentHeaderParser labelSegmentHeaderParser = new NitfLabelSegmentHeaderParser();
+        NitfTextSegmentHeaderParser textSegmentHeaderParser = new NitfTextSegmentHeaderParser();
+        NitfDataExtensionSegmentHeaderParser dataExtensionSegmentHeaderParser = new NitfDataExtensionSegmentHeaderParser();
+        for (AbstractNitfSegmentParser parser : new AbstractNitfSegmentParser[] {imageSegmentHeaderParser, graphicSegmentHeaderParser,
+                symbolSegmentHeaderParser, labelSegmentHeaderParser, textSegmentHeaderParser, dataExtensionSegmentHeaderParser}) {
+            parser.setFieldSink(events);
+        }
+        for (SegmentType segmentType : segmentDirectory.getSegmentTypes()) {
+            for (int i = 0; i < segmentDirectory.getNumberOfSegments(segmentType); ++i) {
+                events.startSegment(segmentType, i);
+                switch (segmentType) {
+                    case IMAGE:
+                        imageSegmentHeaderParser.parse(events, parseStrategy);
+                        break;
+                    case GRAPHIC:
+                        graphicSegmentHeaderParser.parse(events, parseStrategy);
+                        break;
+                    case SYMBOL:
+                        symbolSegmentHeaderParser.parse(events, parseStrategy);
+                        break;
+                    case LABEL:
+                        labelSegmentHeaderParser.parse(events, parseStrategy);
+                        break;
+                    case TEXT:
+                        textSegmentHeaderParser.parse(events, parseStrategy);
+                        break;
+                    case DATA_EXTENSION:
+                    default:
+                        dataExtensionSegmentHeaderParser.parse(events, parseStrategy);
+                        break;
+                }
+                events.stopCapturing();
+                long dataOffset = segmentDirectory.getDataOffset(segmentType, i);
+                events.skip(dataOffset - events.getCurrentOffset() + segmentDirectory.getDataLength(segmentType, i));
+                events.endSegment();
+            }
+        }
+    }
+
+    /**
+        Parse strategy that reports the TREs instead of parsing them.
+        <p>
+        There is no file header object without the model, so the other methods are not used.
+    */
+    private static final class FieldEventParseStrategy implements NitfParseStrategy {
+
+        private final FieldEventReader events;
+
+        FieldEventParseStrategy(final FieldEventReader fieldEvents) {
+            events = fieldEvents;
+        }
+
+        @Override
+        public void setFileHeader(final Nitf nitfHeader) {
+        }
+
+        @Override
+        public Nitf getNitfHeader() {
+            return null;
+        }
+
+        @Override
+        public void baseHeadersRead(final NitfReader reader) {
+        }
+
+        // Returns null, because the TREs are only reported. The parsers do not use TREs without the model.
+        @Override
+        public TreCollection parseTREs(final NitfReader reader, final int length) throws ParseException {
+            events.endField(reader.getCurrentOffset());
+            long end = reader.getCurrentOffset() + length;
+            while (reader.getCurrentOffset() < end) {
+                long treStart = reader.getCurrentOffset();
+                reader.skip(NitfConstants.TAG_LENGTH);
+                int treLength = reader.readInt(NitfConstants.TAGLEN_LENGTH);
+                events.startTre(treStart, treLength);
+                events.field("CEDATA", reader.getCurrentOffset());
+                reader.skip(treLength);
+                events.endTre(reader.getCurrentOffset());
+            }
+            return null;
+        }
+    }
+}
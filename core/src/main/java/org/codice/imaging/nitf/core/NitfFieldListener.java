@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+/**
+    Callbacks for event driven parsing of a NITF file.
+    <p>
+    See NitfFieldEventParser. Events are delivered in file order. The file header is reported as a
+    segment with a null segment type. Fields and TREs are reported for the file header and for every
+    segment subheader.
+    <p>
+    Field values are only valid for the duration of the callback, because the parser re-uses the
+    underlying buffer. Use toString() on the value to keep it.
+*/
+public interface NitfFieldListener {
+
+    /**
+        Called at the start of the file header or a segment.
+
+        @param segmentType the type of segment, or null for the file header.
+        @param segmentIndex the index (zero base) of the segment within its type.
+    */
+    void onSegmentStart(SegmentType segmentType, int segmentIndex);
+
+    /**
+        Called for each field.
+        <p>
+        Repeated fields (e.g. ICOM, or the image band fields) are reported once for each repetition,
+        using the field name without the repetition number.
+
+        @param segmentType the type of segment, or null for the file header.
+        @param segmentIndex the index (zero base) of the segment within its type.
+        @param fieldId the field name from MIL-STD-2500C (e.g. "FTITLE", "IID1", "TSCLAS"), or MIL-STD-2500A
+        for the NITF 2.0 symbol and label segments.
+        @param value the raw field value, including any padding.
+    */
+    void onField(SegmentType segmentType, int segmentIndex, String fieldId, CharSequence value);
+
+    /**
+        Called at the start of a TRE.
+        <p>
+        The TRE data follows as a CEDATA field.
+
+        @param segmentType the type of segment, or null for the file header.
+        @param segmentIndex the index (zero base) of the segment within its type.
+        @param tag the TRE name (CETAG), including any padding.
+        @param length the length of the TRE data (CEL).
+    */
+    void onTreStart(SegmentType segmentType, int segmentIndex, CharSequence tag, int length);
+
+    /**
+        Called at the end of a TRE.
+
+        @param segmentType the type of segment, or null for the file header.
+        @param segmentIndex the index (zero base) of the segment within its type.
+    */
+    void onTreEnd(SegmentType segmentType, int segmentIndex);
+
+    /**
+        Called at the end of the file header or a segment.
+
+        @param segmentType the type of segment, or null for the file header.
+        @param segmentIndex the index (zero base) of the segment within its type.
+    */
+    void onSegmentEnd(SegmentType segmentType, int segmentIndex);
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.text.ParseException;
+
+/**
+    Destination for the fields that the parsers read.
+    <p>
+    The parsers mark the start of each field with its offset in the file, and ask the sink whether to build
+    the model (the Nitf, segment headers and so on). There are two sinks: ModelFieldSink, which builds the
+    model and ignores the marks, and FieldEventReader, which reports the marks to a NitfFieldListener and
+    does not build the model. Without the model, the parsers only decode the fields that determine the
+    layout of the rest of the file (e.g. the segment lengths, and the number of image bands), and skip
+    the others.
+*/
+interface NitfFieldSink {
+
+    /**
+        Check whether the parsers should build the model.
+
+        @return true to decode the fields into the model, false to only walk over them.
+    */
+    boolean isBuildingModel();
+
+    /**
+        Mark the start of a field, which also ends the previous field.
+
+        @param fieldId the field name from MIL-STD-2500C.
+        @param offset the offset of the field in the file.
+        @throws ParseException if the previous field could not be handled.
+    */
+    void field(String fieldId, long offset) throws ParseException;
+
+    /**
+        Mark the start of a security metadata field.
+        <p>
+        The security fields are shared by the file header and the subheaders, so the field name is given
+        without the prefix for the segment type (e.g. "CLAS" rather than "FSCLAS").
+
+        @param fieldId the field name without the prefix.
+        @param offset the offset of the field in the file.
+        @throws ParseException if the previous field could not be handled.
+    */
+    void securityField(String fieldId, long offset) throws ParseException;
+
+    /**
+        Mark the end of the current field, if there is one.
+
+        @param offset the offset of the end of the field in the file.
+        @throws ParseException if the field could not be handled.
+    */
+    void endField(long offset) throws ParseException;
+}
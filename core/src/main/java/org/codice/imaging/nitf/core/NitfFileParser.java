@@ -14,15 +14,47 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
     Parser for a NITF file.
 */
 public final class NitfFileParser extends AbstractNitfSegmentParser {
 
+    private static final Logger LOG = LoggerFactory.getLogger(NitfFileParser.class);
+
+    // The fields up to FTITLE are the same for all file types.
+    private static final int FTITLE_END_OFFSET = NitfConstants.FHDR_LENGTH + NitfConstants.FVER_LENGTH + NitfConstants.CLEVEL_LENGTH
+            + NitfConstants.STYPE_LENGTH + NitfConstants.OSTAID_LENGTH + NitfConstants.STANDARD_DATE_TIME_LENGTH + NitfConstants.FTITLE_LENGTH;
+
+    private static final int HL_END_OFFSET = FTITLE_END_OFFSET + NitfConstants.XSCLAS_LENGTH + NitfConstants.XSCLSY_LENGTH
+            + NitfConstants.XSCODE_LENGTH + NitfConstants.XSCTLH_LENGTH + NitfConstants.XSREL_LENGTH + NitfConstants.XSDCTP_LENGTH
+            + NitfConstants.XSDCDT_LENGTH + NitfConstants.XSDCXM_LENGTH + NitfConstants.XSDG_LENGTH + NitfConstants.XSDGDT_LENGTH
+            + NitfConstants.XSCLTX_LENGTH + NitfConstants.XSCATP_LENGTH + NitfConstants.XSCAUT_LENGTH + NitfConstants.XSCRSN_LENGTH
+            + NitfConstants.XSSRDT_LENGTH + NitfConstants.XSCTLN_LENGTH + NitfConstants.FSCOP_LENGTH + NitfConstants.FSCPYS_LENGTH
+            + NitfConstants.ENCRYP_LENGTH + NitfConstants.RGB_COLOUR_LENGTH + NitfConstants.ONAME_LENGTH + NitfConstants.OPHONE_LENGTH
+            + NitfConstants.FL_LENGTH + NitfConstants.HL_LENGTH;
+
+    private static final int DWNG20_OFFSET = FTITLE_END_OFFSET + NitfConstants.XSCLAS_LENGTH + NitfConstants.XSCODE20_LENGTH
+            + NitfConstants.XSCTLH20_LENGTH + NitfConstants.XSREL20_LENGTH + NitfConstants.XSCAUT20_LENGTH + NitfConstants.XSCTLN20_LENGTH;
+
+    // Without the optional FSDEVT field.
+    private static final int HL_END_OFFSET20 = DWNG20_OFFSET + NitfConstants.XSDWNG20_LENGTH + NitfConstants.FSCOP_LENGTH
+            + NitfConstants.FSCPYS_LENGTH + NitfConstants.ENCRYP_LENGTH + NitfConstants.ONAME20_LENGTH + NitfConstants.OPHONE_LENGTH
+            + NitfConstants.FL_LENGTH + NitfConstants.HL_LENGTH;
+
+    private static final String STREAMING_FILE_MODE_FL = String.valueOf(NitfConstants.STREAMING_FILE_MODE);
+
+    private FileType fileType = FileType.UNKNOWN;
     private long nitfFileLength = -1;
+    private int fileHeaderLength = 0;
 
     private int numberImageSegments = 0;
     private int numberGraphicSegments = 0;
@@ -34,13 +66,21 @@ public final class NitfFileParser extends AbstractNitfSegmentParser {
     private int userDefinedHeaderDataLength = 0;
     private int extendedHeaderDataLength = 0;
 
+    private final Map<SegmentType, long[]> subHeaderLengths = new EnumMap<>(SegmentType.class);
+    private final Map<SegmentType, long[]> dataLengths = new EnumMap<>(SegmentType.class);
+    private boolean placeholderHeader = false;
+
     private Nitf nitf = null;
 
-    private NitfFileParser(final NitfReader nitfReader, final NitfParseStrategy parseStrategy) throws ParseException {
-        nitf = new Nitf();
+    private NitfFileParser(final NitfReader nitfReader, final NitfParseStrategy parseStrategy, final NitfFieldSink fieldSink)
+            throws ParseException {
         reader = nitfReader;
-        parseStrategy.setFileHeader(nitf);
         parsingStrategy = parseStrategy;
+        setFieldSink(fieldSink);
+        if (isBuildingModel()) {
+            nitf = new Nitf();
+            parseStrategy.setFileHeader(nitf);
+        }
     };
 
     /**
@@ -53,25 +93,126 @@ public final class NitfFileParser extends AbstractNitfSegmentParser {
      * @throws ParseException if an error occurs during parsing
      */
     public static void parse(final NitfReader nitfReader, final NitfParseStrategy parseStrategy) throws ParseException {
-        NitfFileParser parser = new NitfFileParser(nitfReader, parseStrategy);
+        NitfFileParser parser = new NitfFileParser(nitfReader, parseStrategy, ModelFieldSink.INSTANCE);
+        parser.readFileHeader();
+        parseStrategy.baseHeadersRead(nitfReader);
+    }
 
-        parser.readBaseHeaders();
-        if (parser.isStreamingMode()) {
-            parser.handleStreamingMode();
+    /**
+     * Parse the file header of a NITF file, passing the fields to a field sink.
+     * <p>
+     * The parse strategy is only used for the TREs, and the segments are not read. If the sink does not build the
+     * model, the parse strategy does not get a file header (see NitfFieldSink). For a streaming mode file, only the
+     * streaming file header at the end of the file is passed to the sink.
+     *
+     * @param nitfReader the reader to use, positioned at the start of the file
+     * @param parseStrategy the parsing strategy for the TREs
+     * @param fieldSink the sink for the fields
+     * @return the directory of the segments, which follow the file header
+     * @throws ParseException if an error occurs during parsing
+     */
+    static SegmentDirectory parseFileHeader(final NitfReader nitfReader, final NitfParseStrategy parseStrategy, final NitfFieldSink fieldSink)
+            throws ParseException {
+        NitfFileParser parser = new NitfFileParser(nitfReader, parseStrategy, fieldSink);
+        parser.readFileHeader();
+        return new SegmentDirectory(parser.fileType, parser.subHeaderLengths, parser.dataLengths, nitfReader.getCurrentOffset());
+    }
+
+    private void readFileHeader() throws ParseException {
+        readBaseHeaders();
+        if (isStreamingMode()) {
+            handleStreamingMode();
         }
-        parseStrategy.baseHeadersRead(nitfReader);
     }
 
 
+    // The file header is read in one go, using the header length (HL) field, and the fields are then
+    // parsed from memory. This keeps a header-only parse to one or two reads of the file header.
+    // If HL is larger than the fields, the rest of the header has been read, so the segments start at HL.
+    // If HL is smaller, the fields that are missing from memory are read from the file as they are needed.
     private void readBaseHeaders() throws ParseException {
+        NitfReader sourceReader = reader;
+        long headerStart = sourceReader.getCurrentOffset();
+        byte[] header = readFileHeaderBytes();
+        ByteArrayReader headerReader = new ByteArrayReader(header, headerStart, sourceReader);
+        reader = headerReader;
+        NitfFieldSink fieldSink = getFieldSink();
+        // Without the model, only the streaming file header (which has the real values) is passed to the sink.
+        placeholderHeader = !fieldSink.isBuildingModel() && isStreamingModeHeader(header);
+        if (placeholderHeader) {
+            setFieldSink(PlaceholderHeaderFieldSink.INSTANCE);
+        }
+        try {
+            readBaseHeaderFields();
+        } finally {
+            reader = sourceReader;
+            setFieldSink(fieldSink);
+            placeholderHeader = false;
+        }
+        reader.setFileType(fileType);
+        long fieldsLength = headerReader.getCurrentOffset() - headerStart;
+        if (fieldsLength != fileHeaderLength) {
+            LOG.warn(String.format("File header length (HL) %d does not match the length of the header fields %d, using %d",
+                                   fileHeaderLength, fieldsLength, reader.getCurrentOffset() - headerStart));
+        }
+    }
+
+    private static boolean isStreamingModeHeader(final byte[] header) {
+        int hlEndOffset = HL_END_OFFSET;
+        if (FileType.getEnumValue(header, 0, NitfConstants.FHDR_LENGTH + NitfConstants.FVER_LENGTH) == FileType.NITF_TWO_ZERO) {
+            hlEndOffset = getHlEndOffset20(header);
+        }
+        if (hlEndOffset > header.length) {
+            return false;
+        }
+        int flOffset = hlEndOffset - NitfConstants.HL_LENGTH - NitfConstants.FL_LENGTH;
+        return STREAMING_FILE_MODE_FL.equals(new String(header, flOffset, NitfConstants.FL_LENGTH, StandardCharsets.US_ASCII));
+    }
+
+    private static int getHlEndOffset20(final byte[] prefix) {
+        String downgrade = new String(prefix, DWNG20_OFFSET, NitfConstants.XSDWNG20_LENGTH, StandardCharsets.US_ASCII);
+        if (NitfConstants.DOWNGRADE_EVENT_MAGIC.equals(downgrade)) {
+            return HL_END_OFFSET20 + NitfConstants.XSDEVT20_LENGTH;
+        }
+        return HL_END_OFFSET20;
+    }
+
+    private byte[] readFileHeaderBytes() throws ParseException {
+        int hlEndOffset = HL_END_OFFSET;
+        byte[] prefix = reader.readBytesRaw(hlEndOffset);
+        if (FileType.getEnumValue(prefix, 0, NitfConstants.FHDR_LENGTH + NitfConstants.FVER_LENGTH) == FileType.NITF_TWO_ZERO) {
+            hlEndOffset = getHlEndOffset20(prefix);
+            if (hlEndOffset > prefix.length) {
+                int prefixLength = prefix.length;
+                prefix = Arrays.copyOf(prefix, hlEndOffset);
+                reader.readBytesRaw(prefix, prefixLength, hlEndOffset - prefixLength);
+            }
+        }
+        String hl = new String(prefix, hlEndOffset - NitfConstants.HL_LENGTH, NitfConstants.HL_LENGTH, StandardCharsets.US_ASCII);
+        int headerLength;
+        try {
+            headerLength = Integer.parseInt(hl);
+        } catch (NumberFormatException ex) {
+            // Reported with the right offset when the HL field is parsed.
+            return prefix;
+        }
+        if (headerLength <= hlEndOffset) {
+            return prefix;
+        }
+        byte[] header = Arrays.copyOf(prefix, headerLength);
+        reader.readBytesRaw(header, hlEndOffset, headerLength - hlEndOffset);
+        return header;
+    }
+
+    private void readBaseHeaderFields() throws ParseException {
         readFHDRFVER();
-        reader.setFileType(nitf.getFileType());
+        reader.setFileType(fileType);
         readCLEVEL();
         readSTYPE();
         readOSTAID();
         readFDT();
         readFTITLE();
-        nitf.setFileSecurityMetadata(new NitfFileSecurityMetadata(reader));
+        readFileSecurityMetadata();
         readENCRYP();
         if ((reader.getFileType() == FileType.NITF_TWO_ONE) || (reader.getFileType() == FileType.NSIF_ONE_ZERO)) {
             readFBKGC();
@@ -88,10 +229,12 @@ public final class NitfFileParser extends AbstractNitfSegmentParser {
         readBaseHeaderReservedExtensionParts();
         readBaseHeaderUserDefinedHeaderData();
         readBaseHeaderExtendedHeader();
+        endFields();
     }
 
     private void readBaseHeaderImageParts() throws ParseException {
         readNUMI();
+        startLengthTables(SegmentType.IMAGE, numberImageSegments);
         for (int i = 0; i < numberImageSegments; ++i) {
             readLISH(i);
             readLI(i);
@@ -100,36 +243,52 @@ public final class NitfFileParser extends AbstractNitfSegmentParser {
 
     private void readBaseHeaderGraphicParts() throws ParseException {
         readNUMS();
+        startLengthTables(getGraphicSegmentType(), numberGraphicSegments);
         for (int i = 0; i < numberGraphicSegments; ++i) {
-            readLSSH();
-            readLS();
+            readLSSH(i);
+            readLS(i);
         }
     }
 
     private void readBaseHeaderLabelParts() throws ParseException {
         readNUMX();
+        startLengthTables(SegmentType.LABEL, numberLabelSegments);
         for (int i = 0; i < numberLabelSegments; ++i) {
-            readLLSH();
-            readLL();
+            readLLSH(i);
+            readLL(i);
         }
     }
 
     private void readBaseHeaderTextParts() throws ParseException {
         readNUMT();
+        startLengthTables(SegmentType.TEXT, numberTextSegments);
         for (int i = 0; i < numberTextSegments; ++i) {
-            readLTSH();
-            readLT();
+            readLTSH(i);
+            readLT(i);
         }
     }
 
     private void readBaseHeaderDataExtensionSegmentParts() throws ParseException {
         readNUMDES();
+        startLengthTables(SegmentType.DATA_EXTENSION, numberDataExtensionSegments);
         for (int i = 0; i < numberDataExtensionSegments; ++i) {
             readLDSH(i);
             readLD(i);
         }
     }
 
+    private SegmentType getGraphicSegmentType() {
+        if (fileType == FileType.NITF_TWO_ZERO) {
+            return SegmentType.SYMBOL;
+        }
+        return SegmentType.GRAPHIC;
+    }
+
+    private void startLengthTables(final SegmentType segmentType, final int numberOfSegments) {
+        subHeaderLengths.put(segmentType, new long[numberOfSegments]);
+        dataLengths.put(segmentType, new long[numberOfSegments]);
+    }
+
     private void readBaseHeaderReservedExtensionParts() throws ParseException {
         readNUMRES();
         for (int i = 0; i < numberReservedExtensionSegments; ++i) {
@@ -154,16 +313,34 @@ public final class NitfFileParser extends AbstractNitfSegmentParser {
         }
     }
 
+    private void readFileSecurityMetadata() throws ParseException {
+        if (isBuildingModel()) {
+            nitf.setFileSecurityMetadata(new NitfFileSecurityMetadata(reader));
+        } else {
+            NitfFileSecurityMetadataParser securityMetadataParser = new NitfFileSecurityMetadataParser();
+            securityMetadataParser.setFieldSink(getFieldSink());
+            securityMetadataParser.parse(reader, null);
+        }
+    }
+
     private boolean isStreamingMode() {
         return nitfFileLength == NitfConstants.STREAMING_FILE_MODE;
     }
 
     private void handleStreamingMode() throws ParseException {
-        if (reader.canSeek()) {
+        if (canSeekToEndOfFile(reader)) {
             readStreamingModeHeader();
         } else {
-            throw new ParseException("No support for streaming mode unless input is seekable", 0);
+            throw new ParseException("No support for streaming mode unless input is seekable (see SpoolingInputStreamReader)", 0);
+        }
+    }
+
+    // A spooling reader can't seek until the streaming file header is found, and seeking to it does the spooling.
+    private static boolean canSeekToEndOfFile(final NitfReader nitfReader) {
+        if (nitfReader instanceof FieldEventReader) {
+            return canSeekToEndOfFile(((FieldEventReader) nitfReader).getSource());
         }
+        return nitfReader.canSeek() || (nitfReader instanceof SpoolingInputStreamReader);
     }
 
     // This code will probably make more sense if you read MIL-STD-2500C Section 5.8.3.2 and then have
@@ -176,12 +353,12 @@ public final class NitfFileParser extends AbstractNitfSegmentParser {
 
         verifySfhDelim2();
 
-        long sfhL2 = reader.readBytesAsLong(NitfConstants.SFH_L2_LENGTH);
+        long sfhL2 = reader.readLong(NitfConstants.SFH_L2_LENGTH);
 
         seekToSfhDelim1(sfhL2);
 
         // verify the lengths match.
-        long sfhL1 = reader.readBytesAsLong(NitfConstants.SFH_L1_LENGTH);
+        long sfhL1 = reader.readLong(NitfConstants.SFH_L1_LENGTH);
         if (sfhL1 != sfhL2) {
             throw new ParseException("Mismatch between SFH_L1 and SFH_L2", (int) reader.getCurrentOffset());
         }
@@ -221,165 +398,293 @@ public final class NitfFileParser extends AbstractNitfSegmentParser {
     }
 
     private void readFHDRFVER() throws ParseException {
-        String fhdrfver = reader.readBytes(NitfConstants.FHDR_LENGTH + NitfConstants.FVER_LENGTH);
-        nitf.setFileType(FileType.getEnumValue(fhdrfver));
+        field("FHDR");
+        int length = readCode(NitfConstants.FHDR_LENGTH + NitfConstants.FVER_LENGTH);
+        field("FVER", reader.getCurrentOffset() - NitfConstants.FVER_LENGTH);
+        fileType = FileType.getEnumValue(getCodeBuffer(), 0, length);
+        if (nitf != null) {
+            nitf.setFileType(fileType);
+        }
     }
 
     private void readCLEVEL() throws ParseException {
-        nitf.setComplexityLevel(reader.readBytesAsInteger(NitfConstants.CLEVEL_LENGTH));
-        if ((nitf.getComplexityLevel() < NitfConstants.MIN_COMPLEXITY_LEVEL) || (nitf.getComplexityLevel() > NitfConstants.MAX_COMPLEXITY_LEVEL)) {
-            throw new ParseException(String.format("CLEVEL out of range: %d", nitf.getComplexityLevel()), (int) reader.getCurrentOffset());
+        if (decodeField("CLEVEL", NitfConstants.CLEVEL_LENGTH)) {
+            nitf.setComplexityLevel(reader.readInt(NitfConstants.CLEVEL_LENGTH));
+            if ((nitf.getComplexityLevel() < NitfConstants.MIN_COMPLEXITY_LEVEL)
+                    || (nitf.getComplexityLevel() > NitfConstants.MAX_COMPLEXITY_LEVEL)) {
+                throw new ParseException(String.format("CLEVEL out of range: %d", nitf.getComplexityLevel()), (int) reader.getCurrentOffset());
+            }
         }
     }
 
     private void readSTYPE() throws ParseException {
-        nitf.setStandardType(reader.readTrimmedBytes(NitfConstants.STYPE_LENGTH));
+        if (decodeField("STYPE", NitfConstants.STYPE_LENGTH)) {
+            nitf.setStandardType(reader.readTrimmedBytes(NitfConstants.STYPE_LENGTH));
+        }
     }
 
     private void readOSTAID() throws ParseException {
-        nitf.setOriginatingStationId(reader.readTrimmedBytes(NitfConstants.OSTAID_LENGTH));
+        if (decodeField("OSTAID", NitfConstants.OSTAID_LENGTH)) {
+            nitf.setOriginatingStationId(reader.readTrimmedBytes(NitfConstants.OSTAID_LENGTH));
+        }
     }
 
     private void readFDT() throws ParseException {
-        nitf.setFileDateTime(readNitfDateTime());
+        if (decodeField("FDT", NitfConstants.STANDARD_DATE_TIME_LENGTH)) {
+            nitf.setFileDateTime(readNitfDateTime());
+        }
     }
 
     private void readFTITLE() throws ParseException {
-        nitf.setFileTitle(reader.readTrimmedBytes(NitfConstants.FTITLE_LENGTH));
+        if (decodeField("FTITLE", NitfConstants.FTITLE_LENGTH)) {
+            nitf.setFileTitle(reader.readTrimmedBytes(NitfConstants.FTITLE_LENGTH));
+        }
     }
 
     private void readFBKGC() throws ParseException {
-        nitf.setFileBackgroundColour(readRGBColour());
+        if (decodeField("FBKGC", NitfConstants.RGB_COLOUR_LENGTH)) {
+            nitf.setFileBackgroundColour(readRGBColour());
+        }
     }
 
     private void readONAME() throws ParseException {
-        if ((nitf.getFileType() == FileType.NITF_TWO_ONE) || (nitf.getFileType() == FileType.NSIF_ONE_ZERO)) {
-            nitf.setOriginatorsName(reader.readTrimmedBytes(NitfConstants.ONAME_LENGTH));
-        } else {
-            nitf.setOriginatorsName(reader.readTrimmedBytes(NitfConstants.ONAME20_LENGTH));
+        int length = NitfConstants.ONAME20_LENGTH;
+        if ((fileType == FileType.NITF_TWO_ONE) || (fileType == FileType.NSIF_ONE_ZERO)) {
+            length = NitfConstants.ONAME_LENGTH;
+        }
+        if (decodeField("ONAME", length)) {
+            nitf.setOriginatorsName(reader.readTrimmedBytes(length));
         }
     }
 
     private void readOPHONE() throws ParseException {
-        nitf.setOriginatorsPhoneNumber(reader.readTrimmedBytes(NitfConstants.OPHONE_LENGTH));
+        if (decodeField("OPHONE", NitfConstants.OPHONE_LENGTH)) {
+            nitf.setOriginatorsPhoneNumber(reader.readTrimmedBytes(NitfConstants.OPHONE_LENGTH));
+        }
     }
 
     private void readFL() throws ParseException {
-        nitfFileLength = reader.readBytesAsLong(NitfConstants.FL_LENGTH);
+        field("FL");
+        nitfFileLength = reader.readLong(NitfConstants.FL_LENGTH);
     }
 
     private void readHL() throws ParseException {
-        reader.skip(NitfConstants.HL_LENGTH);
+        field("HL");
+        fileHeaderLength = reader.readInt(NitfConstants.HL_LENGTH);
+        if (nitf != null) {
+            nitf.setHeaderLength(fileHeaderLength);
+        }
     }
 
     private void readNUMI() throws ParseException {
-        numberImageSegments = reader.readBytesAsInteger(NitfConstants.NUMI_LENGTH);
+        field("NUMI");
+        numberImageSegments = reader.readInt(NitfConstants.NUMI_LENGTH);
     }
 
     private void readLISH(final int i) throws ParseException {
+        field("LISH");
+        int length = reader.readInt(NitfConstants.LISH_LENGTH);
+        subHeaderLengths.get(SegmentType.IMAGE)[i] = length;
+        if (nitf == null) {
+            return;
+        }
         if (i < nitf.getImageSegmentSubHeaderLengths().size()) {
-            nitf.getImageSegmentSubHeaderLengths().set(i, reader.readBytesAsInteger(NitfConstants.LISH_LENGTH));
+            nitf.getImageSegmentSubHeaderLengths().set(i, length);
         } else {
-            nitf.getImageSegmentSubHeaderLengths().add(reader.readBytesAsInteger(NitfConstants.LISH_LENGTH));
+            nitf.getImageSegmentSubHeaderLengths().add(length);
         }
     }
 
     private void readLI(final int i) throws ParseException {
+        field("LI");
+        long length = reader.readLong(NitfConstants.LI_LENGTH);
+        dataLengths.get(SegmentType.IMAGE)[i] = length;
+        if (nitf == null) {
+            return;
+        }
         if (i < nitf.getImageSegmentDataLengths().size()) {
-            nitf.getImageSegmentDataLengths().set(i, reader.readBytesAsLong(NitfConstants.LI_LENGTH));
+            nitf.getImageSegmentDataLengths().set(i, length);
         } else {
-            nitf.getImageSegmentDataLengths().add(reader.readBytesAsLong(NitfConstants.LI_LENGTH));
+            nitf.getImageSegmentDataLengths().add(length);
         }
     }
 
     // The next three methods are also used for NITF 2.0 Symbol segment lengths
     private void readNUMS() throws ParseException {
-        numberGraphicSegments = reader.readBytesAsInteger(NitfConstants.NUMS_LENGTH);
+        field("NUMS");
+        numberGraphicSegments = reader.readInt(NitfConstants.NUMS_LENGTH);
     }
 
-    private void readLSSH() throws ParseException {
-        nitf.getGraphicSegmentSubHeaderLengths().add(reader.readBytesAsInteger(NitfConstants.LSSH_LENGTH));
+    private void readLSSH(final int i) throws ParseException {
+        field("LSSH");
+        int length = reader.readInt(NitfConstants.LSSH_LENGTH);
+        subHeaderLengths.get(getGraphicSegmentType())[i] = length;
+        if (nitf != null) {
+            nitf.getGraphicSegmentSubHeaderLengths().add(length);
+        }
     }
 
-    private void readLS() throws ParseException {
-        nitf.getGraphicSegmentDataLengths().add(reader.readBytesAsInteger(NitfConstants.LS_LENGTH));
+    private void readLS(final int i) throws ParseException {
+        field("LS");
+        int length = reader.readInt(NitfConstants.LS_LENGTH);
+        dataLengths.get(getGraphicSegmentType())[i] = length;
+        if (nitf != null) {
+            nitf.getGraphicSegmentDataLengths().add(length);
+        }
     }
 
     private void readNUMX() throws ParseException {
         if (reader.getFileType() == FileType.NITF_TWO_ZERO) {
-            numberLabelSegments = reader.readBytesAsInteger(NitfConstants.NUML20_LENGTH);
+            field("NUML");
+            numberLabelSegments = reader.readInt(NitfConstants.NUML20_LENGTH);
         } else {
+            field("NUMX");
             reader.skip(NitfConstants.NUMX_LENGTH);
         }
     }
 
-    private void readLLSH() throws ParseException {
-        nitf.getLabelSegmentSubHeaderLengths().add(reader.readBytesAsInteger(NitfConstants.LLSH_LENGTH));
+    private void readLLSH(final int i) throws ParseException {
+        field("LLSH");
+        int length = reader.readInt(NitfConstants.LLSH_LENGTH);
+        subHeaderLengths.get(SegmentType.LABEL)[i] = length;
+        if (nitf != null) {
+            nitf.getLabelSegmentSubHeaderLengths().add(length);
+        }
     }
 
-    private void readLL() throws ParseException {
-        nitf.getLabelSegmentDataLengths().add(reader.readBytesAsInteger(NitfConstants.LL_LENGTH));
+    private void readLL(final int i) throws ParseException {
+        field("LL");
+        int length = reader.readInt(NitfConstants.LL_LENGTH);
+        dataLengths.get(SegmentType.LABEL)[i] = length;
+        if (nitf != null) {
+            nitf.getLabelSegmentDataLengths().add(length);
+        }
     }
 
     private void readNUMT() throws ParseException {
-       numberTextSegments = reader.readBytesAsInteger(NitfConstants.NUMT_LENGTH);
+        field("NUMT");
+       numberTextSegments = reader.readInt(NitfConstants.NUMT_LENGTH);
     }
 
-    private void readLTSH() throws ParseException {
-        nitf.getTextSegmentSubHeaderLengths().add(reader.readBytesAsInteger(NitfConstants.LTSH_LENGTH));
+    private void readLTSH(final int i) throws ParseException {
+        field("LTSH");
+        int length = reader.readInt(NitfConstants.LTSH_LENGTH);
+        subHeaderLengths.get(SegmentType.TEXT)[i] = length;
+        if (nitf != null) {
+            nitf.getTextSegmentSubHeaderLengths().add(length);
+        }
     }
 
-    private void readLT() throws ParseException {
-        nitf.getTextSegmentDataLengths().add(reader.readBytesAsInteger(NitfConstants.LT_LENGTH));
+    private void readLT(final int i) throws ParseException {
+        field("LT");
+        int length = reader.readInt(NitfConstants.LT_LENGTH);
+        dataLengths.get(SegmentType.TEXT)[i] = length;
+        if (nitf != null) {
+            nitf.getTextSegmentDataLengths().add(length);
+        }
     }
 
     private void readNUMDES() throws ParseException {
-        numberDataExtensionSegments = reader.readBytesAsInteger(NitfConstants.NUMDES_LENGTH);
+        field("NUMDES");
+        numberDataExtensionSegments = reader.readInt(NitfConstants.NUMDES_LENGTH);
     }
 
     private void readLDSH(final int i) throws ParseException {
+        field("LDSH");
+        int length = reader.readInt(NitfConstants.LDSH_LENGTH);
+        subHeaderLengths.get(SegmentType.DATA_EXTENSION)[i] = length;
+        if (nitf == null) {
+            return;
+        }
         if (i < nitf.getDataExtensionSegmentDataLengths().size()) {
-            nitf.getDataExtensionSegmentSubHeaderLengths().set(i, reader.readBytesAsInteger(NitfConstants.LDSH_LENGTH));
+            nitf.getDataExtensionSegmentSubHeaderLengths().set(i, length);
         } else {
-            nitf.getDataExtensionSegmentSubHeaderLengths().add(reader.readBytesAsInteger(NitfConstants.LDSH_LENGTH));
+            nitf.getDataExtensionSegmentSubHeaderLengths().add(length);
         }
     }
 
     private void readLD(final int i) throws ParseException {
+        field("LD");
+        int length = reader.readInt(NitfConstants.LD_LENGTH);
+        dataLengths.get(SegmentType.DATA_EXTENSION)[i] = length;
+        if (nitf == null) {
+            return;
+        }
         if (i < nitf.getDataExtensionSegmentDataLengths().size()) {
-            nitf.getDataExtensionSegmentDataLengths().set(i, reader.readBytesAsInteger(NitfConstants.LD_LENGTH));
+            nitf.getDataExtensionSegmentDataLengths().set(i, length);
         } else {
-            nitf.getDataExtensionSegmentDataLengths().add(reader.readBytesAsInteger(NitfConstants.LD_LENGTH));
+            nitf.getDataExtensionSegmentDataLengths().add(length);
         }
     }
 
     private void readNUMRES() throws ParseException {
-        numberReservedExtensionSegments = reader.readBytesAsInteger(NitfConstants.NUMRES_LENGTH);
+        field("NUMRES");
+        numberReservedExtensionSegments = reader.readInt(NitfConstants.NUMRES_LENGTH);
     }
 
     private void readUDHDL() throws ParseException {
-        userDefinedHeaderDataLength = reader.readBytesAsInteger(NitfConstants.UDHDL_LENGTH);
+        field("UDHDL");
+        userDefinedHeaderDataLength = reader.readInt(NitfConstants.UDHDL_LENGTH);
     }
 
     private void readUDHOFL() throws ParseException {
-        nitf.setUserDefinedHeaderOverflow(reader.readBytesAsInteger(NitfConstants.UDHOFL_LENGTH));
+        if (decodeField("UDHOFL", NitfConstants.UDHOFL_LENGTH)) {
+            nitf.setUserDefinedHeaderOverflow(reader.readInt(NitfConstants.UDHOFL_LENGTH));
+        }
     }
 
     private void readUDHD() throws ParseException {
-        TreCollection userDefinedHeaderTREs = parsingStrategy.parseTREs(reader, userDefinedHeaderDataLength - NitfConstants.UDHOFL_LENGTH);
-        nitf.mergeTREs(userDefinedHeaderTREs);
+        readHeaderTREs(userDefinedHeaderDataLength - NitfConstants.UDHOFL_LENGTH);
     }
 
     private void readXHDL() throws ParseException {
-        extendedHeaderDataLength = reader.readBytesAsInteger(NitfConstants.XHDL_LENGTH);
+        field("XHDL");
+        extendedHeaderDataLength = reader.readInt(NitfConstants.XHDL_LENGTH);
     }
 
     private void readXHDLOFL() throws ParseException {
-        nitf.setExtendedHeaderDataOverflow(reader.readBytesAsInteger(NitfConstants.XHDLOFL_LENGTH));
+        if (decodeField("XHDLOFL", NitfConstants.XHDLOFL_LENGTH)) {
+            nitf.setExtendedHeaderDataOverflow(reader.readInt(NitfConstants.XHDLOFL_LENGTH));
+        }
     }
 
     private void readXHD() throws ParseException {
-        TreCollection extendedHeaderTres = parsingStrategy.parseTREs(reader, extendedHeaderDataLength - NitfConstants.XHDLOFL_LENGTH);
-        nitf.mergeTREs(extendedHeaderTres);
+        readHeaderTREs(extendedHeaderDataLength - NitfConstants.XHDLOFL_LENGTH);
+    }
+
+    // The TREs in the placeholder header of a streaming mode file are skipped, like its fields.
+    private void readHeaderTREs(final int length) throws ParseException {
+        if (placeholderHeader) {
+            reader.skip(length);
+        } else {
+            readTREs(nitf, length);
+        }
+    }
+
+    /**
+        Field sink for the placeholder file header of a streaming mode file, when the model is not being built.
+        <p>
+        The streaming file header at the end of the file replaces the placeholder, so the placeholder
+        fields are only walked over, to find the segments.
+    */
+    private static final class PlaceholderHeaderFieldSink implements NitfFieldSink {
+        private static final PlaceholderHeaderFieldSink INSTANCE = new PlaceholderHeaderFieldSink();
+
+        @Override
+        public boolean isBuildingModel() {
+            return false;
+        }
+
+        @Override
+        public void field(final String fieldId, final long offset) {
+        }
+
+        @Override
+        public void securityField(final String fieldId, final long offset) {
+        }
+
+        @Override
+        public void endField(final long offset) {
+        }
     }
 }
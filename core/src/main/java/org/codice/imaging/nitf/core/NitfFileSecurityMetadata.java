@@ -23,6 +23,9 @@ import java.text.ParseException;
     two extra fields (copy number, and number of copies).
 */
 public class NitfFileSecurityMetadata extends NitfSecurityMetadata {
+
+    private static final long serialVersionUID = 1L;
+
     private String nitfFileCopyNumber = null;
     private String nitfFileNumberOfCopies = null;
 
@@ -27,6 +27,15 @@ class NitfFileSecurityMetadataParser extends NitfSecurityMetadataParser {
     public NitfFileSecurityMetadataParser() {
     }
 
+    /**
+        Parse file security metadata.
+        <p>
+        Without file security metadata to parse into, the fields are only marked for the field sink, and skipped.
+
+        @param nitfReader the reader, positioned at the start of the file security metadata.
+        @param metadata the file security metadata to parse into, or null to only walk over the fields.
+        @throws ParseException if the file type is not set, or on read error.
+    */
     public final void parse(final NitfReader nitfReader, final NitfFileSecurityMetadata metadata) throws ParseException {
         doParse(nitfReader, metadata);
         readFileSecurityMetadataExtras(metadata);
@@ -38,11 +47,15 @@ class NitfFileSecurityMetadataParser extends NitfSecurityMetadataParser {
     }
 
     private void readFSCOP(final NitfFileSecurityMetadata metadata) throws ParseException {
-        metadata.setFileCopyNumber(reader.readTrimmedBytes(NitfConstants.FSCOP_LENGTH));
+        if (decodeField("FSCOP", NitfConstants.FSCOP_LENGTH)) {
+            metadata.setFileCopyNumber(reader.readTrimmedBytes(NitfConstants.FSCOP_LENGTH));
+        }
     }
 
     private void readFSCPYS(final NitfFileSecurityMetadata metadata) throws ParseException {
-        metadata.setFileNumberOfCopies(reader.readTrimmedBytes(NitfConstants.FSCPYS_LENGTH));
+        if (decodeField("FSCPYS", NitfConstants.FSCPYS_LENGTH)) {
+            metadata.setFileNumberOfCopies(reader.readTrimmedBytes(NitfConstants.FSCPYS_LENGTH));
+        }
     }
 };
 
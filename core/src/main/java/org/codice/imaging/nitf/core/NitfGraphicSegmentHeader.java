@@ -19,6 +19,8 @@ package org.codice.imaging.nitf.core;
 */
 public class NitfGraphicSegmentHeader extends AbstractNitfSubSegment {
 
+    private static final long serialVersionUID = 1L;
+
     private String graphicName = null;
     private int graphicDisplayLevel = 0;
     private int graphicLocationRow = 0;
@@ -29,95 +29,125 @@ class NitfGraphicSegmentHeaderParser extends AbstractNitfSegmentParser {
     }
 
     final NitfGraphicSegmentHeader parse(final NitfReader nitfReader, final NitfParseStrategy parseStrategy) throws ParseException {
-
         reader = nitfReader;
-        segment = new NitfGraphicSegmentHeader();
+        if (isBuildingModel()) {
+            segment = new NitfGraphicSegmentHeader();
+        }
         parsingStrategy = parseStrategy;
-
-        readSY();
-        readSID();
-        readSNAME();
-        segment.setSecurityMetadata(new NitfSecurityMetadata(reader));
-        readENCRYP();
-        readSFMT();
-        readSSTRUCT();
-        readSDLVL();
-        readSALVL();
-        readSLOC();
-        readSBND1();
-        readSCOLOR();
-        readSBND2();
-        readSRES();
-        readSXSHDL();
-        if (graphicExtendedSubheaderLength > 0) {
-            readSXSOFL();
-            readSXSHD();
+        graphicExtendedSubheaderLength = 0;
+
+        try {
+            readSY();
+            readSID();
+            readSNAME();
+            readNitfSecurityMetadata(segment);
+            readENCRYP();
+            readSFMT();
+            readSSTRUCT();
+            readSDLVL();
+            readSALVL();
+            readSLOC();
+            readSBND1();
+            readSCOLOR();
+            readSBND2();
+            readSRES();
+            readSXSHDL();
+            if (graphicExtendedSubheaderLength > 0) {
+                readSXSOFL();
+                readSXSHD();
+            }
+            endFields();
+            return segment;
+        } finally {
+            releaseReader();
+            segment = null;
         }
-        return segment;
     }
 
     private void readSY() throws ParseException {
+        field("SY");
         reader.verifyHeaderMagic(NitfConstants.SY);
     }
 
     private void readSID() throws ParseException {
-        segment.setIdentifier(reader.readTrimmedBytes(NitfConstants.SID_LENGTH));
+        if (decodeField("SID", NitfConstants.SID_LENGTH)) {
+            segment.setIdentifier(reader.readTrimmedBytes(NitfConstants.SID_LENGTH));
+        }
     }
 
     private void readSNAME() throws ParseException {
-        segment.setGraphicName(reader.readTrimmedBytes(NitfConstants.SNAME_LENGTH));
+        if (decodeField("SNAME", NitfConstants.SNAME_LENGTH)) {
+            segment.setGraphicName(reader.readTrimmedBytes(NitfConstants.SNAME_LENGTH));
+        }
     }
 
     private void readSFMT() throws ParseException {
+        field("SFMT");
         reader.verifyHeaderMagic(NitfConstants.SFMT_CGM);
     }
 
     private void readSSTRUCT() throws ParseException {
+        field("SSTRUCT");
         reader.verifyHeaderMagic(NitfConstants.SSTRUCT);
     }
 
     private void readSDLVL() throws ParseException {
-        segment.setGraphicDisplayLevel(reader.readBytesAsInteger(NitfConstants.SDLVL_LENGTH));
+        if (decodeField("SDLVL", NitfConstants.SDLVL_LENGTH)) {
+            segment.setGraphicDisplayLevel(reader.readInt(NitfConstants.SDLVL_LENGTH));
+        }
     }
 
     private void readSALVL() throws ParseException {
-        segment.setAttachmentLevel(reader.readBytesAsInteger(NitfConstants.SALVL_LENGTH));
+        if (decodeField("SALVL", NitfConstants.SALVL_LENGTH)) {
+            segment.setAttachmentLevel(reader.readInt(NitfConstants.SALVL_LENGTH));
+        }
     }
 
     private void readSLOC() throws ParseException {
-        segment.setGraphicLocationRow(reader.readBytesAsInteger(NitfConstants.SLOC_HALF_LENGTH));
-        segment.setGraphicLocationColumn(reader.readBytesAsInteger(NitfConstants.SLOC_HALF_LENGTH));
+        if (decodeField("SLOC", NitfConstants.SLOC_HALF_LENGTH + NitfConstants.SLOC_HALF_LENGTH)) {
+            segment.setGraphicLocationRow(reader.readInt(NitfConstants.SLOC_HALF_LENGTH));
+            segment.setGraphicLocationColumn(reader.readInt(NitfConstants.SLOC_HALF_LENGTH));
+        }
     }
 
     private void readSBND1() throws ParseException {
-        segment.setBoundingBox1Row(reader.readBytesAsInteger(NitfConstants.SBND1_HALF_LENGTH));
-        segment.setBoundingBox1Column(reader.readBytesAsInteger(NitfConstants.SBND1_HALF_LENGTH));
+        if (decodeField("SBND1", NitfConstants.SBND1_HALF_LENGTH + NitfConstants.SBND1_HALF_LENGTH)) {
+            segment.setBoundingBox1Row(reader.readInt(NitfConstants.SBND1_HALF_LENGTH));
+            segment.setBoundingBox1Column(reader.readInt(NitfConstants.SBND1_HALF_LENGTH));
+        }
     }
 
     private void readSCOLOR() throws ParseException {
-        String scolor = reader.readBytes(NitfConstants.SCOLOR_LENGTH);
-        segment.setGraphicColour(GraphicColour.getEnumValue(scolor));
+        if (decodeField("SCOLOR", NitfConstants.SCOLOR_LENGTH)) {
+            int length = readCode(NitfConstants.SCOLOR_LENGTH);
+            segment.setGraphicColour(GraphicColour.getEnumValue(getCodeBuffer(), 0, length));
+        }
     }
 
     private void readSBND2() throws ParseException {
-        segment.setBoundingBox2Row(reader.readBytesAsInteger(NitfConstants.SBND2_HALF_LENGTH));
-        segment.setBoundingBox2Column(reader.readBytesAsInteger(NitfConstants.SBND2_HALF_LENGTH));
+        if (decodeField("SBND2", NitfConstants.SBND2_HALF_LENGTH + NitfConstants.SBND2_HALF_LENGTH)) {
+            segment.setBoundingBox2Row(reader.readInt(NitfConstants.SBND2_HALF_LENGTH));
+            segment.setBoundingBox2Column(reader.readInt(NitfConstants.SBND2_HALF_LENGTH));
+        }
     }
 
     private void readSRES() throws ParseException {
+        field("SRES");
         reader.verifyHeaderMagic(NitfConstants.SRES);
     }
 
     private void readSXSHDL() throws ParseException {
-        graphicExtendedSubheaderLength = reader.readBytesAsInteger(NitfConstants.SXSHDL_LENGTH);
+        field("SXSHDL");
+        graphicExtendedSubheaderLength = reader.readInt(NitfConstants.SXSHDL_LENGTH);
     }
 
     private void readSXSOFL() throws ParseException {
-        segment.setExtendedHeaderDataOverflow(reader.readBytesAsInteger(NitfConstants.SXSOFL_LENGTH));
+        if (decodeField("SXSOFL", NitfConstants.SXSOFL_LENGTH)) {
+            segment.setExtendedHeaderDataOverflow(reader.readInt(NitfConstants.SXSOFL_LENGTH));
+        }
     }
 
     private void readSXSHD() throws ParseException {
-        TreCollection extendedSubheaderTREs = parsingStrategy.parseTREs(reader, graphicExtendedSubheaderLength - NitfConstants.SXSOFL_LENGTH);
-        segment.mergeTREs(extendedSubheaderTREs);
+        readTREs(segment, graphicExtendedSubheaderLength - NitfConstants.SXSOFL_LENGTH);
     }
 }
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    On-disk cache of parsed NITF headers, keyed by file identity.
+    <p>
+    This is a front end to NitfFileParser for repeated scans of the same files. Each file is identified by
+    its canonical path, length and modification time, and optionally a hash of the start of the file.
+    If the cache holds headers for a file with the same identity, they are returned without opening the
+    file, so a repeat scan of an unchanged file costs a stat call rather than a parse. Otherwise, the file
+    is parsed with HeaderOnlyNitfParseStrategy, and the headers (file header, segment subheaders and
+    TREs) are serialized to the cache directory, one cache file per NITF file.
+    <p>
+    The cache can be shared by multiple threads and processes. A cache file that cannot be read (e.g. one
+    written by an incompatible version) is treated as a miss and replaced. Cache files are only read back
+    into the header model classes: a cache file that refers to any other class is treated as unreadable,
+    without the class being loaded.
+*/
+public class NitfHeaderCache {
+
+    /**
+        The number of bytes at the start of the file covered by the header hash.
+    */
+    public static final int HEADER_HASH_LENGTH = 4096;
+
+    private static final Logger LOG = LoggerFactory.getLogger(NitfHeaderCache.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String CACHE_FILE_SUFFIX = ".nitfheaders";
+    private static final int HEX_RADIX = 16;
+    private static final int BYTE_MASK = 0xFF;
+
+    // The classes that the cached headers are made of, including the JDK classes used by their fields.
+    private static final Set<String> MODEL_CLASS_NAMES = getClassNames(
+            AbstractCommonNitfSegment.class, AbstractNitfSegment.class, AbstractNitfSubSegment.class, FileType.class, GraphicColour.class,
+            ImageCategory.class, ImageCompression.class, ImageCoordinatePair.class, ImageCoordinates.class,
+            ImageCoordinatesRepresentation.class, ImageMode.class, ImageRepresentation.class, Nitf.class,
+            NitfDataExtensionSegmentHeader.class, NitfDateTime.class, NitfFileSecurityMetadata.class, NitfGraphicSegmentHeader.class,
+            NitfHeaderCacheEntry.class, NitfImageBand.class, NitfImageBandLUT.class, NitfImageSegmentHeader.class,
+            NitfLabelSegmentHeader.class, NitfSecurityClassification.class, NitfSecurityMetadata.class, NitfSymbolSegmentHeader.class,
+            NitfTextSegmentHeader.class, PixelJustification.class, PixelValueType.class, RGBColour.class, SegmentDirectory.class,
+            SegmentType.class, SymbolColour.class, SymbolType.class, TargetId.class, TextFormat.class, Tre.class, TreCollection.class,
+            TreEntry.class, TreEntryList.class, TreGroup.class, Enum.class, Number.class, Integer.class, Long.class, Double.class,
+            ArrayList.class, EnumMap.class, byte[].class, int[].class, long[].class);
+
+    private final File cacheDirectory;
+    private boolean verifyHeaderHash = false;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+        Constructor.
+
+        @param directory the directory to hold the cache files, which is created if it does not exist.
+    */
+    public NitfHeaderCache(final File directory) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Could not create cache directory: " + directory);
+        }
+        cacheDirectory = directory;
+    }
+
+    /**
+        Set whether to check a hash of the start of the file, as well as its length and modification time.
+        <p>
+        This detects files that were rewritten in place with the same length and modification time, at the
+        cost of reading the first HEADER_HASH_LENGTH bytes of each file. It is off by default.
+
+        @param verify true to check the hash, false to rely on the length and modification time.
+    */
+    public final void setVerifyHeaderHash(final boolean verify) {
+        verifyHeaderHash = verify;
+    }
+
+    /**
+        Get the headers for a file, from the cache if possible.
+
+        @param file the file to get the headers for.
+        @return the parse strategy holding the headers.
+        @throws ParseException if the file had to be parsed, and could not be.
+    */
+    public final SlottedNitfParseStrategy parse(final File file) throws ParseException {
+        String canonicalPath;
+        BasicFileAttributes attributes;
+        byte[] hash = null;
+        try {
+            canonicalPath = file.getCanonicalPath();
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            if (verifyHeaderHash) {
+                hash = hashStartOfFile(file);
+            }
+        } catch (IOException ex) {
+            throw new ParseException(file.getPath() + NitfConstants.NOT_FOUND_MESSAGE_JOINER + ex.getMessage(), 0);
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        File cacheFile = getCacheFile(canonicalPath);
+
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfHeaderCacheEntry entry = readEntry(cacheFile);
+        if ((entry != null) && entry.matches(canonicalPath, length, lastModified, hash)) {
+            hitCount.incrementAndGet();
+            entry.restoreTo(strategy);
+            return strategy;
+        }
+
+        missCount.incrementAndGet();
+        try (ChannelFileReader reader = new ChannelFileReader(file)) {
+            NitfFileParser.parse(reader, strategy);
+        } catch (IOException ex) {
+            throw new ParseException(file.getPath() + NitfConstants.NOT_FOUND_MESSAGE_JOINER + ex.getMessage(), 0);
+        }
+        writeEntry(cacheFile, new NitfHeaderCacheEntry(canonicalPath, length, lastModified, hash, strategy));
+        return strategy;
+    }
+
+    /**
+        Return the number of calls to parse() that were served from the cache.
+
+        @return the number of cache hits.
+    */
+    public final long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+        Return the number of calls to parse() that had to parse the file.
+
+        @return the number of cache misses.
+    */
+    public final long getMissCount() {
+        return missCount.get();
+    }
+
+    private File getCacheFile(final String canonicalPath) {
+        byte[] pathBytes = canonicalPath.getBytes(StandardCharsets.UTF_8);
+        return new File(cacheDirectory, toHex(digest(pathBytes, pathBytes.length)) + CACHE_FILE_SUFFIX);
+    }
+
+    private NitfHeaderCacheEntry readEntry(final File cacheFile) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try (ObjectInputStream in = new HeaderObjectInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            return (NitfHeaderCacheEntry) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            LOG.debug("Ignoring unreadable cache file " + cacheFile, ex);
+            return null;
+        }
+    }
+
+    private void writeEntry(final File cacheFile, final NitfHeaderCacheEntry entry) {
+        File temporaryFile = null;
+        try {
+            temporaryFile = File.createTempFile("entry", null, cacheDirectory);
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                out.writeObject(entry);
+            }
+            Files.move(temporaryFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            LOG.warn("Could not write cache file " + cacheFile, ex);
+            if ((temporaryFile != null) && temporaryFile.exists() && !temporaryFile.delete()) {
+                LOG.warn("Could not delete temporary cache file " + temporaryFile);
+            }
+        }
+    }
+
+    private static byte[] hashStartOfFile(final File file) throws IOException {
+        byte[] buffer = new byte[HEADER_HASH_LENGTH];
+        int count = 0;
+        try (InputStream stream = new FileInputStream(file)) {
+            while (count < buffer.length) {
+                int bytesRead = stream.read(buffer, count, buffer.length - count);
+                if (bytesRead < 0) {
+                    break;
+                }
+                count += bytesRead;
+            }
+        }
+        return digest(buffer, count);
+    }
+
+    private static byte[] digest(final byte[] data, final int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            digest.update(data, 0, length);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", ex);
+        }
+    }
+
+    private static Set<String> getClassNames(final Class<?>... classes) {
+        Set<String> names = new HashSet<>();
+        for (Class<?> modelClass : classes) {
+            names.add(modelClass.getName());
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    private static String toHex(final byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            String digits = Integer.toString(b & BYTE_MASK, HEX_RADIX);
+            if (digits.length() == 1) {
+                builder.append('0');
+            }
+            builder.append(digits);
+        }
+        return builder.toString();
+    }
+
+    /**
+        Object stream that only reads the header model classes.
+    */
+    private static final class HeaderObjectInputStream extends ObjectInputStream {
+
+        HeaderObjectInputStream(final InputStream stream) throws IOException {
+            super(stream);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            if (!MODEL_CLASS_NAMES.contains(description.getName())) {
+                throw new InvalidClassException(description.getName(), "not a NITF header class");
+            }
+            return super.resolveClass(description);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+    The parsed headers of one file, as stored by NitfHeaderCache.
+    <p>
+    The entry records the identity of the file it was parsed from (canonical path, length, modification
+    time and optionally a hash of the start of the file), so a stale entry can be detected.
+*/
+final class NitfHeaderCacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String canonicalPath;
+    private final long fileLength;
+    private final long lastModified;
+    private final byte[] headerHash;
+
+    private final Nitf nitf;
+    private final SegmentDirectory segmentDirectory;
+    private final ArrayList<NitfImageSegmentHeader> imageSegmentHeaders;
+    private final ArrayList<NitfGraphicSegmentHeader> graphicSegmentHeaders;
+    private final ArrayList<NitfSymbolSegmentHeader> symbolSegmentHeaders;
+    private final ArrayList<NitfLabelSegmentHeader> labelSegmentHeaders;
+    private final ArrayList<NitfTextSegmentHeader> textSegmentHeaders;
+    private final ArrayList<NitfDataExtensionSegmentHeader> dataExtensionSegmentHeaders;
+
+    /**
+        Constructor.
+
+        @param path the canonical path of the file.
+        @param length the length of the file.
+        @param modified the modification time of the file.
+        @param hash the hash of the start of the file, or null if not checked.
+        @param headers the parsed headers.
+    */
+    NitfHeaderCacheEntry(final String path, final long length, final long modified, final byte[] hash,
+                         final SlottedNitfParseStrategy headers) {
+        canonicalPath = path;
+        fileLength = length;
+        lastModified = modified;
+        headerHash = hash;
+        nitf = headers.getNitfHeader();
+        segmentDirectory = headers.getSegmentDirectory();
+        imageSegmentHeaders = new ArrayList<>(headers.getImageSegmentHeaders());
+        graphicSegmentHeaders = new ArrayList<>(headers.getGraphicSegmentHeaders());
+        symbolSegmentHeaders = new ArrayList<>(headers.getSymbolSegmentHeaders());
+        labelSegmentHeaders = new ArrayList<>(headers.getLabelSegmentHeaders());
+        textSegmentHeaders = new ArrayList<>(headers.getTextSegmentHeaders());
+        dataExtensionSegmentHeaders = new ArrayList<>(headers.getDataExtensionSegmentHeaders());
+    }
+
+    /**
+        Check whether this entry was parsed from a file with a specific identity.
+
+        @param path the canonical path of the file.
+        @param length the length of the file.
+        @param modified the modification time of the file.
+        @param hash the hash of the start of the file, or null if not checked.
+        @return true if the entry matches the file, otherwise false.
+    */
+    boolean matches(final String path, final long length, final long modified, final byte[] hash) {
+        if (!canonicalPath.equals(path) || (fileLength != length) || (lastModified != modified)) {
+            return false;
+        }
+        return (hash == null) || Arrays.equals(headerHash, hash);
+    }
+
+    /**
+        Copy the cached headers into a parse strategy, as if the file had been parsed with it.
+
+        @param strategy the strategy to copy the headers into.
+    */
+    void restoreTo(final SlottedNitfParseStrategy strategy) {
+        strategy.setFileHeader(nitf);
+        strategy.setSegmentDirectory(segmentDirectory);
+        addAll(strategy.getImageSegmentHeaders(), imageSegmentHeaders);
+        addAll(strategy.getGraphicSegmentHeaders(), graphicSegmentHeaders);
+        addAll(strategy.getSymbolSegmentHeaders(), symbolSegmentHeaders);
+        addAll(strategy.getLabelSegmentHeaders(), labelSegmentHeaders);
+        addAll(strategy.getTextSegmentHeaders(), textSegmentHeaders);
+        addAll(strategy.getDataExtensionSegmentHeaders(), dataExtensionSegmentHeaders);
+    }
+
+    private static <T> void addAll(final List<T> destination, final List<T> source) {
+        destination.clear();
+        destination.addAll(source);
+    }
+}
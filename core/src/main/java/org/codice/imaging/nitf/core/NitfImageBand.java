@@ -14,13 +14,16 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
     Image Band.
 */
-public class NitfImageBand {
+public class NitfImageBand implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // An enum might have been useful, but this is extensible
     private String imageRepresentation = null;
@@ -14,10 +14,14 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
+
 /**
     Lookup table for an image band.
 */
-public class NitfImageBandLUT {
+public class NitfImageBandLUT implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private byte[] entries = null;
 
@@ -18,58 +18,111 @@ import java.text.ParseException;
 
 /**
     Image Band and Image Band LUT parser.
+    <p>
+    A parser can be reused for any number of bands, but only on one thread at a time.
 */
 class NitfImageBandParser {
 
     private NitfReader reader = null;
     private NitfImageBand imageBand = null;
     private int numLUTs = 0;
+    private int numLUTEntries = 0;
+    private NitfFieldSink fieldSink = ModelFieldSink.INSTANCE;
 
     /**
-        Construct from a NitfReader instance.
+        Default constructor.
+    */
+    NitfImageBandParser() {
+    }
+
+    /**
+        Set the sink for the fields that later parses read.
+
+        @param sink the field sink (the default is ModelFieldSink).
+    */
+    final void setFieldSink(final NitfFieldSink sink) {
+        fieldSink = sink;
+    }
+
+    /**
+        Parse an image band from a NitfReader instance.
 
         @param nitfReader the reader, positioned to read an image band.
+        @param band the image band to fill in, or null to only walk over the fields (see NitfFieldSink).
         @throws ParseException if an obviously invalid value is detected during parsing,
         or if another problem occurs during parsing (e.g. end of file).
     */
-    public NitfImageBandParser(final NitfReader nitfReader, final NitfImageBand band) throws ParseException {
+    final void parse(final NitfReader nitfReader, final NitfImageBand band) throws ParseException {
         reader = nitfReader;
         imageBand = band;
-        readIREPBAND();
-        readISUBCAT();
-        readIFC();
-        readIMFLT();
-        readNLUTS();
-        if (numLUTs > 0) {
-            readNELUT();
-            for (int i = 0; i < numLUTs; ++i) {
-                NitfImageBandLUT lut = new NitfImageBandLUT(reader.readBytesRaw(imageBand.getNumLUTEntries()));
-                imageBand.addLUT(lut);
+        numLUTs = 0;
+        numLUTEntries = 0;
+        try {
+            readIREPBAND();
+            readISUBCAT();
+            readIFC();
+            readIMFLT();
+            readNLUTS();
+            if (numLUTs > 0) {
+                readNELUT();
+                for (int i = 0; i < numLUTs; ++i) {
+                    if (decodeField("LUTD", numLUTEntries)) {
+                        NitfImageBandLUT lut = new NitfImageBandLUT(reader.readBytesRaw(numLUTEntries));
+                        imageBand.addLUT(lut);
+                    }
+                }
             }
+        } finally {
+            reader = null;
+            imageBand = null;
         }
     }
 
     private void readIREPBAND() throws ParseException {
-        imageBand.setImageRepresentation(reader.readTrimmedBytes(NitfConstants.IREPBAND_LENGTH));
+        if (decodeField("IREPBAND", NitfConstants.IREPBAND_LENGTH)) {
+            imageBand.setImageRepresentation(reader.readTrimmedBytes(NitfConstants.IREPBAND_LENGTH));
+        }
     }
 
     private void readISUBCAT() throws ParseException {
-        imageBand.setImageSubcategory(reader.readTrimmedBytes(NitfConstants.ISUBCAT_LENGTH));
+        if (decodeField("ISUBCAT", NitfConstants.ISUBCAT_LENGTH)) {
+            imageBand.setImageSubcategory(reader.readTrimmedBytes(NitfConstants.ISUBCAT_LENGTH));
+        }
     }
 
     private void readIFC() throws ParseException {
+        field("IFC");
         reader.skip(NitfConstants.IFC_LENGTH);
     }
 
     private void readIMFLT() throws ParseException {
+        field("IMFLT");
         reader.skip(NitfConstants.IMFLT_LENGTH);
     }
 
     private void readNLUTS() throws ParseException {
-        numLUTs = reader.readBytesAsInteger(NitfConstants.NLUTS_LENGTH);
+        field("NLUTS");
+        numLUTs = reader.readInt(NitfConstants.NLUTS_LENGTH);
     }
 
     private void readNELUT() throws ParseException {
-        imageBand.setNumLUTEntries(reader.readBytesAsInteger(NitfConstants.NELUT_LENGTH));
+        field("NELUT");
+        numLUTEntries = reader.readInt(NitfConstants.NELUT_LENGTH);
+        if (imageBand != null) {
+            imageBand.setNumLUTEntries(numLUTEntries);
+        }
+    }
+
+    private void field(final String fieldId) throws ParseException {
+        fieldSink.field(fieldId, reader.getCurrentOffset());
+    }
+
+    private boolean decodeField(final String fieldId, final int length) throws ParseException {
+        field(fieldId);
+        if (imageBand != null) {
+            return true;
+        }
+        reader.skip(length);
+        return false;
     }
 }
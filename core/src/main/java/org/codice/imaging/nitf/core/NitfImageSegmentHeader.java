@@ -14,6 +14,8 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -22,6 +24,8 @@ import java.util.List;
 */
 public class NitfImageSegmentHeader extends AbstractNitfSubSegment {
 
+    private static final long serialVersionUID = 1L;
+
     private NitfDateTime imageDateTime = null;
     private TargetId imageTargetId = null;
     private String imageIdentifier2 = null;
@@ -51,6 +55,7 @@ public class NitfImageSegmentHeader extends AbstractNitfSubSegment {
     private int imageUserDefinedHeaderOverflow = 0;
     private String imageMagnification = null;
     private long imageSegmentDataLength = 0;
+    private transient DeferredImageSegmentFields deferredFields = null;
 
     private static final int BITS_PER_BYTE = 8;
 
@@ -740,7 +745,10 @@ public class NitfImageSegmentHeader extends AbstractNitfSubSegment {
 
         @return number of bands
     */
-    public final int getNumBands() {
+    public final synchronized int getNumBands() {
+        if ((deferredFields != null) && deferredFields.hasImageBands()) {
+            return deferredFields.getNumberOfImageBands();
+        }
         return imageBands.size();
     }
 
@@ -750,6 +758,7 @@ public class NitfImageSegmentHeader extends AbstractNitfSubSegment {
         @param imageBand the image band to add
     */
     public final void addImageBand(final NitfImageBand imageBand) {
+        loadDeferredImageBands();
         imageBands.add(imageBand);
     }
 
@@ -776,6 +785,7 @@ public class NitfImageSegmentHeader extends AbstractNitfSubSegment {
         @return image band corresponding to the bandNumberZeroBase index
     */
     public final NitfImageBand getImageBandZeroBase(final int bandNumberZeroBase) {
+        loadDeferredImageBands();
         return imageBands.get(bandNumberZeroBase);
     }
 
@@ -1275,6 +1285,7 @@ public class NitfImageSegmentHeader extends AbstractNitfSubSegment {
         @param coordinates the coordinates value.
     */
     public final void setImageCoordinates(final ImageCoordinates coordinates) {
+        loadDeferredImageCoordinates();
         imageCoordinates = coordinates;
     }
 
@@ -1292,6 +1303,7 @@ public class NitfImageSegmentHeader extends AbstractNitfSubSegment {
         @return the coordinates value.
     */
     public final ImageCoordinates getImageCoordinates() {
+        loadDeferredImageCoordinates();
         return imageCoordinates;
     }
 
@@ -1352,4 +1364,58 @@ public class NitfImageSegmentHeader extends AbstractNitfSubSegment {
         long numberOfBytesPerBlock = numberOfPixelsPerBlock * getNumberOfBitsPerPixelPerBand() / BITS_PER_BYTE;
         return numberOfBytesPerBlock;
     }
+
+    /**
+        Set the groups of fields that were not decoded when this header was parsed.
+        <p>
+        Each group is decoded when it is first used.
+
+        @param fields the deferred fields, holding the raw subheader.
+    */
+    final synchronized void setDeferredFields(final DeferredImageSegmentFields fields) {
+        deferredFields = fields;
+    }
+
+    @Override
+    final synchronized void loadDeferredSecurityMetadata() {
+        if ((deferredFields != null) && deferredFields.hasSecurityMetadata()) {
+            setSecurityMetadata(deferredFields.decodeSecurityMetadata());
+            releaseDeferredFieldsIfDecoded();
+        }
+    }
+
+    @Override
+    final synchronized void loadDeferredTREs() {
+        if ((deferredFields != null) && deferredFields.hasTREs()) {
+            mergeTREs(deferredFields.decodeTREs());
+            releaseDeferredFieldsIfDecoded();
+        }
+    }
+
+    private synchronized void loadDeferredImageCoordinates() {
+        if ((deferredFields != null) && deferredFields.hasImageCoordinates()) {
+            imageCoordinates = deferredFields.decodeImageCoordinates();
+            releaseDeferredFieldsIfDecoded();
+        }
+    }
+
+    private synchronized void loadDeferredImageBands() {
+        if ((deferredFields != null) && deferredFields.hasImageBands()) {
+            imageBands.addAll(deferredFields.decodeImageBands());
+            releaseDeferredFieldsIfDecoded();
+        }
+    }
+
+    private void releaseDeferredFieldsIfDecoded() {
+        if ((deferredFields != null) && !deferredFields.hasDeferredFields()) {
+            // Drop the raw subheader once nothing else needs it.
+            deferredFields = null;
+        }
+    }
+
+    private synchronized void writeObject(final ObjectOutputStream out) throws IOException {
+        loadDeferredImageCoordinates();
+        loadDeferredImageBands();
+        out.defaultWriteObject();
+    }
 }
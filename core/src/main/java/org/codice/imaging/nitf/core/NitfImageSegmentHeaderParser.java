@@ -34,32 +34,93 @@ class NitfImageSegmentHeaderParser extends AbstractNitfSegmentParser {
         ImageCompression.LOSSLESSJPEGMASK, ImageCompression.JPEG2000MASK, ImageCompression.USERDEFINED, ImageCompression.USERDEFINEDMASK,
         ImageCompression.ARIDPCM, ImageCompression.ARIDPCMMASK);
 
+    private ImageCoordinatesRepresentation imageCoordinatesRepresentation = null;
+    private ImageCompression imageCompression = null;
+
     private NitfImageSegmentHeader segment = null;
+    private DeferredImageSegmentFields deferredFields = null;
+    private final NitfImageBandParser imageBandParser = new NitfImageBandParser();
 
-    NitfImageSegmentHeaderParser() throws ParseException {
+    NitfImageSegmentHeaderParser() {
     }
 
     /**
      * Parse the image segment header
      * <p>
-     * This will return the image segment header, but it is not threadsafe. Please create a new parser for each header, or protect against
-     * parallel runs.
+     * This will return the image segment header, but it is not threadsafe. The parser can be reused for later headers, but use a separate
+     * parser on each thread, or protect against parallel runs.
      * @param nitfReader the reader to use to get the data
      * @param parseStrategy the parsing strategy to use to process the data
-     * @return the parsed header
+     * @return the parsed header, or null if the model is not being built (see NitfFieldSink)
      * @throws ParseException on parse failure
      */
     final NitfImageSegmentHeader parse(final NitfReader nitfReader, final NitfParseStrategy parseStrategy) throws ParseException {
         reader = nitfReader;
+        if (isBuildingModel()) {
+            segment = new NitfImageSegmentHeader();
+        }
+        parsingStrategy = parseStrategy;
+        deferredFields = null;
+        try {
+            readSubheader();
+            return segment;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Parse the image segment header lazily.
+     * <p>
+     * The whole subheader is read in one go, and only the simple fields are decoded. The security metadata,
+     * image coordinates, image bands (including LUTs) and TREs are skipped over, and are decoded from the raw
+     * subheader when they are first used. This is much cheaper when only a few fields are needed.
+     * <p>
+     * This will return the image segment header, but it is not threadsafe. The parser can be reused for later headers, but use a separate
+     * parser on each thread, or protect against parallel runs.
+     * @param nitfReader the reader to use to get the data
+     * @param parseStrategy the parsing strategy to use to process the data (including any deferred TREs)
+     * @param subheaderLength the length of the image segment subheader, from the file header
+     * @return the parsed header
+     * @throws ParseException on parse failure
+     */
+    final NitfImageSegmentHeader parseLazily(final NitfReader nitfReader, final NitfParseStrategy parseStrategy, final int subheaderLength)
+            throws ParseException {
+        long subheaderOffset = nitfReader.getCurrentOffset();
+        byte[] subheader = nitfReader.readBytesRaw(subheaderLength);
+        reader = new ByteArrayReader(subheader, subheaderOffset);
+        reader.setFileType(nitfReader.getFileType());
         segment = new NitfImageSegmentHeader();
         parsingStrategy = parseStrategy;
+        deferredFields = new DeferredImageSegmentFields(subheader, subheaderOffset, nitfReader.getFileType(), parseStrategy);
+        try {
+            readSubheader();
+            if (deferredFields.hasDeferredFields()) {
+                segment.setDeferredFields(deferredFields);
+            }
+            return segment;
+        } finally {
+            release();
+        }
+    }
 
+    private void release() {
+        releaseReader();
+        segment = null;
+        deferredFields = null;
+    }
+
+    private void readSubheader() throws ParseException {
+        numImageComments = 0;
+        numBands = 0;
+        userDefinedImageDataLength = 0;
+        imageExtendedSubheaderDataLength = 0;
         readIM();
         readIID1();
         readIDATIM();
         readTGTID();
         readIID2();
-        segment.setSecurityMetadata(new NitfSecurityMetadata(reader));
+        readSecurityMetadata();
         readENCRYP();
         readISORCE();
         readNROWS();
@@ -70,13 +131,15 @@ class NitfImageSegmentHeaderParser extends AbstractNitfSegmentParser {
         readABPP();
         readPJUST();
         readICORDS();
-        if ((segment.getImageCoordinatesRepresentation() != ImageCoordinatesRepresentation.UNKNOWN)
-            && (segment.getImageCoordinatesRepresentation() != ImageCoordinatesRepresentation.NONE)) {
+        if ((imageCoordinatesRepresentation != ImageCoordinatesRepresentation.UNKNOWN)
+            && (imageCoordinatesRepresentation != ImageCoordinatesRepresentation.NONE)) {
             readIGEOLO();
         }
         readNICOM();
         for (int i = 0; i < numImageComments; ++i) {
-            segment.addImageComment(reader.readTrimmedBytes(NitfConstants.ICOM_LENGTH));
+            if (decodeField("ICOM", NitfConstants.ICOM_LENGTH)) {
+                segment.addImageComment(reader.readTrimmedBytes(NitfConstants.ICOM_LENGTH));
+            }
         }
         readIC();
         if (hasCOMRAT()) {
@@ -86,11 +149,7 @@ class NitfImageSegmentHeaderParser extends AbstractNitfSegmentParser {
         if ((reader.getFileType() != FileType.NITF_TWO_ZERO) && (numBands == 0)) {
             readXBANDS();
         }
-        for (int i = 0; i < numBands; ++i) {
-            NitfImageBand imageBand = new NitfImageBand();
-            new NitfImageBandParser(reader, imageBand);
-            segment.addImageBand(imageBand);
-        }
+        readImageBands();
         readISYNC();
         readIMODE();
         readNBPR();
@@ -112,84 +171,171 @@ class NitfImageSegmentHeaderParser extends AbstractNitfSegmentParser {
             readIXSOFL();
             readIXSHD();
         }
-        return segment;
+        endFields();
     }
 
     private Boolean hasCOMRAT() {
-        return HAS_COMRAT.contains(segment.getImageCompression());
+        return HAS_COMRAT.contains(imageCompression);
+    }
+
+    private void readSecurityMetadata() throws ParseException {
+        if (deferredFields != null) {
+            deferredFields.setSecurityMetadataOffset(reader.getCurrentOffset());
+            NitfSecurityMetadataParser.skip(reader);
+        } else {
+            readNitfSecurityMetadata(segment);
+        }
+    }
+
+    private void readImageBands() throws ParseException {
+        if (deferredFields != null) {
+            deferredFields.setImageBandsOffset(reader.getCurrentOffset(), numBands);
+            for (int i = 0; i < numBands; ++i) {
+                skipImageBand();
+            }
+        } else if (isBuildingModel()) {
+            for (int i = 0; i < numBands; ++i) {
+                NitfImageBand imageBand = new NitfImageBand();
+                imageBandParser.parse(reader, imageBand);
+                segment.addImageBand(imageBand);
+            }
+        } else {
+            imageBandParser.setFieldSink(getFieldSink());
+            for (int i = 0; i < numBands; ++i) {
+                imageBandParser.parse(reader, null);
+            }
+        }
+    }
+
+    private void skipImageBand() throws ParseException {
+        reader.skip(NitfConstants.IREPBAND_LENGTH + NitfConstants.ISUBCAT_LENGTH + NitfConstants.IFC_LENGTH + NitfConstants.IMFLT_LENGTH);
+        int numLUTs = reader.readInt(NitfConstants.NLUTS_LENGTH);
+        if (numLUTs > 0) {
+            int numLUTEntries = reader.readInt(NitfConstants.NELUT_LENGTH);
+            reader.skip((long) numLUTs * numLUTEntries);
+        }
     }
 
     private void readIM() throws ParseException {
+        field("IM");
        reader.verifyHeaderMagic(NitfConstants.IM);
     }
 
     private void readIID1() throws ParseException {
-        segment.setIdentifier(reader.readTrimmedBytes(NitfConstants.IID1_LENGTH));
+        if (decodeField("IID1", NitfConstants.IID1_LENGTH)) {
+            segment.setIdentifier(reader.readTrimmedBytes(NitfConstants.IID1_LENGTH));
+        }
     }
 
     private void readIDATIM() throws ParseException {
-        segment.setImageDateTime(readNitfDateTime());
+        if (decodeField("IDATIM", NitfConstants.STANDARD_DATE_TIME_LENGTH)) {
+            segment.setImageDateTime(readNitfDateTime());
+        }
     }
 
     private void readTGTID() throws ParseException {
-        segment.setImageTargetId(new TargetId(reader.readBytes(NitfConstants.TGTID_LENGTH)));
+        if (decodeField("TGTID", NitfConstants.TGTID_LENGTH)) {
+            segment.setImageTargetId(new TargetId(reader.readBytes(NitfConstants.TGTID_LENGTH)));
+        }
     }
 
     private void readIID2() throws ParseException {
-        segment.setImageIdentifier2(reader.readTrimmedBytes(NitfConstants.IID2_LENGTH));
+        if (decodeField("IID2", NitfConstants.IID2_LENGTH)) {
+            segment.setImageIdentifier2(reader.readTrimmedBytes(NitfConstants.IID2_LENGTH));
+        }
     }
 
     private void readISORCE() throws ParseException {
-        segment.setImageSource(reader.readTrimmedBytes(NitfConstants.ISORCE_LENGTH));
+        if (decodeField("ISORCE", NitfConstants.ISORCE_LENGTH)) {
+            segment.setImageSource(reader.readTrimmedBytes(NitfConstants.ISORCE_LENGTH));
+        }
     }
 
     private void readNROWS() throws ParseException {
-        segment.setNumberOfRows(reader.readBytesAsLong(NitfConstants.NROWS_LENGTH));
+        if (decodeField("NROWS", NitfConstants.NROWS_LENGTH)) {
+            segment.setNumberOfRows(reader.readLong(NitfConstants.NROWS_LENGTH));
+        }
     }
 
     private void readNCOLS() throws ParseException {
-        segment.setNumberOfColumns(reader.readBytesAsLong(NitfConstants.NCOLS_LENGTH));
+        if (decodeField("NCOLS", NitfConstants.NCOLS_LENGTH)) {
+            segment.setNumberOfColumns(reader.readLong(NitfConstants.NCOLS_LENGTH));
+        }
     }
 
     private void readPVTYPE() throws ParseException {
-        String pvtype = reader.readTrimmedBytes(NitfConstants.PVTYPE_LENGTH);
-        segment.setPixelValueType(PixelValueType.getEnumValue(pvtype));
+        if (decodeField("PVTYPE", NitfConstants.PVTYPE_LENGTH)) {
+            int length = readTrimmedCode(NitfConstants.PVTYPE_LENGTH);
+            segment.setPixelValueType(PixelValueType.getEnumValue(getCodeBuffer(), 0, length));
+        }
     }
 
     private void readIREP() throws ParseException {
-        String irep = reader.readTrimmedBytes(NitfConstants.IREP_LENGTH);
-        segment.setImageRepresentation(ImageRepresentation.getEnumValue(irep));
+        if (decodeField("IREP", NitfConstants.IREP_LENGTH)) {
+            int length = readTrimmedCode(NitfConstants.IREP_LENGTH);
+            segment.setImageRepresentation(ImageRepresentation.getEnumValue(getCodeBuffer(), 0, length));
+        }
     }
 
     private void readICAT() throws ParseException {
-        String icat = reader.readTrimmedBytes(NitfConstants.ICAT_LENGTH);
-        segment.setImageCategory(ImageCategory.getEnumValue(icat));
+        if (decodeField("ICAT", NitfConstants.ICAT_LENGTH)) {
+            int length = readTrimmedCode(NitfConstants.ICAT_LENGTH);
+            segment.setImageCategory(ImageCategory.getEnumValue(getCodeBuffer(), 0, length));
+        }
     }
 
     private void readABPP() throws ParseException {
-        segment.setActualBitsPerPixelPerBand(reader.readBytesAsInteger(NitfConstants.ABPP_LENGTH));
+        if (decodeField("ABPP", NitfConstants.ABPP_LENGTH)) {
+            segment.setActualBitsPerPixelPerBand(reader.readInt(NitfConstants.ABPP_LENGTH));
+        }
     }
 
     private void readPJUST() throws ParseException {
-        String pjust = reader.readTrimmedBytes(NitfConstants.PJUST_LENGTH);
-        segment.setPixelJustification(PixelJustification.getEnumValue(pjust));
+        if (decodeField("PJUST", NitfConstants.PJUST_LENGTH)) {
+            String pjust = reader.readTrimmedBytes(NitfConstants.PJUST_LENGTH);
+            segment.setPixelJustification(PixelJustification.getEnumValue(pjust));
+        }
     }
 
     private void readICORDS() throws ParseException {
-        String icords = reader.readBytes(NitfConstants.ICORDS_LENGTH);
-        segment.setImageCoordinatesRepresentation(ImageCoordinatesRepresentation.getEnumValue(icords, reader.getFileType()));
+        field("ICORDS");
+        int length = readCode(NitfConstants.ICORDS_LENGTH);
+        imageCoordinatesRepresentation = ImageCoordinatesRepresentation.getEnumValue(getCodeBuffer(), 0, length, reader.getFileType());
+        if (segment != null) {
+            segment.setImageCoordinatesRepresentation(imageCoordinatesRepresentation);
+        }
     }
 
     private void readIGEOLO() throws ParseException {
+        if (deferredFields != null) {
+            deferredFields.setImageCoordinatesOffset(reader.getCurrentOffset(), imageCoordinatesRepresentation);
+            reader.skip(NitfConstants.IGEOLO_LENGTH);
+            return;
+        }
+        if (decodeField("IGEOLO", NitfConstants.IGEOLO_LENGTH)) {
+            String igeolo = reader.readBytes(NitfConstants.IGEOLO_LENGTH);
+            segment.setImageCoordinates(parseImageCoordinates(igeolo, imageCoordinatesRepresentation));
+        }
+    }
+
+    /**
+     * Decode the image coordinates (IGEOLO) field.
+     *
+     * @param igeolo the content of the IGEOLO field
+     * @param representation the image coordinate representation (ICORDS) that applies to the field
+     * @return the image coordinates
+     * @throws ParseException if the coordinates could not be decoded
+     */
+    static ImageCoordinates parseImageCoordinates(final String igeolo, final ImageCoordinatesRepresentation representation)
+            throws ParseException {
         // TODO: this really only handle the GEO and D cases, not the UTM / UPS representations.
         final int numCoordinates = 4;
         final int coordinatePairLength = NitfConstants.IGEOLO_LENGTH / numCoordinates;
-        String igeolo = reader.readBytes(NitfConstants.IGEOLO_LENGTH);
         ImageCoordinatePair[] coords = new ImageCoordinatePair[numCoordinates];
         for (int i = 0; i < numCoordinates; ++i) {
             coords[i] = new ImageCoordinatePair();
             String coordStr = igeolo.substring(i * coordinatePairLength, (i + 1) * coordinatePairLength);
-            switch (segment.getImageCoordinatesRepresentation()) {
+            switch (representation) {
                 case GEOGRAPHIC:
                     coords[i].setFromDMS(coordStr);
                     break;
@@ -207,102 +353,146 @@ class NitfImageSegmentHeaderParser extends AbstractNitfSegmentParser {
                     break;
                 default:
                     throw new UnsupportedOperationException("NEED TO IMPLEMENT OTHER COORDINATE REPRESENTATIONS: "
-                                                            + segment.getImageCoordinatesRepresentation());
+                                                            + representation);
             }
         }
-        segment.setImageCoordinates(new ImageCoordinates(coords));
+        return new ImageCoordinates(coords);
     }
 
     private void readNICOM() throws ParseException {
-        numImageComments = reader.readBytesAsInteger(NitfConstants.NICOM_LENGTH);
+        field("NICOM");
+        numImageComments = reader.readInt(NitfConstants.NICOM_LENGTH);
     }
 
     private void readIC() throws ParseException {
-        String ic = reader.readBytes(NitfConstants.IC_LENGTH);
-        segment.setImageCompression(ImageCompression.getEnumValue(ic));
+        field("IC");
+        int length = readCode(NitfConstants.IC_LENGTH);
+        imageCompression = ImageCompression.getEnumValue(getCodeBuffer(), 0, length);
+        if (segment != null) {
+            segment.setImageCompression(imageCompression);
+        }
     }
 
     private void readNBANDS() throws ParseException {
-        numBands = reader.readBytesAsInteger(NitfConstants.NBANDS_LENGTH);
+        field("NBANDS");
+        numBands = reader.readInt(NitfConstants.NBANDS_LENGTH);
     }
 
     private void readXBANDS() throws ParseException {
-        numBands = reader.readBytesAsInteger(NitfConstants.XBANDS_LENGTH);
+        field("XBANDS");
+        numBands = reader.readInt(NitfConstants.XBANDS_LENGTH);
     }
 
     private void readISYNC() throws ParseException {
-        reader.readBytes(NitfConstants.ISYNC_LENGTH);
+        field("ISYNC");
+        reader.skip(NitfConstants.ISYNC_LENGTH);
     }
 
     private void readIMODE() throws ParseException {
-        String imode = reader.readBytes(NitfConstants.IMODE_LENGTH);
-        segment.setImageMode(ImageMode.getEnumValue(imode));
+        if (decodeField("IMODE", NitfConstants.IMODE_LENGTH)) {
+            int length = readCode(NitfConstants.IMODE_LENGTH);
+            segment.setImageMode(ImageMode.getEnumValue(getCodeBuffer(), 0, length));
+        }
     }
 
     private void readNBPR() throws ParseException {
-        segment.setNumberOfBlocksPerRow(reader.readBytesAsInteger(NitfConstants.NBPR_LENGTH));
+        if (decodeField("NBPR", NitfConstants.NBPR_LENGTH)) {
+            segment.setNumberOfBlocksPerRow(reader.readInt(NitfConstants.NBPR_LENGTH));
+        }
     }
 
     private void readNBPC() throws ParseException {
-        segment.setNumberOfBlocksPerColumn(reader.readBytesAsInteger(NitfConstants.NBPC_LENGTH));
+        if (decodeField("NBPC", NitfConstants.NBPC_LENGTH)) {
+            segment.setNumberOfBlocksPerColumn(reader.readInt(NitfConstants.NBPC_LENGTH));
+        }
     }
 
     private void readNPPBH() throws ParseException {
-        segment.setNumberOfPixelsPerBlockHorizontal(reader.readBytesAsInteger(NitfConstants.NPPBH_LENGTH));
+        if (decodeField("NPPBH", NitfConstants.NPPBH_LENGTH)) {
+            segment.setNumberOfPixelsPerBlockHorizontal(reader.readInt(NitfConstants.NPPBH_LENGTH));
+        }
     }
 
     private void readNPPBV() throws ParseException {
-        segment.setNumberOfPixelsPerBlockVertical(reader.readBytesAsInteger(NitfConstants.NPPBV_LENGTH));
+        if (decodeField("NPPBV", NitfConstants.NPPBV_LENGTH)) {
+            segment.setNumberOfPixelsPerBlockVertical(reader.readInt(NitfConstants.NPPBV_LENGTH));
+        }
     }
 
     private void readNBPP() throws ParseException {
-        segment.setNumberOfBitsPerPixelPerBand(reader.readBytesAsInteger(NitfConstants.NBPP_LENGTH));
+        if (decodeField("NBPP", NitfConstants.NBPP_LENGTH)) {
+            segment.setNumberOfBitsPerPixelPerBand(reader.readInt(NitfConstants.NBPP_LENGTH));
+        }
     }
 
     private void readIDLVL() throws ParseException {
-        segment.setImageDisplayLevel(reader.readBytesAsInteger(NitfConstants.IDLVL_LENGTH));
+        if (decodeField("IDLVL", NitfConstants.IDLVL_LENGTH)) {
+            segment.setImageDisplayLevel(reader.readInt(NitfConstants.IDLVL_LENGTH));
+        }
     }
 
     private void readIALVL() throws ParseException {
-        segment.setAttachmentLevel(reader.readBytesAsInteger(NitfConstants.IALVL_LENGTH));
+        if (decodeField("IALVL", NitfConstants.IALVL_LENGTH)) {
+            segment.setAttachmentLevel(reader.readInt(NitfConstants.IALVL_LENGTH));
+        }
     }
 
     private void readILOC() throws ParseException {
-        segment.setImageLocationRow(reader.readBytesAsInteger(NitfConstants.ILOC_HALF_LENGTH));
-        segment.setImageLocationColumn(reader.readBytesAsInteger(NitfConstants.ILOC_HALF_LENGTH));
+        if (decodeField("ILOC", NitfConstants.ILOC_HALF_LENGTH + NitfConstants.ILOC_HALF_LENGTH)) {
+            segment.setImageLocationRow(reader.readInt(NitfConstants.ILOC_HALF_LENGTH));
+            segment.setImageLocationColumn(reader.readInt(NitfConstants.ILOC_HALF_LENGTH));
+        }
     }
 
     private void readIMAG() throws ParseException {
-        segment.setImageMagnification(reader.readBytes(NitfConstants.IMAG_LENGTH));
+        if (decodeField("IMAG", NitfConstants.IMAG_LENGTH)) {
+            segment.setImageMagnification(reader.readBytes(NitfConstants.IMAG_LENGTH));
+        }
     }
 
     private void readUDIDL() throws ParseException {
-        userDefinedImageDataLength = reader.readBytesAsInteger(NitfConstants.UDIDL_LENGTH);
+        field("UDIDL");
+        userDefinedImageDataLength = reader.readInt(NitfConstants.UDIDL_LENGTH);
     }
 
     private void readUDOFL() throws ParseException {
-        segment.setUserDefinedHeaderOverflow(reader.readBytesAsInteger(NitfConstants.UDOFL_LENGTH));
+        if (decodeField("UDOFL", NitfConstants.UDOFL_LENGTH)) {
+            segment.setUserDefinedHeaderOverflow(reader.readInt(NitfConstants.UDOFL_LENGTH));
+        }
     }
 
     private void readUDID() throws ParseException {
-        TreCollection userDefinedSubheaderTres = parsingStrategy.parseTREs(reader, userDefinedImageDataLength - NitfConstants.UDOFL_LENGTH);
-        segment.mergeTREs(userDefinedSubheaderTres);
+        if (deferredFields != null) {
+            deferredFields.setUserDefinedTresOffset(reader.getCurrentOffset(), userDefinedImageDataLength - NitfConstants.UDOFL_LENGTH);
+            reader.skip(userDefinedImageDataLength - NitfConstants.UDOFL_LENGTH);
+            return;
+        }
+        readTREs(segment, userDefinedImageDataLength - NitfConstants.UDOFL_LENGTH);
     }
 
     private void readIXSHDL() throws ParseException {
-        imageExtendedSubheaderDataLength = reader.readBytesAsInteger(NitfConstants.IXSHDL_LENGTH);
+        field("IXSHDL");
+        imageExtendedSubheaderDataLength = reader.readInt(NitfConstants.IXSHDL_LENGTH);
     }
 
     private void readIXSOFL() throws ParseException {
-        segment.setExtendedHeaderDataOverflow(reader.readBytesAsInteger(NitfConstants.IXSOFL_LENGTH));
+        if (decodeField("IXSOFL", NitfConstants.IXSOFL_LENGTH)) {
+            segment.setExtendedHeaderDataOverflow(reader.readInt(NitfConstants.IXSOFL_LENGTH));
+        }
     }
 
     private void readIXSHD() throws ParseException {
-        TreCollection extendedSubheaderTres = parsingStrategy.parseTREs(reader, imageExtendedSubheaderDataLength - NitfConstants.IXSOFL_LENGTH);
-        segment.mergeTREs(extendedSubheaderTres);
+        if (deferredFields != null) {
+            deferredFields.setExtendedTresOffset(reader.getCurrentOffset(), imageExtendedSubheaderDataLength - NitfConstants.IXSOFL_LENGTH);
+            reader.skip(imageExtendedSubheaderDataLength - NitfConstants.IXSOFL_LENGTH);
+            return;
+        }
+        readTREs(segment, imageExtendedSubheaderDataLength - NitfConstants.IXSOFL_LENGTH);
     }
 
     private void readCOMRAT() throws ParseException {
-        segment.setCompressionRate(reader.readTrimmedBytes(NitfConstants.COMRAT_LENGTH));
+        if (decodeField("COMRAT", NitfConstants.COMRAT_LENGTH)) {
+            segment.setCompressionRate(reader.readTrimmedBytes(NitfConstants.COMRAT_LENGTH));
+        }
     }
 }
@@ -16,6 +16,7 @@ package org.codice.imaging.nitf.core;
 
 import java.io.InputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 
 import org.slf4j.Logger;
@@ -23,23 +24,53 @@ import org.slf4j.LoggerFactory;
 
 /**
     NitfReader implementation using an InputStream.
+    <p>
+    The stream is read through an internal buffer, so reading the many short header fields does not
+    cost a call to the stream each. Short reads from the stream (which are normal for pipes and sockets)
+    are retried until the requested count is available, and skips that the stream cannot perform fall
+    back to reading into the same buffer. The reader may read ahead of the NITF content in the stream.
 */
 public class NitfInputStreamReader extends SharedReader implements NitfReader {
 
+    /**
+        The default size of the internal buffer, in bytes.
+    */
+    public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
     private static final Logger LOG = LoggerFactory.getLogger(NitfInputStreamReader.class);
 
     private InputStream input = null;
     private long numBytesRead = 0;
 
+    private final byte[] buffer;
+    private int bufferPosition = 0;
+    private int bufferLimit = 0;
+
     private static final String GENERIC_READ_ERROR_MESSAGE = "Error reading from NITF stream: ";
 
+    private static final String END_OF_FILE_MESSAGE = "End of file reading from NITF stream.";
+
     /**
         Constructor.
 
         @param nitfInputStream the input stream to read the NITF file contents from.
     */
     public NitfInputStreamReader(final InputStream nitfInputStream) {
+        this(nitfInputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+        Constructor, with a specific buffer size.
+
+        @param nitfInputStream the input stream to read the NITF file contents from.
+        @param bufferSize the size of the internal buffer, in bytes.
+    */
+    public NitfInputStreamReader(final InputStream nitfInputStream, final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
         input = nitfInputStream;
+        buffer = new byte[bufferSize];
     }
 
     @Override
@@ -67,38 +98,94 @@ public class NitfInputStreamReader extends SharedReader implements NitfReader {
         return numBytesRead;
     }
 
+    @Override
+    public final long available() {
+        long buffered = bufferLimit - bufferPosition;
+        try {
+            return buffered + input.available();
+        } catch (IOException ex) {
+            LOG.warn("IO Exception getting available bytes", ex);
+            return buffered;
+        }
+    }
+
     @Override
     public final byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public final void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
+        int copied = 0;
         try {
-            byte[] bytes = new byte[count];
-            int thisRead = input.read(bytes, 0, count);
-            if (thisRead == -1) {
-                throw new ParseException("End of file reading from NITF stream.", (int) numBytesRead);
-            } else if (thisRead < count) {
-                throw new ParseException(String.format("Short read while reading from NITF stream (%s/%s).", thisRead, count),
-                                         (int) (numBytesRead + thisRead));
+            while (copied < count) {
+                int remaining = count - copied;
+                int buffered = bufferLimit - bufferPosition;
+                if (buffered > 0) {
+                    int thisCopy = Math.min(remaining, buffered);
+                    System.arraycopy(buffer, bufferPosition, destination, offset + copied, thisCopy);
+                    bufferPosition += thisCopy;
+                    copied += thisCopy;
+                    numBytesRead += thisCopy;
+                } else if (remaining >= buffer.length) {
+                    // Large reads (e.g. segment data) go straight into the result.
+                    int thisRead = input.read(destination, offset + copied, remaining);
+                    if (thisRead == -1) {
+                        throw new ParseException(END_OF_FILE_MESSAGE, (int) numBytesRead);
+                    }
+                    copied += thisRead;
+                    numBytesRead += thisRead;
+                } else {
+                    fillBuffer();
+                }
             }
-            numBytesRead += thisRead;
-            return bytes;
         } catch (IOException ex) {
             LOG.warn("IO Exception reading raw bytes", ex);
             throw new ParseException(GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) numBytesRead);
         }
     }
 
+    @Override
+    public final ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        throw new ParseException("Data views are not supported when reading from a stream", (int) numBytesRead);
+    }
+
     @Override
     public final void skip(final long count) throws ParseException {
-        long bytesToRead = count;
+        long bytesToSkip = count;
         try {
-            long thisRead = 0;
-            do {
-                thisRead = input.skip(bytesToRead);
-                numBytesRead += thisRead;
-                bytesToRead -= thisRead;
-            } while (bytesToRead > 0);
+            while (bytesToSkip > 0) {
+                int buffered = bufferLimit - bufferPosition;
+                if (buffered > 0) {
+                    int thisSkip = (int) Math.min(bytesToSkip, buffered);
+                    bufferPosition += thisSkip;
+                    numBytesRead += thisSkip;
+                    bytesToSkip -= thisSkip;
+                    continue;
+                }
+                long thisSkip = input.skip(bytesToSkip);
+                if (thisSkip > 0) {
+                    numBytesRead += thisSkip;
+                    bytesToSkip -= thisSkip;
+                } else {
+                    // The stream could not skip (possibly at the end of file), so read instead.
+                    fillBuffer();
+                }
+            }
         } catch (IOException ex) {
             LOG.warn("IO Exception skipping bytes", ex);
             throw new ParseException(GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) numBytesRead);
         }
     }
+
+    private void fillBuffer() throws IOException, ParseException {
+        int thisRead = input.read(buffer, 0, buffer.length);
+        if (thisRead == -1) {
+            throw new ParseException(END_OF_FILE_MESSAGE, (int) numBytesRead);
+        }
+        bufferPosition = 0;
+        bufferLimit = thisRead;
+    }
 }
@@ -19,6 +19,8 @@ package org.codice.imaging.nitf.core;
 */
 public class NitfLabelSegmentHeader extends AbstractNitfSubSegment {
 
+    private static final long serialVersionUID = 1L;
+
     private int labelLocationRow = 0;
     private int labelLocationColumn = 0;
     private int labelCellWidth = 0;
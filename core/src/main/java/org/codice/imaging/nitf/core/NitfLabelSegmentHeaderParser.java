@@ -29,82 +29,110 @@ class NitfLabelSegmentHeaderParser extends AbstractNitfSegmentParser {
     }
 
     final NitfLabelSegmentHeader parse(final NitfReader nitfReader, final NitfParseStrategy parseStrategy) throws ParseException {
-
         reader = nitfReader;
         parsingStrategy = parseStrategy;
-        segment = new NitfLabelSegmentHeader();
-
-        readLA();
-        readLID();
-        segment.setSecurityMetadata(new NitfSecurityMetadata(reader));
-        readENCRYP();
-        readLFS();
-        readLCW();
-        readLCH();
-        readLDLVL();
-        readLALVL();
-        readLLOC();
-        readLTC();
-        readLBC();
-        readLXSHDL();
-        if (labelExtendedSubheaderLength > 0) {
-            readLXSOFL();
-            readLXSHD();
+        if (isBuildingModel()) {
+            segment = new NitfLabelSegmentHeader();
+        }
+        labelExtendedSubheaderLength = 0;
+
+        try {
+            readLA();
+            readLID();
+            readNitfSecurityMetadata(segment);
+            readENCRYP();
+            readLFS();
+            readLCW();
+            readLCH();
+            readLDLVL();
+            readLALVL();
+            readLLOC();
+            readLTC();
+            readLBC();
+            readLXSHDL();
+            if (labelExtendedSubheaderLength > 0) {
+                readLXSOFL();
+                readLXSHD();
+            }
+            endFields();
+            return segment;
+        } finally {
+            releaseReader();
+            segment = null;
         }
-        return segment;
     }
 
     private void readLA() throws ParseException {
+        field("LA");
         reader.verifyHeaderMagic(NitfConstants.LA);
     }
 
     private void readLID() throws ParseException {
-        segment.setIdentifier(reader.readTrimmedBytes(NitfConstants.LID_LENGTH));
+        if (decodeField("LID", NitfConstants.LID_LENGTH)) {
+            segment.setIdentifier(reader.readTrimmedBytes(NitfConstants.LID_LENGTH));
+        }
     }
 
     private void readLFS() throws ParseException {
+        field("LFS");
         reader.skip(NitfConstants.LFS_LENGTH);
     }
 
     private void readLCW() throws ParseException {
-        segment.setLabelCellWidth(reader.readBytesAsInteger(NitfConstants.LCW_LENGTH));
+        if (decodeField("LCW", NitfConstants.LCW_LENGTH)) {
+            segment.setLabelCellWidth(reader.readInt(NitfConstants.LCW_LENGTH));
+        }
     }
 
     private void readLCH() throws ParseException {
-        segment.setLabelCellHeight(reader.readBytesAsInteger(NitfConstants.LCH_LENGTH));
+        if (decodeField("LCH", NitfConstants.LCH_LENGTH)) {
+            segment.setLabelCellHeight(reader.readInt(NitfConstants.LCH_LENGTH));
+        }
     }
 
     private void readLDLVL() throws ParseException {
-        segment.setLabelDisplayLevel(reader.readBytesAsInteger(NitfConstants.LDLVL_LENGTH));
+        if (decodeField("LDLVL", NitfConstants.LDLVL_LENGTH)) {
+            segment.setLabelDisplayLevel(reader.readInt(NitfConstants.LDLVL_LENGTH));
+        }
     }
 
     private void readLALVL() throws ParseException {
-        segment.setAttachmentLevel(reader.readBytesAsInteger(NitfConstants.LALVL_LENGTH));
+        if (decodeField("LALVL", NitfConstants.LALVL_LENGTH)) {
+            segment.setAttachmentLevel(reader.readInt(NitfConstants.LALVL_LENGTH));
+        }
     }
 
     private void readLLOC() throws ParseException {
-        segment.setLabelLocationRow(reader.readBytesAsInteger(NitfConstants.LLOC_HALF_LENGTH));
-        segment.setLabelLocationColumn(reader.readBytesAsInteger(NitfConstants.LLOC_HALF_LENGTH));
+        if (decodeField("LLOC", NitfConstants.LLOC_HALF_LENGTH + NitfConstants.LLOC_HALF_LENGTH)) {
+            segment.setLabelLocationRow(reader.readInt(NitfConstants.LLOC_HALF_LENGTH));
+            segment.setLabelLocationColumn(reader.readInt(NitfConstants.LLOC_HALF_LENGTH));
+        }
     }
 
     private void readLTC() throws ParseException {
-        segment.setLabelTextColour(readRGBColour());
+        if (decodeField("LTC", NitfConstants.RGB_COLOUR_LENGTH)) {
+            segment.setLabelTextColour(readRGBColour());
+        }
     }
 
     private void readLBC() throws ParseException {
-        segment.setLabelBackgroundColour(readRGBColour());
+        if (decodeField("LBC", NitfConstants.RGB_COLOUR_LENGTH)) {
+            segment.setLabelBackgroundColour(readRGBColour());
+        }
     }
 
     private void readLXSHDL() throws ParseException {
-        labelExtendedSubheaderLength = reader.readBytesAsInteger(NitfConstants.LXSHDL_LENGTH);
+        field("LXSHDL");
+        labelExtendedSubheaderLength = reader.readInt(NitfConstants.LXSHDL_LENGTH);
     }
 
     private void readLXSOFL() throws ParseException {
-        segment.setExtendedHeaderDataOverflow(reader.readBytesAsInteger(NitfConstants.LXSOFL_LENGTH));
+        if (decodeField("LXSOFL", NitfConstants.LXSOFL_LENGTH)) {
+            segment.setExtendedHeaderDataOverflow(reader.readInt(NitfConstants.LXSOFL_LENGTH));
+        }
     }
 
     private void readLXSHD() throws ParseException {
-        TreCollection extendedSubheaderTREs = parsingStrategy.parseTREs(reader, labelExtendedSubheaderLength - NitfConstants.LXSOFL_LENGTH);
-        segment.mergeTREs(extendedSubheaderTREs);
+        readTREs(segment, labelExtendedSubheaderLength - NitfConstants.LXSOFL_LENGTH);
     }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+/**
+    Condition for ending a parse before all of the segments have been read.
+    <p>
+    See SlottedNitfParseStrategy.setStopCondition(). The condition is checked once the file header has
+    been read, and again before each later segment, with the strategy holding everything parsed so far.
+    When it returns true, the parse ends without reading the rest of the file. NitfParseStopConditions
+    provides the common conditions.
+*/
+public interface NitfParseStopCondition {
+
+    /**
+        Check whether to stop parsing.
+
+        @param parsed the strategy, holding the file header and the segments parsed so far.
+        @return true to stop parsing, false to read the next segment.
+    */
+    boolean shouldStop(SlottedNitfParseStrategy parsed);
+}
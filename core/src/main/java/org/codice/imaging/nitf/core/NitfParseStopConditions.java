@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+/**
+    Common stop conditions, for ending a parse early.
+*/
+public final class NitfParseStopConditions {
+
+    private static final NitfParseStopCondition AFTER_FILE_HEADER = new NitfParseStopCondition() {
+        @Override
+        public boolean shouldStop(final SlottedNitfParseStrategy parsed) {
+            return true;
+        }
+    };
+
+    private NitfParseStopConditions() {
+    }
+
+    /**
+        Stop once the file header (including its TREs) has been read, without reading any segments.
+
+        @return the stop condition.
+    */
+    public static NitfParseStopCondition afterFileHeader() {
+        return AFTER_FILE_HEADER;
+    }
+
+    /**
+        Stop once a number of image segments have been read.
+        <p>
+        Image segments come first in the file, so no other segments are read unless the file has fewer
+        image segments than this.
+
+        @param count the number of image segments to read.
+        @return the stop condition.
+    */
+    public static NitfParseStopCondition afterImageSegments(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Image segment count must not be negative: " + count);
+        }
+        return new NitfParseStopCondition() {
+            @Override
+            public boolean shouldStop(final SlottedNitfParseStrategy parsed) {
+                return parsed.getImageSegmentHeaders().size() >= count;
+            }
+        };
+    }
+}
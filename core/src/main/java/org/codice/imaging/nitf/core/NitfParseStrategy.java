@@ -39,8 +39,9 @@ public interface NitfParseStrategy {
      * Indication that the "base" file-level headers have been read.
      *
      * @param reader the reader, positioned for reading of the segments
+     * @throws ParseException if the strategy ends the parse because the segments could not be read.
      */
-    void baseHeadersRead(NitfReader reader);
+    void baseHeadersRead(NitfReader reader) throws ParseException;
 
     /**
      * Parse and return the TREs.
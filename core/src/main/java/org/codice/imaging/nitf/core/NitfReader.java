@@ -14,6 +14,7 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 
 /**
@@ -130,6 +131,42 @@ public interface NitfReader {
     */
     Double readBytesAsDouble(final int count) throws ParseException;
 
+    /**
+        Read an integer value from the file, without creating intermediate objects.
+        <p>
+        This interprets the bytes in the same way as readBytesAsInteger(), but decodes the ASCII digits
+        directly and returns a primitive value.
+
+        @param count the number of bytes to read and convert to an integer.
+        @return integer representation of the specified number of bytes.
+        @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
+    */
+    int readInt(final int count) throws ParseException;
+
+    /**
+        Read a long integer value from the file, without creating intermediate objects.
+        <p>
+        This interprets the bytes in the same way as readBytesAsLong(), but decodes the ASCII digits
+        directly and returns a primitive value.
+
+        @param count the number of bytes to read and convert to a long integer.
+        @return long integer representation of the specified number of bytes.
+        @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
+    */
+    long readLong(final int count) throws ParseException;
+
+    /**
+        Read a double value from the file, avoiding intermediate objects where possible.
+        <p>
+        This interprets the bytes in the same way as readBytesAsDouble(), but decodes simple decimal
+        values directly and returns a primitive value.
+
+        @param count the number of bytes to read and convert to a double.
+        @return double representation of the specified number of bytes.
+        @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
+    */
+    double readDouble(final int count) throws ParseException;
+
     /**
         Read a string from the file, removing any trailing whitespace.
 
@@ -157,6 +194,54 @@ public interface NitfReader {
     */
     byte[] readBytesRaw(final int count) throws ParseException;
 
+    /**
+        Read bytes from the file into an existing array.
+        <p>
+        This allows callers to reuse a buffer, rather than allocating a new array for each read.
+
+        @param destination the array to copy the file content into.
+        @param offset the offset into the destination array to start copying to.
+        @param count the number of bytes to read.
+        @throws ParseException if something went wrong during parsing (e.g. end of file).
+    */
+    void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException;
+
+    /**
+        Return a read-only view of part of the file, without copying the content.
+        <p>
+        This does not change the current offset. The view is independent of later reads, so it can be
+        handed to a decoder while parsing continues. This is only valid if the reader can seek.
+
+        @param absoluteOffset the offset into the NITF file where the view should start.
+        @param length the number of bytes in the view.
+        @return read-only buffer positioned at zero, with the limit set to the length.
+        @throws ParseException if the range is outside the file, is too large for a single buffer, or the reader
+        cannot provide views.
+    */
+    ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException;
+
+    /**
+        Indicate that a range of the file is about to be read.
+        <p>
+        Parse strategies call this before each segment, with the parts of the segment (the subheader, and the
+        data if it is extracted) that the parse will read. The ranges are given in the order they will be read.
+        This is only a hint: readers may use it to read ahead of the parser (see PrefetchingReader), or ignore it.
+
+        @param absoluteOffset the offset into the NITF file where the range starts.
+        @param length the number of bytes in the range.
+    */
+    void readAhead(final long absoluteOffset, final long length);
+
+    /**
+        Return the number of bytes that can be read from the current offset without blocking.
+        <p>
+        This counts the bytes that the reader already holds (e.g. in memory) or can read from a local file.
+        As for InputStream.available(), it is only an estimate: zero does not mean the end of the file.
+
+        @return the number of bytes that can be read without blocking.
+    */
+    long available();
+
     /**
         Skip over file contents.
         <p>
@@ -14,6 +14,9 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.text.ParseException;
 
@@ -39,6 +42,31 @@ public abstract class NitfReaderDefaultImpl implements NitfReader {
     */
     protected static final Charset UTF8_CHARSET = Charset.forName("UTF-8");
 
+    private static final int DECIMAL_RADIX = 10;
+
+    /**
+        The largest number of decimal digits that is always exactly representable in a double.
+    */
+    private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+
+    /**
+        Powers of ten that are exactly representable in a double.
+    */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+                                                   1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private static final int DEFAULT_SCRATCH_LENGTH = 32;
+
+    /**
+        Reused buffer for numeric fields.
+    */
+    private byte[] scratch = new byte[DEFAULT_SCRATCH_LENGTH];
+
+    /**
+        The result of the last successful isInteger() call.
+    */
+    private long parsedInteger = 0;
+
     /** {@inheritDoc} */
     @Override
     public final void setFileType(final FileType fileType) {
@@ -63,61 +91,235 @@ public abstract class NitfReaderDefaultImpl implements NitfReader {
     /**
         Default implementation for readBytesAsInteger.
         <p>
-        This implements the readBytesAsInteger interface in terms of the underlying readBytes() implementation.
+        This implements the readBytesAsInteger interface in terms of the underlying defaultReadInt() implementation.
 
         @param count the number of bytes to read and convert to an integer.
         @return integer representation of the specified number of bytes.
         @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
     */
     protected final Integer defaultReadBytesAsInteger(final int count) throws ParseException {
-        String intString = readBytes(count);
-        Integer intValue = 0;
-        try {
-            intValue = Integer.parseInt(intString);
-        } catch (NumberFormatException ex) {
-            throw new ParseException(String.format("Bad Integer format: [%s]", intString), (int) getCurrentOffset());
-        }
-        return intValue;
+        return defaultReadInt(count);
     }
 
     /**
         Default implementation for readBytesAsLong.
         <p>
-        This implements the readBytesAsLong interface in terms of the underlying readBytes() implementation.
+        This implements the readBytesAsLong interface in terms of the underlying defaultReadLong() implementation.
 
         @param count the number of bytes to read and convert to a long integer.
         @return long integer representation of the specified number of bytes.
         @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
     */
     protected final Long defaultReadBytesAsLong(final int count) throws ParseException {
-        String longString = readBytes(count);
-        Long longValue = 0L;
-        try {
-            longValue = Long.parseLong(longString);
-        } catch (NumberFormatException ex) {
-            throw new ParseException(String.format("Bad Long format: %s", longString), (int) getCurrentOffset());
-        }
-        return longValue;
+        return defaultReadLong(count);
     }
 
     /**
         Default implementation for readBytesAsDouble.
         <p>
-        This implements the readBytesAsDouble interface in terms of the underlying readBytes() implementation.
+        This implements the readBytesAsDouble interface in terms of the underlying defaultReadDouble() implementation.
 
         @param count the number of bytes to read and convert to a double.
         @return double representation of the specified number of bytes.
         @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
     */
     protected final Double defaultReadBytesAsDouble(final int count) throws ParseException {
-        String doubleString = readBytes(count);
-        Double doubleValue = 0.0;
+        return defaultReadDouble(count);
+    }
+
+    /**
+        Default implementation for readInt.
+        <p>
+        This reads the bytes into a reused scratch buffer, and decodes the ASCII digits directly.
+
+        @param count the number of bytes to read and convert to an integer.
+        @return integer representation of the specified number of bytes.
+        @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
+    */
+    protected final int defaultReadInt(final int count) throws ParseException {
+        byte[] digits = readIntoScratch(count);
+        if (!isInteger(digits, count, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            throw new ParseException(String.format("Bad Integer format: [%s]", new String(digits, 0, count, UTF8_CHARSET)),
+                                     (int) getCurrentOffset());
+        }
+        return (int) parsedInteger;
+    }
+
+    /**
+        Default implementation for readLong.
+        <p>
+        This reads the bytes into a reused scratch buffer, and decodes the ASCII digits directly.
+
+        @param count the number of bytes to read and convert to a long integer.
+        @return long integer representation of the specified number of bytes.
+        @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
+    */
+    protected final long defaultReadLong(final int count) throws ParseException {
+        byte[] digits = readIntoScratch(count);
+        if (!isInteger(digits, count, Long.MIN_VALUE, Long.MAX_VALUE)) {
+            throw new ParseException(String.format("Bad Long format: %s", new String(digits, 0, count, UTF8_CHARSET)),
+                                     (int) getCurrentOffset());
+        }
+        return parsedInteger;
+    }
+
+    /**
+        Default implementation for readDouble.
+        <p>
+        This reads the bytes into a reused scratch buffer. Plain decimal values (optional sign, digits and
+        an optional decimal point, surrounded by optional whitespace) that can be converted exactly are decoded
+        directly. Anything else (e.g. exponents or very long values) falls back to Double.parseDouble().
+
+        @param count the number of bytes to read and convert to a double.
+        @return double representation of the specified number of bytes.
+        @throws ParseException if the content could not be converted, or something else went wrong during parsing (e.g. end of file).
+    */
+    protected final double defaultReadDouble(final int count) throws ParseException {
+        byte[] digits = readIntoScratch(count);
+        int start = 0;
+        int end = count;
+        while ((start < end) && (digits[start] <= ' ')) {
+            start++;
+        }
+        while ((end > start) && (digits[end - 1] <= ' ')) {
+            end--;
+        }
+        boolean negative = false;
+        if ((start < end) && ((digits[start] == '-') || (digits[start] == '+'))) {
+            negative = (digits[start] == '-');
+            start++;
+        }
+        long mantissa = 0;
+        int numDigits = 0;
+        int fractionDigits = -1;
+        for (int i = start; i < end; ++i) {
+            int digit = digits[i] - '0';
+            if ((digits[i] == '.') && (fractionDigits < 0)) {
+                fractionDigits = 0;
+            } else if ((digit >= 0) && (digit < DECIMAL_RADIX) && (numDigits < MAX_EXACT_DOUBLE_DIGITS)) {
+                mantissa = mantissa * DECIMAL_RADIX + digit;
+                numDigits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                return parseDoubleFromString(digits, count);
+            }
+        }
+        if (numDigits == 0) {
+            return parseDoubleFromString(digits, count);
+        }
+        double value = mantissa;
+        if (fractionDigits > 0) {
+            value = value / POWERS_OF_TEN[fractionDigits];
+        }
+        if (negative) {
+            return -value;
+        }
+        return value;
+    }
+
+    private double parseDoubleFromString(final byte[] digits, final int count) throws ParseException {
+        String doubleString = new String(digits, 0, count, UTF8_CHARSET);
         try {
-            doubleValue = Double.parseDouble(doubleString.trim());
+            return Double.parseDouble(doubleString.trim());
         } catch (NumberFormatException ex) {
             throw new ParseException(String.format("Bad Double format: %s", doubleString), (int) getCurrentOffset());
         }
-        return doubleValue;
+    }
+
+    private byte[] readIntoScratch(final int count) throws ParseException {
+        if (count > scratch.length) {
+            scratch = new byte[count];
+        }
+        readBytesRaw(scratch, 0, count);
+        return scratch;
+    }
+
+    /**
+        Decode ASCII decimal digits, with an optional leading sign, into parsedInteger.
+        <p>
+        This accepts the same input as Long.parseLong() for ASCII content.
+
+        @param digits the bytes to decode.
+        @param count the number of bytes to decode.
+        @param minValue the smallest valid value.
+        @param maxValue the largest valid value.
+        @return true if the bytes were a valid integer in the specified range, otherwise false.
+    */
+    private boolean isInteger(final byte[] digits, final int count, final long minValue, final long maxValue) {
+        int i = 0;
+        boolean negative = false;
+        long limit = -maxValue;
+        if ((count > 0) && ((digits[0] == '-') || (digits[0] == '+'))) {
+            if (digits[0] == '-') {
+                negative = true;
+                limit = minValue;
+            }
+            i++;
+        }
+        if (i == count) {
+            return false;
+        }
+        // Accumulate negatively, since the negative range is larger than the positive range.
+        long multiplicationLimit = limit / DECIMAL_RADIX;
+        long result = 0;
+        for (; i < count; ++i) {
+            int digit = digits[i] - '0';
+            if ((digit < 0) || (digit >= DECIMAL_RADIX) || (result < multiplicationLimit)) {
+                return false;
+            }
+            result *= DECIMAL_RADIX;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        if (negative) {
+            parsedInteger = result;
+        } else {
+            parsedInteger = -result;
+        }
+        return true;
+    }
+
+    /**
+        Check that a data view range lies within the file.
+        <p>
+        This is intended to support getDataView() implementations.
+
+        @param absoluteOffset the offset into the NITF file where the view should start.
+        @param length the number of bytes in the view.
+        @param fileLength the total length of the NITF file.
+        @throws ParseException if the range is outside the file, or is too large for a single buffer.
+    */
+    protected final void checkDataViewRange(final long absoluteOffset, final long length, final long fileLength) throws ParseException {
+        if ((absoluteOffset < 0) || (length < 0) || (absoluteOffset + length > fileLength)) {
+            throw new ParseException(String.format("Data view [%d, +%d) is outside the file", absoluteOffset, length), (int) getCurrentOffset());
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new ParseException(String.format("Data view of %d bytes is too large for a single buffer", length), (int) getCurrentOffset());
+        }
+    }
+
+    /**
+        Default implementation for getDataView() on a file.
+        <p>
+        This maps the requested range of the file read-only, so the content is not copied onto the heap.
+
+        @param channel the channel for the NITF file.
+        @param absoluteOffset the offset into the NITF file where the view should start.
+        @param length the number of bytes in the view.
+        @return read-only buffer for the requested range.
+        @throws ParseException if the range is invalid, or the mapping failed.
+    */
+    protected final ByteBuffer defaultMapDataView(final FileChannel channel, final long absoluteOffset, final long length) throws ParseException {
+        try {
+            checkDataViewRange(absoluteOffset, length, channel.size());
+            return channel.map(FileChannel.MapMode.READ_ONLY, absoluteOffset, length);
+        } catch (IOException ex) {
+            throw new ParseException("IOException while mapping data view: " + ex, (int) absoluteOffset);
+        }
     }
 
     /**
@@ -133,6 +335,16 @@ public abstract class NitfReaderDefaultImpl implements NitfReader {
         return rightTrim(readBytes(count));
     }
 
+    /**
+        Default implementation for readAhead(), which ignores the hint.
+
+        @param absoluteOffset the offset into the NITF file where the range starts.
+        @param length the number of bytes in the range.
+    */
+    @Override
+    public void readAhead(final long absoluteOffset, final long length) {
+    }
+
     /**
         Convenience routine to remove whitespace only from the right hand end of the string.
 
@@ -14,12 +14,15 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
 import java.text.ParseException;
 
 /**
     Security metadata for a NITF file header or segment subheader.
 */
-public class NitfSecurityMetadata {
+public class NitfSecurityMetadata implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private NitfSecurityClassification nitfSecurityClassification = NitfSecurityClassification.UNKNOWN;
     private String nitfSecurityClassificationSystem = null;
@@ -46,6 +49,8 @@ public class NitfSecurityMetadata {
     private String downgradeDateOrSpecialCase = null;
     private String downgradeEvent = null;
 
+    private boolean shared = false;
+
     /**
         Default constructor.
     */
@@ -65,12 +70,70 @@ public class NitfSecurityMetadata {
         parser.parse(nitfReader, this);
     }
 
+    /**
+        Copy constructor.
+        <p>
+        The copy can always be modified, so this is the way to change security metadata that was read from a
+        file (see isShared()).
+
+        @param source the security metadata to copy.
+    */
+    public NitfSecurityMetadata(final NitfSecurityMetadata source) {
+        nitfSecurityClassification = source.nitfSecurityClassification;
+        nitfSecurityClassificationSystem = source.nitfSecurityClassificationSystem;
+        nitfCodewords = source.nitfCodewords;
+        nitfControlAndHandling = source.nitfControlAndHandling;
+        nitfReleaseInstructions = source.nitfReleaseInstructions;
+        nitfDeclassificationType = source.nitfDeclassificationType;
+        nitfDeclassificationDate = source.nitfDeclassificationDate;
+        nitfDeclassificationExemption = source.nitfDeclassificationExemption;
+        nitfDowngrade = source.nitfDowngrade;
+        nitfDowngradeDate = source.nitfDowngradeDate;
+        nitfClassificationText = source.nitfClassificationText;
+        nitfClassificationAuthorityType = source.nitfClassificationAuthorityType;
+        nitfClassificationAuthority = source.nitfClassificationAuthority;
+        nitfClassificationReason = source.nitfClassificationReason;
+        nitfSecuritySourceDate = source.nitfSecuritySourceDate;
+        nitfSecurityControlNumber = source.nitfSecurityControlNumber;
+        downgradeDateOrSpecialCase = source.downgradeDateOrSpecialCase;
+        downgradeEvent = source.downgradeEvent;
+    }
+
+    /**
+        Return whether this security metadata is shared, and so cannot be modified.
+        <p>
+        Security metadata in segment subheaders is usually identical from one segment (and file) to the
+        next, so the parser can share one instance between all the segments that have the same security
+        fields (see SecurityMetadataPool). Calling a setter on a shared instance throws
+        UnsupportedOperationException. To change the security metadata of a segment, make a copy and set
+        that on the segment instead.
+
+        @return true if this instance is shared, otherwise false.
+    */
+    public final boolean isShared() {
+        return shared;
+    }
+
+    /**
+        Mark this instance as shared, so it cannot be modified any further.
+    */
+    final void setShared() {
+        shared = true;
+    }
+
+    private void checkNotShared() {
+        if (shared) {
+            throw new UnsupportedOperationException("Shared security metadata cannot be modified, use a copy instead");
+        }
+    }
+
     /**
         Set the security classification.
 
         @param securityClassification security classification
     */
     public final void setSecurityClassification(final NitfSecurityClassification securityClassification) {
+        checkNotShared();
         nitfSecurityClassification = securityClassification;
     }
 
@@ -104,6 +167,7 @@ public class NitfSecurityMetadata {
         @param securityClassificationSystem the security classification system (2 character country code)
     */
     public final void setSecurityClassificationSystem(final String securityClassificationSystem) {
+        checkNotShared();
         nitfSecurityClassificationSystem = securityClassificationSystem;
     }
 
@@ -142,6 +206,7 @@ public class NitfSecurityMetadata {
         @param codewords security codewords or an empty string if no codewords apply
     */
     public final void setCodewords(final String codewords) {
+        checkNotShared();
         nitfCodewords = codewords;
     }
 
@@ -177,6 +242,7 @@ public class NitfSecurityMetadata {
         @param instructions security control and handling codes, or an empty string if no codes apply.
     */
     public final void setControlAndHandling(final String instructions) {
+        checkNotShared();
         nitfControlAndHandling = instructions;
     }
 
@@ -212,6 +278,7 @@ public class NitfSecurityMetadata {
         @param releaseInstructions release instructions, or an empty string if no release instructions apply.
     */
     public final void setReleaseInstructions(final String releaseInstructions) {
+        checkNotShared();
         nitfReleaseInstructions = releaseInstructions;
     }
 
@@ -248,6 +315,7 @@ public class NitfSecurityMetadata {
         @param declassificationType the declassification type (2 characters maximum), or an empty string.
     */
     public final void setDeclassificationType(final String declassificationType) {
+        checkNotShared();
         nitfDeclassificationType = declassificationType;
     }
 
@@ -281,6 +349,7 @@ public class NitfSecurityMetadata {
         @param declassificationDate the declassification date (format CCYYMMDD), or an empty string.
     */
     public final void setDeclassificationDate(final String declassificationDate) {
+        checkNotShared();
         nitfDeclassificationDate = declassificationDate;
     }
 
@@ -317,6 +386,7 @@ public class NitfSecurityMetadata {
         @param declassificationExemption the declassification exemption (four characters maximum), or an empty string.
     */
     public final void setDeclassificationExemption(final String declassificationExemption) {
+        checkNotShared();
         nitfDeclassificationExemption = declassificationExemption;
     }
 
@@ -354,6 +424,7 @@ public class NitfSecurityMetadata {
         @param downgrade the downgrade classification level (1 character), or an empty string.
     */
     public final void setDowngrade(final String downgrade) {
+        checkNotShared();
         nitfDowngrade = downgrade;
     }
 
@@ -387,6 +458,7 @@ public class NitfSecurityMetadata {
         @param downgradeDate the downgrade date (format CCYYMMDD), or an empty string if downgrading does not apply.
     */
     public final void setDowngradeDate(final String downgradeDate) {
+        checkNotShared();
         nitfDowngradeDate = downgradeDate;
     }
 
@@ -421,6 +493,7 @@ public class NitfSecurityMetadata {
         @param dateOrSpecialCase the date or special case
     */
     public final void setDowngradeDateOrSpecialCase(final String dateOrSpecialCase) {
+        checkNotShared();
         downgradeDateOrSpecialCase = dateOrSpecialCase;
     }
 
@@ -452,6 +525,7 @@ public class NitfSecurityMetadata {
         @param event the downgrade event, or an empty string if no downgrade event applies
     */
     public final void setDowngradeEvent(final String event) {
+        checkNotShared();
         downgradeEvent = event;
     }
 
@@ -483,6 +557,7 @@ public class NitfSecurityMetadata {
         @param classificationText the classification text (43 characters maximum), or an empty string.
     */
     public final void setClassificationText(final String classificationText) {
+        checkNotShared();
         nitfClassificationText = classificationText;
     }
 
@@ -519,6 +594,7 @@ public class NitfSecurityMetadata {
         @param classificationAuthorityType classification authority type (1 character), or an empty string.
     */
     public final void setClassificationAuthorityType(final String classificationAuthorityType) {
+        checkNotShared();
         nitfClassificationAuthorityType = classificationAuthorityType;
     }
 
@@ -561,6 +637,7 @@ public class NitfSecurityMetadata {
         @param classificationAuthority classification authority or an empty string.
     */
     public final void setClassificationAuthority(final String classificationAuthority) {
+        checkNotShared();
         nitfClassificationAuthority = classificationAuthority;
     }
 
@@ -601,6 +678,7 @@ public class NitfSecurityMetadata {
         @param classificationReason the classification reason (1 character), or an empty string.
     */
     public final void setClassificationReason(final String classificationReason) {
+        checkNotShared();
         nitfClassificationReason = classificationReason;
     }
 
@@ -634,6 +712,7 @@ public class NitfSecurityMetadata {
         @param securitySourceDate the security source date (format CCYYMMDD), or an empty string.
     */
     public final void setSecuritySourceDate(final String securitySourceDate) {
+        checkNotShared();
         nitfSecuritySourceDate = securitySourceDate;
     }
 
@@ -668,6 +747,7 @@ public class NitfSecurityMetadata {
         @param securityControlNumber the security control number, or an empty string.
     */
     public final void setSecurityControlNumber(final String securityControlNumber) {
+        checkNotShared();
         nitfSecurityControlNumber = securityControlNumber;
     }
 
@@ -14,14 +14,22 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
+import java.util.Arrays;
 
 /**
     Parser for security metadata.
+    <p>
+    Segment subheaders can be parsed with parseShared(), which returns one shared (immutable) instance
+    from a SecurityMetadataPool for all the subheaders with the same raw security fields. Only the raw
+    bytes are compared, so a match does not decode any strings.
 */
 class NitfSecurityMetadataParser {
     protected NitfReader reader = null;
     private NitfSecurityMetadata metadata = null;
+    private NitfFieldSink fieldSink = ModelFieldSink.INSTANCE;
+    private boolean downgradeEvent = false;
 
     private static final int XSCLAS_LENGTH = 1;
     private static final int XSCLSY_LENGTH = 2;
@@ -51,16 +59,143 @@ class NitfSecurityMetadataParser {
 
     private static final String DOWNGRADE_EVENT_MAGIC = "999998";
 
+    private static final int SECURITY_METADATA_LENGTH = XSCLAS_LENGTH + XSCLSY_LENGTH + XSCODE_LENGTH + XSCTLH_LENGTH + XSREL_LENGTH
+            + XSDCTP_LENGTH + XSDCDT_LENGTH + XSDCXM_LENGTH + XSDG_LENGTH + XSDGDT_LENGTH + XSCLTX_LENGTH + XSCATP_LENGTH
+            + XSCAUT_LENGTH + XSCRSN_LENGTH + XSSRDT_LENGTH + XSCTLN_LENGTH;
+    private static final int SECURITY_METADATA20_LENGTH = XSCLAS_LENGTH + XSCODE20_LENGTH + XSCTLH20_LENGTH + XSREL20_LENGTH
+            + XSCAUT20_LENGTH + XSCTLN20_LENGTH + XSDWNG20_LENGTH;
+    private static final int MAX_SECURITY_METADATA_LENGTH = Math.max(SECURITY_METADATA_LENGTH,
+                                                                     SECURITY_METADATA20_LENGTH + XSDEVT20_LENGTH);
+    private static final byte[] DOWNGRADE_EVENT_MAGIC_BYTES = DOWNGRADE_EVENT_MAGIC.getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] rawBuffer = new byte[MAX_SECURITY_METADATA_LENGTH];
+    private final RawSecurityMetadata rawKey = new RawSecurityMetadata();
+    private final byte[] downgradeBuffer = new byte[XSDWNG20_LENGTH];
+
     public NitfSecurityMetadataParser() {
     }
 
+    /**
+        Set the sink for the fields that parse() reads.
+
+        @param sink the field sink (the default is ModelFieldSink).
+    */
+    final void setFieldSink(final NitfFieldSink sink) {
+        fieldSink = sink;
+    }
+
+    /**
+        Mark the start of a field at the current offset, and skip it if there is no metadata to read it into.
+
+        @param fieldId the field name from MIL-STD-2500C (e.g. "FSCOP").
+        @param length the length of the field.
+        @return true if the field should be read into the metadata, false if it has been skipped.
+        @throws ParseException if the previous field could not be handled, or the field could not be skipped.
+    */
+    protected final boolean decodeField(final String fieldId, final int length) throws ParseException {
+        fieldSink.field(fieldId, reader.getCurrentOffset());
+        return readOrSkip(length);
+    }
+
+    private boolean decodeSecurityField(final String fieldId, final int length) throws ParseException {
+        fieldSink.securityField(fieldId, reader.getCurrentOffset());
+        return readOrSkip(length);
+    }
+
+    private boolean readOrSkip(final int length) throws ParseException {
+        if (metadata != null) {
+            return true;
+        }
+        reader.skip(length);
+        return false;
+    }
+
+    /**
+        Parse security metadata.
+        <p>
+        Without security metadata to parse into, the fields are only marked for the field sink, and skipped.
+
+        @param nitfReader the reader, positioned at the start of the security metadata.
+        @param securityMetadata the security metadata to parse into, or null to only walk over the fields.
+        @throws ParseException if the file type is not set, or on read error.
+    */
     public final void parse(final NitfReader nitfReader, final NitfSecurityMetadata securityMetadata) throws ParseException {
-        doParse(nitfReader, securityMetadata);
+        try {
+            doParse(nitfReader, securityMetadata);
+        } finally {
+            reader = null;
+            metadata = null;
+        }
+    }
+
+    /**
+        Parse security metadata, sharing the result with any earlier metadata in the pool that has the same raw bytes.
+        <p>
+        The returned instance is immutable (see NitfSecurityMetadata.isShared()). Without a pool, this is the
+        same as parse() into new security metadata.
+
+        @param nitfReader the reader, positioned at the start of the security metadata.
+        @param pool the pool to share the security metadata through, or null to not share it.
+        @return the security metadata.
+        @throws ParseException if the file type is not set, or on read error.
+    */
+    final NitfSecurityMetadata parseShared(final NitfReader nitfReader, final SecurityMetadataPool pool) throws ParseException {
+        NitfSecurityMetadata securityMetadata = new NitfSecurityMetadata();
+        if (pool == null) {
+            parse(nitfReader, securityMetadata);
+            return securityMetadata;
+        }
+        long offset = nitfReader.getCurrentOffset();
+        boolean nitf20 = nitfReader.getFileType() == FileType.NITF_TWO_ZERO;
+        int length = readRawSecurityMetadata(nitfReader);
+        rawKey.set(nitf20, rawBuffer, length);
+        NitfSecurityMetadata existing = pool.get(rawKey);
+        if (existing != null) {
+            return existing;
+        }
+
+        byte[] raw = Arrays.copyOf(rawBuffer, length);
+        ByteArrayReader rawReader = new ByteArrayReader(raw, offset);
+        rawReader.setFileType(nitfReader.getFileType());
+        parse(rawReader, securityMetadata);
+        securityMetadata.setShared();
+        RawSecurityMetadata key = new RawSecurityMetadata();
+        key.set(nitf20, raw, length);
+        return pool.add(key, securityMetadata);
+    }
+
+    private int readRawSecurityMetadata(final NitfReader nitfReader) throws ParseException {
+        switch (nitfReader.getFileType()) {
+            case NITF_TWO_ZERO:
+                nitfReader.readBytesRaw(rawBuffer, 0, SECURITY_METADATA20_LENGTH);
+                if (isDowngradeEventMagic(rawBuffer, SECURITY_METADATA20_LENGTH - XSDWNG20_LENGTH)) {
+                    nitfReader.readBytesRaw(rawBuffer, SECURITY_METADATA20_LENGTH, XSDEVT20_LENGTH);
+                    return SECURITY_METADATA20_LENGTH + XSDEVT20_LENGTH;
+                }
+                return SECURITY_METADATA20_LENGTH;
+            case NITF_TWO_ONE:
+            case NSIF_ONE_ZERO:
+                nitfReader.readBytesRaw(rawBuffer, 0, SECURITY_METADATA_LENGTH);
+                return SECURITY_METADATA_LENGTH;
+            case UNKNOWN:
+            default:
+                throw new ParseException("Need to set NITF version before reading metadata", (int) nitfReader.getCurrentOffset());
+        }
+    }
+
+    private static boolean isDowngradeEventMagic(final byte[] bytes, final int offset) {
+        for (int i = 0; i < DOWNGRADE_EVENT_MAGIC_BYTES.length; ++i) {
+            if (bytes[offset + i] != DOWNGRADE_EVENT_MAGIC_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     protected void doParse(final NitfReader nitfReader, final NitfSecurityMetadata securityMetadata) throws ParseException {
         reader = nitfReader;
         metadata = securityMetadata;
+        downgradeEvent = false;
 
         switch (nitfReader.getFileType()) {
             case NITF_TWO_ZERO:
@@ -76,6 +211,35 @@ class NitfSecurityMetadataParser {
          }
     }
 
+    /**
+     * Skip over security metadata without decoding it.
+     * <p>
+     * This reads only what is needed to find the length of the metadata, which is the NITF 2.0
+     * downgrade field. Everything else has a fixed length.
+     *
+     * @param nitfReader the reader, positioned at the start of the security metadata.
+     * @throws ParseException if the file type is not set, or on read error.
+     */
+    static void skip(final NitfReader nitfReader) throws ParseException {
+        switch (nitfReader.getFileType()) {
+            case NITF_TWO_ZERO:
+                nitfReader.skip(XSCLAS_LENGTH + XSCODE20_LENGTH + XSCTLH20_LENGTH + XSREL20_LENGTH + XSCAUT20_LENGTH + XSCTLN20_LENGTH);
+                if (DOWNGRADE_EVENT_MAGIC.equals(nitfReader.readBytes(XSDWNG20_LENGTH))) {
+                    nitfReader.skip(XSDEVT20_LENGTH);
+                }
+                break;
+            case NITF_TWO_ONE:
+            case NSIF_ONE_ZERO:
+                nitfReader.skip(XSCLAS_LENGTH + XSCLSY_LENGTH + XSCODE_LENGTH + XSCTLH_LENGTH + XSREL_LENGTH + XSDCTP_LENGTH + XSDCDT_LENGTH
+                                + XSDCXM_LENGTH + XSDG_LENGTH + XSDGDT_LENGTH + XSCLTX_LENGTH + XSCATP_LENGTH + XSCAUT_LENGTH + XSCRSN_LENGTH
+                                + XSSRDT_LENGTH + XSCTLN_LENGTH);
+                break;
+            case UNKNOWN:
+            default:
+                throw new ParseException("Need to set NITF version before reading metadata", (int) nitfReader.getCurrentOffset());
+        }
+    }
+
     protected final void readCommonSecurityMetadata() throws ParseException {
         readXSCLAS();
         readXSCLSY();
@@ -106,97 +270,191 @@ class NitfSecurityMetadataParser {
         readXSDEVT20();
     }
 
+    /**
+        The raw bytes of some security metadata, as the key for sharing.
+        <p>
+        NITF 2.0 and NITF 2.1 security metadata can have the same length, so the version is part of the key.
+    */
+    private static final class RawSecurityMetadata {
+        private static final int HASH_MULTIPLIER = 31;
+
+        private boolean nitf20;
+        private byte[] bytes;
+        private int length;
+        private int hash;
+
+        void set(final boolean isNitf20, final byte[] rawBytes, final int rawLength) {
+            nitf20 = isNitf20;
+            bytes = rawBytes;
+            length = rawLength;
+            int result = Boolean.valueOf(nitf20).hashCode();
+            for (int i = 0; i < length; ++i) {
+                result = HASH_MULTIPLIER * result + bytes[i];
+            }
+            hash = result;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof RawSecurityMetadata)) {
+                return false;
+            }
+            RawSecurityMetadata otherKey = (RawSecurityMetadata) other;
+            if ((nitf20 != otherKey.nitf20) || (length != otherKey.length) || (hash != otherKey.hash)) {
+                return false;
+            }
+            for (int i = 0; i < length; ++i) {
+                if (bytes[i] != otherKey.bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private void readXSCLAS() throws ParseException {
-        String fsclas = reader.readBytes(XSCLAS_LENGTH);
-        metadata.setSecurityClassification(NitfSecurityClassification.getEnumValue(fsclas));
+        if (decodeSecurityField("CLAS", XSCLAS_LENGTH)) {
+            String fsclas = reader.readBytes(XSCLAS_LENGTH);
+            metadata.setSecurityClassification(NitfSecurityClassification.getEnumValue(fsclas));
+        }
     }
 
     private void readXSCLSY() throws ParseException {
-        metadata.setSecurityClassificationSystem(reader.readTrimmedBytes(XSCLSY_LENGTH));
+        if (decodeSecurityField("CLSY", XSCLSY_LENGTH)) {
+            metadata.setSecurityClassificationSystem(reader.readTrimmedBytes(XSCLSY_LENGTH));
+        }
     }
 
     private void readXSCODE() throws ParseException {
-        metadata.setCodewords(reader.readTrimmedBytes(XSCODE_LENGTH));
+        if (decodeSecurityField("CODE", XSCODE_LENGTH)) {
+            metadata.setCodewords(reader.readTrimmedBytes(XSCODE_LENGTH));
+        }
     }
 
     private void readXSCTLH() throws ParseException {
-        metadata.setControlAndHandling(reader.readTrimmedBytes(XSCTLH_LENGTH));
+        if (decodeSecurityField("CTLH", XSCTLH_LENGTH)) {
+            metadata.setControlAndHandling(reader.readTrimmedBytes(XSCTLH_LENGTH));
+        }
     }
 
     private void readXSREL() throws ParseException {
-        metadata.setReleaseInstructions(reader.readTrimmedBytes(XSREL_LENGTH));
+        if (decodeSecurityField("REL", XSREL_LENGTH)) {
+            metadata.setReleaseInstructions(reader.readTrimmedBytes(XSREL_LENGTH));
+        }
     }
 
     private void readXSDCTP() throws ParseException {
-        metadata.setDeclassificationType(reader.readTrimmedBytes(XSDCTP_LENGTH));
+        if (decodeSecurityField("DCTP", XSDCTP_LENGTH)) {
+            metadata.setDeclassificationType(reader.readTrimmedBytes(XSDCTP_LENGTH));
+        }
     }
 
     private void readXSDCDT() throws ParseException {
-        metadata.setDeclassificationDate(reader.readTrimmedBytes(XSDCDT_LENGTH));
+        if (decodeSecurityField("DCDT", XSDCDT_LENGTH)) {
+            metadata.setDeclassificationDate(reader.readTrimmedBytes(XSDCDT_LENGTH));
+        }
     }
 
     private void readXSDCXM() throws ParseException {
-        metadata.setDeclassificationExemption(reader.readTrimmedBytes(XSDCXM_LENGTH));
+        if (decodeSecurityField("DCXM", XSDCXM_LENGTH)) {
+            metadata.setDeclassificationExemption(reader.readTrimmedBytes(XSDCXM_LENGTH));
+        }
     }
 
     private void readXSDG() throws ParseException {
-        metadata.setDowngrade(reader.readTrimmedBytes(XSDG_LENGTH));
+        if (decodeSecurityField("DG", XSDG_LENGTH)) {
+            metadata.setDowngrade(reader.readTrimmedBytes(XSDG_LENGTH));
+        }
     }
 
     private void readXSDGDT() throws ParseException {
-        metadata.setDowngradeDate(reader.readTrimmedBytes(XSDGDT_LENGTH));
+        if (decodeSecurityField("DGDT", XSDGDT_LENGTH)) {
+            metadata.setDowngradeDate(reader.readTrimmedBytes(XSDGDT_LENGTH));
+        }
     }
 
     private void readXSCLTX() throws ParseException {
-        metadata.setClassificationText(reader.readTrimmedBytes(XSCLTX_LENGTH));
+        if (decodeSecurityField("CLTX", XSCLTX_LENGTH)) {
+            metadata.setClassificationText(reader.readTrimmedBytes(XSCLTX_LENGTH));
+        }
     }
 
     private void readXSCATP() throws ParseException {
-        metadata.setClassificationAuthorityType(reader.readTrimmedBytes(XSCATP_LENGTH));
+        if (decodeSecurityField("CATP", XSCATP_LENGTH)) {
+            metadata.setClassificationAuthorityType(reader.readTrimmedBytes(XSCATP_LENGTH));
+        }
     }
 
     private void readXSCAUT() throws ParseException {
-        metadata.setClassificationAuthority(reader.readTrimmedBytes(XSCAUT_LENGTH));
+        if (decodeSecurityField("CAUT", XSCAUT_LENGTH)) {
+            metadata.setClassificationAuthority(reader.readTrimmedBytes(XSCAUT_LENGTH));
+        }
     }
 
     private void readXSCRSN() throws ParseException {
-        metadata.setClassificationReason(reader.readTrimmedBytes(XSCRSN_LENGTH));
+        if (decodeSecurityField("CRSN", XSCRSN_LENGTH)) {
+            metadata.setClassificationReason(reader.readTrimmedBytes(XSCRSN_LENGTH));
+        }
     }
 
     private void readXSSRDT() throws ParseException {
-        metadata.setSecuritySourceDate(reader.readTrimmedBytes(XSSRDT_LENGTH));
+        if (decodeSecurityField("SRDT", XSSRDT_LENGTH)) {
+            metadata.setSecuritySourceDate(reader.readTrimmedBytes(XSSRDT_LENGTH));
+        }
     }
 
     private void readXSCTLN() throws ParseException {
-        metadata.setSecurityControlNumber(reader.readTrimmedBytes(XSCTLN_LENGTH));
+        if (decodeSecurityField("CTLN", XSCTLN_LENGTH)) {
+            metadata.setSecurityControlNumber(reader.readTrimmedBytes(XSCTLN_LENGTH));
+        }
     }
 
     private void readXSCODE20() throws ParseException {
-        metadata.setCodewords(reader.readTrimmedBytes(XSCODE20_LENGTH));
+        if (decodeSecurityField("CODE", XSCODE20_LENGTH)) {
+            metadata.setCodewords(reader.readTrimmedBytes(XSCODE20_LENGTH));
+        }
     }
 
     private void readXSCTLH20() throws ParseException {
-        metadata.setControlAndHandling(reader.readTrimmedBytes(XSCTLH20_LENGTH));
+        if (decodeSecurityField("CTLH", XSCTLH20_LENGTH)) {
+            metadata.setControlAndHandling(reader.readTrimmedBytes(XSCTLH20_LENGTH));
+        }
     }
 
     private void readXSREL20() throws ParseException {
-        metadata.setReleaseInstructions(reader.readTrimmedBytes(XSREL20_LENGTH));
+        if (decodeSecurityField("REL", XSREL20_LENGTH)) {
+            metadata.setReleaseInstructions(reader.readTrimmedBytes(XSREL20_LENGTH));
+        }
     }
 
     private void readXSCAUT20() throws ParseException {
-        metadata.setClassificationAuthority(reader.readTrimmedBytes(XSCAUT20_LENGTH));
+        if (decodeSecurityField("CAUT", XSCAUT20_LENGTH)) {
+            metadata.setClassificationAuthority(reader.readTrimmedBytes(XSCAUT20_LENGTH));
+        }
     }
 
     private void readXSCTLN20() throws ParseException {
-        metadata.setSecurityControlNumber(reader.readTrimmedBytes(XSCTLN20_LENGTH));
+        if (decodeSecurityField("CTLN", XSCTLN20_LENGTH)) {
+            metadata.setSecurityControlNumber(reader.readTrimmedBytes(XSCTLN20_LENGTH));
+        }
     }
 
     private void readXSDWNG20() throws ParseException {
-        metadata.setDowngradeDateOrSpecialCase(reader.readBytes(XSDWNG20_LENGTH));
+        fieldSink.securityField("DWNG", reader.getCurrentOffset());
+        reader.readBytesRaw(downgradeBuffer, 0, XSDWNG20_LENGTH);
+        downgradeEvent = isDowngradeEventMagic(downgradeBuffer, 0);
+        if (metadata != null) {
+            metadata.setDowngradeDateOrSpecialCase(new String(downgradeBuffer, StandardCharsets.US_ASCII));
+        }
     }
 
     private void readXSDEVT20() throws ParseException {
-        if (DOWNGRADE_EVENT_MAGIC.equals(metadata.getDowngradeDateOrSpecialCase())) {
+        if (downgradeEvent && decodeSecurityField("DEVT", XSDEVT20_LENGTH)) {
             metadata.setDowngradeEvent(reader.readTrimmedBytes(XSDEVT20_LENGTH));
         }
     }
@@ -19,6 +19,8 @@ package org.codice.imaging.nitf.core;
 */
 public class NitfSymbolSegmentHeader extends AbstractNitfSubSegment {
 
+    private static final long serialVersionUID = 1L;
+
     private String symbolName = null;
     private SymbolType symbolType = null;
     private int numberOfLinesPerSymbol = 0;
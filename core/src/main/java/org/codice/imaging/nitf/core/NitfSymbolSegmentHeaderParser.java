@@ -30,118 +30,159 @@ class NitfSymbolSegmentHeaderParser extends AbstractNitfSegmentParser {
     }
 
     final NitfSymbolSegmentHeader parse(final NitfReader nitfReader, final NitfParseStrategy parseStrategy) throws ParseException {
-
         reader = nitfReader;
-        segment = new NitfSymbolSegmentHeader();
+        if (isBuildingModel()) {
+            segment = new NitfSymbolSegmentHeader();
+        }
         parsingStrategy = parseStrategy;
-
-        readSY();
-        readSID();
-        readSNAME();
-        segment.setSecurityMetadata(new NitfSecurityMetadata(reader));
-        readENCRYP();
-        readSTYPE();
-        readNLIPS();
-        readNPIXPL();
-        readNWDTH();
-        readNBPP();
-        readSDLVL();
-        readSALVL();
-        readSLOC();
-        readSLOC2();
-        readSCOLOR();
-        readSNUM();
-        readSROT();
-        readNELUT();
-        for (int i = 0; i < numberOfEntriesInLUT; ++i) {
-            throw new UnsupportedOperationException("TODO: Implement LUT parsing when we have an example");
-        }
-        readSXSHDL();
-        if (symbolExtendedSubheaderLength > 0) {
-            readSXSOFL();
-            readSXSHD();
-        }
-        return segment;
+        numberOfEntriesInLUT = 0;
+        symbolExtendedSubheaderLength = 0;
+
+        try {
+            readSY();
+            readSID();
+            readSNAME();
+            readNitfSecurityMetadata(segment);
+            readENCRYP();
+            readSTYPE();
+            readNLIPS();
+            readNPIXPL();
+            readNWDTH();
+            readNBPP();
+            readSDLVL();
+            readSALVL();
+            readSLOC();
+            readSLOC2();
+            readSCOLOR();
+            readSNUM();
+            readSROT();
+            readNELUT();
+            for (int i = 0; i < numberOfEntriesInLUT; ++i) {
+                throw new UnsupportedOperationException("TODO: Implement LUT parsing when we have an example");
+            }
+            readSXSHDL();
+            if (symbolExtendedSubheaderLength > 0) {
+                readSXSOFL();
+                readSXSHD();
+            }
+            endFields();
+            return segment;
+        } finally {
+            releaseReader();
+            segment = null;
+        }
     }
 
     private void readSY() throws ParseException {
+        field("SY");
         reader.verifyHeaderMagic(NitfConstants.SY);
     }
 
     private void readSID() throws ParseException {
-        segment.setIdentifier(reader.readTrimmedBytes(NitfConstants.SID_LENGTH));
+        if (decodeField("SID", NitfConstants.SID_LENGTH)) {
+            segment.setIdentifier(reader.readTrimmedBytes(NitfConstants.SID_LENGTH));
+        }
     }
 
     private void readSNAME() throws ParseException {
-        segment.setSymbolName(reader.readTrimmedBytes(NitfConstants.SNAME_LENGTH));
+        if (decodeField("SNAME", NitfConstants.SNAME_LENGTH)) {
+            segment.setSymbolName(reader.readTrimmedBytes(NitfConstants.SNAME_LENGTH));
+        }
     }
 
     private void readSTYPE() throws ParseException {
-        String stype = reader.readTrimmedBytes(NitfConstants.SYTYPE_LENGTH);
-        segment.setSymbolType(SymbolType.getEnumValue(stype));
+        if (decodeField("STYPE", NitfConstants.SYTYPE_LENGTH)) {
+            String stype = reader.readTrimmedBytes(NitfConstants.SYTYPE_LENGTH);
+            segment.setSymbolType(SymbolType.getEnumValue(stype));
+        }
     }
 
     private void readNLIPS() throws ParseException {
-        segment.setNumberOfLinesPerSymbol(reader.readBytesAsInteger(NitfConstants.NLIPS_LENGTH));
+        if (decodeField("NLIPS", NitfConstants.NLIPS_LENGTH)) {
+            segment.setNumberOfLinesPerSymbol(reader.readInt(NitfConstants.NLIPS_LENGTH));
+        }
     }
 
     private void readNPIXPL() throws ParseException {
-        segment.setNumberOfPixelsPerLine(reader.readBytesAsInteger(NitfConstants.NPIXPL_LENGTH));
+        if (decodeField("NPIXPL", NitfConstants.NPIXPL_LENGTH)) {
+            segment.setNumberOfPixelsPerLine(reader.readInt(NitfConstants.NPIXPL_LENGTH));
+        }
     }
 
     private void readNWDTH() throws ParseException {
-        segment.setLineWidth(reader.readBytesAsInteger(NitfConstants.NWDTH_LENGTH));
+        if (decodeField("NWDTH", NitfConstants.NWDTH_LENGTH)) {
+            segment.setLineWidth(reader.readInt(NitfConstants.NWDTH_LENGTH));
+        }
     }
 
     private void readNBPP() throws ParseException {
-        segment.setNumberOfBitsPerPixel(reader.readBytesAsInteger(NitfConstants.SYNBPP_LENGTH));
+        if (decodeField("NBPP", NitfConstants.SYNBPP_LENGTH)) {
+            segment.setNumberOfBitsPerPixel(reader.readInt(NitfConstants.SYNBPP_LENGTH));
+        }
     }
 
     private void readSDLVL() throws ParseException {
-        segment.setSymbolDisplayLevel(reader.readBytesAsInteger(NitfConstants.SDLVL_LENGTH));
+        if (decodeField("SDLVL", NitfConstants.SDLVL_LENGTH)) {
+            segment.setSymbolDisplayLevel(reader.readInt(NitfConstants.SDLVL_LENGTH));
+        }
     }
 
     private void readSALVL() throws ParseException {
-        segment.setAttachmentLevel(reader.readBytesAsInteger(NitfConstants.SALVL_LENGTH));
+        if (decodeField("SALVL", NitfConstants.SALVL_LENGTH)) {
+            segment.setAttachmentLevel(reader.readInt(NitfConstants.SALVL_LENGTH));
+        }
     }
 
     private void readSLOC() throws ParseException {
-        segment.setSymbolLocationRow(reader.readBytesAsInteger(NitfConstants.SLOC_HALF_LENGTH));
-        segment.setSymbolLocationColumn(reader.readBytesAsInteger(NitfConstants.SLOC_HALF_LENGTH));
+        if (decodeField("SLOC", NitfConstants.SLOC_HALF_LENGTH + NitfConstants.SLOC_HALF_LENGTH)) {
+            segment.setSymbolLocationRow(reader.readInt(NitfConstants.SLOC_HALF_LENGTH));
+            segment.setSymbolLocationColumn(reader.readInt(NitfConstants.SLOC_HALF_LENGTH));
+        }
     }
 
     private void readSLOC2() throws ParseException {
-        segment.setSymbolLocation2Row(reader.readBytesAsInteger(NitfConstants.SLOC_HALF_LENGTH));
-        segment.setSymbolLocation2Column(reader.readBytesAsInteger(NitfConstants.SLOC_HALF_LENGTH));
+        if (decodeField("SLOC2", NitfConstants.SLOC_HALF_LENGTH + NitfConstants.SLOC_HALF_LENGTH)) {
+            segment.setSymbolLocation2Row(reader.readInt(NitfConstants.SLOC_HALF_LENGTH));
+            segment.setSymbolLocation2Column(reader.readInt(NitfConstants.SLOC_HALF_LENGTH));
+        }
     }
 
     private void readSCOLOR() throws ParseException {
-        String scolor = reader.readTrimmedBytes(NitfConstants.SCOLOR_LENGTH);
-        segment.setSymbolColourFormat(SymbolColour.getEnumValue(scolor));
+        if (decodeField("SCOLOR", NitfConstants.SCOLOR_LENGTH)) {
+            String scolor = reader.readTrimmedBytes(NitfConstants.SCOLOR_LENGTH);
+            segment.setSymbolColourFormat(SymbolColour.getEnumValue(scolor));
+        }
     }
 
     private void readSNUM() throws ParseException {
-        segment.setSymbolNumber(reader.readBytes(NitfConstants.SNUM_LENGTH));
+        if (decodeField("SNUM", NitfConstants.SNUM_LENGTH)) {
+            segment.setSymbolNumber(reader.readBytes(NitfConstants.SNUM_LENGTH));
+        }
     }
 
     private void readSROT() throws ParseException {
-        segment.setSymbolRotation(reader.readBytesAsInteger(NitfConstants.SROT_LENGTH));
+        if (decodeField("SROT", NitfConstants.SROT_LENGTH)) {
+            segment.setSymbolRotation(reader.readInt(NitfConstants.SROT_LENGTH));
+        }
     }
 
     private void readNELUT() throws ParseException {
-        numberOfEntriesInLUT = reader.readBytesAsInteger(NitfConstants.SYNELUT_LENGTH);
+        field("NELUT");
+        numberOfEntriesInLUT = reader.readInt(NitfConstants.SYNELUT_LENGTH);
     }
 
     private void readSXSHDL() throws ParseException {
-        symbolExtendedSubheaderLength = reader.readBytesAsInteger(NitfConstants.SXSHDL_LENGTH);
+        field("SXSHDL");
+        symbolExtendedSubheaderLength = reader.readInt(NitfConstants.SXSHDL_LENGTH);
     }
 
     private void readSXSOFL() throws ParseException {
-        segment.setExtendedHeaderDataOverflow(reader.readBytesAsInteger(NitfConstants.SXSOFL_LENGTH));
+        if (decodeField("SXSOFL", NitfConstants.SXSOFL_LENGTH)) {
+            segment.setExtendedHeaderDataOverflow(reader.readInt(NitfConstants.SXSOFL_LENGTH));
+        }
     }
 
     private void readSXSHD() throws ParseException {
-        TreCollection extendedSubheaderTREs = parsingStrategy.parseTREs(reader, symbolExtendedSubheaderLength - NitfConstants.SXSOFL_LENGTH);
-        segment.mergeTREs(extendedSubheaderTREs);
+        readTREs(segment, symbolExtendedSubheaderLength - NitfConstants.SXSOFL_LENGTH);
     }
 }
@@ -19,6 +19,8 @@ package org.codice.imaging.nitf.core;
 */
 public class NitfTextSegmentHeader extends AbstractNitfSubSegment {
 
+    private static final long serialVersionUID = 1L;
+
     private NitfDateTime textDateTime = null;
     private String textTitle = null;
     private TextFormat textFormat = TextFormat.UNKNOWN;
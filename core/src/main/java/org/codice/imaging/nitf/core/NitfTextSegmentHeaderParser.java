@@ -30,37 +30,51 @@ class NitfTextSegmentHeaderParser extends AbstractNitfSegmentParser {
 
     final NitfTextSegmentHeader parse(final NitfReader nitfReader, final NitfParseStrategy parseStrategy) throws ParseException {
         reader = nitfReader;
-        segment = new NitfTextSegmentHeader();
+        if (isBuildingModel()) {
+            segment = new NitfTextSegmentHeader();
+        }
         parsingStrategy = parseStrategy;
-
-        readTE();
-        readTEXTID();
-        readTXTALVL();
-        readTEXTDT();
-        readTXTITL();
-        segment.setSecurityMetadata(new NitfSecurityMetadata(reader));
-        readENCRYP();
-        readTXTFMT();
-        readTXSHDL();
-        if (textExtendedSubheaderLength > 0) {
-            readTXSOFL();
-            readTXSHD();
+        textExtendedSubheaderLength = 0;
+
+        try {
+            readTE();
+            readTEXTID();
+            readTXTALVL();
+            readTEXTDT();
+            readTXTITL();
+            readNitfSecurityMetadata(segment);
+            readENCRYP();
+            readTXTFMT();
+            readTXSHDL();
+            if (textExtendedSubheaderLength > 0) {
+                readTXSOFL();
+                readTXSHD();
+            }
+            endFields();
+            return segment;
+        } finally {
+            releaseReader();
+            segment = null;
         }
-        return segment;
     }
 
     private void readTE() throws ParseException {
-       reader.verifyHeaderMagic(NitfConstants.TE);
+        field("TE");
+        reader.verifyHeaderMagic(NitfConstants.TE);
     }
 
     private void readTEXTID() throws ParseException {
         switch (reader.getFileType()) {
             case NITF_TWO_ZERO:
-                segment.setIdentifier(reader.readBytes(NitfConstants.TEXTID20_LENGTH));
+                if (decodeField("TEXTID", NitfConstants.TEXTID20_LENGTH)) {
+                    segment.setIdentifier(reader.readBytes(NitfConstants.TEXTID20_LENGTH));
+                }
                 break;
             case NITF_TWO_ONE:
             case NSIF_ONE_ZERO:
-                segment.setIdentifier(reader.readBytes(NitfConstants.TEXTID_LENGTH));
+                if (decodeField("TEXTID", NitfConstants.TEXTID_LENGTH)) {
+                    segment.setIdentifier(reader.readBytes(NitfConstants.TEXTID_LENGTH));
+                }
                 break;
             case UNKNOWN:
             default:
@@ -70,33 +84,43 @@ class NitfTextSegmentHeaderParser extends AbstractNitfSegmentParser {
 
     private void readTXTALVL() throws ParseException {
         if ((reader.getFileType() == FileType.NITF_TWO_ONE) || (reader.getFileType() == FileType.NSIF_ONE_ZERO)) {
-            segment.setAttachmentLevel(reader.readBytesAsInteger(NitfConstants.TXTALVL_LENGTH));
+            if (decodeField("TXTALVL", NitfConstants.TXTALVL_LENGTH)) {
+                segment.setAttachmentLevel(reader.readInt(NitfConstants.TXTALVL_LENGTH));
+            }
         }
     }
 
     private void readTEXTDT() throws ParseException {
-        segment.setTextDateTime(readNitfDateTime());
+        if (decodeField("TEXTDT", NitfConstants.STANDARD_DATE_TIME_LENGTH)) {
+            segment.setTextDateTime(readNitfDateTime());
+        }
     }
 
     private void readTXTITL() throws ParseException {
-        segment.setTextTitle(reader.readTrimmedBytes(NitfConstants.TXTITL_LENGTH));
+        if (decodeField("TXTITL", NitfConstants.TXTITL_LENGTH)) {
+            segment.setTextTitle(reader.readTrimmedBytes(NitfConstants.TXTITL_LENGTH));
+        }
     }
 
     private void readTXTFMT() throws ParseException {
-        String txtfmt = reader.readTrimmedBytes(NitfConstants.TXTFMT_LENGTH);
-        segment.setTextFormat(TextFormat.getEnumValue(txtfmt));
+        if (decodeField("TXTFMT", NitfConstants.TXTFMT_LENGTH)) {
+            String txtfmt = reader.readTrimmedBytes(NitfConstants.TXTFMT_LENGTH);
+            segment.setTextFormat(TextFormat.getEnumValue(txtfmt));
+        }
     }
 
     private void readTXSHDL() throws ParseException {
-        textExtendedSubheaderLength = reader.readBytesAsInteger(NitfConstants.TXSHDL_LENGTH);
+        field("TXSHDL");
+        textExtendedSubheaderLength = reader.readInt(NitfConstants.TXSHDL_LENGTH);
     }
 
     private void readTXSOFL() throws ParseException {
-        segment.setExtendedHeaderDataOverflow(reader.readBytesAsInteger(NitfConstants.TXSOFL_LENGTH));
+        if (decodeField("TXSOFL", NitfConstants.TXSOFL_LENGTH)) {
+            segment.setExtendedHeaderDataOverflow(reader.readInt(NitfConstants.TXSOFL_LENGTH));
+        }
     }
 
     private void readTXSHD() throws ParseException {
-        TreCollection extendedSubheaderTREs = parsingStrategy.parseTREs(reader, textExtendedSubheaderLength - NitfConstants.TXSOFL_LENGTH);
-        segment.mergeTREs(extendedSubheaderTREs);
+        readTREs(segment, textExtendedSubheaderLength - NitfConstants.TXSOFL_LENGTH);
     }
 }
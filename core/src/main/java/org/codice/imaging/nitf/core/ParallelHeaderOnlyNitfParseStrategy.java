@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parse strategy that only extracts headers, parsing the segment subheaders in parallel.
+ *
+ * This is worthwhile for files with many segments, or with large TREs in the subheaders. The subheaders
+ * are only parsed in parallel when the file is read with a ChannelFileReader, which provides a cursor for
+ * each subheader. Otherwise, this behaves the same as HeaderOnlyNitfParseStrategy.
+ */
+public class ParallelHeaderOnlyNitfParseStrategy extends HeaderOnlyNitfParseStrategy {
+
+    private static final ForkJoinPool DEFAULT_POOL = new ForkJoinPool();
+
+    /**
+     * Constructor, using a pool shared by all instances, with one thread per processor.
+     */
+    public ParallelHeaderOnlyNitfParseStrategy() {
+        this(DEFAULT_POOL);
+    }
+
+    /**
+     * Constructor, using a specific pool.
+     *
+     * @param pool the pool to parse the segment subheaders on.
+     */
+    public ParallelHeaderOnlyNitfParseStrategy(final ForkJoinPool pool) {
+        setHeaderParsePool(pool);
+    }
+}
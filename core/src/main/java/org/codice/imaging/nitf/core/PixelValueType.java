@@ -54,6 +54,14 @@ public enum PixelValueType {
 
     private final String textEquivalent;
 
+    private static final CodeLookupTable<PixelValueType> LOOKUP = new CodeLookupTable<>(values().length, UNKNOWN);
+
+    static {
+        for (PixelValueType pv : values()) {
+            LOOKUP.add(pv.textEquivalent, pv);
+        }
+    }
+
     /**
         Constructor.
         <p>
@@ -75,12 +83,19 @@ public enum PixelValueType {
         @return the pixel value type enumerated value.
     */
     public static PixelValueType getEnumValue(final String textEquivalent) {
-        for (PixelValueType pv : values()) {
-            if (textEquivalent.equals(pv.textEquivalent)) {
-                return pv;
-            }
-        }
-        return UNKNOWN;
+        return LOOKUP.get(textEquivalent);
+    }
+
+    /**
+        Create pixel value type from the raw bytes of the text equivalent.
+
+        @param bytes the array holding the text equivalent.
+        @param offset the offset of the text equivalent in the array.
+        @param length the length of the text equivalent.
+        @return the enumerated value, or UNKNOWN if there is no match.
+    */
+    static PixelValueType getEnumValue(final byte[] bytes, final int offset, final int length) {
+        return LOOKUP.get(bytes, offset, length);
     }
 
     /**
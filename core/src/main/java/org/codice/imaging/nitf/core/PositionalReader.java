@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    Shared NitfReader implementation for readers that read at an explicit position, with a read-ahead buffer.
+    <p>
+    The reader position is held here rather than in the underlying file, and the buffer is filled lazily, one
+    block at a time, so reading the many short header fields only costs a read per block. Skips and seeks just
+    move the read position, and only cause a read if the new position is outside the buffered block.
+*/
+abstract class PositionalReader extends SharedReader implements NitfReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PositionalReader.class);
+
+    private final byte[] buffer;
+    private long bufferStart = 0;
+    private int bufferLength = 0;
+    private long position = 0;
+
+    /**
+        Constructor.
+
+        @param bufferSize the size of the read-ahead buffer, in bytes.
+    */
+    PositionalReader(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        buffer = new byte[bufferSize];
+    }
+
+    /**
+        Read from the underlying file at a specific position.
+        <p>
+        This must not depend on, or change, any shared file pointer.
+
+        @param offset the absolute offset in the file to read from.
+        @param destination the array to read into.
+        @param destinationOffset the offset into the destination array to start reading into.
+        @param count the maximum number of bytes to read.
+        @return the number of bytes read, or -1 at the end of the file.
+        @throws IOException if the read fails.
+    */
+    protected abstract int readAt(final long offset, final byte[] destination, final int destinationOffset, final int count)
+            throws IOException;
+
+    /**
+        Return the length of the underlying file.
+
+        @return the file length, in bytes.
+    */
+    protected abstract long getFileLength();
+
+    /**
+        Return the size of the read-ahead buffer.
+
+        @return the buffer size, in bytes.
+    */
+    protected final int getBufferSize() {
+        return buffer.length;
+    }
+
+    @Override
+    public final Boolean canSeek() {
+        return true;
+    }
+
+    @Override
+    public final long getCurrentOffset() {
+        return position;
+    }
+
+    @Override
+    public final long available() {
+        return Math.max(0, getFileLength() - position);
+    }
+
+    @Override
+    public final void seekToEndOfFile() throws ParseException {
+        position = getFileLength();
+    }
+
+    @Override
+    public final void seekBackwards(final long relativeOffset) throws ParseException {
+        seekToAbsoluteOffset(position - relativeOffset);
+    }
+
+    @Override
+    public final void seekToAbsoluteOffset(final long absoluteOffset) throws ParseException {
+        if ((absoluteOffset < 0) || (absoluteOffset > getFileLength())) {
+            throw new ParseException("Unable to seek to absolute offset: " + absoluteOffset, (int) position);
+        }
+        position = absoluteOffset;
+    }
+
+    @Override
+    public final byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public final void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
+        checkAvailable(count);
+        int copied = 0;
+        try {
+            while (copied < count) {
+                int remaining = count - copied;
+                if (isBuffered(position)) {
+                    int offsetInBuffer = (int) (position - bufferStart);
+                    int thisCopy = Math.min(remaining, bufferLength - offsetInBuffer);
+                    System.arraycopy(buffer, offsetInBuffer, destination, offset + copied, thisCopy);
+                    copied += thisCopy;
+                    position += thisCopy;
+                } else if (remaining >= buffer.length) {
+                    // Large reads (e.g. segment data) go straight into the result.
+                    int thisRead = readAt(position, destination, offset + copied, remaining);
+                    if (thisRead <= 0) {
+                        throw new IOException("end of file");
+                    }
+                    copied += thisRead;
+                    position += thisRead;
+                } else {
+                    fillBuffer();
+                }
+            }
+        } catch (IOException ex) {
+            LOG.warn("IO Exception reading raw bytes", ex);
+            throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) position);
+        }
+    }
+
+    @Override
+    public final void skip(final long count) throws ParseException {
+        checkAvailable(count);
+        position += count;
+    }
+
+    private boolean isBuffered(final long offset) {
+        return (offset >= bufferStart) && (offset < bufferStart + bufferLength);
+    }
+
+    private void fillBuffer() throws IOException {
+        int bytesRead = readAt(position, buffer, 0, buffer.length);
+        if (bytesRead <= 0) {
+            throw new IOException("end of file");
+        }
+        bufferStart = position;
+        bufferLength = bytesRead;
+    }
+
+    private void checkAvailable(final long count) throws ParseException {
+        if (position + count > getFileLength()) {
+            throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + "end of file", (int) position);
+        }
+    }
+}
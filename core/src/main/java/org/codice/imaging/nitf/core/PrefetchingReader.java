@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    NitfReader decorator that reads the segments of a file ahead of the parser, on a background thread.
+    <p>
+    This is intended for sequential parses that read the segment data (e.g. with
+    AllDataExtractionParseStrategy), where the parser would otherwise alternate between decoding
+    headers and blocking on large reads. The parse strategy passes each range it is about to read to
+    readAhead(), and a background thread then reads the range (split into chunks of at most the chunk
+    size) with its own cursor, into a bounded queue. Reads by the parser are served from the queue where
+    possible, and from the underlying reader otherwise (e.g. for the file header, or after seeking backwards).
+    <p>
+    Only the ranges the strategy reads are prefetched, so data that is skipped (e.g. with
+    HeaderOnlyNitfParseStrategy), or that is after the point where a stop condition ends the parse, is not
+    read. The reader is intended to be used by one parsing thread at a time. Close the reader to stop the
+    background thread if the parse is abandoned part way through a range.
+*/
+public class PrefetchingReader extends SharedReader implements NitfReader, Closeable {
+
+    /**
+        The default maximum size of each prefetched chunk, in bytes.
+    */
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+        The default number of prefetched chunks that can be held at once.
+    */
+    public static final int DEFAULT_CHUNK_COUNT = 4;
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrefetchingReader.class);
+
+    private final ChannelFileReader source;
+    private final int chunkSize;
+    private final BlockingQueue<Chunk> chunks;
+    private final ExecutorService executor;
+
+    // Shared with the background thread, and with close().
+    private volatile boolean prefetching = true;
+    private volatile Chunk current = null;
+    private volatile boolean prefetchFailed = false;
+
+    // Only used by the parsing thread.
+    private long position = 0;
+    private final Deque<Chunk> pendingChunks = new ArrayDeque<>();
+
+    /**
+        Holder for a prefetched chunk of the file.
+        <p>
+        A chunk without data is either the layout of a chunk that has been queued for reading, or (when taken
+        from the queue) the marker for a failed read.
+    */
+    private static final class Chunk {
+        private final long offset;
+        private final long end;
+        private final byte[] data;
+
+        Chunk(final long chunkOffset, final long chunkLength) {
+            offset = chunkOffset;
+            end = chunkOffset + chunkLength;
+            data = null;
+        }
+
+        Chunk(final Chunk layout, final byte[] chunkData) {
+            offset = layout.offset;
+            end = layout.end;
+            data = chunkData;
+        }
+
+        long getEnd() {
+            return end;
+        }
+
+        boolean contains(final long fileOffset) {
+            return (fileOffset >= offset) && (fileOffset < getEnd());
+        }
+    }
+
+    /**
+        Constructor, using the default chunk size and count.
+
+        @param reader the reader for the file, which is also used to create the background cursor.
+    */
+    public PrefetchingReader(final ChannelFileReader reader) {
+        this(reader, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNK_COUNT);
+    }
+
+    /**
+        Constructor, with a specific chunk size and count.
+        <p>
+        At most chunkSize * (chunkCount + 2) bytes are held at once: the queued chunks, the chunk the parser
+        is reading from, and the chunk the background thread is reading into.
+
+        @param reader the reader for the file, which is also used to create the background cursor.
+        @param maxChunkSize the maximum size of each prefetched chunk, in bytes.
+        @param chunkCount the number of prefetched chunks that can be queued ahead of the parser.
+    */
+    public PrefetchingReader(final ChannelFileReader reader, final int maxChunkSize, final int chunkCount) {
+        if (maxChunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + maxChunkSize);
+        }
+        source = reader;
+        chunkSize = maxChunkSize;
+        chunks = new ArrayBlockingQueue<>(chunkCount);
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "nitf-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+        Queue a range of the file to be read by the background thread.
+        <p>
+        Ranges are read in the order they are passed in, and the parser is expected to read them in the
+        same order.
+
+        @param absoluteOffset the offset into the NITF file where the range starts.
+        @param length the number of bytes in the range.
+    */
+    @Override
+    public final void readAhead(final long absoluteOffset, final long length) {
+        if (!prefetching || (length <= 0)) {
+            return;
+        }
+        final List<Chunk> rangeChunks = new ArrayList<>();
+        for (long offset = absoluteOffset; offset < absoluteOffset + length; offset += chunkSize) {
+            // The chunk data is filled in by the background thread, so this just records the layout.
+            Chunk chunk = new Chunk(offset, Math.min(chunkSize, absoluteOffset + length - offset));
+            rangeChunks.add(chunk);
+            pendingChunks.add(chunk);
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                prefetch(rangeChunks);
+            }
+        });
+    }
+
+    /**
+        Stop the background thread, and release any prefetched data.
+    */
+    @Override
+    public final void close() {
+        executor.shutdownNow();
+        prefetching = false;
+        current = null;
+        chunks.clear();
+    }
+
+    @Override
+    public final Boolean canSeek() {
+        return true;
+    }
+
+    @Override
+    public final long getCurrentOffset() {
+        return position;
+    }
+
+    @Override
+    public final long available() {
+        return Math.max(0, source.getFileLength() - position);
+    }
+
+    @Override
+    public final void seekToEndOfFile() throws ParseException {
+        position = source.getFileLength();
+    }
+
+    @Override
+    public final void seekBackwards(final long relativeOffset) throws ParseException {
+        seekToAbsoluteOffset(position - relativeOffset);
+    }
+
+    @Override
+    public final void seekToAbsoluteOffset(final long absoluteOffset) throws ParseException {
+        if ((absoluteOffset < 0) || (absoluteOffset > source.getFileLength())) {
+            throw new ParseException("Unable to seek to absolute offset: " + absoluteOffset, (int) position);
+        }
+        position = absoluteOffset;
+    }
+
+    @Override
+    public final byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public final void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
+        int copied = 0;
+        while (copied < count) {
+            int remaining = count - copied;
+            int thisCopy = remaining;
+            Chunk chunk = getChunkAt(position);
+            if (chunk != null) {
+                thisCopy = (int) Math.min(remaining, chunk.getEnd() - position);
+                System.arraycopy(chunk.data, (int) (position - chunk.offset), destination, offset + copied, thisCopy);
+            } else {
+                Chunk next = pendingChunks.peek();
+                if ((next != null) && (position < next.offset)) {
+                    // Only read directly up to the next chunk, which may already be prefetched.
+                    thisCopy = (int) Math.min(remaining, next.offset - position);
+                }
+                source.seekToAbsoluteOffset(position);
+                source.readBytesRaw(destination, offset + copied, thisCopy);
+            }
+            copied += thisCopy;
+            position += thisCopy;
+        }
+    }
+
+    @Override
+    public final ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        return source.getDataView(absoluteOffset, length);
+    }
+
+    @Override
+    public final void skip(final long count) throws ParseException {
+        if (position + count > source.getFileLength()) {
+            throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + "end of file", (int) position);
+        }
+        position += count;
+    }
+
+    private Chunk getChunkAt(final long offset) throws ParseException {
+        Chunk chunk = current;
+        if ((chunk != null) && chunk.contains(offset)) {
+            return chunk;
+        }
+        if (!prefetching) {
+            pendingChunks.clear();
+            return null;
+        }
+        // Chunks that the parser has moved past are discarded.
+        while (!pendingChunks.isEmpty() && (pendingChunks.peek().offset <= offset)) {
+            pendingChunks.remove();
+            chunk = takeChunk();
+            if (chunk.data == null) {
+                // The background read failed, so leave the reads (and any errors) to the parser.
+                stopPrefetching();
+                return null;
+            }
+            current = chunk;
+            if (chunk.contains(offset)) {
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    private Chunk takeChunk() throws ParseException {
+        try {
+            return chunks.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ParseException("Interrupted while waiting for prefetched data", (int) position);
+        }
+    }
+
+    private void stopPrefetching() {
+        prefetching = false;
+        current = null;
+        pendingChunks.clear();
+        chunks.clear();
+    }
+
+    private void prefetch(final List<Chunk> rangeChunks) {
+        if (prefetchFailed || !prefetching) {
+            // The parser has stopped taking chunks, so these would never be read.
+            return;
+        }
+        long offset = rangeChunks.get(0).offset;
+        try {
+            ChannelFileReader cursor = source.newCursor(offset);
+            for (Chunk layout : rangeChunks) {
+                if (!prefetching) {
+                    return;
+                }
+                offset = layout.offset;
+                cursor.seekToAbsoluteOffset(offset);
+                chunks.put(new Chunk(layout, cursor.readBytesRaw((int) (layout.getEnd() - offset))));
+            }
+        } catch (ParseException ex) {
+            LOG.debug("Prefetch stopped at offset {}: {}", offset, ex.getMessage());
+            prefetchFailed = true;
+            putFailure(offset);
+        } catch (InterruptedException ex) {
+            LOG.debug("Prefetch interrupted at offset {}", offset);
+        }
+    }
+
+    private void putFailure(final long offset) {
+        try {
+            chunks.put(new Chunk(offset, 0));
+        } catch (InterruptedException ex) {
+            LOG.debug("Prefetch interrupted at offset {}", offset);
+        }
+    }
+}
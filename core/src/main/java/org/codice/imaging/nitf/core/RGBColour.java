@@ -15,12 +15,15 @@
 package org.codice.imaging.nitf.core;
 
 import java.awt.Color;
+import java.io.Serializable;
 import java.text.ParseException;
 
 /**
     Red / Green / Blue colour representation.
 */
-public class RGBColour {
+public class RGBColour implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private byte red = 0x00;
     private byte green = 0x00;
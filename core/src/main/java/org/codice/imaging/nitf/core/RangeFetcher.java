@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.IOException;
+
+/**
+ * Source of byte ranges from a NITF file.
+ *
+ * This is intended to support storage that is accessed by byte range requests (e.g. HTTP range
+ * requests, or an object store), rather than as a local file. See RangeRequestReader.
+ */
+public interface RangeFetcher {
+
+    /**
+     * Return the total length of the file.
+     *
+     * @return the file length, in bytes
+     * @throws IOException if the length could not be determined
+     */
+    long getLength() throws IOException;
+
+    /**
+     * Fetch a range of the file.
+     *
+     * The range will always lie within the file.
+     *
+     * @param offset the absolute offset into the file of the start of the range
+     * @param length the number of bytes to fetch
+     * @return the content of the range, which must contain exactly length bytes
+     * @throws IOException if the range could not be fetched
+     */
+    byte[] fetch(long offset, int length) throws IOException;
+}
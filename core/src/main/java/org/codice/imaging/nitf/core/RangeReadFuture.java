@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+    Pending read of one or more file ranges into a single buffer.
+    <p>
+    Each range is read with AsynchronousFileChannel, and short reads are continued until the range
+    is complete. When every range has been read (or any read fails), the future completes and the
+    optional completion handler is called.
+
+    @param <A> the type of the attachment passed to the completion handler
+*/
+final class RangeReadFuture<A> implements Future<ByteBuffer>, CompletionHandler<Integer, RangeReadFuture.Part> {
+
+    private final AsynchronousFileChannel channel;
+    private final ByteBuffer result;
+    private final A attachment;
+    private final CompletionHandler<ByteBuffer, ? super A> handler;
+    private final AtomicInteger partsRemaining = new AtomicInteger();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Throwable failure = null;
+
+    /**
+        A file range, and the part of the result buffer it is read into.
+    */
+    static final class Part {
+        private long fileOffset;
+        private final ByteBuffer target;
+
+        private Part(final long offset, final ByteBuffer destination) {
+            fileOffset = offset;
+            target = destination;
+        }
+    }
+
+    /**
+        Constructor.
+
+        @param fileChannel the channel to read from.
+        @param length the total number of bytes to be read.
+        @param handlerAttachment the attachment to pass to the handler, may be null.
+        @param completionHandler the handler to call on completion, or null if no handler is required.
+    */
+    RangeReadFuture(final AsynchronousFileChannel fileChannel, final int length, final A handlerAttachment,
+            final CompletionHandler<ByteBuffer, ? super A> completionHandler) {
+        channel = fileChannel;
+        result = ByteBuffer.allocate(length);
+        attachment = handlerAttachment;
+        handler = completionHandler;
+    }
+
+    /**
+        Start reading.
+        <p>
+        The ranges are read into the result buffer in order, and must add up to the buffer length.
+
+        @param fileOffsets the absolute file offset of each range.
+        @param lengths the length of each range.
+        @return this future.
+    */
+    RangeReadFuture<A> start(final long[] fileOffsets, final int[] lengths) {
+        partsRemaining.set(fileOffsets.length);
+        if (fileOffsets.length == 0) {
+            finish(null);
+            return this;
+        }
+        int bufferOffset = 0;
+        for (int i = 0; i < fileOffsets.length; ++i) {
+            ByteBuffer target = result.duplicate();
+            target.position(bufferOffset);
+            target.limit(bufferOffset + lengths[i]);
+            bufferOffset += lengths[i];
+            readPart(new Part(fileOffsets[i], target.slice()));
+        }
+        return this;
+    }
+
+    private void readPart(final Part part) {
+        if (!part.target.hasRemaining()) {
+            completed(0, part);
+            return;
+        }
+        try {
+            channel.read(part.target, part.fileOffset, part, this);
+        } catch (RuntimeException ex) {
+            failed(ex, part);
+        }
+    }
+
+    @Override
+    public void completed(final Integer bytesRead, final Part part) {
+        if (bytesRead < 0) {
+            failed(new EOFException("End of file at offset " + part.fileOffset), part);
+            return;
+        }
+        part.fileOffset += bytesRead;
+        if (part.target.hasRemaining()) {
+            readPart(part);
+        } else if (partsRemaining.decrementAndGet() == 0) {
+            finish(null);
+        }
+    }
+
+    @Override
+    public void failed(final Throwable exc, final Part part) {
+        finish(exc);
+    }
+
+    private void finish(final Throwable exc) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        failure = exc;
+        done.countDown();
+        if (handler == null) {
+            return;
+        }
+        if (exc == null) {
+            handler.completed(getResultView(), attachment);
+        } else {
+            handler.failed(exc, attachment);
+        }
+    }
+
+    private ByteBuffer getResultView() {
+        return result.duplicate();
+    }
+
+    /**
+        {@inheritDoc}
+        <p>
+        Reads that have been issued cannot be cancelled, so this always returns false.
+    */
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    @Override
+    public ByteBuffer get() throws InterruptedException, ExecutionException {
+        done.await();
+        return getOrThrow();
+    }
+
+    @Override
+    public ByteBuffer get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return getOrThrow();
+    }
+
+    private ByteBuffer getOrThrow() throws ExecutionException {
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return getResultView();
+    }
+}
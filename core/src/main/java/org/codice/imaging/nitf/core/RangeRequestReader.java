@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    NitfReader implementation using byte range requests.
+    <p>
+    Content is fetched from a RangeFetcher in fixed size blocks, aligned to the block size, and the most
+    recently used blocks are kept in a cache. When a read needs several blocks that are not cached, the
+    adjacent blocks are fetched with a single request. Skips and seeks do not fetch anything, so parsing
+    only the headers of a file touches just the blocks that contain headers.
+    <p>
+    Reads of more blocks than the cache can hold (e.g. whole image segments) are fetched with a single request
+    and copied straight to the caller, without displacing the cached blocks.
+*/
+public class RangeRequestReader extends SharedReader implements NitfReader {
+
+    /**
+        The default size of a cached block, in bytes.
+    */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /**
+        The default number of blocks to cache.
+    */
+    public static final int DEFAULT_CACHE_BLOCKS = 32;
+
+    private static final Logger LOG = LoggerFactory.getLogger(RangeRequestReader.class);
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final RangeFetcher fetcher;
+    private final int blockSize;
+    private final int cacheBlocks;
+    private final long fileLength;
+    private final Map<Long, byte[]> cache;
+    private long position = 0;
+
+    /**
+        Constructor, using the default block size and cache size.
+
+        @param rangeFetcher the source of the file content.
+        @throws ParseException if the length of the file could not be determined.
+    */
+    public RangeRequestReader(final RangeFetcher rangeFetcher) throws ParseException {
+        this(rangeFetcher, DEFAULT_BLOCK_SIZE, DEFAULT_CACHE_BLOCKS);
+    }
+
+    /**
+        Constructor, with a specific block size and cache size.
+
+        @param rangeFetcher the source of the file content.
+        @param blockSizeInBytes the size of each block, in bytes.
+        @param maximumCachedBlocks the maximum number of blocks to keep in the cache.
+        @throws ParseException if the length of the file could not be determined.
+    */
+    public RangeRequestReader(final RangeFetcher rangeFetcher, final int blockSizeInBytes, final int maximumCachedBlocks)
+            throws ParseException {
+        if (blockSizeInBytes <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSizeInBytes);
+        }
+        if (maximumCachedBlocks <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumCachedBlocks);
+        }
+        fetcher = rangeFetcher;
+        blockSize = blockSizeInBytes;
+        cacheBlocks = maximumCachedBlocks;
+        cache = new LinkedHashMap<Long, byte[]>(cacheBlocks, LOAD_FACTOR, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, byte[]> eldest) {
+                return size() > cacheBlocks;
+            }
+        };
+        try {
+            fileLength = fetcher.getLength();
+        } catch (IOException ex) {
+            LOG.warn("IO Exception getting length from range fetcher", ex);
+            throw new ParseException("Unable to get file length: " + ex.getMessage(), 0);
+        }
+    }
+
+    @Override
+    public final Boolean canSeek() {
+        return true;
+    }
+
+    @Override
+    public final long getCurrentOffset() {
+        return position;
+    }
+
+    // Only the rest of the cached block at the current offset, as anything else needs a request.
+    // This uses containsKey() so that it does not change the order of the cache.
+    @Override
+    public final long available() {
+        long block = position / blockSize;
+        if (!cache.containsKey(block)) {
+            return 0;
+        }
+        return Math.max(0, Math.min(fileLength, (block + 1) * blockSize) - position);
+    }
+
+    @Override
+    public final void seekToEndOfFile() throws ParseException {
+        position = fileLength;
+    }
+
+    @Override
+    public final void seekBackwards(final long relativeOffset) throws ParseException {
+        seekToAbsoluteOffset(position - relativeOffset);
+    }
+
+    @Override
+    public final void seekToAbsoluteOffset(final long absoluteOffset) throws ParseException {
+        if ((absoluteOffset < 0) || (absoluteOffset > fileLength)) {
+            throw new ParseException("Unable to seek to absolute offset: " + absoluteOffset, (int) position);
+        }
+        position = absoluteOffset;
+    }
+
+    @Override
+    public final byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public final void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
+        checkAvailable(count);
+        try {
+            copyRange(position, destination, offset, count);
+        } catch (IOException ex) {
+            LOG.warn("IO Exception fetching range", ex);
+            throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) position);
+        }
+        position += count;
+    }
+
+    @Override
+    public final void skip(final long count) throws ParseException {
+        checkAvailable(count);
+        position += count;
+    }
+
+    /**
+        {@inheritDoc}
+        <p>
+        The range is fetched with a single request, and is not cached. The content is necessarily copied
+        into memory.
+    */
+    @Override
+    public final ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        checkDataViewRange(absoluteOffset, length, fileLength);
+        try {
+            return ByteBuffer.wrap(fetchExactly(absoluteOffset, (int) length)).asReadOnlyBuffer();
+        } catch (IOException ex) {
+            LOG.warn("IO Exception fetching range", ex);
+            throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) absoluteOffset);
+        }
+    }
+
+    private void checkAvailable(final long count) throws ParseException {
+        if (position + count > fileLength) {
+            throw new ParseException(NitfConstants.GENERIC_READ_ERROR_MESSAGE + "end of file", (int) position);
+        }
+    }
+
+    private void copyRange(final long start, final byte[] destination, final int destinationOffset, final int count) throws IOException {
+        long end = start + count;
+        long block = start / blockSize;
+        long lastBlock = (end - 1) / blockSize;
+        while (block <= lastBlock) {
+            if (!cache.containsKey(block)) {
+                long runEnd = block;
+                while ((runEnd < lastBlock) && !cache.containsKey(runEnd + 1)) {
+                    runEnd++;
+                }
+                long numBlocks = runEnd - block + 1;
+                if (numBlocks > cacheBlocks) {
+                    // Too big to cache, so fetch just the part that was asked for, as one request.
+                    long fetchStart = Math.max(start, block * blockSize);
+                    long fetchEnd = Math.min(end, (runEnd + 1) * blockSize);
+                    byte[] data = fetchExactly(fetchStart, (int) (fetchEnd - fetchStart));
+                    System.arraycopy(data, 0, destination, destinationOffset + (int) (fetchStart - start), data.length);
+                    block = runEnd + 1;
+                    continue;
+                }
+                fetchBlocks(block, runEnd);
+            }
+            byte[] data = cache.get(block);
+            long blockStart = block * blockSize;
+            long copyStart = Math.max(start, blockStart);
+            long copyEnd = Math.min(end, blockStart + data.length);
+            System.arraycopy(data, (int) (copyStart - blockStart), destination, destinationOffset + (int) (copyStart - start),
+                             (int) (copyEnd - copyStart));
+            block++;
+        }
+    }
+
+    private void fetchBlocks(final long firstBlock, final long lastBlock) throws IOException {
+        long fetchStart = firstBlock * blockSize;
+        long fetchEnd = Math.min(fileLength, (lastBlock + 1) * blockSize);
+        byte[] data = fetchExactly(fetchStart, (int) (fetchEnd - fetchStart));
+        for (long block = firstBlock; block <= lastBlock; ++block) {
+            int dataStart = (int) ((block - firstBlock) * blockSize);
+            int dataEnd = Math.min(data.length, dataStart + blockSize);
+            byte[] blockData = new byte[dataEnd - dataStart];
+            System.arraycopy(data, dataStart, blockData, 0, blockData.length);
+            cache.put(block, blockData);
+        }
+    }
+
+    private byte[] fetchExactly(final long offset, final int length) throws IOException {
+        byte[] data = fetcher.fetch(offset, length);
+        if ((data == null) || (data.length != length)) {
+            throw new IOException(String.format("Range fetch at %d returned the wrong number of bytes, expected %d", offset, length));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+    Pool of shared security metadata for segment subheaders.
+    <p>
+    Security metadata in segment subheaders is usually identical from one segment (and file) to the next.
+    When a parse strategy has a pool (see SlottedNitfParseStrategy.setSecurityMetadataPool()), all the
+    segments with the same raw security fields get one shared instance from the pool, which cannot be
+    modified (see NitfSecurityMetadata.isShared()). Giving the same pool to the strategies for several
+    files shares the instances between the files as well.
+    <p>
+    The pool keeps its instances for as long as it is referenced, up to a limit on the number of distinct
+    instances. Once the limit is reached, new security fields are still parsed into shared instances, but
+    are not added to the pool. A pool can be used by several parses at once.
+*/
+public final class SecurityMetadataPool {
+
+    /**
+        The default limit on the number of distinct instances in a pool.
+    */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final int maxSize;
+    private final ConcurrentMap<Object, NitfSecurityMetadata> sharedMetadata = new ConcurrentHashMap<>();
+
+    /**
+        Constructor, using the default size limit.
+    */
+    public SecurityMetadataPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+        Constructor, with a specific size limit.
+
+        @param maxPoolSize the maximum number of distinct instances to keep.
+    */
+    public SecurityMetadataPool(final int maxPoolSize) {
+        if (maxPoolSize < 0) {
+            throw new IllegalArgumentException("Pool size must not be negative: " + maxPoolSize);
+        }
+        maxSize = maxPoolSize;
+    }
+
+    /**
+        Return the number of distinct instances in the pool.
+
+        @return the number of instances.
+    */
+    public int size() {
+        return sharedMetadata.size();
+    }
+
+    /**
+        Return the pool used by a parse strategy.
+
+        @param strategy the parse strategy, may be null.
+        @return the pool, or null if the strategy does not share security metadata.
+    */
+    static SecurityMetadataPool forStrategy(final NitfParseStrategy strategy) {
+        if (strategy instanceof SlottedNitfParseStrategy) {
+            return ((SlottedNitfParseStrategy) strategy).getSecurityMetadataPool();
+        }
+        return null;
+    }
+
+    /**
+        Look up the shared instance for some raw security fields.
+
+        @param key the raw security fields.
+        @return the shared instance, or null if there is none.
+    */
+    NitfSecurityMetadata get(final Object key) {
+        return sharedMetadata.get(key);
+    }
+
+    /**
+        Add a shared instance, unless another thread added one for the same fields first or the pool is full.
+
+        @param key the raw security fields, which must not be modified afterwards.
+        @param securityMetadata the shared instance.
+        @return the instance to use, which is the earlier one if there is one.
+    */
+    NitfSecurityMetadata add(final Object key, final NitfSecurityMetadata securityMetadata) {
+        if (sharedMetadata.size() >= maxSize) {
+            return securityMetadata;
+        }
+        NitfSecurityMetadata existing = sharedMetadata.putIfAbsent(key, securityMetadata);
+        if (existing != null) {
+            return existing;
+        }
+        return securityMetadata;
+    }
+}
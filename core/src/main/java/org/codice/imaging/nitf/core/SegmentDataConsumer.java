@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+    Consumer for segment data, as it is reached during a parse.
+    <p>
+    See SegmentDataConsumerParseStrategy. The data is passed as a stream that ends at the end of the
+    segment, and reads directly from the file, so it is only valid for the duration of the call. The
+    consumer does not have to read all of the data; anything it leaves unread is skipped. Closing the
+    stream does not close the file. Use java.nio.channels.Channels.newChannel() on the stream if a
+    ReadableByteChannel is needed.
+*/
+public interface SegmentDataConsumer {
+
+    /**
+        Consume the data for a segment.
+
+        @param segmentType the type of segment.
+        @param segmentIndex the index (zero base) of the segment within its type.
+        @param header the segment subheader, which has already been parsed.
+        @param data the segment data.
+        @throws IOException if the data could not be consumed, which ends the parse.
+    */
+    void consume(SegmentType segmentType, int segmentIndex, AbstractCommonNitfSegment header, InputStream data) throws IOException;
+}
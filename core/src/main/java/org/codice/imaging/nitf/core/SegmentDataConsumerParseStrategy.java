@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Parse strategy that passes each segment's data to a consumer, instead of holding it in memory.
+ *
+ * The headers are parsed and kept as for other strategies. The data for each segment is passed to a
+ * SegmentDataConsumer as a length bounded stream when the parse reaches it, so data can be hashed,
+ * transcoded or forwarded without holding more than one buffer of it at a time. This works with readers
+ * that cannot seek, including NitfInputStreamReader. The segment data lists (e.g. getImageSegmentData())
+ * stay empty.
+ *
+ * TRE overflow segments are parsed into the TREs of the segment that overflowed, and the streaming mode
+ * header segment is skipped, so neither is passed to the consumer.
+ *
+ * An IOException from the consumer, or a failure to read a segment, ends the parse: it is thrown from
+ * NitfFileParser.parse() as a ParseException.
+ */
+public class SegmentDataConsumerParseStrategy extends SlottedNitfParseStrategy {
+
+    private final SegmentDataConsumer consumer;
+
+    /**
+     * Constructor.
+     *
+     * @param dataConsumer the consumer to pass the segment data to.
+     */
+    public SegmentDataConsumerParseStrategy(final SegmentDataConsumer dataConsumer) {
+        if (dataConsumer == null) {
+            throw new IllegalArgumentException("Segment data consumer must not be null");
+        }
+        consumer = dataConsumer;
+        setPropagateSegmentParseExceptions(true);
+    }
+
+    @Override
+    protected final void handleImageSegment(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.IMAGE, i, true);
+        NitfImageSegmentHeader header = readImageSegmentHeader(reader, i);
+        imageSegmentHeaders.add(header);
+        consumeData(SegmentType.IMAGE, i, header, reader, header.getImageDataLength());
+    }
+
+    @Override
+    protected final void handleSymbolSegment(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.SYMBOL, i, true);
+        NitfSymbolSegmentHeader header = readSymbolSegmentHeader(reader, i);
+        symbolSegmentHeaders.add(header);
+        consumeData(SegmentType.SYMBOL, i, header, reader, header.getSymbolDataLength());
+    }
+
+    @Override
+    protected final void handleLabelSegment(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.LABEL, i, true);
+        NitfLabelSegmentHeader header = readLabelSegmentHeader(reader, i);
+        labelSegmentHeaders.add(header);
+        consumeData(SegmentType.LABEL, i, header, reader, header.getLabelDataLength());
+    }
+
+    @Override
+    protected final void handleGraphicSegment(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.GRAPHIC, i, true);
+        NitfGraphicSegmentHeader header = readGraphicSegmentHeader(reader, i);
+        graphicSegmentHeaders.add(header);
+        consumeData(SegmentType.GRAPHIC, i, header, reader, header.getGraphicDataLength());
+    }
+
+    @Override
+    protected final void handleTextSegment(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.TEXT, i, true);
+        NitfTextSegmentHeader header = readTextSegmentHeader(reader, i);
+        textSegmentHeaders.add(header);
+        consumeData(SegmentType.TEXT, i, header, reader, header.getTextDataLength());
+    }
+
+    @Override
+    protected final void handleDataExtensionSegment(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.DATA_EXTENSION, i, true);
+        NitfDataExtensionSegmentHeader header = readDataExtensionSegmentHeader(reader, i);
+        if (header.isTreOverflow(reader.getFileType())) {
+            readDataExtensionSegmentData(header, reader);
+        } else if (NitfConstants.STREAMING_FILE_HEADER.equals(header.getIdentifier().trim())) {
+            skipDataExtensionSegmentData(header, reader);
+        } else {
+            consumeData(SegmentType.DATA_EXTENSION, i, header, reader, header.getDataExtensionSegmentDataLength());
+        }
+        dataExtensionSegmentHeaders.add(header);
+    }
+
+    private void consumeData(final SegmentType segmentType, final int i, final AbstractCommonNitfSegment header, final NitfReader reader,
+                             final long length) throws ParseException {
+        SegmentDataInputStream data = new SegmentDataInputStream(reader, length);
+        try {
+            consumer.consume(segmentType, i, header, data);
+        } catch (IOException ex) {
+            throw new ParseException(String.format("Could not consume data for %s segment %d: %s", segmentType, i, ex.getMessage()),
+                                     (int) reader.getCurrentOffset());
+        }
+        data.skipRemaining();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+
+/**
+    Length bounded stream over the data for one segment.
+    <p>
+    The stream reads from the parse reader, starting at its current position, and ends after the segment
+    data. It does not own the reader, so closing the stream does not close it.
+*/
+final class SegmentDataInputStream extends InputStream {
+
+    private static final int BYTE_MASK = 0xFF;
+
+    private final NitfReader reader;
+    private long remaining;
+    private final byte[] singleByte = new byte[1];
+
+    /**
+        Constructor.
+
+        @param nitfReader the reader, positioned at the start of the segment data.
+        @param length the length of the segment data.
+    */
+    SegmentDataInputStream(final NitfReader nitfReader, final long length) {
+        reader = nitfReader;
+        remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining == 0) {
+            return -1;
+        }
+        try {
+            reader.readBytesRaw(singleByte, 0, 1);
+        } catch (ParseException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        remaining--;
+        return singleByte[0] & BYTE_MASK;
+    }
+
+    @Override
+    public int read(final byte[] destination, final int offset, final int length) throws IOException {
+        if ((offset < 0) || (length < 0) || (length > destination.length - offset)) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (remaining == 0) {
+            return -1;
+        }
+        int count = (int) Math.min(length, remaining);
+        try {
+            reader.readBytesRaw(destination, offset, count);
+        } catch (ParseException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        remaining -= count;
+        return count;
+    }
+
+    @Override
+    public long skip(final long count) throws IOException {
+        if (count <= 0) {
+            return 0;
+        }
+        long skipped = Math.min(count, remaining);
+        try {
+            reader.skip(skipped);
+        } catch (ParseException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Math.min(remaining, reader.available()), Integer.MAX_VALUE);
+    }
+
+    /**
+        Skip any data that has not been read, leaving the reader at the end of the segment.
+
+        @throws ParseException if the data could not be skipped.
+    */
+    void skipRemaining() throws ParseException {
+        if (remaining > 0) {
+            reader.skip(remaining);
+            remaining = 0;
+        }
+    }
+}
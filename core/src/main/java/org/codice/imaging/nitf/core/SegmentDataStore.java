@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+
+/**
+    Storage for the segment data extracted during a parse.
+    <p>
+    See SlottedNitfParseStrategy.setSegmentDataStore(). The data for each segment is added in file order,
+    and read back by segment type and index (zero base, in the order added). Closing the store releases
+    the data, after which it cannot be read.
+*/
+public interface SegmentDataStore extends Closeable {
+
+    /**
+        Read and store the data for the next segment of a type.
+
+        @param segmentType the type of segment.
+        @param reader the reader, positioned at the start of the segment data, which is left at the end of it.
+        @param length the length of the segment data.
+        @throws ParseException if the data could not be read or stored.
+    */
+    void add(SegmentType segmentType, NitfReader reader, long length) throws ParseException;
+
+    /**
+        Return the number of segments of a type that have been stored.
+
+        @param segmentType the type of segment.
+        @return the number of segments stored.
+    */
+    int getNumberOfSegments(SegmentType segmentType);
+
+    /**
+        Return the stored data for a segment.
+
+        @param segmentType the type of segment.
+        @param index the index (zero base) of the segment within the stored segments of its type.
+        @return read-only buffer containing the segment data, positioned at the start.
+        @throws IOException if the stored data could not be read.
+    */
+    ByteBuffer getData(SegmentType segmentType, int index) throws IOException;
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+
+/**
+    Read-only list view of the data for one segment type in a SegmentDataStore.
+    <p>
+    This keeps the List&lt;byte[]&gt; accessors of SlottedNitfParseStrategy working when a store is used. Each
+    get() copies the segment data onto the heap, so getSegmentDataView() is better for large segments. As
+    with the in-memory lists, segments with no data are returned as null.
+*/
+final class SegmentDataStoreList extends AbstractList<byte[]> {
+
+    private final SegmentDataStore store;
+    private final SegmentType segmentType;
+
+    /**
+        Constructor.
+
+        @param dataStore the store holding the data.
+        @param type the type of segment to list.
+    */
+    SegmentDataStoreList(final SegmentDataStore dataStore, final SegmentType type) {
+        store = dataStore;
+        segmentType = type;
+    }
+
+    @Override
+    public byte[] get(final int index) {
+        ByteBuffer data;
+        try {
+            data = store.getData(segmentType, index);
+        } catch (IOException ex) {
+            throw new IllegalStateException(String.format("Could not read data for %s segment %d: %s", segmentType, index, ex.getMessage()), ex);
+        }
+        if (!data.hasRemaining()) {
+            return null;
+        }
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public int size() {
+        return store.getNumberOfSegments(segmentType);
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.Serializable;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+    Index of the location of every segment in a NITF file.
+    <p>
+    The segments follow the file header in a fixed order (images, then graphics - or symbols and labels
+    for NITF 2.0 - then text, then data extension segments), and the file header holds the length of each
+    segment subheader and its data. So the directory is built from the file header alone, without reading
+    any segments. It holds only offsets and lengths, and can be serialized, so it can be kept (e.g. in a
+    cache) and used to read any segment later without parsing the file again.
+*/
+public final class SegmentDirectory implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<SegmentType> segmentTypes = new ArrayList<>();
+    private final Map<SegmentType, long[]> headerOffsets = new EnumMap<>(SegmentType.class);
+    private final Map<SegmentType, long[]> headerLengths = new EnumMap<>(SegmentType.class);
+    private final Map<SegmentType, long[]> dataLengths = new EnumMap<>(SegmentType.class);
+    private final long endOffset;
+
+    /**
+        Constructor, for segments that start immediately after the file header.
+
+        @param nitf the file header, including the header length (HL) and the segment length tables.
+    */
+    public SegmentDirectory(final Nitf nitf) {
+        this(nitf, nitf.getHeaderLength());
+    }
+
+    /**
+        Constructor, for segments that start at a specific offset.
+        <p>
+        This is needed for streaming mode files, where the segments follow the original file header,
+        but the lengths come from the streaming file header at the end of the file.
+
+        @param nitf the file header, including the segment length tables.
+        @param firstSegmentOffset the absolute offset of the first segment subheader.
+    */
+    public SegmentDirectory(final Nitf nitf, final long firstSegmentOffset) {
+        this(nitf.getFileType(), getLengthTable(nitf, true), getLengthTable(nitf, false), firstSegmentOffset);
+    }
+
+    /**
+        Constructor, from the segment length tables.
+        <p>
+        This is for parsing without the model (see NitfFieldSink), where there is no file header object.
+
+        @param fileType the type of file.
+        @param subHeaderLengthTable the segment subheader lengths for each segment type, with no entry for
+        a type that has no segments.
+        @param dataLengthTable the segment data lengths for each segment type.
+        @param firstSegmentOffset the absolute offset of the first segment subheader.
+    */
+    SegmentDirectory(final FileType fileType, final Map<SegmentType, long[]> subHeaderLengthTable,
+            final Map<SegmentType, long[]> dataLengthTable, final long firstSegmentOffset) {
+        segmentTypes.addAll(getSegmentTypesInFileOrder(fileType));
+        long offset = firstSegmentOffset;
+        for (SegmentType segmentType : segmentTypes) {
+            long[] subHeaderLengths = getLengths(subHeaderLengthTable, segmentType);
+            long[] segmentDataLengths = getLengths(dataLengthTable, segmentType);
+            long[] offsets = new long[subHeaderLengths.length];
+            for (int i = 0; i < subHeaderLengths.length; ++i) {
+                offsets[i] = offset;
+                offset += subHeaderLengths[i] + segmentDataLengths[i];
+            }
+            headerOffsets.put(segmentType, offsets);
+            headerLengths.put(segmentType, subHeaderLengths);
+            dataLengths.put(segmentType, segmentDataLengths);
+        }
+        endOffset = offset;
+    }
+
+    /**
+        Return the segment types that can occur in the file, in the order that they occur.
+
+        @return unmodifiable list of segment types.
+    */
+    public List<SegmentType> getSegmentTypes() {
+        return Collections.unmodifiableList(segmentTypes);
+    }
+
+    /**
+        Return the number of segments of a specific type.
+
+        @param segmentType the type of segment.
+        @return the number of segments of that type, which is zero for types that cannot occur in the file.
+    */
+    public int getNumberOfSegments(final SegmentType segmentType) {
+        long[] offsets = headerOffsets.get(segmentType);
+        if (offsets == null) {
+            return 0;
+        }
+        return offsets.length;
+    }
+
+    /**
+        Return the offset of a segment subheader.
+
+        @param segmentType the type of segment.
+        @param index the index (zero base) of the segment within its type.
+        @return the absolute offset of the start of the segment subheader.
+        @throws ParseException if the segment does not exist.
+    */
+    public long getHeaderOffset(final SegmentType segmentType, final int index) throws ParseException {
+        checkIndex(segmentType, index);
+        return headerOffsets.get(segmentType)[index];
+    }
+
+    /**
+        Return the length of a segment subheader.
+
+        @param segmentType the type of segment.
+        @param index the index (zero base) of the segment within its type.
+        @return the length of the segment subheader, in bytes.
+        @throws ParseException if the segment does not exist.
+    */
+    public long getHeaderLength(final SegmentType segmentType, final int index) throws ParseException {
+        checkIndex(segmentType, index);
+        return headerLengths.get(segmentType)[index];
+    }
+
+    /**
+        Return the offset of the data for a segment.
+
+        @param segmentType the type of segment.
+        @param index the index (zero base) of the segment within its type.
+        @return the absolute offset of the start of the segment data (i.e. just after the subheader).
+        @throws ParseException if the segment does not exist.
+    */
+    public long getDataOffset(final SegmentType segmentType, final int index) throws ParseException {
+        checkIndex(segmentType, index);
+        return headerOffsets.get(segmentType)[index] + headerLengths.get(segmentType)[index];
+    }
+
+    /**
+        Return the length of the data for a segment.
+
+        @param segmentType the type of segment.
+        @param index the index (zero base) of the segment within its type.
+        @return the length of the segment data, in bytes.
+        @throws ParseException if the segment does not exist.
+    */
+    public long getDataLength(final SegmentType segmentType, final int index) throws ParseException {
+        checkIndex(segmentType, index);
+        return dataLengths.get(segmentType)[index];
+    }
+
+    /**
+        Return the offset of the end of the last segment.
+        <p>
+        For a complete file, this is the file length (except for streaming mode files, where the
+        streaming file header follows the segments).
+
+        @return the absolute offset just after the end of the last segment.
+    */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+        Return the segment types that can occur in a file of a specific type, in the order that they occur.
+
+        @param fileType the type of file.
+        @return the segment types.
+    */
+    static List<SegmentType> getSegmentTypesInFileOrder(final FileType fileType) {
+        List<SegmentType> types = new ArrayList<>();
+        types.add(SegmentType.IMAGE);
+        if (fileType == FileType.NITF_TWO_ZERO) {
+            types.add(SegmentType.SYMBOL);
+            types.add(SegmentType.LABEL);
+        } else {
+            types.add(SegmentType.GRAPHIC);
+        }
+        types.add(SegmentType.TEXT);
+        types.add(SegmentType.DATA_EXTENSION);
+        return types;
+    }
+
+    private void checkIndex(final SegmentType segmentType, final int index) throws ParseException {
+        if ((index < 0) || (index >= getNumberOfSegments(segmentType))) {
+            throw new ParseException(String.format("No %s segment at index %d", segmentType, index), 0);
+        }
+    }
+
+    private static long[] getLengths(final Map<SegmentType, long[]> lengthTable, final SegmentType segmentType) {
+        long[] lengths = lengthTable.get(segmentType);
+        if (lengths == null) {
+            return new long[0];
+        }
+        return lengths.clone();
+    }
+
+    private static Map<SegmentType, long[]> getLengthTable(final Nitf nitf, final boolean subHeaders) {
+        Map<SegmentType, long[]> lengthTable = new EnumMap<>(SegmentType.class);
+        for (SegmentType segmentType : getSegmentTypesInFileOrder(nitf.getFileType())) {
+            List<? extends Number> lengthList = getDataLengths(nitf, segmentType);
+            if (subHeaders) {
+                lengthList = getSubHeaderLengths(nitf, segmentType);
+            }
+            long[] lengths = new long[lengthList.size()];
+            for (int i = 0; i < lengths.length; ++i) {
+                lengths[i] = lengthList.get(i).longValue();
+            }
+            lengthTable.put(segmentType, lengths);
+        }
+        return lengthTable;
+    }
+
+    private static List<? extends Number> getSubHeaderLengths(final Nitf nitf, final SegmentType segmentType) {
+        switch (segmentType) {
+            case IMAGE:
+                return nitf.getImageSegmentSubHeaderLengths();
+            case GRAPHIC:
+                return nitf.getGraphicSegmentSubHeaderLengths();
+            case SYMBOL:
+                return nitf.getSymbolSegmentSubHeaderLengths();
+            case LABEL:
+                return nitf.getLabelSegmentSubHeaderLengths();
+            case TEXT:
+                return nitf.getTextSegmentSubHeaderLengths();
+            default:
+                return nitf.getDataExtensionSegmentSubHeaderLengths();
+        }
+    }
+
+    private static List<? extends Number> getDataLengths(final Nitf nitf, final SegmentType segmentType) {
+        switch (segmentType) {
+            case IMAGE:
+                return nitf.getImageSegmentDataLengths();
+            case GRAPHIC:
+                return nitf.getGraphicSegmentDataLengths();
+            case SYMBOL:
+                return nitf.getSymbolSegmentDataLengths();
+            case LABEL:
+                return nitf.getLabelSegmentDataLengths();
+            case TEXT:
+                return nitf.getTextSegmentDataLengths();
+            default:
+                return nitf.getDataExtensionSegmentDataLengths();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+/**
+    The segment subheader parsers for one thread.
+    <p>
+    The parsers hold per-segment state while they run, so they cannot be shared between threads, but
+    they reset that state at the start of each parse. Each thread that parses subheaders gets one set of
+    parsers, which is reused for every segment (and every file) it parses, instead of creating a parser
+    (and its helpers) for each segment.
+*/
+final class SegmentHeaderParsers {
+
+    private static final ThreadLocal<SegmentHeaderParsers> PARSERS = new ThreadLocal<SegmentHeaderParsers>() {
+        @Override
+        protected SegmentHeaderParsers initialValue() {
+            return new SegmentHeaderParsers();
+        }
+    };
+
+    private final NitfImageSegmentHeaderParser imageSegmentHeaderParser = new NitfImageSegmentHeaderParser();
+    private final NitfGraphicSegmentHeaderParser graphicSegmentHeaderParser = new NitfGraphicSegmentHeaderParser();
+    private final NitfSymbolSegmentHeaderParser symbolSegmentHeaderParser = new NitfSymbolSegmentHeaderParser();
+    private final NitfLabelSegmentHeaderParser labelSegmentHeaderParser = new NitfLabelSegmentHeaderParser();
+    private final NitfTextSegmentHeaderParser textSegmentHeaderParser = new NitfTextSegmentHeaderParser();
+    private final NitfDataExtensionSegmentHeaderParser dataExtensionSegmentHeaderParser = new NitfDataExtensionSegmentHeaderParser();
+
+    private SegmentHeaderParsers() {
+    }
+
+    /**
+        Get the parsers for the current thread.
+
+        @return the parsers, which must only be used on the current thread.
+    */
+    static SegmentHeaderParsers forCurrentThread() {
+        return PARSERS.get();
+    }
+
+    NitfImageSegmentHeaderParser getImageSegmentHeaderParser() {
+        return imageSegmentHeaderParser;
+    }
+
+    NitfGraphicSegmentHeaderParser getGraphicSegmentHeaderParser() {
+        return graphicSegmentHeaderParser;
+    }
+
+    NitfSymbolSegmentHeaderParser getSymbolSegmentHeaderParser() {
+        return symbolSegmentHeaderParser;
+    }
+
+    NitfLabelSegmentHeaderParser getLabelSegmentHeaderParser() {
+        return labelSegmentHeaderParser;
+    }
+
+    NitfTextSegmentHeaderParser getTextSegmentHeaderParser() {
+        return textSegmentHeaderParser;
+    }
+
+    NitfDataExtensionSegmentHeaderParser getDataExtensionSegmentHeaderParser() {
+        return dataExtensionSegmentHeaderParser;
+    }
+}
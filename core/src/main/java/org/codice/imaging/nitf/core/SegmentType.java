@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ **/
+package org.codice.imaging.nitf.core;
+
+/**
+    Type of NITF segment.
+    <p>
+    This identifies which of the segment groups in a NITF file a segment belongs to.
+*/
+public enum SegmentType {
+
+    /**
+        Image segment.
+    */
+    IMAGE,
+
+    /**
+        Graphic segment.
+        <p>
+        This is only valid for NITF 2.1 / NSIF 1.0 files.
+    */
+    GRAPHIC,
+
+    /**
+        Symbol segment.
+        <p>
+        This is only valid for NITF 2.0 files.
+    */
+    SYMBOL,
+
+    /**
+        Label segment.
+        <p>
+        This is only valid for NITF 2.0 files.
+    */
+    LABEL,
+
+    /**
+        Text segment.
+    */
+    TEXT,
+
+    /**
+        Data extension segment (DES).
+    */
+    DATA_EXTENSION
+};
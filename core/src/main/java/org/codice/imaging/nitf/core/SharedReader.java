@@ -36,6 +36,21 @@ abstract class SharedReader extends NitfReaderDefaultImpl implements NitfReader
         return defaultReadBytesAsDouble(count);
     }
 
+    @Override
+    public final int readInt(final int count) throws ParseException {
+        return defaultReadInt(count);
+    }
+
+    @Override
+    public final long readLong(final int count) throws ParseException {
+        return defaultReadLong(count);
+    }
+
+    @Override
+    public final double readDouble(final int count) throws ParseException {
+        return defaultReadDouble(count);
+    }
+
     @Override
     public final String readTrimmedBytes(final int count) throws ParseException {
         return defaultReadTrimmedBytes(count);
@@ -14,9 +14,14 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 import javax.xml.transform.Source;
 
 /**
@@ -85,6 +90,56 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      */
     protected TreCollectionParser treCollectionParser;
 
+    /**
+     * The location of each segment, built from the file header when the base headers have been read.
+     */
+    private SegmentDirectory segmentDirectory = null;
+
+    /**
+     * The reader used for the base headers, which is retained to provide segment data views.
+     */
+    private NitfReader dataReader = null;
+
+    /**
+     * The pool to parse segment subheaders on, or null to parse them sequentially.
+     */
+    private ForkJoinPool headerParsePool = null;
+
+    /**
+     * Whether image segment subheaders are parsed lazily.
+     */
+    private boolean lazyImageSegmentHeaders = false;
+
+    /**
+     * Whether TREs are decoded when they are first used, rather than when they are parsed.
+     */
+    private boolean lazyTREs = false;
+
+    /**
+     * The pool to share segment security metadata through, or null to not share it.
+     */
+    private SecurityMetadataPool securityMetadataPool = null;
+
+    /**
+     * The condition for ending the parse early, or null to parse every segment.
+     */
+    private NitfParseStopCondition stopCondition = null;
+
+    /**
+     * Whether the last parse was ended by the stop condition.
+     */
+    private boolean stoppedEarly = false;
+
+    /**
+     * The store for extracted segment data, or null to hold it in the segment data lists.
+     */
+    private SegmentDataStore segmentDataStore = null;
+
+    /**
+     * Whether a failure to read a segment ends the parse, instead of being ignored.
+     */
+    private boolean propagateSegmentParseExceptions = false;
+
     /**
      * Constructor.
      */
@@ -108,6 +163,9 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @return image segment data
      */
     public final List<byte[]> getImageSegmentData() {
+        if (segmentDataStore != null) {
+            return new SegmentDataStoreList(segmentDataStore, SegmentType.IMAGE);
+        }
         return imageSegmentData;
     }
 
@@ -117,6 +175,9 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @return symbol segment data
      */
     public final List<byte[]> getSymbolSegmentData() {
+        if (segmentDataStore != null) {
+            return new SegmentDataStoreList(segmentDataStore, SegmentType.SYMBOL);
+        }
         return symbolSegmentData;
     }
 
@@ -135,9 +196,27 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @return graphic segment data
      */
     public final List<byte[]> getGraphicSegmentData() {
+        if (segmentDataStore != null) {
+            return new SegmentDataStoreList(segmentDataStore, SegmentType.GRAPHIC);
+        }
         return graphicSegmentData;
     }
 
+    /**
+     * Return the list of data extension segment data.
+     *
+     * TRE overflow and streaming file header segments are parsed rather than extracted, so they are not
+     * included, and the index in this list can differ from the index of the segment.
+     *
+     * @return data extension segment data
+     */
+    public final List<byte[]> getDataExtensionSegmentData() {
+        if (segmentDataStore != null) {
+            return new SegmentDataStoreList(segmentDataStore, SegmentType.DATA_EXTENSION);
+        }
+        return dataExtensionSegmentData;
+    }
+
     /**
      * Return list of text segment data.
      *
@@ -148,34 +227,424 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
     }
 
     @Override
-    public final void baseHeadersRead(final NitfReader reader) {
+    public final void baseHeadersRead(final NitfReader reader) throws ParseException {
+        dataReader = reader;
+        segmentDirectory = new SegmentDirectory(nitfFileLevelHeader, reader.getCurrentOffset());
+        stoppedEarly = false;
         try {
-            for (int i = 0; i < nitfFileLevelHeader.getImageSegmentSubHeaderLengths().size(); ++i) {
+            if ((headerParsePool != null) && (stopCondition == null) && (reader instanceof ChannelFileReader)) {
+                parseSegmentHeadersInParallel((ChannelFileReader) reader);
+                return;
+            }
+            for (int i = 0; (i < nitfFileLevelHeader.getImageSegmentSubHeaderLengths().size()) && !shouldStop(); ++i) {
                 handleImageSegment(reader, i);
             }
             if (nitfFileLevelHeader.getFileType() == FileType.NITF_TWO_ZERO) {
-                for (int i = 0; i < nitfFileLevelHeader.getSymbolSegmentSubHeaderLengths().size(); ++i) {
+                for (int i = 0; (i < nitfFileLevelHeader.getSymbolSegmentSubHeaderLengths().size()) && !shouldStop(); ++i) {
                     handleSymbolSegment(reader, i);
                 }
-                for (int i = 0; i < nitfFileLevelHeader.getLabelSegmentSubHeaderLengths().size(); ++i) {
+                for (int i = 0; (i < nitfFileLevelHeader.getLabelSegmentSubHeaderLengths().size()) && !shouldStop(); ++i) {
                    handleLabelSegment(reader, i);
                 }
             } else {
-                for (int i = 0; i < nitfFileLevelHeader.getGraphicSegmentSubHeaderLengths().size(); ++i) {
+                for (int i = 0; (i < nitfFileLevelHeader.getGraphicSegmentSubHeaderLengths().size()) && !shouldStop(); ++i) {
                    handleGraphicSegment(reader, i);
                 }
             }
-            for (int i = 0; i < nitfFileLevelHeader.getTextSegmentSubHeaderLengths().size(); ++i) {
+            for (int i = 0; (i < nitfFileLevelHeader.getTextSegmentSubHeaderLengths().size()) && !shouldStop(); ++i) {
                 handleTextSegment(reader, i);
             }
-            for (int i = 0; i < nitfFileLevelHeader.getDataExtensionSegmentSubHeaderLengths().size(); ++i) {
+            for (int i = 0; (i < nitfFileLevelHeader.getDataExtensionSegmentSubHeaderLengths().size()) && !shouldStop(); ++i) {
                 handleDataExtensionSegment(reader, i);
             }
         } catch (ParseException ex) {
+            if (propagateSegmentParseExceptions) {
+                throw ex;
+            }
             System.out.println("Exception should be logged: " + ex);
         }
     }
 
+    /**
+     * Tell the reader which part of a segment is about to be read.
+     *
+     * The parse methods for each segment type (e.g. parseImageSegmentHeaderAndData()) call this, so it only
+     * needs to be called by subclasses that read segments in some other way. It does nothing before the base
+     * headers have been read. See NitfReader.readAhead().
+     *
+     * @param reader the reader that the segment will be read from
+     * @param segmentType the type of segment
+     * @param index the index of the segment (zero base)
+     * @param includeData true if the segment data will be read, false if only the subheader will be read
+     * @throws ParseException if the segment is not in the segment directory
+     */
+    protected final void readAhead(final NitfReader reader, final SegmentType segmentType, final int index, final boolean includeData)
+            throws ParseException {
+        if (segmentDirectory == null) {
+            return;
+        }
+        long length = segmentDirectory.getHeaderLength(segmentType, index);
+        if (includeData) {
+            length += segmentDirectory.getDataLength(segmentType, index);
+        }
+        reader.readAhead(segmentDirectory.getHeaderOffset(segmentType, index), length);
+    }
+
+    private boolean shouldStop() {
+        if (!stoppedEarly && (stopCondition != null)) {
+            stoppedEarly = stopCondition.shouldStop(this);
+        }
+        return stoppedEarly;
+    }
+
+    /**
+     * Set the store for extracted segment data.
+     *
+     * By default, extracted image, graphic, symbol and data extension segment data is held on the heap, as
+     * a byte array for each segment. With a store (e.g. SpillingSegmentDataStore), the data is written to the
+     * store instead, and the segment data accessors (e.g. getImageSegmentData()) and getSegmentDataView()
+     * read it from there. Label and text data is always held on the heap. The store is not closed by the
+     * strategy.
+     *
+     * @param store the store, or null to hold the data on the heap (the default)
+     */
+    public final void setSegmentDataStore(final SegmentDataStore store) {
+        segmentDataStore = store;
+    }
+
+    /**
+     * Return the store for extracted segment data.
+     *
+     * @return the store, or null if the data is held on the heap
+     */
+    public final SegmentDataStore getSegmentDataStore() {
+        return segmentDataStore;
+    }
+
+    /**
+     * Set a condition for ending the parse before all of the segments have been read.
+     *
+     * The condition is checked once the file header has been read, and before each segment after that.
+     * When it is met, the parse ends without reading any further, so the reader is left positioned at the
+     * start of the next segment. The segment directory still covers every segment in the file. A stop
+     * condition disables parallel subheader parsing (see setHeaderParsePool()).
+     *
+     * @param condition the stop condition (see NitfParseStopConditions), or null to parse every segment (the default)
+     */
+    public final void setStopCondition(final NitfParseStopCondition condition) {
+        stopCondition = condition;
+    }
+
+    /**
+     * Return whether the last parse was ended by the stop condition, with segments left unread.
+     *
+     * @return true if the parse stopped early, otherwise false
+     */
+    public final boolean isStoppedEarly() {
+        return stoppedEarly;
+    }
+
+    /**
+     * Return the location of every segment in the file.
+     *
+     * The directory is built from the file header, so is available once the base headers have been read,
+     * whether or not the segments were parsed.
+     *
+     * @return the segment directory, or null if the base headers have not been read
+     */
+    public final SegmentDirectory getSegmentDirectory() {
+        return segmentDirectory;
+    }
+
+    /**
+     * Set the segment directory, for headers that were restored without parsing the file.
+     *
+     * @param directory the segment directory
+     */
+    final void setSegmentDirectory(final SegmentDirectory directory) {
+        segmentDirectory = directory;
+    }
+
+    /**
+     * Return a read-only view of the data for a segment, without copying it.
+     *
+     * If the reader used for parsing can seek, the view is provided by the reader (e.g. as a mapped
+     * region of the file), so this works with any strategy, including those that skip the segment data.
+     * Otherwise, the view wraps the data that this strategy extracted (or the view provided by the segment
+     * data store, if one is set), which is only available for image, graphic and symbol segments.
+     *
+     * The view remains valid after parsing, but depends on the reader (and underlying file) not being closed.
+     *
+     * @param segmentType the type of segment
+     * @param index the index (zero base) of the segment within its type
+     * @return read-only buffer containing the segment data
+     * @throws ParseException if the segment does not exist, or its data is not available
+     */
+    public final ByteBuffer getSegmentDataView(final SegmentType segmentType, final int index) throws ParseException {
+        long dataOffset = getSegmentDataOffset(segmentType, index);
+        if ((dataReader != null) && dataReader.canSeek()) {
+            return dataReader.getDataView(dataOffset, getSegmentDataLength(segmentType, index));
+        }
+        return wrapExtractedSegmentData(segmentType, index);
+    }
+
+    /**
+     * Return the offset of the data for a segment.
+     *
+     * This is the absolute offset into the file (i.e. just after the segment subheader), which is useful for
+     * reading the data later, for example with a separate cursor for each segment.
+     *
+     * @param segmentType the type of segment
+     * @param index the index (zero base) of the segment within its type
+     * @return offset of the start of the segment data
+     * @throws ParseException if the segment does not exist
+     */
+    public final long getSegmentDataOffset(final SegmentType segmentType, final int index) throws ParseException {
+        return getCheckedSegmentDirectory(segmentType, index).getDataOffset(segmentType, index);
+    }
+
+    /**
+     * Return the length of the data for a segment.
+     *
+     * @param segmentType the type of segment
+     * @param index the index (zero base) of the segment within its type
+     * @return length of the segment data, in bytes
+     * @throws ParseException if the segment does not exist
+     */
+    public final long getSegmentDataLength(final SegmentType segmentType, final int index) throws ParseException {
+        return getCheckedSegmentDirectory(segmentType, index).getDataLength(segmentType, index);
+    }
+
+    private SegmentDirectory getCheckedSegmentDirectory(final SegmentType segmentType, final int index) throws ParseException {
+        if (segmentDirectory == null) {
+            throw new ParseException(String.format("No %s segment at index %d", segmentType, index), 0);
+        }
+        return segmentDirectory;
+    }
+
+    private ByteBuffer wrapExtractedSegmentData(final SegmentType segmentType, final int index) throws ParseException {
+        if ((segmentDataStore != null) && (segmentType != SegmentType.DATA_EXTENSION)
+                && (index < segmentDataStore.getNumberOfSegments(segmentType))) {
+            try {
+                return segmentDataStore.getData(segmentType, index);
+            } catch (IOException ex) {
+                throw new ParseException(String.format("Could not read data for %s segment %d: %s", segmentType, index, ex.getMessage()), 0);
+            }
+        }
+        List<byte[]> extractedData = null;
+        switch (segmentType) {
+            case IMAGE:
+                extractedData = imageSegmentData;
+                break;
+            case GRAPHIC:
+                extractedData = graphicSegmentData;
+                break;
+            case SYMBOL:
+                extractedData = symbolSegmentData;
+                break;
+            default:
+                break;
+        }
+        if ((extractedData == null) || (index >= extractedData.size())) {
+            throw new ParseException(String.format("Data for %s segment %d was not extracted, and the reader cannot provide a view",
+                                                   segmentType, index), 0);
+        }
+        byte[] data = extractedData.get(index);
+        if (data == null) {
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+//<editor-fold defaultstate="collapsed" desc="Parallel subheader parsing">
+    /**
+     * Parse the segment subheaders in parallel, on the specified pool.
+     *
+     * When this is set, and the reader can provide independent cursors (i.e. it is a ChannelFileReader),
+     * baseHeadersRead() works out the offset of every segment from the length tables in the file header,
+     * and parses each subheader on the pool, with its own cursor. The headers are then added in file order.
+     * The segment data is always skipped, and the handle methods are not called, so this is only suitable for
+     * strategies that only extract headers. With other readers, the segments are handled one after another.
+     *
+     * @param pool the pool to parse subheaders on, or null to parse them sequentially
+     */
+    protected final void setHeaderParsePool(final ForkJoinPool pool) {
+        headerParsePool = pool;
+    }
+
+    /**
+     * Set whether a failure to read a segment ends the parse.
+     *
+     * By default, the parse of the segments stops at the first failure, but the failure is not reported, so
+     * the headers read before it are kept. Strategies that pass segments on as they are read (e.g. to a
+     * SegmentDataConsumer) need the failure to reach the caller of NitfFileParser.parse() instead.
+     *
+     * @param propagate true to throw the ParseException from the parse, false to ignore it (the default)
+     */
+    protected final void setPropagateSegmentParseExceptions(final boolean propagate) {
+        propagateSegmentParseExceptions = propagate;
+    }
+
+    /**
+     * Set whether image segment subheaders are parsed lazily.
+     *
+     * In lazy mode, each image segment subheader is read in one go, but the security metadata, image
+     * coordinates, image bands (including LUTs) and TREs are only decoded when they are first used.
+     * This suits scans that only look at a few fields of each segment. Other segment types are always
+     * parsed in full.
+     *
+     * @param lazy true to parse image segment subheaders lazily, false to parse them in full (the default)
+     */
+    public final void setLazyImageSegmentHeaders(final boolean lazy) {
+        lazyImageSegmentHeaders = lazy;
+    }
+
+    /**
+     * Set whether TREs are decoded lazily.
+     *
+     * In lazy mode, only the tag and length of each TRE is read during parsing. Each TRE is decoded
+     * against the TRE specification when its entries are first used, so checking which TREs are present
+     * costs almost nothing.
+     *
+     * @param lazy true to decode TREs when they are first used, false to decode them during parsing (the default)
+     */
+    public final void setLazyTREs(final boolean lazy) {
+        lazyTREs = lazy;
+    }
+
+    /**
+     * Set the pool to share segment security metadata through.
+     *
+     * With a pool, the segments that have the same security fields get one shared instance, which cannot be
+     * modified (see SecurityMetadataPool). Use the same pool for several files to share between them too.
+     * File header security metadata is never shared.
+     *
+     * @param pool the pool, or null to give each segment its own modifiable security metadata (the default)
+     */
+    public final void setSecurityMetadataPool(final SecurityMetadataPool pool) {
+        securityMetadataPool = pool;
+    }
+
+    /**
+     * Return the pool that segment security metadata is shared through.
+     *
+     * @return the pool, or null if security metadata is not shared
+     */
+    public final SecurityMetadataPool getSecurityMetadataPool() {
+        return securityMetadataPool;
+    }
+
+    private void parseSegmentHeadersInParallel(final ChannelFileReader reader) throws ParseException {
+        // The TRE parser is shared by the tasks, so must exist before they start.
+        initialiseTreCollectionParserIfRequired();
+        final List<SegmentHeaderTask> tasks = new ArrayList<>();
+        for (SegmentType segmentType : segmentDirectory.getSegmentTypes()) {
+            for (int i = 0; i < segmentDirectory.getNumberOfSegments(segmentType); ++i) {
+                tasks.add(new SegmentHeaderTask(this, reader, segmentType, i, segmentDirectory.getHeaderOffset(segmentType, i)));
+            }
+        }
+        headerParsePool.invoke(new InvokeAllAction(tasks));
+        for (SegmentHeaderTask task : tasks) {
+            addSegmentHeader(task.segmentType, task.getHeader());
+        }
+        reader.seekToAbsoluteOffset(segmentDirectory.getEndOffset());
+    }
+
+    private void addSegmentHeader(final SegmentType segmentType, final Object header) {
+        switch (segmentType) {
+            case IMAGE:
+                imageSegmentHeaders.add((NitfImageSegmentHeader) header);
+                break;
+            case GRAPHIC:
+                graphicSegmentHeaders.add((NitfGraphicSegmentHeader) header);
+                break;
+            case SYMBOL:
+                symbolSegmentHeaders.add((NitfSymbolSegmentHeader) header);
+                break;
+            case LABEL:
+                labelSegmentHeaders.add((NitfLabelSegmentHeader) header);
+                break;
+            case TEXT:
+                textSegmentHeaders.add((NitfTextSegmentHeader) header);
+                break;
+            default:
+                dataExtensionSegmentHeaders.add((NitfDataExtensionSegmentHeader) header);
+                break;
+        }
+    }
+
+    /**
+     * Action to run all the segment subheader tasks, and wait for them to finish.
+     */
+    private static final class InvokeAllAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SegmentHeaderTask[] tasks;
+
+        InvokeAllAction(final List<SegmentHeaderTask> segmentHeaderTasks) {
+            tasks = segmentHeaderTasks.toArray(new SegmentHeaderTask[segmentHeaderTasks.size()]);
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * Task to parse one segment subheader, with its own cursor.
+     */
+    private static final class SegmentHeaderTask extends RecursiveTask<Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient SlottedNitfParseStrategy strategy;
+        private final transient ChannelFileReader reader;
+        private final SegmentType segmentType;
+        private final int index;
+        private final long offset;
+        private transient ParseException failure = null;
+
+        SegmentHeaderTask(final SlottedNitfParseStrategy parseStrategy, final ChannelFileReader channelReader, final SegmentType type,
+                          final int segmentIndex, final long segmentOffset) {
+            strategy = parseStrategy;
+            reader = channelReader;
+            segmentType = type;
+            index = segmentIndex;
+            offset = segmentOffset;
+        }
+
+        @Override
+        protected Object compute() {
+            try {
+                ChannelFileReader cursor = reader.newCursor(offset);
+                switch (segmentType) {
+                    case IMAGE:
+                        return strategy.readImageSegmentHeader(cursor, index);
+                    case GRAPHIC:
+                        return strategy.readGraphicSegmentHeader(cursor, index);
+                    case SYMBOL:
+                        return strategy.readSymbolSegmentHeader(cursor, index);
+                    case LABEL:
+                        return strategy.readLabelSegmentHeader(cursor, index);
+                    case TEXT:
+                        return strategy.readTextSegmentHeader(cursor, index);
+                    default:
+                        return strategy.readDataExtensionSegmentHeader(cursor, index);
+                }
+            } catch (ParseException ex) {
+                failure = ex;
+                return null;
+            }
+        }
+
+        Object getHeader() throws ParseException {
+            if (failure != null) {
+                throw failure;
+            }
+            return getRawResult();
+        }
+    }
+//</editor-fold>
 
 //<editor-fold defaultstate="collapsed" desc="Image segment methods">
     /**
@@ -186,8 +655,13 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseImageSegmentHeaderAndData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.IMAGE, i, true);
         NitfImageSegmentHeader imageSegmentHeader = readImageSegmentHeader(reader, i);
         imageSegmentHeaders.add(imageSegmentHeader);
+        if (segmentDataStore != null) {
+            segmentDataStore.add(SegmentType.IMAGE, reader, imageSegmentHeader.getImageDataLength());
+            return;
+        }
         byte[] data = readImageSegmentData(imageSegmentHeader, reader);
         imageSegmentData.add(data);
     }
@@ -200,6 +674,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseImageSegmentHeaderButSkipData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.IMAGE, i, false);
         NitfImageSegmentHeader imageSegmentHeader = readImageSegmentHeader(reader, i);
         skipImageSegmentData(imageSegmentHeader, reader);
         imageSegmentHeaders.add(imageSegmentHeader);
@@ -216,8 +691,14 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final NitfImageSegmentHeader readImageSegmentHeader(final NitfReader reader, final int i) throws ParseException {
-        NitfImageSegmentHeaderParser imageSegmentHeaderParser = new NitfImageSegmentHeaderParser();
-        NitfImageSegmentHeader imageSegmentHeader = imageSegmentHeaderParser.parse(reader, this);
+        NitfImageSegmentHeaderParser imageSegmentHeaderParser = SegmentHeaderParsers.forCurrentThread().getImageSegmentHeaderParser();
+        NitfImageSegmentHeader imageSegmentHeader;
+        if (lazyImageSegmentHeaders) {
+            int subheaderLength = nitfFileLevelHeader.getImageSegmentSubHeaderLengths().get(i);
+            imageSegmentHeader = imageSegmentHeaderParser.parseLazily(reader, this, subheaderLength);
+        } else {
+            imageSegmentHeader = imageSegmentHeaderParser.parse(reader, this);
+        }
         imageSegmentHeader.setImageSegmentDataLength(nitfFileLevelHeader.getImageSegmentDataLengths().get(i));
         return imageSegmentHeader;
     }
@@ -234,12 +715,18 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * The reader is assumed to be positioned at the end of the segment header before this call, and will be positioned
      * at the start of the next header after this call.
      *
+     * Image segments larger than 2GB cannot be read into a byte array, and will cause a ParseException.
+     *
      * @param imageSegmentHeader the header for the image segment that is to be read
      * @param reader the reader to use to read the data.
      * @return byte array of the data, or a null pointer if the data length was zero
-     * @throws ParseException on failure.
+     * @throws ParseException on failure, including if the data is too large for a byte array.
      */
     protected final byte[] readImageSegmentData(final NitfImageSegmentHeader imageSegmentHeader, final NitfReader reader) throws ParseException {
+        if (imageSegmentHeader.getImageDataLength() > Integer.MAX_VALUE) {
+            throw new ParseException(String.format("Image segment data of %d bytes is too large to read into memory",
+                                                   imageSegmentHeader.getImageDataLength()), (int) reader.getCurrentOffset());
+        }
         if (imageSegmentHeader.getImageDataLength() > 0) {
             return reader.readBytesRaw((int) imageSegmentHeader.getImageDataLength());
         }
@@ -272,8 +759,13 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseGraphicSegmentHeaderAndData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.GRAPHIC, i, true);
         NitfGraphicSegmentHeader graphicSegmentHeader = readGraphicSegmentHeader(reader, i);
         graphicSegmentHeaders.add(graphicSegmentHeader);
+        if (segmentDataStore != null) {
+            segmentDataStore.add(SegmentType.GRAPHIC, reader, graphicSegmentHeader.getGraphicDataLength());
+            return;
+        }
         byte[] data = readGraphicSegmentData(graphicSegmentHeader, reader);
         graphicSegmentData.add(data);
     }
@@ -286,6 +778,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseGraphicSegmentHeaderButSkipData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.GRAPHIC, i, false);
         NitfGraphicSegmentHeader graphicSegmentHeader = readGraphicSegmentHeader(reader, i);
         skipGraphicSegmentData(graphicSegmentHeader, reader);
         graphicSegmentHeaders.add(graphicSegmentHeader);
@@ -302,7 +795,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final NitfGraphicSegmentHeader readGraphicSegmentHeader(final NitfReader reader, final int i) throws ParseException {
-        NitfGraphicSegmentHeaderParser graphicSegmentHeaderParser = new NitfGraphicSegmentHeaderParser();
+        NitfGraphicSegmentHeaderParser graphicSegmentHeaderParser = SegmentHeaderParsers.forCurrentThread().getGraphicSegmentHeaderParser();
         NitfGraphicSegmentHeader graphicSegmentHeader = graphicSegmentHeaderParser.parse(reader, this);
         graphicSegmentHeader.setGraphicSegmentDataLength(nitfFileLevelHeader.getGraphicSegmentDataLengths().get(i));
         return graphicSegmentHeader;
@@ -353,8 +846,13 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseSymbolSegmentHeaderAndData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.SYMBOL, i, true);
         NitfSymbolSegmentHeader symbolSegmentHeader = readSymbolSegmentHeader(reader, i);
         symbolSegmentHeaders.add(symbolSegmentHeader);
+        if (segmentDataStore != null) {
+            segmentDataStore.add(SegmentType.SYMBOL, reader, symbolSegmentHeader.getSymbolDataLength());
+            return;
+        }
         byte[] data = readSymbolSegmentData(symbolSegmentHeader, reader);
         symbolSegmentData.add(data);
     }
@@ -367,6 +865,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseSymbolSegmentHeaderButSkipData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.SYMBOL, i, false);
         NitfSymbolSegmentHeader symbolSegmentHeader = readSymbolSegmentHeader(reader, i);
         skipSymbolSegmentData(symbolSegmentHeader, reader);
         symbolSegmentHeaders.add(symbolSegmentHeader);
@@ -383,7 +882,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final NitfSymbolSegmentHeader readSymbolSegmentHeader(final NitfReader reader, final int i) throws ParseException {
-        NitfSymbolSegmentHeaderParser symbolSegmentHeaderParser = new NitfSymbolSegmentHeaderParser();
+        NitfSymbolSegmentHeaderParser symbolSegmentHeaderParser = SegmentHeaderParsers.forCurrentThread().getSymbolSegmentHeaderParser();
         NitfSymbolSegmentHeader symbolSegmentHeader = symbolSegmentHeaderParser.parse(reader, this);
         symbolSegmentHeader.setSymbolSegmentDataLength(nitfFileLevelHeader.getSymbolSegmentDataLengths().get(i));
         return symbolSegmentHeader;
@@ -433,6 +932,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseLabelSegmentHeaderAndData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.LABEL, i, true);
         NitfLabelSegmentHeader labelSegmentHeader = readLabelSegmentHeader(reader, i);
         labelSegmentHeaders.add(labelSegmentHeader);
         String labelData = readLabelSegmentData(labelSegmentHeader, reader);
@@ -447,6 +947,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseLabelSegmentHeaderButSkipData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.LABEL, i, false);
         NitfLabelSegmentHeader labelSegmentHeader = readLabelSegmentHeader(reader, i);
         labelSegmentHeaders.add(labelSegmentHeader);
         skipLabelSegmentData(labelSegmentHeader, reader);
@@ -463,7 +964,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final NitfLabelSegmentHeader readLabelSegmentHeader(final NitfReader reader, final int i) throws ParseException {
-        NitfLabelSegmentHeaderParser labelSegmentHeaderParser = new NitfLabelSegmentHeaderParser();
+        NitfLabelSegmentHeaderParser labelSegmentHeaderParser = SegmentHeaderParsers.forCurrentThread().getLabelSegmentHeaderParser();
         NitfLabelSegmentHeader labelSegmentHeader = labelSegmentHeaderParser.parse(reader, this);
         labelSegmentHeader.setLabelSegmentDataLength(nitfFileLevelHeader.getLabelSegmentDataLengths().get(i));
         return labelSegmentHeader;
@@ -513,6 +1014,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseTextSegmentHeaderAndData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.TEXT, i, true);
         NitfTextSegmentHeader textSegmentHeader = readTextSegmentHeader(reader, i);
         textSegmentHeaders.add(textSegmentHeader);
         String text = readTextSegmentData(textSegmentHeader, reader);
@@ -527,6 +1029,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseTextSegmentHeaderButSkipData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.TEXT, i, false);
         NitfTextSegmentHeader textSegmentHeader = readTextSegmentHeader(reader, i);
         textSegmentHeaders.add(textSegmentHeader);
         skipTextSegmentData(textSegmentHeader, reader);
@@ -543,7 +1046,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final NitfTextSegmentHeader readTextSegmentHeader(final NitfReader reader, final int i) throws ParseException {
-        NitfTextSegmentHeaderParser textSegmentHeaderParser = new NitfTextSegmentHeaderParser();
+        NitfTextSegmentHeaderParser textSegmentHeaderParser = SegmentHeaderParsers.forCurrentThread().getTextSegmentHeaderParser();
         NitfTextSegmentHeader textSegmentHeader = textSegmentHeaderParser.parse(reader, this);
         textSegmentHeader.setTextSegmentDataLength(nitfFileLevelHeader.getTextSegmentDataLengths().get(i));
         return textSegmentHeader;
@@ -593,6 +1096,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseDataExtensionSegmentHeaderAndData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.DATA_EXTENSION, i, true);
         NitfDataExtensionSegmentHeader dataExtensionSegmentHeader = readDataExtensionSegmentHeader(reader, i);
         dataExtensionSegmentHeaders.add(dataExtensionSegmentHeader);
         readDataExtensionSegmentData(dataExtensionSegmentHeader, reader);
@@ -606,6 +1110,7 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final void parseDataExtensionSegmentHeaderButSkipData(final NitfReader reader, final int i) throws ParseException {
+        readAhead(reader, SegmentType.DATA_EXTENSION, i, false);
         NitfDataExtensionSegmentHeader dataExtensionSegmentHeader = readDataExtensionSegmentHeader(reader, i);
         skipDataExtensionSegmentData(dataExtensionSegmentHeader, reader);
         dataExtensionSegmentHeaders.add(dataExtensionSegmentHeader);
@@ -622,8 +1127,9 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
      * @throws ParseException on parse error
      */
     protected final NitfDataExtensionSegmentHeader readDataExtensionSegmentHeader(final NitfReader reader, final int i) throws ParseException {
-        NitfDataExtensionSegmentHeaderParser dataExtensionSegmentHeaderParser = new NitfDataExtensionSegmentHeaderParser();
-        NitfDataExtensionSegmentHeader dataExtensionSegmentHeader = dataExtensionSegmentHeaderParser.parse(reader);
+        NitfDataExtensionSegmentHeaderParser dataExtensionSegmentHeaderParser
+                = SegmentHeaderParsers.forCurrentThread().getDataExtensionSegmentHeaderParser();
+        NitfDataExtensionSegmentHeader dataExtensionSegmentHeader = dataExtensionSegmentHeaderParser.parse(reader, this);
         dataExtensionSegmentHeader.setDataExtensionSegmentDataLength(nitfFileLevelHeader.getDataExtensionSegmentDataLengths().get(i));
         return dataExtensionSegmentHeader;
     }
@@ -645,8 +1151,12 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
                 initialiseTreCollectionParserIfRequired();
                 TreCollection overflowTres = treCollectionParser.parse(reader, dataExtensionSegmentHeader.getDataExtensionSegmentDataLength());
                 dataExtensionSegmentHeader.mergeTREs(overflowTres);
-            } else if (!"STREAMING_FILE_HEADER".equals(dataExtensionSegmentHeader.getIdentifier().trim())) {
-                dataExtensionSegmentData.add(reader.readBytesRaw(dataExtensionSegmentHeader.getDataExtensionSegmentDataLength()));
+            } else if (!NitfConstants.STREAMING_FILE_HEADER.equals(dataExtensionSegmentHeader.getIdentifier().trim())) {
+                if (segmentDataStore != null) {
+                    segmentDataStore.add(SegmentType.DATA_EXTENSION, reader, dataExtensionSegmentHeader.getDataExtensionSegmentDataLength());
+                } else {
+                    dataExtensionSegmentData.add(reader.readBytesRaw(dataExtensionSegmentHeader.getDataExtensionSegmentDataLength()));
+                }
             }
         }
     }
@@ -785,6 +1295,9 @@ public abstract class SlottedNitfParseStrategy implements NitfParseStrategy {
     @Override
     public final TreCollection parseTREs(final NitfReader reader, final int length) throws ParseException {
         initialiseTreCollectionParserIfRequired();
+        if (lazyTREs) {
+            return treCollectionParser.parseDeferred(reader, length);
+        }
         return treCollectionParser.parse(reader, length);
     }
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+    Segment data store that keeps data off the Java heap.
+    <p>
+    Segment data is held in direct buffers until the memory budget is used up. Each segment after that
+    (including any single segment that is larger than the remaining budget) is appended to a temporary
+    file instead, and mapped read-only when it is read. Either way, the data does not count towards the
+    heap, so large batch jobs can run with small heaps.
+    <p>
+    The temporary file is created when it is first needed, and deleted when the store is closed. Direct
+    buffers are released by the garbage collector once the store (and any buffers returned by it) are no
+    longer referenced.
+*/
+public class SpillingSegmentDataStore implements SegmentDataStore {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String SPILL_FILE_PREFIX = "segments";
+
+    private static final String SPILL_FILE_SUFFIX = ".data";
+
+    private final long memoryBudget;
+    private final File spillDirectory;
+    private final Map<SegmentType, List<StoredData>> storedData = new EnumMap<>(SegmentType.class);
+    private long memoryUsed = 0;
+    private FileChannel spillChannel = null;
+    private byte[] copyBuffer = null;
+    private boolean closed = false;
+
+    /**
+        Constructor, spilling to the default temporary directory.
+
+        @param budget the number of bytes of segment data to hold in memory before spilling to disk.
+    */
+    public SpillingSegmentDataStore(final long budget) {
+        this(budget, null);
+    }
+
+    /**
+        Constructor, spilling to a specific directory.
+
+        @param budget the number of bytes of segment data to hold in memory before spilling to disk.
+        @param directory the directory for the temporary file, or null for the default temporary directory.
+    */
+    public SpillingSegmentDataStore(final long budget, final File directory) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative: " + budget);
+        }
+        memoryBudget = budget;
+        spillDirectory = directory;
+    }
+
+    @Override
+    public final synchronized void add(final SegmentType segmentType, final NitfReader reader, final long length) throws ParseException {
+        if (closed) {
+            throw new ParseException("Segment data store has been closed", (int) reader.getCurrentOffset());
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new ParseException(String.format("%s segment data of %d bytes is too large to store", segmentType, length),
+                                     (int) reader.getCurrentOffset());
+        }
+        StoredData data;
+        if (length <= memoryBudget - memoryUsed) {
+            data = storeInMemory(reader, (int) length);
+        } else {
+            data = storeInSpillFile(reader, (int) length);
+        }
+        if (!storedData.containsKey(segmentType)) {
+            storedData.put(segmentType, new ArrayList<StoredData>());
+        }
+        storedData.get(segmentType).add(data);
+    }
+
+    @Override
+    public final synchronized int getNumberOfSegments(final SegmentType segmentType) {
+        List<StoredData> segments = storedData.get(segmentType);
+        if (segments == null) {
+            return 0;
+        }
+        return segments.size();
+    }
+
+    @Override
+    public final synchronized ByteBuffer getData(final SegmentType segmentType, final int index) throws IOException {
+        if (closed) {
+            throw new IOException("Segment data store has been closed");
+        }
+        if ((index < 0) || (index >= getNumberOfSegments(segmentType))) {
+            throw new IndexOutOfBoundsException(String.format("No stored data for %s segment %d", segmentType, index));
+        }
+        StoredData data = storedData.get(segmentType).get(index);
+        if (data.buffer == null) {
+            data.buffer = spillChannel.map(FileChannel.MapMode.READ_ONLY, data.spillOffset, data.length);
+        }
+        ByteBuffer view = data.buffer.asReadOnlyBuffer();
+        view.clear();
+        return view;
+    }
+
+    /**
+        Return the number of bytes of segment data held in memory.
+
+        @return the number of bytes in direct buffers.
+    */
+    public final synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+        Return the number of bytes of segment data that were spilled to disk.
+
+        @return the length of the temporary file, or 0 if nothing was spilled.
+        @throws IOException if the length of the temporary file could not be read.
+    */
+    public final synchronized long getSpilledBytes() throws IOException {
+        if (spillChannel == null) {
+            return 0;
+        }
+        return spillChannel.size();
+    }
+
+    @Override
+    public final synchronized void close() throws IOException {
+        closed = true;
+        storedData.clear();
+        memoryUsed = 0;
+        if (spillChannel != null) {
+            spillChannel.close();
+            spillChannel = null;
+        }
+    }
+
+    private StoredData storeInMemory(final NitfReader reader, final int length) throws ParseException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        while (buffer.hasRemaining()) {
+            int count = Math.min(buffer.remaining(), getCopyBuffer().length);
+            reader.readBytesRaw(copyBuffer, 0, count);
+            buffer.put(copyBuffer, 0, count);
+        }
+        buffer.flip();
+        memoryUsed += length;
+        StoredData data = new StoredData(length);
+        data.buffer = buffer;
+        return data;
+    }
+
+    private StoredData storeInSpillFile(final NitfReader reader, final int length) throws ParseException {
+        try {
+            if (spillChannel == null) {
+                spillChannel = FileChannel.open(createSpillFile(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                                StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            StoredData data = new StoredData(length);
+            data.spillOffset = spillChannel.size();
+            long position = data.spillOffset;
+            int remaining = length;
+            while (remaining > 0) {
+                int count = Math.min(remaining, getCopyBuffer().length);
+                reader.readBytesRaw(copyBuffer, 0, count);
+                ByteBuffer chunk = ByteBuffer.wrap(copyBuffer, 0, count);
+                while (chunk.hasRemaining()) {
+                    position += spillChannel.write(chunk, position);
+                }
+                remaining -= count;
+            }
+            return data;
+        } catch (IOException ex) {
+            throw new ParseException("Could not spill segment data to disk: " + ex.getMessage(), (int) reader.getCurrentOffset());
+        }
+    }
+
+    private Path createSpillFile() throws IOException {
+        if (spillDirectory == null) {
+            return Files.createTempFile(SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+        }
+        return Files.createTempFile(spillDirectory.toPath(), SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+    }
+
+    private byte[] getCopyBuffer() {
+        if (copyBuffer == null) {
+            copyBuffer = new byte[COPY_BUFFER_SIZE];
+        }
+        return copyBuffer;
+    }
+
+    /**
+        The location of the data for one segment.
+    */
+    private static final class StoredData {
+        private final int length;
+        private long spillOffset = 0;
+        private ByteBuffer buffer = null;
+
+        StoredData(final int dataLength) {
+            length = dataLength;
+        }
+    }
+}
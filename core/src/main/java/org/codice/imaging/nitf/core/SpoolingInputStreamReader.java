@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+    NitfReader implementation using an InputStream, which can seek by spooling the rest of the stream.
+    <p>
+    Until a seek needs it, this reads straight from the stream, in the same way as NitfInputStreamReader,
+    so normal files are not copied at all. When the parser seeks to the end of the file (which it does to
+    find the streaming file header, MIL-STD-2500C Section 5.8.3.2), the rest of the stream is spooled,
+    first to memory and then, if it is larger than the memory threshold, to a temporary file. Any position
+    from the start of the spooled data to the end of the file can then be read or seeked to, so the parser
+    can read the streaming file header and then carry on with the segments from the spool.
+    <p>
+    Closing the reader deletes the temporary file (if any). It does not close the input stream.
+*/
+public class SpoolingInputStreamReader extends SharedReader implements NitfReader, Closeable {
+
+    /**
+        The default amount of data to spool in memory before switching to a temporary file, in bytes.
+    */
+    public static final int DEFAULT_MEMORY_THRESHOLD = 16 * 1024 * 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpoolingInputStreamReader.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String SPOOL_FILE_PREFIX = "nitfspool";
+
+    private static final String GENERIC_READ_ERROR_MESSAGE = "Error reading from NITF stream: ";
+
+    private final InputStream input;
+    private final int memoryThreshold;
+    private long position = 0;
+
+    private boolean spooled = false;
+    private long spoolStart = 0;
+    private long spoolLength = 0;
+    private byte[] memorySpool = null;
+    private FileChannel fileSpool = null;
+
+    /**
+        Constructor, using the default memory threshold.
+
+        @param nitfInputStream the input stream to read the NITF file contents from.
+    */
+    public SpoolingInputStreamReader(final InputStream nitfInputStream) {
+        this(nitfInputStream, DEFAULT_MEMORY_THRESHOLD);
+    }
+
+    /**
+        Constructor, with a specific memory threshold.
+
+        @param nitfInputStream the input stream to read the NITF file contents from.
+        @param spoolMemoryThreshold the amount of data to spool in memory before switching to a temporary file, in bytes.
+    */
+    public SpoolingInputStreamReader(final InputStream nitfInputStream, final int spoolMemoryThreshold) {
+        if (spoolMemoryThreshold < 0) {
+            throw new IllegalArgumentException("Memory threshold must not be negative: " + spoolMemoryThreshold);
+        }
+        input = nitfInputStream;
+        memoryThreshold = spoolMemoryThreshold;
+    }
+
+    /**
+        Return whether the rest of the stream has been spooled.
+
+        @return true if the stream has been spooled, otherwise false.
+    */
+    public final boolean isSpooled() {
+        return spooled;
+    }
+
+    /**
+        Return whether the spooled data is held in a temporary file.
+
+        @return true if the stream has been spooled to a temporary file, otherwise false.
+    */
+    public final boolean isSpooledToFile() {
+        return fileSpool != null;
+    }
+
+    /**
+        Return whether the reader can seek to any position.
+        <p>
+        This is only true once the stream has been spooled. Before then, the reader can only move forwards,
+        apart from seekToEndOfFile(), which spools the rest of the stream.
+
+        @return true if the stream has been spooled, otherwise false.
+    */
+    @Override
+    public final Boolean canSeek() {
+        return spooled;
+    }
+
+    @Override
+    public final long getCurrentOffset() {
+        return position;
+    }
+
+    @Override
+    public final long available() {
+        if (spooled) {
+            return spoolStart + spoolLength - position;
+        }
+        try {
+            return input.available();
+        } catch (IOException ex) {
+            LOG.warn("IO Exception getting available bytes", ex);
+            return 0;
+        }
+    }
+
+    @Override
+    public final void seekToEndOfFile() throws ParseException {
+        if (!spooled) {
+            spool();
+        }
+        position = spoolStart + spoolLength;
+    }
+
+    @Override
+    public final void seekBackwards(final long relativeOffset) throws ParseException {
+        seekToAbsoluteOffset(position - relativeOffset);
+    }
+
+    @Override
+    public final void seekToAbsoluteOffset(final long absoluteOffset) throws ParseException {
+        if (spooled) {
+            if ((absoluteOffset < spoolStart) || (absoluteOffset > spoolStart + spoolLength)) {
+                throw new ParseException("Unable to seek to absolute offset outside the spooled data: " + absoluteOffset, (int) position);
+            }
+            position = absoluteOffset;
+        } else if (absoluteOffset >= position) {
+            skip(absoluteOffset - position);
+        } else {
+            throw new ParseException("Unable to seek backwards in a stream that has not been spooled: " + absoluteOffset, (int) position);
+        }
+    }
+
+    @Override
+    public final byte[] readBytesRaw(final int count) throws ParseException {
+        byte[] bytes = new byte[count];
+        readBytesRaw(bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public final void readBytesRaw(final byte[] destination, final int offset, final int count) throws ParseException {
+        if (spooled) {
+            readFromSpool(destination, offset, count);
+        } else {
+            readFromStream(destination, offset, count);
+        }
+    }
+
+    @Override
+    public final ByteBuffer getDataView(final long absoluteOffset, final long length) throws ParseException {
+        if (!spooled || (absoluteOffset < spoolStart)) {
+            throw new ParseException("Data views are only supported for spooled data", (int) position);
+        }
+        long offsetInSpool = absoluteOffset - spoolStart;
+        if (fileSpool != null) {
+            return defaultMapDataView(fileSpool, offsetInSpool, length);
+        }
+        checkDataViewRange(offsetInSpool, length, spoolLength);
+        return ByteBuffer.wrap(memorySpool, (int) offsetInSpool, (int) length).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public final void skip(final long count) throws ParseException {
+        if (spooled) {
+            checkSpoolAvailable(count);
+            position += count;
+            return;
+        }
+        long bytesToSkip = count;
+        try {
+            while (bytesToSkip > 0) {
+                long thisSkip = input.skip(bytesToSkip);
+                if (thisSkip <= 0) {
+                    // Some streams can't skip (or can't tell), so fall back to reading.
+                    if (input.read() == -1) {
+                        throw new ParseException("End of file skipping in NITF stream.", (int) position);
+                    }
+                    thisSkip = 1;
+                }
+                position += thisSkip;
+                bytesToSkip -= thisSkip;
+            }
+        } catch (IOException ex) {
+            LOG.warn("IO Exception skipping bytes", ex);
+            throw new ParseException(GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) position);
+        }
+    }
+
+    /**
+        Release the spooled data, deleting the temporary file if there is one.
+
+        @throws IOException if closing the temporary file fails.
+    */
+    @Override
+    public final void close() throws IOException {
+        memorySpool = null;
+        if (fileSpool != null) {
+            fileSpool.close();
+        }
+    }
+
+    private void readFromStream(final byte[] destination, final int offset, final int count) throws ParseException {
+        int copied = 0;
+        try {
+            while (copied < count) {
+                int thisRead = input.read(destination, offset + copied, count - copied);
+                if (thisRead == -1) {
+                    throw new ParseException("End of file reading from NITF stream.", (int) position);
+                }
+                copied += thisRead;
+                position += thisRead;
+            }
+        } catch (IOException ex) {
+            LOG.warn("IO Exception reading raw bytes", ex);
+            throw new ParseException(GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) position);
+        }
+    }
+
+    private void readFromSpool(final byte[] destination, final int offset, final int count) throws ParseException {
+        checkSpoolAvailable(count);
+        long offsetInSpool = position - spoolStart;
+        if (fileSpool == null) {
+            System.arraycopy(memorySpool, (int) offsetInSpool, destination, offset, count);
+            position += count;
+            return;
+        }
+        try {
+            ByteBuffer target = ByteBuffer.wrap(destination, offset, count);
+            while (target.hasRemaining()) {
+                if (fileSpool.read(target, offsetInSpool + target.position() - offset) == -1) {
+                    throw new IOException("end of spool file");
+                }
+            }
+            position += count;
+        } catch (IOException ex) {
+            LOG.warn("IO Exception reading spool file", ex);
+            throw new ParseException(GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) position);
+        }
+    }
+
+    private void checkSpoolAvailable(final long count) throws ParseException {
+        if (position + count > spoolStart + spoolLength) {
+            throw new ParseException("End of file reading from NITF stream.", (int) position);
+        }
+    }
+
+    private void spool() throws ParseException {
+        byte[] buffer = new byte[Math.min(COPY_BUFFER_SIZE, memoryThreshold)];
+        int length = 0;
+        try {
+            int thisRead = 0;
+            while ((thisRead = input.read(buffer, length, buffer.length - length)) != -1) {
+                length += thisRead;
+                if (length == buffer.length) {
+                    if (length >= memoryThreshold) {
+                        spoolToFile(buffer, length);
+                        return;
+                    }
+                    buffer = Arrays.copyOf(buffer, (int) Math.min((long) length * 2, memoryThreshold));
+                }
+            }
+        } catch (IOException ex) {
+            LOG.warn("IO Exception spooling stream", ex);
+            throw new ParseException(GENERIC_READ_ERROR_MESSAGE + ex.getMessage(), (int) (position + length));
+        }
+        memorySpool = buffer;
+        markSpooled(length);
+    }
+
+    private void spoolToFile(final byte[] memoryContent, final int memoryLength) throws IOException {
+        Path spoolFile = Files.createTempFile(SPOOL_FILE_PREFIX, null);
+        fileSpool = FileChannel.open(spoolFile, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        byte[] buffer = memoryContent;
+        int length = memoryLength;
+        if (buffer.length < COPY_BUFFER_SIZE) {
+            buffer = Arrays.copyOf(buffer, COPY_BUFFER_SIZE);
+        }
+        long total = 0;
+        while (length != -1) {
+            ByteBuffer source = ByteBuffer.wrap(buffer, 0, length);
+            while (source.hasRemaining()) {
+                fileSpool.write(source);
+            }
+            total += length;
+            length = input.read(buffer);
+        }
+        markSpooled(total);
+    }
+
+    private void markSpooled(final long length) {
+        spooled = true;
+        spoolStart = position;
+        spoolLength = length;
+        LOG.debug("Spooled {} bytes of NITF stream from offset {}", length, spoolStart);
+    }
+}
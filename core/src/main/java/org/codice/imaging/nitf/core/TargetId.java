@@ -14,6 +14,7 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
 import java.text.ParseException;
 
 /**
@@ -33,7 +34,9 @@ import java.text.ParseException;
     countries (e.g. Australia was AS in FIPS 10-4, and is AU
     in the GEC).
 */
-public class TargetId {
+public class TargetId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String beNumber = null;
     private String oSuffix = null;
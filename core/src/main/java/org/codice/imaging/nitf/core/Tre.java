@@ -18,8 +18,12 @@ package org.codice.imaging.nitf.core;
     Tagged registered extension (TRE).
 */
 public class Tre extends TreEntryList {
+
+    private static final long serialVersionUID = 1L;
+
     private String prefix = null;
     private byte[] rawData = null;
+    private transient DeferredTreData deferredData = null;
 
     /**
         Construct TRE with specific tag name.
@@ -70,4 +74,21 @@ public class Tre extends TreEntryList {
         return rawData;
     }
 
+    /**
+        Set the location of the TRE data, so the entries can be decoded when they are first used.
+
+        @param data the location of the undecoded TRE data.
+    */
+    final synchronized void setDeferredData(final DeferredTreData data) {
+        deferredData = data;
+    }
+
+    @Override
+    final synchronized void loadDeferredEntries() {
+        if (deferredData != null) {
+            DeferredTreData data = deferredData;
+            deferredData = null;
+            setEntries(data.decode(getName()));
+        }
+    }
 }
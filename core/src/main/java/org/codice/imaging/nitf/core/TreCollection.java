@@ -14,13 +14,17 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
     Collection of TREs.
 */
-public class TreCollection {
+public class TreCollection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private List<Tre> treCollectionEntries = new ArrayList<Tre>();
 
     /**
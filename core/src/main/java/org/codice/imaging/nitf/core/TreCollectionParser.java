@@ -39,7 +39,7 @@ class TreCollectionParser {
         while (bytesRead < treLength) {
             String tag = reader.readBytes(NitfConstants.TAG_LENGTH);
             bytesRead += NitfConstants.TAG_LENGTH;
-            int fieldLength = reader.readBytesAsInteger(NitfConstants.TAGLEN_LENGTH);
+            int fieldLength = reader.readInt(NitfConstants.TAGLEN_LENGTH);
             bytesRead += NitfConstants.TAGLEN_LENGTH;
             treCollection.add(treParser.parseOneTre(reader, tag, fieldLength));
             bytesRead += fieldLength;
@@ -47,6 +47,32 @@ class TreCollectionParser {
         return treCollection;
     }
 
+    /**
+        Index the TREs from the current reader, without decoding them.
+        <p>
+        The TRE data is read in one go, and only the tag and length of each TRE are decoded. Each TRE
+        records where its data is, and is decoded against the TRE specification when its entries are
+        first used. Listing the TREs (e.g. by name) does not decode them.
+
+        @param reader the reader to use.
+        @param treLength the length of the TRE.
+        @return TRE collection.
+        @throws ParseException if the TRE data could not be read, or a TRE tag or length is invalid.
+    */
+    public final TreCollection parseDeferred(final NitfReader reader, final int treLength) throws ParseException {
+        long treBlockOffset = reader.getCurrentOffset();
+        byte[] treBlock = reader.readBytesRaw(treLength);
+        NitfReader treReader = new ByteArrayReader(treBlock, treBlockOffset);
+        TreCollection treCollection = new TreCollection();
+        while (treReader.getCurrentOffset() < treBlockOffset + treLength) {
+            String tag = treReader.readBytes(NitfConstants.TAG_LENGTH);
+            int fieldLength = treReader.readInt(NitfConstants.TAGLEN_LENGTH);
+            treCollection.add(treParser.deferOneTre(tag, treBlock, treBlockOffset, treReader.getCurrentOffset(), fieldLength));
+            treReader.skip(fieldLength);
+        }
+        return treCollection;
+    }
+
     void registerAdditionalTREdescriptor(final Source source) throws ParseException {
         treParser.registerAdditionalTREdescriptor(source);
     }
@@ -14,6 +14,7 @@
  */
 package org.codice.imaging.nitf.core;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,7 +26,9 @@ import org.slf4j.LoggerFactory;
     <p>
     This is a name and a value, or a name and a group of entries.
 */
-public class TreEntry {
+public class TreEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private static final Logger LOG = LoggerFactory.getLogger(TreEntry.class);
 
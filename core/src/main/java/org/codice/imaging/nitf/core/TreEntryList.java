@@ -19,6 +19,8 @@ package org.codice.imaging.nitf.core;
 */
 public class TreEntryList extends TreGroup {
 
+    private static final long serialVersionUID = 1L;
+
     private String name;
 
     /**
@@ -14,6 +14,9 @@
  **/
 package org.codice.imaging.nitf.core;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,7 +27,9 @@ import org.slf4j.LoggerFactory;
 /**
     A group of values within a TreEntry.
 */
-public class TreGroup {
+public class TreGroup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private static final Logger LOG = LoggerFactory.getLogger(TreGroup.class);
     private static final int DECIMAL_BASE = 10;
@@ -37,6 +42,7 @@ public class TreGroup {
         @return the list of entries within the group.
     */
     public final List<TreEntry> getEntries() {
+        loadDeferredEntries();
         return entries;
     }
 
@@ -47,6 +53,7 @@ public class TreGroup {
     */
     public final void add(final TreEntry entry) {
         if (entry != null) {
+            loadDeferredEntries();
             entries.add(entry);
         }
     }
@@ -58,6 +65,7 @@ public class TreGroup {
     */
     public final void addAll(final TreGroup group) {
         if (group != null) {
+            loadDeferredEntries();
             entries.addAll(group.getEntries());
         }
     }
@@ -68,6 +76,7 @@ public class TreGroup {
         @param treEntries the new list of entries.
     */
     public final void setEntries(final List<TreEntry> treEntries) {
+        loadDeferredEntries();
         entries = new ArrayList<>();
         entries.addAll(treEntries);
     }
@@ -80,7 +89,7 @@ public class TreGroup {
         @throws ParseException when the tag is not found
     */
     public final TreEntry getEntry(final String tagName) throws ParseException {
-        for (TreEntry entry : entries) {
+        for (TreEntry entry : getEntries()) {
             if (entry.getName().equals(tagName)) {
                 return entry;
             }
@@ -120,13 +129,27 @@ public class TreGroup {
         Debug dump of the entries.
     */
     public final void dump() {
-        for (TreEntry entry : entries) {
+        for (TreEntry entry : getEntries()) {
             LOG.debug("\t----Start Entry---");
             entry.dump();
             LOG.debug("\t----End Entry---");
         }
     }
 
+    /**
+        Decode any entries that were deferred when the group was parsed.
+        <p>
+        This is called before the entries are used or changed. It does nothing unless the group
+        supports deferred decoding.
+    */
+    void loadDeferredEntries() {
+    }
+
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        loadDeferredEntries();
+        out.defaultWriteObject();
+    }
+
     // CSOFF: DesignForExtension
     @Override
     public String toString() {
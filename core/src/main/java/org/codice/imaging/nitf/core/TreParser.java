@@ -18,6 +18,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -41,40 +44,58 @@ class TreParser {
     private static final Logger LOG = LoggerFactory.getLogger(TreParser.class);
     private static final String TRE_XML_LOAD_ERROR_MESSAGE = "Exception while loading TRE XML";
 
-    private static Tres tresStructure = null;
+    // The standard specification is loaded once and never modified, so it can be shared by every parser.
+    private static List<TreType> standardTreTypes = null;
+
+    // Replaced (not modified) when additional descriptors are registered, so it can be read without locking.
+    private volatile List<TreType> treTypes;
 
     /**
         Constructor for TRE parser.
         <p>
-        This does reasonably complex initialisation, so try to re-use it if possible.
+        The first parser loads the TRE specification, which is reasonably complex. Later parsers share it.
 
         @throws ParseException if the initialisation fails.
     */
     public TreParser() throws ParseException {
-        try (InputStream is = getClass().getResourceAsStream("/nitf_spec.xml")) {
-            unmarshal(is);
-        } catch (JAXBException ex) {
-            LOG.warn("JAXBException parsing TRE XML specification", ex);
-            throw new ParseException(TRE_XML_LOAD_ERROR_MESSAGE + ex.getMessage(), 0);
-        } catch (IOException ex) {
-            LOG.warn("IOException parsing TRE XML specification", ex);
-            throw new ParseException(TRE_XML_LOAD_ERROR_MESSAGE + ex.getMessage(), 0);
-        }
+        treTypes = getStandardTreTypes();
     }
 
-    private void unmarshal(final InputStream inputStream) throws JAXBException {
-        tresStructure = (Tres) getUnmarshaller().unmarshal(inputStream);
+    private static synchronized List<TreType> getStandardTreTypes() throws ParseException {
+        if (standardTreTypes == null) {
+            try (InputStream is = TreParser.class.getResourceAsStream("/nitf_spec.xml")) {
+                Tres tres = (Tres) getUnmarshaller().unmarshal(is);
+                standardTreTypes = Collections.unmodifiableList(new ArrayList<>(tres.getTre()));
+            } catch (JAXBException ex) {
+                LOG.warn("JAXBException parsing TRE XML specification", ex);
+                throw new ParseException(TRE_XML_LOAD_ERROR_MESSAGE + ex.getMessage(), 0);
+            } catch (IOException ex) {
+                LOG.warn("IOException parsing TRE XML specification", ex);
+                throw new ParseException(TRE_XML_LOAD_ERROR_MESSAGE + ex.getMessage(), 0);
+            }
+        }
+        return standardTreTypes;
     }
 
-    private Unmarshaller getUnmarshaller() throws JAXBException {
+    private static Unmarshaller getUnmarshaller() throws JAXBException {
         JAXBContext jc = JAXBContext.newInstance(Tres.class);
         return jc.createUnmarshaller();
     }
 
-    void registerAdditionalTREdescriptor(final Source source) throws ParseException {
+    /**
+        Add TRE descriptors to those used by this parser.
+        <p>
+        Other parsers are not affected.
+
+        @param source the XML source for the additional descriptors.
+        @throws ParseException if the descriptors could not be read.
+    */
+    synchronized void registerAdditionalTREdescriptor(final Source source) throws ParseException {
         try {
             Tres extraTres = (Tres) getUnmarshaller().unmarshal(source);
-            tresStructure.getTre().addAll(extraTres.getTre());
+            List<TreType> combined = new ArrayList<>(treTypes);
+            combined.addAll(extraTres.getTre());
+            treTypes = Collections.unmodifiableList(combined);
         } catch (JAXBException ex) {
             LOG.warn("JAXBException parsing additional TRE XML specification", ex);
             throw new ParseException(TRE_XML_LOAD_ERROR_MESSAGE + ex.getMessage(), 0);
@@ -95,6 +116,32 @@ class TreParser {
         return tre;
     }
 
+    /**
+        Create a TRE that is decoded when its entries are first used.
+        <p>
+        TREs that have no specification are never decoded, so they get their raw data immediately, the
+        same as parseOneTre() would give them.
+
+        @param tag the name of the TRE.
+        @param treBlock the block of TRE data that holds this TRE.
+        @param treBlockOffset the offset in the file of the start of the block.
+        @param offset the offset in the file of the start of the TRE data (after the tag and length).
+        @param fieldLength the length of the TRE data.
+        @return the TRE, with its entries not yet decoded.
+    */
+    Tre deferOneTre(final String tag, final byte[] treBlock, final long treBlockOffset, final long offset, final int fieldLength) {
+        Tre tre = new Tre(tag);
+        TreType treType = getTreTypeForTag(tag);
+        int start = (int) (offset - treBlockOffset);
+        if (treType == null) {
+            tre.setRawData(Arrays.copyOfRange(treBlock, start, start + fieldLength));
+        } else {
+            tre.setPrefix(treType.getMdPrefix());
+            tre.setDeferredData(new DeferredTreData(this, treBlock, treBlockOffset, offset, fieldLength));
+        }
+        return tre;
+    }
+
     private TreGroup parseTreComponents(final List<Object> fieldOrLoopOrIf, final NitfReader reader, final TreParams params) throws ParseException {
         TreGroup group = new TreGroup();
         for (Object fieldLoopIf : fieldOrLoopOrIf) {
@@ -192,7 +239,7 @@ class TreParser {
     }
 
     private TreType getTreTypeForTag(final String tag) {
-        for (TreType treType : tresStructure.getTre()) {
+        for (TreType treType : treTypes) {
             if (treType.getName().equals(tag.trim())) {
                 return treType;
             }
@@ -49,6 +49,7 @@ public class AbstractParserTest {
     @Test
     public void testParseOfENCRYP() throws ParseException {
         AbstractNitfSegmentParser parser = Mockito.mock(AbstractNitfSegmentParser.class, Mockito.CALLS_REAL_METHODS);
+        parser.setFieldSink(ModelFieldSink.INSTANCE);
 
         NitfReader mockReader = Mockito.mock(NitfReader.class);
         parser.reader = mockReader;
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CompletionHandler;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class AsynchronousSegmentReaderTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testReadRange() throws Exception {
+        File file = getTestFile("/JitcNitf21Samples/i_3001a.ntf");
+        try (AsynchronousSegmentReader reader = new AsynchronousSegmentReader(file, parseHeaders(file))) {
+            ByteBuffer header = reader.readRange(0, 9).get();
+            assertEquals(0, header.position());
+            assertEquals("NITF02.10", new String(toArray(header)));
+        }
+    }
+
+    @Test
+    public void testReadRangePastEndOfFile() throws Exception {
+        File file = getTestFile("/JitcNitf21Samples/i_3001a.ntf");
+        try (AsynchronousSegmentReader reader = new AsynchronousSegmentReader(file, parseHeaders(file))) {
+            exception.expect(ExecutionException.class);
+            reader.readRange(file.length() - 5, 10).get();
+        }
+    }
+
+    @Test
+    public void testBlocksMatchSegmentData() throws Exception {
+        // 3x2 blocks of 16 bit pixels, and 8x8 blocks of 3 band (block interleaved) pixels.
+        for (String testFile : Arrays.asList("/JitcNitf20Samples/U_4007A.NTF", "/JitcNitf20Samples/U_3002A.NTF")) {
+            File file = getTestFile(testFile);
+            HeaderOnlyNitfParseStrategy strategy = parseHeaders(file);
+            NitfImageSegmentHeader header = strategy.getImageSegmentHeaders().get(0);
+            byte[] segmentData = toArray(strategy.getSegmentDataView(SegmentType.IMAGE, 0));
+
+            try (AsynchronousSegmentReader reader = new AsynchronousSegmentReader(file, strategy)) {
+                List<Future<ByteBuffer>> blocks = new ArrayList<>();
+                for (int row = 0; row < header.getNumberOfBlocksPerColumn(); ++row) {
+                    for (int column = 0; column < header.getNumberOfBlocksPerRow(); ++column) {
+                        blocks.add(reader.fetchImageBlock(0, row, column));
+                    }
+                }
+                int blockLength = (int) header.getNumberOfBytesPerBlock();
+                for (int i = 0; i < blocks.size(); ++i) {
+                    byte[] expected = Arrays.copyOfRange(segmentData, i * blockLength, (i + 1) * blockLength);
+                    assertArrayEquals(expected, toArray(blocks.get(i).get()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCompletionHandler() throws Exception {
+        File file = getTestFile("/JitcNitf20Samples/U_3002A.NTF");
+        HeaderOnlyNitfParseStrategy strategy = parseHeaders(file);
+        final int blockLength = (int) strategy.getImageSegmentHeaders().get(0).getNumberOfBytesPerBlock();
+        final CountDownLatch latch = new CountDownLatch(64);
+        final AtomicInteger completed = new AtomicInteger();
+        try (AsynchronousSegmentReader reader = new AsynchronousSegmentReader(file, strategy)) {
+            for (int row = 0; row < 8; ++row) {
+                for (int column = 0; column < 8; ++column) {
+                    reader.fetchImageBlock(0, row, column, latch, new CompletionHandler<ByteBuffer, CountDownLatch>() {
+                        @Override
+                        public void completed(final ByteBuffer result, final CountDownLatch attachment) {
+                            if (result.remaining() == blockLength) {
+                                completed.incrementAndGet();
+                            }
+                            attachment.countDown();
+                        }
+
+                        @Override
+                        public void failed(final Throwable exc, final CountDownLatch attachment) {
+                            attachment.countDown();
+                        }
+                    });
+                }
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(64, completed.get());
+        }
+    }
+
+    @Test
+    public void testSingleBlockReturnsAllData() throws Exception {
+        // 1 bit per pixel, so the block is not a whole number of bytes.
+        File file = getTestFile("/JitcNitf21Samples/i_3034c.ntf");
+        HeaderOnlyNitfParseStrategy strategy = parseHeaders(file);
+        try (AsynchronousSegmentReader reader = new AsynchronousSegmentReader(file, strategy)) {
+            byte[] block = toArray(reader.fetchImageBlock(0, 0, 0).get());
+            assertArrayEquals(toArray(strategy.getSegmentDataView(SegmentType.IMAGE, 0)), block);
+        }
+    }
+
+    @Test
+    public void testMaskedImageNotSupported() throws Exception {
+        File file = getTestFile("/JitcNitf21Samples/ns3301e.nsf");
+        try (AsynchronousSegmentReader reader = new AsynchronousSegmentReader(file, parseHeaders(file))) {
+            exception.expect(ParseException.class);
+            exception.expectMessage("NOTCOMPRESSEDMASK");
+            reader.fetchImageBlock(0, 0, 0);
+        }
+    }
+
+    @Test
+    public void testBadBlock() throws Exception {
+        File file = getTestFile("/JitcNitf20Samples/U_4007A.NTF");
+        try (AsynchronousSegmentReader reader = new AsynchronousSegmentReader(file, parseHeaders(file))) {
+            exception.expect(ParseException.class);
+            exception.expectMessage("No block at row 2, column 0 in image segment 0");
+            reader.fetchImageBlock(0, 2, 0);
+        }
+    }
+
+    @Test
+    public void testBlockTooLarge() throws Exception {
+        File file = getTestFile("/JitcNitf20Samples/U_3002A.NTF");
+        HeaderOnlyNitfParseStrategy strategy = parseHeaders(file);
+        NitfImageSegmentHeader header = strategy.getImageSegmentHeaders().get(0);
+        header.setNumberOfPixelsPerBlockHorizontal(32768);
+        header.setNumberOfPixelsPerBlockVertical(32768);
+        header.setNumberOfBitsPerPixelPerBand(16);
+        try (AsynchronousSegmentReader reader = new AsynchronousSegmentReader(file, strategy)) {
+            exception.expect(ParseException.class);
+            exception.expectMessage("Blocks in image segment 0 are too large for a single buffer");
+            reader.fetchImageBlock(0, 1, 1);
+        }
+    }
+
+    private HeaderOnlyNitfParseStrategy parseHeaders(final File file) throws ParseException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(file), strategy);
+        return strategy;
+    }
+
+    private byte[] toArray(final ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private File getTestFile(final String testFile) throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testFile));
+        return new File(getClass().getResource(testFile).toURI());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class BufferedFileReaderTest {
+
+    private final String testfile = "/JitcNitf21Samples/ns3301e.nsf";
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testBadFilenameConstructorArgument() throws ParseException {
+        exception.expect(ParseException.class);
+        exception.expectMessage("no such file not found: no such file");
+        new BufferedFileReader("no such file");
+    }
+
+    @Test
+    public void testParseMatchesFileReader() throws ParseException, URISyntaxException {
+        File file = getTestFile();
+        AllDataExtractionParseStrategy fileReaderStrategy = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(file), fileReaderStrategy);
+
+        for (int bufferSize : new int[] {7, 512, BufferedFileReader.DEFAULT_BUFFER_SIZE}) {
+            AllDataExtractionParseStrategy bufferedStrategy = new AllDataExtractionParseStrategy();
+            NitfReader reader = new BufferedFileReader(file, bufferSize);
+            NitfFileParser.parse(reader, bufferedStrategy);
+            assertEquals(file.length(), reader.getCurrentOffset());
+            assertEquals(fileReaderStrategy.getImageSegmentHeaders().size(), bufferedStrategy.getImageSegmentHeaders().size());
+            for (int i = 0; i < fileReaderStrategy.getImageSegmentHeaders().size(); ++i) {
+                assertEquals(fileReaderStrategy.getImageSegmentHeaders().get(i).getIdentifier(),
+                        bufferedStrategy.getImageSegmentHeaders().get(i).getIdentifier());
+                assertArrayEquals(fileReaderStrategy.getImageSegmentData().get(i), bufferedStrategy.getImageSegmentData().get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testSeekWithinBuffer() throws ParseException, URISyntaxException {
+        BufferedFileReader reader = new BufferedFileReader(getTestFile(), 64);
+        byte[] start = reader.readBytesRaw(20);
+        reader.skip(10);
+        reader.seekBackwards(25);
+        assertEquals(5, reader.getCurrentOffset());
+        byte[] reread = reader.readBytesRaw(10);
+        for (int i = 0; i < reread.length; ++i) {
+            assertEquals(start[i + 5], reread[i]);
+        }
+    }
+
+    @Test
+    public void testReadPastEndOfFile() throws ParseException, URISyntaxException {
+        BufferedFileReader reader = new BufferedFileReader(getTestFile());
+        reader.seekToEndOfFile();
+        reader.seekBackwards(2);
+        exception.expect(ParseException.class);
+        exception.expectMessage("end of file");
+        reader.readBytesRaw(3);
+    }
+
+    private File getTestFile() throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testfile));
+        return new File(getClass().getResource(testfile).toURI());
+    }
+}
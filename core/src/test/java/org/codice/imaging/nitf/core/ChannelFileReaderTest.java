@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class ChannelFileReaderTest {
+
+    private final String testfile = "/JitcNitf20Samples/U_1122A.NTF";
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testBadFilenameConstructorArgument() throws ParseException {
+        exception.expect(ParseException.class);
+        exception.expectMessage("no such file not found: no such file");
+        new ChannelFileReader("no such file");
+    }
+
+    @Test
+    public void testDataExtractionMatchesFileReader() throws ParseException, URISyntaxException {
+        File file = getTestFile();
+        AllDataExtractionParseStrategy fileReaderStrategy = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(file), fileReaderStrategy);
+
+        AllDataExtractionParseStrategy channelStrategy = new AllDataExtractionParseStrategy();
+        NitfReader reader = new ChannelFileReader(file, 100);
+        NitfFileParser.parse(reader, channelStrategy);
+
+        assertEquals(file.length(), reader.getCurrentOffset());
+        assertEquals(fileReaderStrategy.getImageSegmentData().size(), channelStrategy.getImageSegmentData().size());
+        for (int i = 0; i < fileReaderStrategy.getImageSegmentData().size(); ++i) {
+            assertArrayEquals(fileReaderStrategy.getImageSegmentData().get(i), channelStrategy.getImageSegmentData().get(i));
+        }
+    }
+
+    @Test
+    public void testCursorsAreIndependent() throws ParseException, URISyntaxException {
+        ChannelFileReader reader = new ChannelFileReader(getTestFile());
+        reader.setFileType(FileType.NITF_TWO_ZERO);
+        reader.skip(100);
+        ChannelFileReader cursor = reader.newCursor(10);
+        assertEquals(FileType.NITF_TWO_ZERO, cursor.getFileType());
+        assertEquals(10, cursor.getCurrentOffset());
+
+        byte[] fromCursor = cursor.readBytesRaw(90);
+        byte[] fromReader = reader.readBytesRaw(10);
+        assertEquals(100, cursor.getCurrentOffset());
+        assertEquals(110, reader.getCurrentOffset());
+        assertEquals("NITF02.00", new String(reader.newCursor().readBytesRaw(9)));
+        assertArrayEquals(reader.newCursor(100).readBytesRaw(10), fromReader);
+        assertArrayEquals(reader.newCursor(10).readBytesRaw(90), fromCursor);
+    }
+
+    @Test
+    public void testStreamsAreIndependentOfReader() throws ParseException, URISyntaxException, IOException {
+        ChannelFileReader reader = new ChannelFileReader(getTestFile());
+        reader.seekToAbsoluteOffset(990);
+        byte[] expected = reader.readBytesRaw(20);
+
+        InputStream is = reader.getInputStreamAt(990);
+        ImageInputStream iis = reader.getImageInputStreamAt(990);
+        byte[] fromStream = new byte[20];
+        byte[] fromImageStream = new byte[20];
+        assertEquals(10, is.read(fromStream, 0, 10));
+        iis.readFully(fromImageStream);
+        assertEquals(10, is.read(fromStream, 10, 10));
+        assertArrayEquals(expected, fromStream);
+        assertArrayEquals(expected, fromImageStream);
+        assertEquals(1010, reader.getCurrentOffset());
+    }
+
+    @Test
+    public void testConcurrentSegmentReads() throws Exception {
+        File file = getTestFile();
+        final ChannelFileReader reader = new ChannelFileReader(file);
+        final HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(reader, strategy);
+        final int numSegments = strategy.getImageSegmentHeaders().size();
+
+        final List<byte[]> expected = new ArrayList<>();
+        for (int i = 0; i < numSegments; ++i) {
+            byte[] data = new byte[(int) strategy.getImageSegmentHeaders().get(i).getImageDataLength()];
+            strategy.getSegmentDataView(SegmentType.IMAGE, i).get(data);
+            expected.add(data);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numSegments);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < numSegments; ++i) {
+                final int segment = i;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        byte[] segmentData = expected.get(segment);
+                        long dataOffset = strategy.getSegmentDataOffset(SegmentType.IMAGE, segment);
+                        ChannelFileReader cursor = reader.newCursor();
+                        ImageInputStream iis = reader.getImageInputStreamAt(dataOffset);
+                        for (int pass = 0; pass < 50; ++pass) {
+                            cursor.seekToAbsoluteOffset(dataOffset);
+                            assertArrayEquals(segmentData, cursor.readBytesRaw(segmentData.length));
+                            byte[] fromStream = new byte[segmentData.length];
+                            iis.seek(dataOffset);
+                            iis.readFully(fromStream);
+                            assertArrayEquals(segmentData, fromStream);
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertEquals(true, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private File getTestFile() throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testfile));
+        return new File(getClass().getResource(testfile).toURI());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class CodeLookupTableTest {
+
+    @Test
+    public void testExactMatch() {
+        CodeLookupTable<String> table = new CodeLookupTable<>(3, "none");
+        table.add("A", "first");
+        table.add("AB", "second");
+        table.add(" ", "space");
+        table.add(null, "ignored");
+        table.add("A", "duplicate");
+
+        assertEquals("first", table.get("A"));
+        assertEquals("second", table.get("AB"));
+        assertEquals("space", table.get(" "));
+        assertEquals("none", table.get(""));
+        assertEquals("none", table.get("A "));
+        assertEquals("none", table.get("B"));
+
+        byte[] bytes = "xxABxx".getBytes(StandardCharsets.US_ASCII);
+        assertEquals("second", table.get(bytes, 2, 2));
+        assertEquals("first", table.get(bytes, 2, 1));
+        assertEquals("none", table.get(bytes, 1, 2));
+        assertEquals("none", table.get(bytes, 0, 0));
+    }
+
+    @Test
+    public void testEnumLookupsMatchTextEquivalents() {
+        for (ImageCompression value : ImageCompression.values()) {
+            assertEquals(value, ImageCompression.getEnumValue(value.getTextEquivalent()));
+            assertEquals(value, lookup(value.getTextEquivalent(), ImageCompression.UNKNOWN));
+        }
+        for (ImageCategory value : ImageCategory.values()) {
+            assertEquals(value, ImageCategory.getEnumValue(value.getTextEquivalent()));
+            assertEquals(value, lookup(value.getTextEquivalent(), ImageCategory.UNKNOWN));
+        }
+        for (ImageRepresentation value : ImageRepresentation.values()) {
+            assertEquals(value, ImageRepresentation.getEnumValue(value.getTextEquivalent()));
+            assertEquals(value, lookup(value.getTextEquivalent(), ImageRepresentation.UNKNOWN));
+        }
+        for (ImageMode value : ImageMode.values()) {
+            assertEquals(value, ImageMode.getEnumValue(value.getTextEquivalent()));
+            assertEquals(value, lookup(value.getTextEquivalent(), ImageMode.UNKNOWN));
+        }
+        for (PixelValueType value : PixelValueType.values()) {
+            assertEquals(value, PixelValueType.getEnumValue(value.getTextEquivalent()));
+            assertEquals(value, lookup(value.getTextEquivalent(), PixelValueType.UNKNOWN));
+        }
+        for (GraphicColour value : GraphicColour.values()) {
+            assertEquals(value, GraphicColour.getEnumValue(value.getTextEquivalent()));
+            assertEquals(value, lookup(value.getTextEquivalent(), GraphicColour.UNKNOWN));
+        }
+        assertEquals(FileType.NITF_TWO_ONE, lookup("NITF02.10", FileType.UNKNOWN));
+        assertEquals(FileType.NITF_TWO_ZERO, lookup("NITF02.00", FileType.UNKNOWN));
+        assertEquals(FileType.NSIF_ONE_ZERO, lookup("NSIF01.00", FileType.UNKNOWN));
+        assertEquals(FileType.UNKNOWN, lookup("NITF02.20", FileType.UNKNOWN));
+    }
+
+    @Test
+    public void testImageCoordinatesRepresentationByFileType() {
+        for (FileType fileType : new FileType[] {FileType.NITF_TWO_ZERO, FileType.NITF_TWO_ONE, FileType.NSIF_ONE_ZERO}) {
+            for (ImageCoordinatesRepresentation value : ImageCoordinatesRepresentation.values()) {
+                String code = value.getTextEquivalent(fileType);
+                if (code != null) {
+                    byte[] bytes = code.getBytes(StandardCharsets.US_ASCII);
+                    assertEquals(value, ImageCoordinatesRepresentation.getEnumValue(code, fileType));
+                    assertEquals(value, ImageCoordinatesRepresentation.getEnumValue(bytes, 0, bytes.length, fileType));
+                }
+            }
+        }
+        byte[] space = new byte[] {' '};
+        assertEquals(ImageCoordinatesRepresentation.NONE, ImageCoordinatesRepresentation.getEnumValue(space, 0, 1, FileType.NITF_TWO_ONE));
+        assertEquals(ImageCoordinatesRepresentation.UNKNOWN, ImageCoordinatesRepresentation.getEnumValue(space, 0, 1, FileType.NITF_TWO_ZERO));
+        byte[] north = new byte[] {'N'};
+        assertEquals(ImageCoordinatesRepresentation.UTMUPSNORTH, ImageCoordinatesRepresentation.getEnumValue(north, 0, 1, FileType.NITF_TWO_ONE));
+        assertEquals(ImageCoordinatesRepresentation.NONE, ImageCoordinatesRepresentation.getEnumValue(north, 0, 1, FileType.NITF_TWO_ZERO));
+    }
+
+    private static Object lookup(final String code, final Enum<?> unknown) {
+        byte[] bytes = ("#" + code + "#").getBytes(StandardCharsets.US_ASCII);
+        if (unknown instanceof FileType) {
+            return FileType.getEnumValue(bytes, 1, code.length());
+        } else if (unknown instanceof ImageCompression) {
+            return ImageCompression.getEnumValue(bytes, 1, code.length());
+        } else if (unknown instanceof ImageCategory) {
+            return ImageCategory.getEnumValue(bytes, 1, code.length());
+        } else if (unknown instanceof ImageRepresentation) {
+            return ImageRepresentation.getEnumValue(bytes, 1, code.length());
+        } else if (unknown instanceof ImageMode) {
+            return ImageMode.getEnumValue(bytes, 1, code.length());
+        } else if (unknown instanceof PixelValueType) {
+            return PixelValueType.getEnumValue(bytes, 1, code.length());
+        } else {
+            return GraphicColour.getEnumValue(bytes, 1, code.length());
+        }
+    }
+}
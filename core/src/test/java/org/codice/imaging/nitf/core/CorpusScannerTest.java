@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CorpusScannerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testScanMatchesSequentialParse() throws InterruptedException, ParseException, URISyntaxException {
+        File nitf20 = new File(getClass().getResource("/JitcNitf20Samples").toURI());
+        File nitf21 = new File(getClass().getResource("/JitcNitf21Samples").toURI());
+        final Map<String, CorpusScanResult> results = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new CorpusScanner(executor, 2).scan(Arrays.asList(nitf20, nitf21), new CorpusScanListener() {
+                @Override
+                public void onResult(final CorpusScanResult result) {
+                    assertNull(result.getFile().getName(), results.put(result.getFile().getName(), result));
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(nitf20.listFiles().length + nitf21.listFiles().length, results.size());
+        for (File directory : new File[] {nitf20, nitf21}) {
+            for (File file : directory.listFiles()) {
+                CorpusScanResult result = results.get(file.getName());
+                assertTrue(file.getName(), result.isSuccessful());
+                assertTrue(file.getName(), result.getParseTimeNanos() > 0);
+                HeaderOnlyNitfParseStrategy expected = new HeaderOnlyNitfParseStrategy();
+                NitfFileParser.parse(new FileReader(file), expected);
+                assertEquals(file.getName(), expected.getNitfHeader().getFileTitle(), result.getNitfHeader().getFileTitle());
+                assertEquals(file.getName(), expected.getImageSegmentHeaders().size(), result.getHeaders().getImageSegmentHeaders().size());
+            }
+        }
+    }
+
+    @Test
+    public void testErrorsAndFilter() throws InterruptedException, IOException {
+        File directory = temporaryFolder.newFolder("corpus");
+        File badFile = new File(directory, "bad.ntf");
+        try (FileOutputStream stream = new FileOutputStream(badFile)) {
+            stream.write("Not a NITF file".getBytes("US-ASCII"));
+        }
+        File skippedFile = new File(directory, "skipped.txt");
+        assertTrue(skippedFile.createNewFile());
+
+        final CorpusScanResult[] results = new CorpusScanResult[2];
+        final int[] resultCount = new int[1];
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CorpusScanner scanner = new CorpusScanner(executor);
+            scanner.setFileFilter(new FileFilter() {
+                @Override
+                public boolean accept(final File file) {
+                    return !file.getName().endsWith(".txt");
+                }
+            });
+            scanner.scan(Arrays.asList(directory), new CorpusScanListener() {
+                @Override
+                public void onResult(final CorpusScanResult result) {
+                    results[resultCount[0]++] = result;
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, resultCount[0]);
+        assertEquals(badFile, results[0].getFile());
+        assertFalse(results[0].isSuccessful());
+        assertNull(results[0].getNitfHeader());
+        assertNotNull(results[0].getException());
+    }
+
+    @Test
+    public void testSymbolicLinksNotFollowed() throws InterruptedException, IOException, URISyntaxException {
+        File directory = temporaryFolder.newFolder("linked");
+        File subdirectory = new File(directory, "sub");
+        assertTrue(subdirectory.mkdir());
+        File nitf = new File(subdirectory, "i_3001a.ntf");
+        Files.copy(new File(getClass().getResource("/JitcNitf21Samples/i_3001a.ntf").toURI()).toPath(), nitf.toPath());
+        Files.createSymbolicLink(new File(subdirectory, "loop").toPath(), directory.toPath());
+        Files.createSymbolicLink(new File(directory, "link.ntf").toPath(), nitf.toPath());
+
+        final List<CorpusScanResult> results = new ArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new CorpusScanner(executor).scan(Arrays.asList(directory), new CorpusScanListener() {
+                @Override
+                public void onResult(final CorpusScanResult result) {
+                    results.add(result);
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, results.size());
+        assertEquals(nitf, results.get(0).getFile());
+        assertTrue(results.get(0).isSuccessful());
+    }
+
+    @Test
+    public void testResultsDeliveredDuringWalk() throws InterruptedException, URISyntaxException {
+        File nitf21 = new File(getClass().getResource("/JitcNitf21Samples").toURI());
+        final int[] filesAccepted = new int[1];
+        final List<Integer> acceptedAtDelivery = new ArrayList<>();
+        // Parse on the walking thread, so each result is ready before the next file is found.
+        Executor directExecutor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                command.run();
+            }
+        };
+        CorpusScanner scanner = new CorpusScanner(directExecutor);
+        scanner.setFileFilter(new FileFilter() {
+            @Override
+            public boolean accept(final File file) {
+                filesAccepted[0]++;
+                return true;
+            }
+        });
+        scanner.scan(Arrays.asList(nitf21), new CorpusScanListener() {
+            @Override
+            public void onResult(final CorpusScanResult result) {
+                acceptedAtDelivery.add(filesAccepted[0]);
+            }
+        });
+
+        assertEquals(nitf21.listFiles().length, acceptedAtDelivery.size());
+        assertTrue(acceptedAtDelivery.get(0) < nitf21.listFiles().length);
+    }
+
+    @Test
+    public void testShareSecurityMetadata() throws InterruptedException, IOException, URISyntaxException {
+        File directory = temporaryFolder.newFolder("shared");
+        File source = new File(getClass().getResource("/JitcNitf21Samples/ns3361c.nsf").toURI());
+        Files.copy(source.toPath(), new File(directory, "first.nsf").toPath());
+        Files.copy(source.toPath(), new File(directory, "second.nsf").toPath());
+
+        final List<CorpusScanResult> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CorpusScanner scanner = new CorpusScanner(executor);
+            scanner.setShareSecurityMetadata(true);
+            scanner.scan(Arrays.asList(directory), new CorpusScanListener() {
+                @Override
+                public void onResult(final CorpusScanResult result) {
+                    results.add(result);
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(2, results.size());
+        NitfSecurityMetadata securityMetadata = results.get(0).getHeaders().getImageSegmentHeaders().get(0).getSecurityMetadata();
+        assertTrue(securityMetadata.isShared());
+        assertSame(securityMetadata, results.get(1).getHeaders().getImageSegmentHeaders().get(0).getSecurityMetadata());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadLimit() {
+        new CorpusScanner(Executors.newSingleThreadExecutor(), 0);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Benchmark for NITF date / time parsing.
+ *
+ * This is not a unit test. Run it after "mvn test-compile" with:
+ *
+ * java -cp target/classes:target/test-classes:$SLF4J_JAR org.codice.imaging.nitf.core.DateTimeParserBenchmark [iterations]
+ *
+ * It parses a set of NITF 2.1 and NITF 2.0 date / time values (full and truncated), and reports the time
+ * and the bytes allocated by the current thread per value, for the previous SimpleDateFormat based
+ * implementation (a new SimpleDateFormat, TimeZone and Calendar for each value) and for NitfDateTimeParser.
+ * The allocation counts come from com.sun.management.ThreadMXBean, so a HotSpot JVM is required.
+ */
+public final class DateTimeParserBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 20000;
+    private static final int WARMUP_ITERATIONS = 5000;
+
+    private static final String[] NITF21_VALUES = {"20140704123456", "19970221235959", "2014070423----", "20140704------",
+        "201407--------", "20151231000000", "20000229120000", "2003----------"};
+    private static final String[] NITF20_VALUES = {"11101520ZAPR94", "01000000ZJAN05", "31235959ZDEC99", "15120000ZJUL10"};
+
+    private DateTimeParserBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = DEFAULT_ITERATIONS;
+        if (args.length > 0) {
+            iterations = Integer.parseInt(args[0]);
+        }
+        int valueCount = NITF21_VALUES.length + NITF20_VALUES.length;
+
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            parseWithSimpleDateFormat();
+            parseWithNitfDateTimeParser();
+        }
+
+        long before = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            parseWithSimpleDateFormat();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = getAllocatedBytes() - before;
+        System.out.println(String.format("%d values, %d iterations", valueCount, iterations));
+        System.out.println(String.format("SimpleDateFormat: %.1f ns, %.1f bytes allocated per value",
+                elapsed / (double) (iterations * valueCount), allocated / (double) (iterations * valueCount)));
+
+        before = getAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            parseWithNitfDateTimeParser();
+        }
+        elapsed = System.nanoTime() - start;
+        allocated = getAllocatedBytes() - before;
+        System.out.println(String.format("NitfDateTimeParser: %.1f ns, %.1f bytes allocated per value",
+                elapsed / (double) (iterations * valueCount), allocated / (double) (iterations * valueCount)));
+    }
+
+    private static void parseWithNitfDateTimeParser() {
+        NitfDateTime dateTime = new NitfDateTime();
+        for (String value : NITF21_VALUES) {
+            if (!NitfDateTimeParser.parseNitf21(value, dateTime)) {
+                throw new IllegalStateException("Not parsed: " + value);
+            }
+        }
+        for (String value : NITF20_VALUES) {
+            if (!NitfDateTimeParser.parseNitf20(value, dateTime)) {
+                throw new IllegalStateException("Not parsed: " + value);
+            }
+        }
+    }
+
+    /**
+     * The parsing that readNitfDateTime() did before NitfDateTimeParser was added.
+     */
+    private static void parseWithSimpleDateFormat() throws ParseException {
+        NitfDateTime dateTime = new NitfDateTime();
+        for (String value : NITF21_VALUES) {
+            String stripped = AbstractNitfSegmentParser.removeHyphens(value.trim());
+            String pattern = NitfConstants.NITF21_DATE_FORMAT.substring(0, stripped.length());
+            parseDateString(value, new SimpleDateFormat(pattern), dateTime);
+        }
+        for (String value : NITF20_VALUES) {
+            parseDateString(value, new SimpleDateFormat(NitfConstants.NITF20_DATE_FORMAT), dateTime);
+        }
+    }
+
+    private static void parseDateString(final String value, final SimpleDateFormat dateFormat, final NitfDateTime dateTime)
+            throws ParseException {
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        Date date = dateFormat.parse(value);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.setTimeZone(TimeZone.getTimeZone("UTC"));
+        calendar.setTime(date);
+        dateTime.set(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH),
+                    calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), calendar.get(Calendar.SECOND));
+    }
+
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Microbenchmark for the lookup of coded field values (FileType, ImageCompression, etc).
+ *
+ * This is not a unit test. Run it after "mvn test-compile" with:
+ *
+ * java -cp target/classes:target/test-classes:$SLF4J_JAR org.codice.imaging.nitf.core.EnumLookupBenchmark [iterations]
+ *
+ * For each enumeration, it looks up every code (and one code that does not match), from raw bytes as read
+ * from the file. It reports the time and bytes allocated per lookup for the previous approach (decode the
+ * bytes to a String and search values()) and for the lookup table, which takes the bytes directly. The
+ * allocation counts come from com.sun.management.ThreadMXBean, so a HotSpot JVM is required.
+ */
+public final class EnumLookupBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 200000;
+    private static final int WARMUP_ITERATIONS = 50000;
+    private static final String NOT_FOUND_CODE = "?";
+
+    // FileType has no getTextEquivalent(), so its codes are listed here in declaration order.
+    private static final String[] FILE_TYPE_CODES = new String[] {"", "NITF02.00", "NITF02.10", "NSIF01.00"};
+
+    private EnumLookupBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int iterations = DEFAULT_ITERATIONS;
+        if (args.length > 0) {
+            iterations = Integer.parseInt(args[0]);
+        }
+        List<Lookup> lookups = new ArrayList<>();
+        lookups.add(new Lookup("FileType", "NITF02.00", "NITF02.10", "NSIF01.00") {
+            @Override
+            Object linear(String code) {
+                for (FileType value : FileType.values()) {
+                    if (code.equals(FILE_TYPE_CODES[value.ordinal()])) {
+                        return value;
+                    }
+                }
+                return FileType.UNKNOWN;
+            }
+
+            @Override
+            Object table(byte[] code) {
+                return FileType.getEnumValue(code, 0, code.length);
+            }
+        });
+        lookups.add(new Lookup("ImageCompression", codes(ImageCompression.values())) {
+            @Override
+            Object linear(String code) {
+                for (ImageCompression value : ImageCompression.values()) {
+                    if (code.equals(value.getTextEquivalent())) {
+                        return value;
+                    }
+                }
+                return ImageCompression.UNKNOWN;
+            }
+
+            @Override
+            Object table(byte[] code) {
+                return ImageCompression.getEnumValue(code, 0, code.length);
+            }
+        });
+        lookups.add(new Lookup("ImageCategory", codes(ImageCategory.values())) {
+            @Override
+            Object linear(String code) {
+                for (ImageCategory value : ImageCategory.values()) {
+                    if (code.equals(value.getTextEquivalent())) {
+                        return value;
+                    }
+                }
+                return ImageCategory.UNKNOWN;
+            }
+
+            @Override
+            Object table(byte[] code) {
+                return ImageCategory.getEnumValue(code, 0, code.length);
+            }
+        });
+        lookups.add(new Lookup("ImageRepresentation", codes(ImageRepresentation.values())) {
+            @Override
+            Object linear(String code) {
+                for (ImageRepresentation value : ImageRepresentation.values()) {
+                    if (code.equals(value.getTextEquivalent())) {
+                        return value;
+                    }
+                }
+                return ImageRepresentation.UNKNOWN;
+            }
+
+            @Override
+            Object table(byte[] code) {
+                return ImageRepresentation.getEnumValue(code, 0, code.length);
+            }
+        });
+        lookups.add(new Lookup("ImageMode", codes(ImageMode.values())) {
+            @Override
+            Object linear(String code) {
+                for (ImageMode value : ImageMode.values()) {
+                    if (code.equals(value.getTextEquivalent())) {
+                        return value;
+                    }
+                }
+                return ImageMode.UNKNOWN;
+            }
+
+            @Override
+            Object table(byte[] code) {
+                return ImageMode.getEnumValue(code, 0, code.length);
+            }
+        });
+        lookups.add(new Lookup("PixelValueType", codes(PixelValueType.values())) {
+            @Override
+            Object linear(String code) {
+                for (PixelValueType value : PixelValueType.values()) {
+                    if (code.equals(value.getTextEquivalent())) {
+                        return value;
+                    }
+                }
+                return PixelValueType.UNKNOWN;
+            }
+
+            @Override
+            Object table(byte[] code) {
+                return PixelValueType.getEnumValue(code, 0, code.length);
+            }
+        });
+        lookups.add(new Lookup("GraphicColour", codes(GraphicColour.values())) {
+            @Override
+            Object linear(String code) {
+                for (GraphicColour value : GraphicColour.values()) {
+                    if (code.equals(value.getTextEquivalent())) {
+                        return value;
+                    }
+                }
+                return GraphicColour.UNKNOWN;
+            }
+
+            @Override
+            Object table(byte[] code) {
+                return GraphicColour.getEnumValue(code, 0, code.length);
+            }
+        });
+        for (final FileType fileType : new FileType[] {FileType.NITF_TWO_ONE, FileType.NITF_TWO_ZERO}) {
+            List<String> codes = new ArrayList<>();
+            for (ImageCoordinatesRepresentation value : ImageCoordinatesRepresentation.values()) {
+                if (value.getTextEquivalent(fileType) != null) {
+                    codes.add(value.getTextEquivalent(fileType));
+                }
+            }
+            lookups.add(new Lookup("ImageCoordinatesRepresentation " + fileType, codes.toArray(new String[codes.size()])) {
+                @Override
+                Object linear(String code) {
+                    for (ImageCoordinatesRepresentation value : ImageCoordinatesRepresentation.values()) {
+                        if (code.equals(value.getTextEquivalent(fileType))) {
+                            return value;
+                        }
+                    }
+                    return ImageCoordinatesRepresentation.UNKNOWN;
+                }
+
+                @Override
+                Object table(byte[] code) {
+                    return ImageCoordinatesRepresentation.getEnumValue(code, 0, code.length, fileType);
+                }
+            });
+        }
+
+        System.out.println(String.format("%d iterations over each set of codes", iterations));
+        System.out.println(String.format("%-45s %12s %12s %12s %12s", "", "String ns", "String bytes", "table ns", "table bytes"));
+        for (Lookup lookup : lookups) {
+            lookup.check();
+            lookup.run(WARMUP_ITERATIONS);
+            long[] linear = lookup.measure(iterations, false);
+            long[] table = lookup.measure(iterations, true);
+            System.out.println(String.format("%-45s %12.1f %12.1f %12.1f %12.1f", lookup.name,
+                    (double) linear[0] / lookup.lookupCount(iterations), (double) linear[1] / lookup.lookupCount(iterations),
+                    (double) table[0] / lookup.lookupCount(iterations), (double) table[1] / lookup.lookupCount(iterations)));
+        }
+    }
+
+    private static String[] codes(ImageCompression[] values) {
+        List<String> codes = new ArrayList<>();
+        for (ImageCompression value : values) {
+            codes.add(value.getTextEquivalent());
+        }
+        return codes.toArray(new String[codes.size()]);
+    }
+
+    private static String[] codes(ImageCategory[] values) {
+        List<String> codes = new ArrayList<>();
+        for (ImageCategory value : values) {
+            codes.add(value.getTextEquivalent());
+        }
+        return codes.toArray(new String[codes.size()]);
+    }
+
+    private static String[] codes(ImageRepresentation[] values) {
+        List<String> codes = new ArrayList<>();
+        for (ImageRepresentation value : values) {
+            codes.add(value.getTextEquivalent());
+        }
+        return codes.toArray(new String[codes.size()]);
+    }
+
+    private static String[] codes(ImageMode[] values) {
+        List<String> codes = new ArrayList<>();
+        for (ImageMode value : values) {
+            codes.add(value.getTextEquivalent());
+        }
+        return codes.toArray(new String[codes.size()]);
+    }
+
+    private static String[] codes(PixelValueType[] values) {
+        List<String> codes = new ArrayList<>();
+        for (PixelValueType value : values) {
+            codes.add(value.getTextEquivalent());
+        }
+        return codes.toArray(new String[codes.size()]);
+    }
+
+    private static String[] codes(GraphicColour[] values) {
+        List<String> codes = new ArrayList<>();
+        for (GraphicColour value : values) {
+            codes.add(value.getTextEquivalent());
+        }
+        return codes.toArray(new String[codes.size()]);
+    }
+
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * The codes for one enumeration, and the two ways of looking them up.
+     */
+    private abstract static class Lookup {
+        private final String name;
+        private final byte[][] codes;
+        private Object sink;
+
+        Lookup(String lookupName, String... codeValues) {
+            name = lookupName;
+            codes = new byte[codeValues.length + 1][];
+            for (int i = 0; i < codeValues.length; ++i) {
+                codes[i] = codeValues[i].getBytes(StandardCharsets.US_ASCII);
+            }
+            codes[codeValues.length] = NOT_FOUND_CODE.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        // The previous approach: decode the field to a String, then search values().
+        abstract Object linear(String code);
+
+        abstract Object table(byte[] code);
+
+        long lookupCount(int iterations) {
+            return (long) iterations * codes.length;
+        }
+
+        void check() {
+            for (byte[] code : codes) {
+                Object expected = linear(new String(code, StandardCharsets.UTF_8));
+                if (table(code) != expected) {
+                    throw new IllegalStateException(name + ": lookup mismatch for [" + new String(code, StandardCharsets.US_ASCII) + "]");
+                }
+            }
+        }
+
+        void run(int iterations) {
+            measure(iterations, false);
+            measure(iterations, true);
+        }
+
+        long[] measure(int iterations, boolean useTable) {
+            long bytesBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; ++i) {
+                for (byte[] code : codes) {
+                    if (useTable) {
+                        sink = table(code);
+                    } else {
+                        sink = linear(new String(code, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            return new long[] {elapsed, getAllocatedBytes() - bytesBefore};
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+
+import org.junit.Test;
+
+public class LazyImageSegmentHeaderTest {
+
+    @Test
+    public void testMatchesFullParse() throws ParseException, URISyntaxException {
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            assertNotNull("Test directory missing", getClass().getResource(directory));
+            for (File file : new File(getClass().getResource(directory).toURI()).listFiles()) {
+                AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+                NitfReader expectedReader = new FileReader(file);
+                NitfFileParser.parse(expectedReader, expected);
+
+                AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+                strategy.setLazyImageSegmentHeaders(true);
+                NitfReader reader = new FileReader(file);
+                NitfFileParser.parse(reader, strategy);
+
+                assertEquals(file.getName(), expectedReader.getCurrentOffset(), reader.getCurrentOffset());
+                assertEquals(file.getName(), expected.getImageSegmentHeaders().size(), strategy.getImageSegmentHeaders().size());
+                for (int i = 0; i < expected.getImageSegmentHeaders().size(); ++i) {
+                    checkSameHeader(file.getName(), expected.getImageSegmentHeaders().get(i), strategy.getImageSegmentHeaders().get(i));
+                    assertArrayEquals(file.getName(), expected.getImageSegmentData().get(i), strategy.getImageSegmentData().get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSettersReplaceDeferredFields() throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        strategy.setLazyImageSegmentHeaders(true);
+        NitfFileParser.parse(new FileReader(new File(getClass().getResource("/JitcNitf21Samples/i_3001a.ntf").toURI())), strategy);
+        NitfImageSegmentHeader header = strategy.getImageSegmentHeaders().get(0);
+
+        NitfSecurityMetadata securityMetadata = new NitfSecurityMetadata();
+        header.setSecurityMetadata(securityMetadata);
+        assertSame(securityMetadata, header.getSecurityMetadata());
+        header.setImageCoordinates(null);
+        assertNull(header.getImageCoordinates());
+
+        assertEquals(1, header.getNumBands());
+        header.addImageBand(new NitfImageBand());
+        assertEquals(2, header.getNumBands());
+        assertEquals("M", header.getImageBand(1).getImageRepresentation());
+    }
+
+    private void checkSameHeader(final String name, final NitfImageSegmentHeader expected, final NitfImageSegmentHeader actual) {
+        assertEquals(name, expected.getIdentifier(), actual.getIdentifier());
+        assertEquals(name, expected.getImageCategory(), actual.getImageCategory());
+        assertEquals(name, expected.getImageComments(), actual.getImageComments());
+        assertEquals(name, expected.getImageCompression(), actual.getImageCompression());
+        assertEquals(name, expected.getExtendedHeaderDataOverflow(), actual.getExtendedHeaderDataOverflow());
+        assertEquals(name, expected.getUserDefinedHeaderOverflow(), actual.getUserDefinedHeaderOverflow());
+
+        assertEquals(name, expected.getSecurityMetadata().getSecurityClassification(), actual.getSecurityMetadata().getSecurityClassification());
+        assertEquals(name, expected.getSecurityMetadata().getDowngradeEvent(), actual.getSecurityMetadata().getDowngradeEvent());
+        assertEquals(name, expected.getSecurityMetadata().getSecurityControlNumber(), actual.getSecurityMetadata().getSecurityControlNumber());
+
+        if (expected.getImageCoordinates() == null) {
+            assertNull(name, actual.getImageCoordinates());
+        } else {
+            ImageCoordinatePair expectedCorner = expected.getImageCoordinates().getCoordinateMaxRowMaxCol();
+            ImageCoordinatePair actualCorner = actual.getImageCoordinates().getCoordinateMaxRowMaxCol();
+            assertEquals(name, expectedCorner.getLatitude(), actualCorner.getLatitude(), 0.0);
+            assertEquals(name, expectedCorner.getLongitude(), actualCorner.getLongitude(), 0.0);
+        }
+
+        assertEquals(name, expected.getNumBands(), actual.getNumBands());
+        for (int i = 0; i < expected.getNumBands(); ++i) {
+            NitfImageBand expectedBand = expected.getImageBandZeroBase(i);
+            NitfImageBand actualBand = actual.getImageBandZeroBase(i);
+            assertEquals(name, expectedBand.getImageRepresentation(), actualBand.getImageRepresentation());
+            assertEquals(name, expectedBand.getSubCategory(), actualBand.getSubCategory());
+            assertEquals(name, expectedBand.getNumLUTs(), actualBand.getNumLUTs());
+            for (int j = 0; j < expectedBand.getNumLUTs(); ++j) {
+                assertArrayEquals(name, expectedBand.getLUTZeroBase(j).getEntries(), actualBand.getLUTZeroBase(j).getEntries());
+            }
+        }
+
+        assertEquals(name, expected.getTREsFlat(), actual.getTREsFlat());
+        assertEquals(name, expected.getTREsRawStructure().getUniqueNamesOfTRE(), actual.getTREsRawStructure().getUniqueNamesOfTRE());
+    }
+
+    @Test
+    public void testFailedDecodeStaysDeferred() {
+        // The subheader is too short to hold the coordinates.
+        DeferredImageSegmentFields fields = new DeferredImageSegmentFields(new byte[10], 0, FileType.NITF_TWO_ONE, null);
+        fields.setImageCoordinatesOffset(0, ImageCoordinatesRepresentation.GEOGRAPHIC);
+        NitfImageSegmentHeader header = new NitfImageSegmentHeader();
+        header.setDeferredFields(fields);
+        for (int i = 0; i < 2; ++i) {
+            try {
+                header.getImageCoordinates();
+                fail("Expected decode of coordinates to fail");
+            } catch (IllegalStateException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Could not decode deferred image segment coordinates"));
+            }
+            assertTrue(fields.hasImageCoordinates());
+        }
+    }
+}
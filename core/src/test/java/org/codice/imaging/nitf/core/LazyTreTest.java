@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LazyTreTest {
+
+    @Test
+    public void testMatchesFullParse() throws ParseException, URISyntaxException {
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            assertNotNull("Test directory missing", getClass().getResource(directory));
+            for (File file : new File(getClass().getResource(directory).toURI()).listFiles()) {
+                HeaderOnlyNitfParseStrategy expected = new HeaderOnlyNitfParseStrategy();
+                NitfFileParser.parse(new FileReader(file), expected);
+
+                for (boolean lazyImageSegmentHeaders : new boolean[] {false, true}) {
+                    HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+                    strategy.setLazyTREs(true);
+                    strategy.setLazyImageSegmentHeaders(lazyImageSegmentHeaders);
+                    NitfFileParser.parse(new FileReader(file), strategy);
+                    checkSameTREs(file.getName(), expected, strategy);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeferredSensrb() throws ParseException {
+        TreCollectionParser parser = new TreCollectionParser();
+        NitfReader nitfReader = new NitfInputStreamReader(new BufferedInputStream(getClass().getResourceAsStream("/SENSRB/SENSRB_minimal.txt")));
+        TreCollection parseResult = parser.parseDeferred(nitfReader, 320);
+        assertEquals(320, nitfReader.getCurrentOffset());
+        assertEquals(Arrays.asList("SENSRB"), parseResult.getUniqueNamesOfTRE());
+        Tre sensrb = parseResult.getTREsWithName("SENSRB").get(0);
+        assertEquals(45, sensrb.getEntries().size());
+        assertEquals("Y", sensrb.getFieldValue("GENERAL_DATA"));
+        assertEquals("SYERS2A", sensrb.getFieldValue("SENSOR").trim());
+    }
+
+    private void checkSameTREs(final String name, final SlottedNitfParseStrategy expected, final SlottedNitfParseStrategy actual) {
+        checkSameTREs(name, expected.getNitfHeader(), actual.getNitfHeader());
+        for (int i = 0; i < expected.getImageSegmentHeaders().size(); ++i) {
+            checkSameTREs(name, expected.getImageSegmentHeaders().get(i), actual.getImageSegmentHeaders().get(i));
+        }
+        for (int i = 0; i < expected.getGraphicSegmentHeaders().size(); ++i) {
+            checkSameTREs(name, expected.getGraphicSegmentHeaders().get(i), actual.getGraphicSegmentHeaders().get(i));
+        }
+        for (int i = 0; i < expected.getTextSegmentHeaders().size(); ++i) {
+            checkSameTREs(name, expected.getTextSegmentHeaders().get(i), actual.getTextSegmentHeaders().get(i));
+        }
+        for (int i = 0; i < expected.getDataExtensionSegmentHeaders().size(); ++i) {
+            checkSameTREs(name, expected.getDataExtensionSegmentHeaders().get(i), actual.getDataExtensionSegmentHeaders().get(i));
+        }
+    }
+
+    private void checkSameTREs(final String name, final AbstractNitfSegment expected, final AbstractNitfSegment actual) {
+        List<Tre> expectedTres = expected.getTREsRawStructure().getTREs();
+        List<Tre> actualTres = actual.getTREsRawStructure().getTREs();
+        assertEquals(name, expected.getTREsRawStructure().getUniqueNamesOfTRE(), actual.getTREsRawStructure().getUniqueNamesOfTRE());
+        assertEquals(name, expectedTres.size(), actualTres.size());
+        for (int i = 0; i < expectedTres.size(); ++i) {
+            assertEquals(name, expectedTres.get(i).getPrefix(), actualTres.get(i).getPrefix());
+            assertArrayEquals(name, expectedTres.get(i).getRawData(), actualTres.get(i).getRawData());
+        }
+        assertEquals(name, expected.getTREsFlat(), actual.getTREsFlat());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class MappedFileReaderTest {
+
+    private final String testfile = "/JitcNitf21Samples/i_3001a.ntf";
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testBadFilenameConstructorArgument() throws ParseException {
+        exception.expect(ParseException.class);
+        exception.expectMessage("no such file not found: no such file");
+        new MappedFileReader("no such file");
+    }
+
+    @Test
+    public void testHeaderParseMatchesFileReader() throws ParseException, URISyntaxException {
+        File file = getTestFile();
+        HeaderOnlyNitfParseStrategy fileReaderStrategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(file), fileReaderStrategy);
+
+        // A small window forces fields and segments to span several mappings.
+        HeaderOnlyNitfParseStrategy mappedStrategy = new HeaderOnlyNitfParseStrategy();
+        NitfReader reader = new MappedFileReader(file, 4096);
+        NitfFileParser.parse(reader, mappedStrategy);
+
+        assertEquals(file.length(), reader.getCurrentOffset());
+        assertEquals(fileReaderStrategy.getNitfHeader().getFileTitle(), mappedStrategy.getNitfHeader().getFileTitle());
+        assertEquals(fileReaderStrategy.getImageSegmentHeaders().size(), mappedStrategy.getImageSegmentHeaders().size());
+        NitfImageSegmentHeader expected = fileReaderStrategy.getImageSegmentHeaders().get(0);
+        NitfImageSegmentHeader actual = mappedStrategy.getImageSegmentHeaders().get(0);
+        assertEquals(expected.getIdentifier(), actual.getIdentifier());
+        assertEquals(expected.getNumberOfRows(), actual.getNumberOfRows());
+        assertEquals(expected.getImageDataLength(), actual.getImageDataLength());
+    }
+
+    @Test
+    public void testDataExtraction() throws ParseException, URISyntaxException {
+        File file = getTestFile();
+        AllDataExtractionParseStrategy fileReaderStrategy = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(file), fileReaderStrategy);
+
+        AllDataExtractionParseStrategy mappedStrategy = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new MappedFileReader(file, 65536), mappedStrategy);
+
+        assertArrayEquals(fileReaderStrategy.getImageSegmentData().get(0), mappedStrategy.getImageSegmentData().get(0));
+    }
+
+    @Test
+    public void testStreamsAreIndependentOfReader() throws ParseException, URISyntaxException, IOException {
+        File file = getTestFile();
+        MappedFileReader reader = new MappedFileReader(file, 1000);
+        reader.seekToAbsoluteOffset(990);
+        byte[] expected = reader.readBytesRaw(20);
+
+        InputStream is = reader.getInputStreamAt(990);
+        byte[] fromStream = new byte[20];
+        assertEquals(20, is.read(fromStream, 0, 20));
+        assertArrayEquals(expected, fromStream);
+
+        ImageInputStream iis = reader.getImageInputStreamAt(990);
+        byte[] fromImageStream = new byte[20];
+        iis.readFully(fromImageStream);
+        assertArrayEquals(expected, fromImageStream);
+        assertEquals(file.length(), iis.length());
+
+        assertEquals(1010, reader.getCurrentOffset());
+    }
+
+    @Test
+    public void testReadPastEndOfFile() throws ParseException, URISyntaxException {
+        MappedFileReader reader = new MappedFileReader(getTestFile());
+        reader.seekToEndOfFile();
+        reader.seekBackwards(2);
+        exception.expect(ParseException.class);
+        exception.expectMessage("end of file");
+        reader.readBytesRaw(3);
+    }
+
+    private File getTestFile() throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testfile));
+        return new File(getClass().getResource(testfile).toURI());
+    }
+}
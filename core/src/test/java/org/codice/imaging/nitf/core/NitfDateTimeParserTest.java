@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class NitfDateTimeParserTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Test
+    public void testNitf21MatchesSimpleDateFormat() throws ParseException {
+        Random random = new Random(1234);
+        Calendar calendar = Calendar.getInstance(UTC, Locale.US);
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmss", Locale.US);
+        format.setTimeZone(UTC);
+        for (int i = 0; i < 10000; ++i) {
+            calendar.clear();
+            calendar.set(1900 + random.nextInt(200), random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+                         random.nextInt(60));
+            calendar.add(Calendar.DAY_OF_MONTH, random.nextInt(4));
+            String value = format.format(calendar.getTime());
+            for (int length = 4; length <= 14; length += 2) {
+                String truncated = value.substring(0, length) + "--------------".substring(length);
+                checkNitf21(truncated, "yyyyMMddHHmmss".substring(0, length));
+            }
+        }
+    }
+
+    @Test
+    public void testNitf21PartialForms() throws ParseException {
+        NitfDateTime dateTime = new NitfDateTime();
+        assertTrue(NitfDateTimeParser.parseNitf21("2014070423----", dateTime));
+        assertDateTime(dateTime, 2014, 7, 4, 23, 0, 0);
+        assertTrue(NitfDateTimeParser.parseNitf21("20140704      ", dateTime));
+        assertDateTime(dateTime, 2014, 7, 4, 0, 0, 0);
+        assertTrue(NitfDateTimeParser.parseNitf21("2016----------", dateTime));
+        assertDateTime(dateTime, 2016, 1, 1, 0, 0, 0);
+        assertTrue(NitfDateTimeParser.parseNitf21("20160229235959", dateTime));
+        assertDateTime(dateTime, 2016, 2, 29, 23, 59, 59);
+    }
+
+    @Test
+    public void testNitf21NotHandled() {
+        NitfDateTime dateTime = new NitfDateTime();
+        // out of range, which SimpleDateFormat rolls over
+        assertFalse(NitfDateTimeParser.parseNitf21("20150229000000", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf21("20141304000000", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf21("20140704240000", dateTime));
+        // not whole fields, or not digits
+        assertFalse(NitfDateTimeParser.parseNitf21("2014070-------", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf21("20140704 12---", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf21(" 20140704-----", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf21("              ", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf21("--------------", dateTime));
+    }
+
+    @Test
+    public void testNitf20MatchesSimpleDateFormat() throws ParseException {
+        Random random = new Random(5678);
+        Calendar calendar = Calendar.getInstance(UTC, Locale.US);
+        SimpleDateFormat format = new SimpleDateFormat("ddHHmmss'Z'MMMyy", Locale.US);
+        format.setTimeZone(UTC);
+        for (int i = 0; i < 10000; ++i) {
+            calendar.clear();
+            calendar.set(1960 + random.nextInt(70), random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+                         random.nextInt(60));
+            String value = format.format(calendar.getTime()).toUpperCase(Locale.US);
+            NitfDateTime dateTime = new NitfDateTime();
+            if (NitfDateTimeParser.parseNitf20(value, dateTime)) {
+                assertEquals(value, format.parse(value), dateTime.toDate());
+            }
+        }
+    }
+
+    @Test
+    public void testNitf20() {
+        NitfDateTime dateTime = new NitfDateTime();
+        assertTrue(NitfDateTimeParser.parseNitf20("11101520ZAPR94", dateTime));
+        assertDateTime(dateTime, 1994, 4, 11, 10, 15, 20);
+        assertTrue(NitfDateTimeParser.parseNitf20("01000000Zjan05", dateTime));
+        assertDateTime(dateTime, 2005, 1, 1, 0, 0, 0);
+        assertFalse(NitfDateTimeParser.parseNitf20("11101520XAPR94", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf20("11101520ZABC94", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf20("31101520ZAPR94", dateTime));
+        assertFalse(NitfDateTimeParser.parseNitf20("1110152ZAPR94", dateTime));
+    }
+
+    private static void checkNitf21(final String value, final String pattern) throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(UTC);
+        NitfDateTime dateTime = new NitfDateTime();
+        assertTrue(value, NitfDateTimeParser.parseNitf21(value, dateTime));
+        assertEquals(value, format.parse(value), dateTime.toDate());
+    }
+
+    private static void assertDateTime(final NitfDateTime dateTime, final int year, final int month, final int day, final int hour,
+                                       final int minute, final int second) {
+        Calendar calendar = Calendar.getInstance(UTC, Locale.US);
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, second);
+        assertEquals(calendar.getTime(), dateTime.toDate());
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class NitfFieldEventParserTest {
+
+    private static final String STREAMING_MODE_FILE = "/JitcNitf21Samples/ns3321a.nsf";
+
+    @Test
+    public void testMatchesFullParse() throws ParseException, URISyntaxException {
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            assertNotNull("Test directory missing", getClass().getResource(directory));
+            for (File file : new File(getClass().getResource(directory).toURI()).listFiles()) {
+                HeaderOnlyNitfParseStrategy expected = new HeaderOnlyNitfParseStrategy();
+                NitfFileParser.parse(new FileReader(file), expected);
+
+                FileReader reader = new FileReader(file);
+                RecordingListener listener = new RecordingListener();
+                NitfFieldEventParser.parse(reader, listener);
+                if (!STREAMING_MODE_FILE.endsWith(file.getName())) {
+                    assertEquals(file.getName(), file.length(), reader.getCurrentOffset());
+                }
+                assertEquals(file.getName(), expected.getNitfHeader().getFileTitle(), listener.fileTitle.trim());
+                assertEquals(file.getName(), expected.getNitfHeader().getTREsRawStructure().getUniqueNamesOfTRE(), listener.fileHeaderTreNames);
+                for (int i = 0; i < expected.getImageSegmentHeaders().size(); ++i) {
+                    NitfImageSegmentHeader header = expected.getImageSegmentHeaders().get(i);
+                    assertEquals(file.getName(), header.getTREsRawStructure().getUniqueNamesOfTRE(), listener.imageTreNames.get(i));
+                }
+                for (SegmentType segmentType : SegmentType.values()) {
+                    List<? extends AbstractCommonNitfSegment> headers = getSegmentHeaders(expected, segmentType);
+                    assertEquals(file.getName() + " " + segmentType, headers.size(), listener.getIdentifiers(segmentType).size());
+                    for (int i = 0; i < headers.size(); ++i) {
+                        assertEquals(file.getName(), headers.get(i).getIdentifier().trim(), listener.getIdentifiers(segmentType).get(i).trim());
+                        assertEquals(file.getName(), headers.get(i).getSecurityMetadata().getSecurityClassification(),
+                                     NitfSecurityClassification.getEnumValue(listener.getClassifications(segmentType).get(i)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStreamingModeFileHeaderReportedOnce() throws ParseException, URISyntaxException {
+        RecordingListener listener = new RecordingListener();
+        NitfFieldEventParser.parse(new FileReader(new File(getClass().getResource(STREAMING_MODE_FILE).toURI())), listener);
+        assertEquals(1, listener.fileTitleCount);
+        assertNotEquals(String.valueOf(NitfConstants.STREAMING_FILE_MODE), listener.fileLength);
+        assertEquals(1, listener.getIdentifiers(SegmentType.IMAGE).size());
+    }
+
+    @Test
+    public void testFieldValueSubSequence() throws ParseException, URISyntaxException {
+        final List<String> fileDateTimes = new ArrayList<>();
+        NitfFieldEventParser.parse(new FileReader(new File(getClass().getResource("/JitcNitf21Samples/i_3001a.ntf").toURI())),
+                new RecordingListener() {
+                    @Override
+                    public void onField(final SegmentType segmentType, final int segmentIndex, final String fieldId, final CharSequence value) {
+                        if ((segmentType == null) && ("FDT".equals(fieldId))) {
+                            assertSame(value, value.subSequence(0, value.length()));
+                            fileDateTimes.add(value.subSequence(0, 4).toString());
+                            fileDateTimes.add(value.subSequence(4, 6).subSequence(1, 2).toString());
+                        }
+                    }
+                });
+        assertEquals(Arrays.asList("1997", "2"), fileDateTimes);
+    }
+
+    private static List<? extends AbstractCommonNitfSegment> getSegmentHeaders(final SlottedNitfParseStrategy strategy,
+            final SegmentType segmentType) {
+        switch (segmentType) {
+            case IMAGE:
+                return strategy.getImageSegmentHeaders();
+            case GRAPHIC:
+                return strategy.getGraphicSegmentHeaders();
+            case SYMBOL:
+                return strategy.getSymbolSegmentHeaders();
+            case LABEL:
+                return strategy.getLabelSegmentHeaders();
+            case TEXT:
+                return strategy.getTextSegmentHeaders();
+            default:
+                return strategy.getDataExtensionSegmentHeaders();
+        }
+    }
+
+    private static class RecordingListener implements NitfFieldListener {
+        private static final Map<SegmentType, String> IDENTIFIER_FIELDS = new EnumMap<>(SegmentType.class);
+        private static final Map<SegmentType, String> CLASSIFICATION_FIELDS = new EnumMap<>(SegmentType.class);
+
+        static {
+            IDENTIFIER_FIELDS.put(SegmentType.IMAGE, "IID1");
+            IDENTIFIER_FIELDS.put(SegmentType.GRAPHIC, "SID");
+            IDENTIFIER_FIELDS.put(SegmentType.SYMBOL, "SID");
+            IDENTIFIER_FIELDS.put(SegmentType.LABEL, "LID");
+            IDENTIFIER_FIELDS.put(SegmentType.TEXT, "TEXTID");
+            IDENTIFIER_FIELDS.put(SegmentType.DATA_EXTENSION, "DESID");
+            CLASSIFICATION_FIELDS.put(SegmentType.IMAGE, "ISCLAS");
+            CLASSIFICATION_FIELDS.put(SegmentType.GRAPHIC, "SSCLAS");
+            CLASSIFICATION_FIELDS.put(SegmentType.SYMBOL, "SSCLAS");
+            CLASSIFICATION_FIELDS.put(SegmentType.LABEL, "LSCLAS");
+            CLASSIFICATION_FIELDS.put(SegmentType.TEXT, "TSCLAS");
+            CLASSIFICATION_FIELDS.put(SegmentType.DATA_EXTENSION, "DESCLAS");
+        }
+
+        private String fileTitle = null;
+        private int fileTitleCount = 0;
+        private String fileLength = null;
+        private final List<String> fileHeaderTreNames = new ArrayList<>();
+        private final List<List<String>> imageTreNames = new ArrayList<>();
+        private final Map<SegmentType, List<String>> identifiers = new EnumMap<>(SegmentType.class);
+        private final Map<SegmentType, List<String>> classifications = new EnumMap<>(SegmentType.class);
+
+        List<String> getIdentifiers(final SegmentType segmentType) {
+            return getValues(identifiers, segmentType);
+        }
+
+        List<String> getClassifications(final SegmentType segmentType) {
+            return getValues(classifications, segmentType);
+        }
+
+        private static List<String> getValues(final Map<SegmentType, List<String>> values, final SegmentType segmentType) {
+            if (!values.containsKey(segmentType)) {
+                values.put(segmentType, new ArrayList<String>());
+            }
+            return values.get(segmentType);
+        }
+
+        @Override
+        public void onSegmentStart(final SegmentType segmentType, final int segmentIndex) {
+            if (segmentType == SegmentType.IMAGE) {
+                imageTreNames.add(new ArrayList<String>());
+            }
+        }
+
+        @Override
+        public void onField(final SegmentType segmentType, final int segmentIndex, final String fieldId, final CharSequence value) {
+            if ((segmentType == null) && ("FTITLE".equals(fieldId))) {
+                fileTitle = value.toString();
+                ++fileTitleCount;
+            } else if ((segmentType == null) && ("FL".equals(fieldId))) {
+                fileLength = value.toString();
+            } else if ((segmentType != null) && (IDENTIFIER_FIELDS.get(segmentType).equals(fieldId))) {
+                getIdentifiers(segmentType).add(value.toString());
+            } else if ((segmentType != null) && (CLASSIFICATION_FIELDS.get(segmentType).equals(fieldId))) {
+                getClassifications(segmentType).add(value.toString());
+            }
+        }
+
+        @Override
+        public void onTreStart(final SegmentType segmentType, final int segmentIndex, final CharSequence tag, final int length) {
+            List<String> names = fileHeaderTreNames;
+            if (segmentType == SegmentType.IMAGE) {
+                names = imageTreNames.get(segmentIndex);
+            } else if (segmentType != null) {
+                return;
+            }
+            String name = tag.toString();
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+
+        @Override
+        public void onTreEnd(final SegmentType segmentType, final int segmentIndex) {
+        }
+
+        @Override
+        public void onSegmentEnd(final SegmentType segmentType, final int segmentIndex) {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NitfFileHeaderLengthTest {
+
+    private static final int FL_OFFSET = 342;
+    private static final int FL_LENGTH = 12;
+    private static final int HL_OFFSET = 354;
+    private static final int HL_LENGTH = 6;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] original;
+    private int headerLength;
+    private AllDataExtractionParseStrategy expected;
+
+    @Before
+    public void readSample() throws Exception {
+        original = Files.readAllBytes(new File(getClass().getResource("/JitcNitf21Samples/i_3034c.ntf").toURI()).toPath());
+        headerLength = Integer.parseInt(new String(original, HL_OFFSET, HL_LENGTH, StandardCharsets.US_ASCII));
+        expected = parseSeekable(original);
+        assertEquals(headerLength, expected.getNitfHeader().getHeaderLength());
+    }
+
+    @Test
+    public void testHeaderLengthMatchesFields() throws Exception {
+        assertParsedLike(parseSeekable(original), headerLength);
+        assertParsedLike(parseStream(original), headerLength);
+    }
+
+    @Test
+    public void testHeaderLengthLargerThanFields() throws Exception {
+        int padding = 17;
+        byte[] padded = new byte[original.length + padding];
+        System.arraycopy(original, 0, padded, 0, headerLength);
+        Arrays.fill(padded, headerLength, headerLength + padding, (byte) ' ');
+        System.arraycopy(original, headerLength, padded, headerLength + padding, original.length - headerLength);
+        setNumber(padded, FL_OFFSET, FL_LENGTH, padded.length);
+        setNumber(padded, HL_OFFSET, HL_LENGTH, headerLength + padding);
+
+        assertParsedLike(parseSeekable(padded), headerLength + padding);
+        assertParsedLike(parseStream(padded), headerLength + padding);
+    }
+
+    @Test
+    public void testHeaderLengthSmallerThanFields() throws Exception {
+        int shortfall = 11;
+        byte[] truncated = original.clone();
+        setNumber(truncated, HL_OFFSET, HL_LENGTH, headerLength - shortfall);
+
+        assertParsedLike(parseSeekable(truncated), headerLength - shortfall);
+        assertParsedLike(parseStream(truncated), headerLength - shortfall);
+    }
+
+    @Test
+    public void testBadHeaderLengthReportsFileOffset() throws Exception {
+        byte[] bad = original.clone();
+        System.arraycopy("ABCDEF".getBytes(StandardCharsets.US_ASCII), 0, bad, HL_OFFSET, HL_LENGTH);
+        try {
+            parseSeekable(bad);
+            fail("Expected ParseException");
+        } catch (ParseException ex) {
+            assertEquals(HL_OFFSET + HL_LENGTH, ex.getErrorOffset());
+        }
+        try {
+            parseStream(bad);
+            fail("Expected ParseException");
+        } catch (ParseException ex) {
+            assertEquals(HL_OFFSET + HL_LENGTH, ex.getErrorOffset());
+        }
+    }
+
+    private void assertParsedLike(final AllDataExtractionParseStrategy actual, final long actualHeaderLength) {
+        Nitf expectedHeader = expected.getNitfHeader();
+        Nitf actualHeader = actual.getNitfHeader();
+        assertEquals(actualHeaderLength, actualHeader.getHeaderLength());
+        assertEquals(expectedHeader.getFileTitle(), actualHeader.getFileTitle());
+        assertEquals(expectedHeader.getOriginatorsName(), actualHeader.getOriginatorsName());
+        assertEquals(expectedHeader.getImageSegmentSubHeaderLengths(), actualHeader.getImageSegmentSubHeaderLengths());
+        assertEquals(expectedHeader.getImageSegmentDataLengths(), actualHeader.getImageSegmentDataLengths());
+        assertEquals(expected.getImageSegmentHeaders().size(), actual.getImageSegmentHeaders().size());
+        for (int i = 0; i < expected.getImageSegmentHeaders().size(); ++i) {
+            assertEquals(expected.getImageSegmentHeaders().get(i).getIdentifier(), actual.getImageSegmentHeaders().get(i).getIdentifier());
+            assertArrayEquals(expected.getImageSegmentData().get(i), actual.getImageSegmentData().get(i));
+        }
+    }
+
+    private AllDataExtractionParseStrategy parseSeekable(final byte[] bytes) throws ParseException, IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), bytes);
+        AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(file), strategy);
+        return strategy;
+    }
+
+    private AllDataExtractionParseStrategy parseStream(final byte[] bytes) throws ParseException {
+        AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new NitfInputStreamReader(new ByteArrayInputStream(bytes)), strategy);
+        return strategy;
+    }
+
+    private static void setNumber(final byte[] bytes, final int offset, final int length, final long value) {
+        String formatted = String.format("%0" + length + "d", value);
+        System.arraycopy(formatted.getBytes(StandardCharsets.US_ASCII), 0, bytes, offset, length);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.text.ParseException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NitfHeaderCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRepeatParseUsesCache() throws IOException, ParseException, URISyntaxException {
+        NitfHeaderCache cache = new NitfHeaderCache(temporaryFolder.newFolder("cache"));
+        int fileCount = 0;
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            assertNotNull("Test directory missing", getClass().getResource(directory));
+            for (File file : new File(getClass().getResource(directory).toURI()).listFiles()) {
+                SlottedNitfParseStrategy parsed = cache.parse(file);
+                SlottedNitfParseStrategy cached = cache.parse(file);
+                checkSameHeaders(file.getName(), parsed, cached);
+                fileCount++;
+            }
+        }
+        assertEquals(fileCount, cache.getMissCount());
+        assertEquals(fileCount, cache.getHitCount());
+    }
+
+    @Test
+    public void testCacheFileWithOtherClassesIsNotRead() throws IOException, ParseException, URISyntaxException {
+        File directory = temporaryFolder.newFolder("cache");
+        File file = new File(getClass().getResource("/JitcNitf21Samples/i_3034c.ntf").toURI());
+        NitfHeaderCache cache = new NitfHeaderCache(directory);
+        cache.parse(file);
+        File[] cacheFiles = directory.listFiles();
+        assertEquals(1, cacheFiles.length);
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(cacheFiles[0]))) {
+            out.writeObject(new UnexpectedClass());
+        }
+
+        SlottedNitfParseStrategy parsed = cache.parse(file);
+        assertFalse(UnexpectedClass.deserialized);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+        assertTrue(parsed.getNitfHeader().getFileTitle().startsWith("Check an RGB/LUT 1 bit image"));
+        checkSameHeaders(file.getName(), parsed, cache.parse(file));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testChangedFileIsParsedAgain() throws IOException, ParseException, URISyntaxException {
+        File source = new File(getClass().getResource("/JitcNitf21Samples/i_3034c.ntf").toURI());
+        File file = new File(temporaryFolder.getRoot(), "copy.ntf");
+        Files.copy(source.toPath(), file.toPath());
+        NitfHeaderCache cache = new NitfHeaderCache(temporaryFolder.newFolder("cache"));
+        cache.setVerifyHeaderHash(true);
+
+        cache.parse(file);
+        cache.parse(file);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        // Rewrite the file title in place, keeping the length and modification time.
+        long lastModified = file.lastModified();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(39);
+            randomAccessFile.write("Changed title".getBytes("US-ASCII"));
+        }
+        assertTrue(file.setLastModified(lastModified));
+        assertTrue(cache.parse(file).getNitfHeader().getFileTitle().startsWith("Changed title"));
+        assertEquals(2, cache.getMissCount());
+
+        assertTrue(file.setLastModified(lastModified + 2000));
+        cache.parse(file);
+        assertEquals(3, cache.getMissCount());
+        cache.parse(file);
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void testSerializeLazyHeaders() throws IOException, ClassNotFoundException, ParseException, URISyntaxException {
+        File file = new File(getClass().getResource("/JitcNitf21Samples/i_3034c.ntf").toURI());
+        HeaderOnlyNitfParseStrategy expected = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(file), expected);
+        HeaderOnlyNitfParseStrategy lazy = new HeaderOnlyNitfParseStrategy();
+        lazy.setLazyImageSegmentHeaders(true);
+        lazy.setLazyTREs(true);
+        NitfFileParser.parse(new FileReader(file), lazy);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(lazy.getImageSegmentHeaders().get(0));
+        }
+        NitfImageSegmentHeader restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (NitfImageSegmentHeader) in.readObject();
+        }
+        checkSameImageHeader(file.getName(), expected.getImageSegmentHeaders().get(0), restored);
+    }
+
+    private void checkSameHeaders(final String name, final SlottedNitfParseStrategy expected, final SlottedNitfParseStrategy actual) {
+        assertEquals(name, expected.getNitfHeader().getFileTitle(), actual.getNitfHeader().getFileTitle());
+        assertEquals(name, expected.getNitfHeader().getFileType(), actual.getNitfHeader().getFileType());
+        assertEquals(name, expected.getNitfHeader().getFileSecurityMetadata().getSecurityClassification(),
+                     actual.getNitfHeader().getFileSecurityMetadata().getSecurityClassification());
+        assertEquals(name, expected.getNitfHeader().getTREsFlat(), actual.getNitfHeader().getTREsFlat());
+        assertEquals(name, expected.getSegmentDirectory().getEndOffset(), actual.getSegmentDirectory().getEndOffset());
+        assertEquals(name, expected.getImageSegmentHeaders().size(), actual.getImageSegmentHeaders().size());
+        for (int i = 0; i < expected.getImageSegmentHeaders().size(); ++i) {
+            checkSameImageHeader(name, expected.getImageSegmentHeaders().get(i), actual.getImageSegmentHeaders().get(i));
+        }
+        assertEquals(name, expected.getGraphicSegmentHeaders().size(), actual.getGraphicSegmentHeaders().size());
+        assertEquals(name, expected.getSymbolSegmentHeaders().size(), actual.getSymbolSegmentHeaders().size());
+        assertEquals(name, expected.getLabelSegmentHeaders().size(), actual.getLabelSegmentHeaders().size());
+        assertEquals(name, expected.getTextSegmentHeaders().size(), actual.getTextSegmentHeaders().size());
+        for (int i = 0; i < expected.getTextSegmentHeaders().size(); ++i) {
+            assertEquals(name, expected.getTextSegmentHeaders().get(i).getTextTitle(), actual.getTextSegmentHeaders().get(i).getTextTitle());
+        }
+        assertEquals(name, expected.getDataExtensionSegmentHeaders().size(), actual.getDataExtensionSegmentHeaders().size());
+    }
+
+    private void checkSameImageHeader(final String name, final NitfImageSegmentHeader expected, final NitfImageSegmentHeader actual) {
+        assertEquals(name, expected.getIdentifier(), actual.getIdentifier());
+        assertEquals(name, expected.getSecurityMetadata().getSecurityClassification(), actual.getSecurityMetadata().getSecurityClassification());
+        assertEquals(name, expected.getNumberOfRows(), actual.getNumberOfRows());
+        assertEquals(name, expected.getNumBands(), actual.getNumBands());
+        for (int i = 0; i < expected.getNumBands(); ++i) {
+            assertEquals(name, expected.getImageBand(i + 1).getImageRepresentation(), actual.getImageBand(i + 1).getImageRepresentation());
+            assertEquals(name, expected.getImageBand(i + 1).getNumLUTs(), actual.getImageBand(i + 1).getNumLUTs());
+        }
+        if (expected.getImageCoordinates() != null) {
+            assertEquals(name, expected.getImageCoordinates().getCoordinate00().getLatitude(),
+                         actual.getImageCoordinates().getCoordinate00().getLatitude(), 0.0);
+        }
+        assertEquals(name, expected.getTREsFlat(), actual.getTREsFlat());
+    }
+
+    private static final class UnexpectedClass implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private static boolean deserialized = false;
+
+        private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            deserialized = true;
+        }
+    }
+}
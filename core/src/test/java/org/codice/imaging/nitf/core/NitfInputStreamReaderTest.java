@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class NitfInputStreamReaderTest {
+
+    private final String testfile = "/JitcNitf20Samples/U_1122A.NTF";
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    /**
+     * Stream that behaves like a slow pipe: reads return at most a few bytes, and skip never skips.
+     */
+    private static class TricklingInputStream extends ByteArrayInputStream {
+        private static final int MAX_READ = 7;
+
+        TricklingInputStream(final byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public synchronized int read(final byte[] destination, final int offset, final int length) {
+            return super.read(destination, offset, Math.min(length, MAX_READ));
+        }
+
+        @Override
+        public synchronized long skip(final long count) {
+            return 0;
+        }
+    }
+
+    @Test
+    public void testShortReadsAndFailedSkips() throws Exception {
+        File file = getTestFile();
+        AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(file), expected);
+
+        for (int bufferSize : new int[] {1, 100, NitfInputStreamReader.DEFAULT_BUFFER_SIZE}) {
+            InputStream is = new TricklingInputStream(Files.readAllBytes(file.toPath()));
+            NitfReader reader = new NitfInputStreamReader(is, bufferSize);
+            AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+            NitfFileParser.parse(reader, strategy);
+
+            assertEquals(file.length(), reader.getCurrentOffset());
+            assertEquals(expected.getImageSegmentData().size(), strategy.getImageSegmentData().size());
+            for (int i = 0; i < expected.getImageSegmentData().size(); ++i) {
+                assertArrayEquals(expected.getImageSegmentData().get(i), strategy.getImageSegmentData().get(i));
+            }
+            assertEquals(expected.getTextSegmentData(), strategy.getTextSegmentData());
+        }
+    }
+
+    @Test
+    public void testReadsAcrossBuffer() throws Exception {
+        byte[] content = new byte[1000];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) i;
+        }
+        NitfReader reader = new NitfInputStreamReader(new TricklingInputStream(content), 64);
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 10), reader.readBytesRaw(10));
+        reader.skip(100);
+        assertArrayEquals(Arrays.copyOfRange(content, 110, 310), reader.readBytesRaw(200));
+        reader.skip(5);
+        assertArrayEquals(Arrays.copyOfRange(content, 315, 320), reader.readBytesRaw(5));
+        assertEquals(320, reader.getCurrentOffset());
+    }
+
+    @Test
+    public void testSkipPastEndOfFile() throws ParseException, IOException {
+        NitfReader reader = new NitfInputStreamReader(new TricklingInputStream(new byte[100]));
+        exception.expect(ParseException.class);
+        exception.expectMessage("End of file reading from NITF stream.");
+        reader.skip(101);
+    }
+
+    @Test
+    public void testReadPastEndOfFile() throws ParseException, IOException {
+        NitfReader reader = new NitfInputStreamReader(new TricklingInputStream(new byte[100]), 10);
+        reader.skip(50);
+        exception.expect(ParseException.class);
+        exception.expectMessage("End of file reading from NITF stream.");
+        reader.readBytesRaw(51);
+    }
+
+    private File getTestFile() throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testfile));
+        return new File(getClass().getResource(testfile).toURI());
+    }
+}
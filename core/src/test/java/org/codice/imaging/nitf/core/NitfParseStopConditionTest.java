@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+
+import org.junit.Test;
+
+public class NitfParseStopConditionTest {
+
+    @Test
+    public void testStopAfterFileHeader() throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        strategy.setStopCondition(NitfParseStopConditions.afterFileHeader());
+        NitfReader reader = new FileReader(getSample("ns3361c.nsf"));
+        NitfFileParser.parse(reader, strategy);
+
+        assertTrue(strategy.isStoppedEarly());
+        assertTrue(strategy.getNitfHeader().getFileTitle().startsWith("Boston_1"));
+        assertEquals(0, strategy.getImageSegmentHeaders().size());
+        assertEquals(strategy.getNitfHeader().getHeaderLength(), reader.getCurrentOffset());
+        assertEquals(4, strategy.getSegmentDirectory().getNumberOfSegments(SegmentType.IMAGE));
+    }
+
+    @Test
+    public void testStopAfterImageSegments() throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        strategy.setStopCondition(NitfParseStopConditions.afterImageSegments(2));
+        NitfReader reader = new FileReader(getSample("ns3361c.nsf"));
+        NitfFileParser.parse(reader, strategy);
+
+        assertTrue(strategy.isStoppedEarly());
+        assertEquals(2, strategy.getImageSegmentHeaders().size());
+        assertEquals(strategy.getSegmentDirectory().getHeaderOffset(SegmentType.IMAGE, 2), reader.getCurrentOffset());
+    }
+
+    @Test
+    public void testCustomCondition() throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        strategy.setStopCondition(new NitfParseStopCondition() {
+            @Override
+            public boolean shouldStop(final SlottedNitfParseStrategy parsed) {
+                for (NitfImageSegmentHeader header : parsed.getImageSegmentHeaders()) {
+                    if (header.getImageLocationColumn() > 0) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+        NitfFileParser.parse(new FileReader(getSample("ns3361c.nsf")), strategy);
+
+        assertTrue(strategy.isStoppedEarly());
+        int last = strategy.getImageSegmentHeaders().size() - 1;
+        assertTrue(last < 3);
+        for (int i = 0; i < last; ++i) {
+            assertEquals(0, strategy.getImageSegmentHeaders().get(i).getImageLocationColumn());
+        }
+        assertTrue(strategy.getImageSegmentHeaders().get(last).getImageLocationColumn() > 0);
+    }
+
+    @Test
+    public void testConditionNotMet() throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        strategy.setStopCondition(NitfParseStopConditions.afterImageSegments(5));
+        NitfFileParser.parse(new FileReader(getSample("ns3361c.nsf")), strategy);
+
+        assertFalse(strategy.isStoppedEarly());
+        assertEquals(4, strategy.getImageSegmentHeaders().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeImageSegmentCount() {
+        NitfParseStopConditions.afterImageSegments(-1);
+    }
+
+    private File getSample(final String name) throws URISyntaxException {
+        return new File(getClass().getResource("/JitcNitf21Samples/" + name).toURI());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import org.junit.Test;
+
+public class NitfSecurityMetadataSharingTest {
+
+    private static final SecurityMetadataPool POOL = new SecurityMetadataPool();
+
+    @Test
+    public void testSegmentsShareSecurityMetadata() throws ParseException, URISyntaxException {
+        SecurityMetadataPool pool = new SecurityMetadataPool();
+        SlottedNitfParseStrategy first = parse("/JitcNitf21Samples/ns3361c.nsf", pool);
+        SlottedNitfParseStrategy second = parse("/JitcNitf21Samples/ns3361c.nsf", pool);
+        NitfSecurityMetadata securityMetadata = first.getImageSegmentHeaders().get(0).getSecurityMetadata();
+        assertTrue(securityMetadata.isShared());
+        assertEquals(4, first.getImageSegmentHeaders().size());
+        for (int i = 0; i < first.getImageSegmentHeaders().size(); ++i) {
+            assertSame(securityMetadata, first.getImageSegmentHeaders().get(i).getSecurityMetadata());
+            assertSame(securityMetadata, second.getImageSegmentHeaders().get(i).getSecurityMetadata());
+        }
+        assertFalse(first.getNitfHeader().getFileSecurityMetadata().isShared());
+        assertEquals(1, pool.size());
+
+        SlottedNitfParseStrategy otherPool = parse("/JitcNitf21Samples/ns3361c.nsf", new SecurityMetadataPool());
+        assertNotSame(securityMetadata, otherPool.getImageSegmentHeaders().get(0).getSecurityMetadata());
+    }
+
+    @Test
+    public void testNotSharedByDefault() throws ParseException, URISyntaxException {
+        SlottedNitfParseStrategy parsed = parse("/JitcNitf21Samples/ns3361c.nsf", null);
+        NitfSecurityMetadata securityMetadata = parsed.getImageSegmentHeaders().get(0).getSecurityMetadata();
+        assertFalse(securityMetadata.isShared());
+        assertNotSame(securityMetadata, parsed.getImageSegmentHeaders().get(1).getSecurityMetadata());
+        securityMetadata.setCodewords("CHANGED");
+        assertEquals("CHANGED", securityMetadata.getCodewords());
+    }
+
+    @Test
+    public void testLazyImageSegmentHeadersShareSecurityMetadata() throws ParseException, URISyntaxException {
+        SecurityMetadataPool pool = new SecurityMetadataPool();
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        strategy.setSecurityMetadataPool(pool);
+        strategy.setLazyImageSegmentHeaders(true);
+        NitfFileParser.parse(new FileReader(new File(getClass().getResource("/JitcNitf21Samples/ns3361c.nsf").toURI())), strategy);
+        NitfSecurityMetadata securityMetadata = strategy.getImageSegmentHeaders().get(0).getSecurityMetadata();
+        assertTrue(securityMetadata.isShared());
+        assertSame(securityMetadata, strategy.getImageSegmentHeaders().get(1).getSecurityMetadata());
+    }
+
+    @Test
+    public void testPoolLimit() throws ParseException {
+        SecurityMetadataPool pool = new SecurityMetadataPool(1);
+        byte[] first = String.format("%-167s", "U").getBytes(StandardCharsets.US_ASCII);
+        byte[] second = String.format("%-167s", "R").getBytes(StandardCharsets.US_ASCII);
+        NitfSecurityMetadata pooled = parseShared(first, FileType.NITF_TWO_ONE, first.length, pool);
+        NitfSecurityMetadata notPooled = parseShared(second, FileType.NITF_TWO_ONE, second.length, pool);
+        assertEquals(1, pool.size());
+        assertSame(pooled, parseShared(first, FileType.NITF_TWO_ONE, first.length, pool));
+        assertNotSame(notPooled, parseShared(second, FileType.NITF_TWO_ONE, second.length, pool));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSharedSecurityMetadataCannotBeModified() throws ParseException, URISyntaxException {
+        SlottedNitfParseStrategy parsed = parse("/JitcNitf21Samples/i_3034c.ntf", new SecurityMetadataPool());
+        parsed.getImageSegmentHeaders().get(0).getSecurityMetadata().setCodewords("CHANGED");
+    }
+
+    @Test
+    public void testCopyCanBeModified() throws ParseException, URISyntaxException {
+        NitfSecurityMetadata shared = parse("/JitcNitf21Samples/i_3034c.ntf", new SecurityMetadataPool())
+                .getImageSegmentHeaders().get(0).getSecurityMetadata();
+        NitfSecurityMetadata copy = new NitfSecurityMetadata(shared);
+        assertFalse(copy.isShared());
+        assertEquals(shared.getSecurityClassification(), copy.getSecurityClassification());
+        assertEquals(shared.getSecurityClassificationSystem(), copy.getSecurityClassificationSystem());
+        assertEquals(shared.getClassificationText(), copy.getClassificationText());
+        assertEquals(shared.getSecurityControlNumber(), copy.getSecurityControlNumber());
+        copy.setCodewords("CHANGED");
+        assertEquals("CHANGED", copy.getCodewords());
+        assertFalse("CHANGED".equals(shared.getCodewords()));
+    }
+
+    @Test
+    public void testVersionIsPartOfKey() throws ParseException {
+        // NITF 2.0 and 2.1 security metadata are both 167 bytes, but the fields differ.
+        byte[] raw = String.format("%-167s", "UABCDEFGHIJKLMNOP").getBytes(StandardCharsets.US_ASCII);
+        NitfSecurityMetadata nitf21 = parseShared(raw, FileType.NITF_TWO_ONE, raw.length);
+        NitfSecurityMetadata nitf20 = parseShared(raw, FileType.NITF_TWO_ZERO, raw.length);
+        assertNotSame(nitf21, nitf20);
+        assertEquals("AB", nitf21.getSecurityClassificationSystem());
+        assertEquals("ABCDEFGHIJKLMNOP", nitf20.getCodewords());
+        assertSame(nitf21, parseShared(raw, FileType.NSIF_ONE_ZERO, raw.length));
+    }
+
+    @Test
+    public void testNitf20DowngradeEvent() throws ParseException {
+        String base = String.format("%-161s", "U");
+        byte[] withEvent = (base + "999998" + String.format("%-40s", "Event")).getBytes(StandardCharsets.US_ASCII);
+        NitfSecurityMetadata securityMetadata = parseShared(withEvent, FileType.NITF_TWO_ZERO, withEvent.length);
+        assertEquals("999998", securityMetadata.getDowngradeDateOrSpecialCase());
+        assertEquals("Event", securityMetadata.getDowngradeEvent());
+
+        byte[] withoutEvent = (base + "      " + String.format("%-40s", "Event")).getBytes(StandardCharsets.US_ASCII);
+        securityMetadata = parseShared(withoutEvent, FileType.NITF_TWO_ZERO, 167);
+        assertEquals(null, securityMetadata.getDowngradeEvent());
+    }
+
+    private SlottedNitfParseStrategy parse(final String resource, final SecurityMetadataPool pool) throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        strategy.setSecurityMetadataPool(pool);
+        NitfFileParser.parse(new FileReader(new File(getClass().getResource(resource).toURI())), strategy);
+        return strategy;
+    }
+
+    private NitfSecurityMetadata parseShared(final byte[] raw, final FileType fileType, final long expectedLength) throws ParseException {
+        return parseShared(raw, fileType, expectedLength, POOL);
+    }
+
+    private NitfSecurityMetadata parseShared(final byte[] raw, final FileType fileType, final long expectedLength,
+                                             final SecurityMetadataPool pool) throws ParseException {
+        NitfReader reader = new ByteArrayReader(raw, 0);
+        reader.setFileType(fileType);
+        NitfSecurityMetadata securityMetadata = new NitfSecurityMetadataParser().parseShared(reader, pool);
+        assertEquals(expectedLength, reader.getCurrentOffset());
+        assertTrue(securityMetadata.isShared());
+        return securityMetadata;
+    }
+}
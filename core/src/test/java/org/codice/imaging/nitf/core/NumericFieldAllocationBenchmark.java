@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Allocation benchmark for numeric field decoding.
+ *
+ * This is not a unit test. Run it after "mvn test-compile" with:
+ *
+ * java -cp target/classes:target/test-classes:$SLF4J_JAR org.codice.imaging.nitf.core.NumericFieldAllocationBenchmark [iterations]
+ *
+ * It reports the bytes allocated by the current thread for a header-only parse of each JITC sample
+ * (using MappedFileReader, so the reader itself does not allocate per read), and the bytes allocated
+ * per numeric field by the previous String based decoding and by the primitive readInt() method. The
+ * allocation counts come from com.sun.management.ThreadMXBean, so a HotSpot JVM is required.
+ */
+public final class NumericFieldAllocationBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 20;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int FIELD_LENGTH = 6;
+    private static final int FIELD_COUNT = 100000;
+
+    private NumericFieldAllocationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = DEFAULT_ITERATIONS;
+        if (args.length > 0) {
+            iterations = Integer.parseInt(args[0]);
+        }
+        List<File> samples = getSamples();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            parseAll(samples);
+        }
+        long before = getAllocatedBytes();
+        for (int i = 0; i < iterations; ++i) {
+            parseAll(samples);
+        }
+        long perFile = (getAllocatedBytes() - before) / iterations / samples.size();
+        System.out.println(String.format("%d sample files, %d iterations", samples.size(), iterations));
+        System.out.println(String.format("header-only parse: %d bytes allocated per file", perFile));
+
+        byte[] fields = buildFields();
+        readViaString(fields);
+        before = getAllocatedBytes();
+        readViaString(fields);
+        System.out.println(String.format("String decoding: %.1f bytes allocated per field",
+                (getAllocatedBytes() - before) / (double) FIELD_COUNT));
+
+        readPrimitive(fields);
+        before = getAllocatedBytes();
+        readPrimitive(fields);
+        System.out.println(String.format("readInt: %.1f bytes allocated per field",
+                (getAllocatedBytes() - before) / (double) FIELD_COUNT));
+    }
+
+    private static void parseAll(List<File> samples) throws ParseException {
+        for (File sample : samples) {
+            NitfFileParser.parse(new MappedFileReader(sample), new HeaderOnlyNitfParseStrategy());
+        }
+    }
+
+    private static byte[] buildFields() {
+        byte[] fields = new byte[FIELD_LENGTH * FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; ++i) {
+            byte[] field = String.format("%06d", i * 7).getBytes();
+            System.arraycopy(field, 0, fields, i * FIELD_LENGTH, FIELD_LENGTH);
+        }
+        return fields;
+    }
+
+    /**
+     * The String based decoding that readBytesAsInteger() used before readInt() was added.
+     */
+    private static long readViaString(byte[] fields) throws ParseException {
+        NitfReader reader = new NitfInputStreamReader(new ByteArrayInputStream(fields));
+        long total = 0;
+        for (int i = 0; i < FIELD_COUNT; ++i) {
+            Integer value = Integer.parseInt(new String(reader.readBytesRaw(FIELD_LENGTH), StandardCharsets.UTF_8));
+            total += value;
+        }
+        return total;
+    }
+
+    private static long readPrimitive(byte[] fields) throws ParseException {
+        NitfReader reader = new NitfInputStreamReader(new ByteArrayInputStream(fields));
+        long total = 0;
+        for (int i = 0; i < FIELD_COUNT; ++i) {
+            total += reader.readInt(FIELD_LENGTH);
+        }
+        return total;
+    }
+
+    private static List<File> getSamples() throws URISyntaxException {
+        List<File> samples = new ArrayList<>();
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            File[] files = new File(NumericFieldAllocationBenchmark.class.getResource(directory).toURI()).listFiles();
+            Arrays.sort(files);
+            samples.addAll(Arrays.asList(files));
+        }
+        return samples;
+    }
+
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class NumericFieldReaderTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testReadInt() throws ParseException {
+        NitfReader reader = readerFor("000421234-0012+152147483647-2147483648");
+        assertEquals(42, reader.readInt(5));
+        assertEquals(1234, reader.readInt(4));
+        assertEquals(-12, reader.readInt(5));
+        assertEquals(15, reader.readInt(3));
+        assertEquals(Integer.MAX_VALUE, reader.readInt(10));
+        assertEquals(Integer.MIN_VALUE, reader.readInt(11));
+    }
+
+    @Test
+    public void testReadIntOverflow() throws ParseException {
+        NitfReader reader = readerFor("2147483648");
+        exception.expect(ParseException.class);
+        exception.expectMessage("Bad Integer format: [2147483648]");
+        reader.readInt(10);
+    }
+
+    @Test
+    public void testReadIntWithSpaces() throws ParseException {
+        NitfReader reader = readerFor("  12");
+        exception.expect(ParseException.class);
+        exception.expectMessage("Bad Integer format: [  12]");
+        reader.readInt(4);
+    }
+
+    @Test
+    public void testReadIntSignOnly() throws ParseException {
+        NitfReader reader = readerFor("-");
+        exception.expect(ParseException.class);
+        exception.expectMessage("Bad Integer format: [-]");
+        reader.readInt(1);
+    }
+
+    @Test
+    public void testReadLong() throws ParseException {
+        NitfReader reader = readerFor("99999999999223372036854775807-9223372036854775808");
+        assertEquals(9999999999L, reader.readLong(10));
+        assertEquals(Long.MAX_VALUE, reader.readLong(19));
+        assertEquals(Long.MIN_VALUE, reader.readLong(20));
+    }
+
+    @Test
+    public void testReadLongBadFormat() throws ParseException {
+        NitfReader reader = readerFor("00001A");
+        exception.expect(ParseException.class);
+        exception.expectMessage("Bad Long format: 00001A");
+        reader.readLong(6);
+    }
+
+    @Test
+    public void testReadDouble() throws ParseException {
+        NitfReader reader = readerFor("+32.123456 -117.5 0.000  1.5E3 12.");
+        assertEquals(32.123456, reader.readDouble(10), 0.0);
+        assertEquals(-117.5, reader.readDouble(7), 0.0);
+        assertEquals(0.0, reader.readDouble(6), 0.0);
+        assertEquals(1500.0, reader.readDouble(7), 0.0);
+        assertEquals(12.0, reader.readDouble(4), 0.0);
+    }
+
+    @Test
+    public void testReadDoubleMatchesParseDouble() throws ParseException {
+        String[] values = {"0.1", "123456789.012345", "-0.000001", "99.99999999999999", "1234567890123456789"};
+        for (String value : values) {
+            assertEquals(Double.parseDouble(value), readerFor(value).readDouble(value.length()), 0.0);
+        }
+    }
+
+    @Test
+    public void testReadDoubleBadFormat() throws ParseException {
+        NitfReader reader = readerFor("1.2.3");
+        exception.expect(ParseException.class);
+        exception.expectMessage("Bad Double format: 1.2.3");
+        reader.readDouble(5);
+    }
+
+    @Test
+    public void testBoxedReadsMatchPrimitiveReads() throws ParseException {
+        NitfReader reader = readerFor("00123-000000000004567.25");
+        assertEquals(Integer.valueOf(123), reader.readBytesAsInteger(5));
+        assertEquals(Long.valueOf(-4), reader.readBytesAsLong(13));
+        assertEquals(Double.valueOf(567.25), reader.readBytesAsDouble(6));
+    }
+
+    private NitfReader readerFor(final String content) {
+        return new NitfInputStreamReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
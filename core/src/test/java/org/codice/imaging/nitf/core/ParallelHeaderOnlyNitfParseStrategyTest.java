@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ParallelHeaderOnlyNitfParseStrategyTest {
+
+    @Test
+    public void testMatchesSequentialParse() throws ParseException, URISyntaxException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+                assertNotNull("Test directory missing", getClass().getResource(directory));
+                for (File file : new File(getClass().getResource(directory).toURI()).listFiles()) {
+                    HeaderOnlyNitfParseStrategy expected = new HeaderOnlyNitfParseStrategy();
+                    NitfReader expectedReader = new FileReader(file);
+                    NitfFileParser.parse(expectedReader, expected);
+
+                    ParallelHeaderOnlyNitfParseStrategy strategy = new ParallelHeaderOnlyNitfParseStrategy(pool);
+                    NitfReader reader = new ChannelFileReader(file);
+                    NitfFileParser.parse(reader, strategy);
+
+                    checkSameHeaders(file.getName(), expected, strategy);
+                    assertEquals(file.getName(), expectedReader.getCurrentOffset(), reader.getCurrentOffset());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSequentialWithoutCursors() throws ParseException, URISyntaxException {
+        File file = new File(getClass().getResource("/JitcNitf20Samples/U_1122A.NTF").toURI());
+        HeaderOnlyNitfParseStrategy expected = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(file), expected);
+
+        ParallelHeaderOnlyNitfParseStrategy strategy = new ParallelHeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new BufferedFileReader(file), strategy);
+        checkSameHeaders(file.getName(), expected, strategy);
+    }
+
+    private void checkSameHeaders(final String name, final SlottedNitfParseStrategy expected, final SlottedNitfParseStrategy actual)
+            throws ParseException {
+        assertEquals(name, expected.getImageSegmentHeaders().size(), actual.getImageSegmentHeaders().size());
+        for (int i = 0; i < expected.getImageSegmentHeaders().size(); ++i) {
+            NitfImageSegmentHeader expectedHeader = expected.getImageSegmentHeaders().get(i);
+            NitfImageSegmentHeader actualHeader = actual.getImageSegmentHeaders().get(i);
+            assertEquals(name, expectedHeader.getIdentifier(), actualHeader.getIdentifier());
+            assertEquals(name, expectedHeader.getImageDataLength(), actualHeader.getImageDataLength());
+            assertEquals(name, expectedHeader.getTREsRawStructure().getTREs().size(), actualHeader.getTREsRawStructure().getTREs().size());
+            assertEquals(name, expected.getSegmentDataOffset(SegmentType.IMAGE, i), actual.getSegmentDataOffset(SegmentType.IMAGE, i));
+        }
+        assertEquals(name, expected.getGraphicSegmentHeaders().size(), actual.getGraphicSegmentHeaders().size());
+        for (int i = 0; i < expected.getGraphicSegmentHeaders().size(); ++i) {
+            assertEquals(name, expected.getGraphicSegmentHeaders().get(i).getIdentifier(), actual.getGraphicSegmentHeaders().get(i).getIdentifier());
+        }
+        assertEquals(name, expected.getSymbolSegmentHeaders().size(), actual.getSymbolSegmentHeaders().size());
+        for (int i = 0; i < expected.getSymbolSegmentHeaders().size(); ++i) {
+            assertEquals(name, expected.getSymbolSegmentHeaders().get(i).getIdentifier(), actual.getSymbolSegmentHeaders().get(i).getIdentifier());
+        }
+        assertEquals(name, expected.getLabelSegmentHeaders().size(), actual.getLabelSegmentHeaders().size());
+        for (int i = 0; i < expected.getLabelSegmentHeaders().size(); ++i) {
+            assertEquals(name, expected.getLabelSegmentHeaders().get(i).getIdentifier(), actual.getLabelSegmentHeaders().get(i).getIdentifier());
+        }
+        assertEquals(name, expected.getTextSegmentHeaders().size(), actual.getTextSegmentHeaders().size());
+        for (int i = 0; i < expected.getTextSegmentHeaders().size(); ++i) {
+            assertEquals(name, expected.getTextSegmentHeaders().get(i).getIdentifier(), actual.getTextSegmentHeaders().get(i).getIdentifier());
+        }
+        assertEquals(name, expected.getDataExtensionSegmentHeaders().size(), actual.getDataExtensionSegmentHeaders().size());
+        for (int i = 0; i < expected.getDataExtensionSegmentHeaders().size(); ++i) {
+            assertEquals(name, expected.getDataExtensionSegmentHeaders().get(i).getIdentifier(),
+                         actual.getDataExtensionSegmentHeaders().get(i).getIdentifier());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PrefetchingReaderTest {
+
+    private static final String[] TEST_FILES = {"/JitcNitf20Samples/U_1122A.NTF", "/JitcNitf21Samples/i_3001a.ntf",
+                                                "/JitcNitf21Samples/ns3321a.nsf", "/JitcNitf21Samples/ns3301e.nsf"};
+
+    @Test
+    public void testDataExtractionMatchesFileReader() throws ParseException, URISyntaxException {
+        for (String testFile : TEST_FILES) {
+            File file = getTestFile(testFile);
+            AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+            NitfReader fileReader = new FileReader(file);
+            NitfFileParser.parse(fileReader, expected);
+
+            // Small chunks, so segments are split and the queue fills up.
+            for (int chunkSize : new int[] {1000, PrefetchingReader.DEFAULT_CHUNK_SIZE}) {
+                try (PrefetchingReader reader = new PrefetchingReader(new ChannelFileReader(file), chunkSize, 2)) {
+                    AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+                    NitfFileParser.parse(reader, strategy);
+
+                    assertEquals(testFile, fileReader.getCurrentOffset(), reader.getCurrentOffset());
+                    assertEquals(expected.getImageSegmentData().size(), strategy.getImageSegmentData().size());
+                    for (int i = 0; i < expected.getImageSegmentData().size(); ++i) {
+                        assertArrayEquals(expected.getImageSegmentData().get(i), strategy.getImageSegmentData().get(i));
+                    }
+                    assertEquals(expected.getTextSegmentData(), strategy.getTextSegmentData());
+                    assertEquals(expected.getLabelSegmentData(), strategy.getLabelSegmentData());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHeaderOnlyParse() throws ParseException, URISyntaxException {
+        File file = getTestFile(TEST_FILES[0]);
+        try (PrefetchingReader reader = new PrefetchingReader(new ChannelFileReader(file), 1000, 2)) {
+            HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+            NitfFileParser.parse(reader, strategy);
+            assertEquals(5, strategy.getImageSegmentHeaders().size());
+            assertEquals(file.length(), reader.getCurrentOffset());
+        }
+    }
+
+    @Test
+    public void testSeekBackwardsAfterPrefetch() throws ParseException, URISyntaxException {
+        File file = getTestFile(TEST_FILES[0]);
+        ChannelFileReader channelReader = new ChannelFileReader(file);
+        try (PrefetchingReader reader = new PrefetchingReader(channelReader, 100, 2)) {
+            AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+            NitfFileParser.parse(reader, strategy);
+
+            // Both before and across the last prefetched chunk.
+            long offset = strategy.getSegmentDataOffset(SegmentType.IMAGE, 0);
+            reader.seekToAbsoluteOffset(offset);
+            byte[] data = reader.readBytesRaw(1000);
+            assertArrayEquals(Arrays.copyOfRange(strategy.getImageSegmentData().get(0), 0, 1000), data);
+            reader.seekToAbsoluteOffset(file.length() - 150);
+            assertArrayEquals(channelReader.newCursor(file.length() - 150).readBytesRaw(150), reader.readBytesRaw(150));
+        }
+    }
+
+    @Test
+    public void testStrategyOnlyAsksForRangesItReads() throws ParseException, URISyntaxException {
+        File file = getTestFile(TEST_FILES[0]);
+        RecordingReader reader = new RecordingReader(file);
+        HeaderOnlyNitfParseStrategy headerOnly = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(reader, headerOnly);
+        assertEquals(getSegmentRanges(headerOnly.getSegmentDirectory(), false), reader.getRanges());
+
+        reader = new RecordingReader(file);
+        AllDataExtractionParseStrategy allData = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(reader, allData);
+        assertEquals(getSegmentRanges(allData.getSegmentDirectory(), true), reader.getRanges());
+
+        reader = new RecordingReader(file);
+        AllDataExtractionParseStrategy stopped = new AllDataExtractionParseStrategy();
+        stopped.setStopCondition(NitfParseStopConditions.afterImageSegments(1));
+        NitfFileParser.parse(reader, stopped);
+        assertEquals(getSegmentRanges(allData.getSegmentDirectory(), true).subList(0, 1), reader.getRanges());
+    }
+
+    @Test
+    public void testReadsWithoutReadAheadComeFromFile() throws ParseException, URISyntaxException {
+        File file = getTestFile(TEST_FILES[0]);
+        ChannelFileReader channelReader = new ChannelFileReader(file);
+        try (PrefetchingReader reader = new PrefetchingReader(channelReader, 100, 1)) {
+            reader.readAhead(1000, 250);
+            reader.seekToAbsoluteOffset(900);
+            assertArrayEquals(channelReader.newCursor(900).readBytesRaw(400), reader.readBytesRaw(400));
+            assertArrayEquals(channelReader.newCursor(1300).readBytesRaw(50), reader.readBytesRaw(50));
+        }
+    }
+
+    private List<List<Long>> getSegmentRanges(final SegmentDirectory segmentDirectory, final boolean includeData) throws ParseException {
+        List<List<Long>> ranges = new ArrayList<>();
+        for (SegmentType segmentType : segmentDirectory.getSegmentTypes()) {
+            for (int i = 0; i < segmentDirectory.getNumberOfSegments(segmentType); ++i) {
+                long length = segmentDirectory.getHeaderLength(segmentType, i);
+                if (includeData) {
+                    length += segmentDirectory.getDataLength(segmentType, i);
+                }
+                ranges.add(Arrays.asList(segmentDirectory.getHeaderOffset(segmentType, i), length));
+            }
+        }
+        return ranges;
+    }
+
+    private static class RecordingReader extends FileReader {
+        private final List<List<Long>> ranges = new ArrayList<>();
+
+        RecordingReader(final File file) throws ParseException {
+            super(file);
+        }
+
+        @Override
+        public void readAhead(final long absoluteOffset, final long length) {
+            ranges.add(Arrays.asList(absoluteOffset, length));
+        }
+
+        List<List<Long>> getRanges() {
+            return ranges;
+        }
+    }
+
+    private File getTestFile(final String testFile) throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testFile));
+        return new File(getClass().getResource(testFile).toURI());
+    }
+}
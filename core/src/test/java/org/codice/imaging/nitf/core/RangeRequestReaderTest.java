@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class RangeRequestReaderTest {
+
+    private final String testfile = "/JitcNitf20Samples/U_1122A.NTF";
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    /**
+     * In-process stand-in for remote storage, which counts the requests it receives.
+     */
+    private static class CountingRangeFetcher implements RangeFetcher {
+        private final byte[] content;
+        private int requests = 0;
+        private long bytesFetched = 0;
+
+        CountingRangeFetcher(final File file) throws IOException {
+            content = Files.readAllBytes(file.toPath());
+        }
+
+        @Override
+        public long getLength() {
+            return content.length;
+        }
+
+        @Override
+        public byte[] fetch(final long offset, final int length) {
+            assertTrue(offset >= 0);
+            assertTrue(offset + length <= content.length);
+            requests++;
+            bytesFetched += length;
+            return Arrays.copyOfRange(content, (int) offset, (int) offset + length);
+        }
+    }
+
+    @Test
+    public void testHeaderOnlyParseFetchesFewRanges() throws Exception {
+        File file = getTestFile();
+        CountingRangeFetcher fetcher = new CountingRangeFetcher(file);
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new RangeRequestReader(fetcher, 4096, 8), strategy);
+
+        HeaderOnlyNitfParseStrategy expected = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(file), expected);
+        assertEquals(expected.getImageSegmentHeaders().size(), strategy.getImageSegmentHeaders().size());
+        assertEquals(expected.getNitfHeader().getFileTitle(), strategy.getNitfHeader().getFileTitle());
+
+        // The 1MB of data in the first image segment is skipped, so is never fetched.
+        long skippedData = strategy.getNitfHeader().getImageSegmentDataLengths().get(0);
+        assertTrue("Too many bytes: " + fetcher.bytesFetched, fetcher.bytesFetched < file.length() - skippedData + 2 * 4096);
+        assertEquals((fetcher.bytesFetched + 4095) / 4096, fetcher.requests);
+    }
+
+    @Test
+    public void testDataExtractionMatchesFileReader() throws Exception {
+        File file = getTestFile();
+        AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(file), expected);
+
+        AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+        NitfReader reader = new RangeRequestReader(new CountingRangeFetcher(file), 1000, 4);
+        NitfFileParser.parse(reader, strategy);
+
+        assertEquals(file.length(), reader.getCurrentOffset());
+        for (int i = 0; i < expected.getImageSegmentData().size(); ++i) {
+            assertArrayEquals(expected.getImageSegmentData().get(i), strategy.getImageSegmentData().get(i));
+        }
+    }
+
+    @Test
+    public void testAdjacentBlocksAreCoalesced() throws Exception {
+        CountingRangeFetcher fetcher = new CountingRangeFetcher(getTestFile());
+        RangeRequestReader reader = new RangeRequestReader(fetcher, 100, 10);
+        reader.seekToAbsoluteOffset(50);
+        byte[] data = reader.readBytesRaw(500);
+        assertEquals(1, fetcher.requests);
+        assertEquals(600, fetcher.bytesFetched);
+        assertArrayEquals(Arrays.copyOfRange(fetcher.content, 50, 550), data);
+
+        // Cached now, in both directions.
+        reader.seekToAbsoluteOffset(0);
+        reader.readBytesRaw(600);
+        assertEquals(1, fetcher.requests);
+
+        // Only the missing blocks at the end are fetched.
+        reader.seekToAbsoluteOffset(550);
+        assertArrayEquals(Arrays.copyOfRange(fetcher.content, 550, 850), reader.readBytesRaw(300));
+        assertEquals(2, fetcher.requests);
+        assertEquals(900, fetcher.bytesFetched);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedBlockIsEvicted() throws Exception {
+        CountingRangeFetcher fetcher = new CountingRangeFetcher(getTestFile());
+        RangeRequestReader reader = new RangeRequestReader(fetcher, 100, 2);
+        reader.readBytesRaw(1);
+        reader.seekToAbsoluteOffset(100);
+        reader.readBytesRaw(1);
+        reader.seekToAbsoluteOffset(0);
+        reader.readBytesRaw(1);
+        assertEquals(2, fetcher.requests);
+
+        // Block 1 is the least recently used, so fetching block 2 evicts it.
+        reader.seekToAbsoluteOffset(200);
+        reader.readBytesRaw(1);
+        reader.seekToAbsoluteOffset(0);
+        reader.readBytesRaw(1);
+        assertEquals(3, fetcher.requests);
+        reader.seekToAbsoluteOffset(100);
+        reader.readBytesRaw(1);
+        assertEquals(4, fetcher.requests);
+    }
+
+    @Test
+    public void testLargeReadBypassesCache() throws Exception {
+        CountingRangeFetcher fetcher = new CountingRangeFetcher(getTestFile());
+        RangeRequestReader reader = new RangeRequestReader(fetcher, 100, 2);
+        reader.readBytesRaw(10);
+        reader.seekToAbsoluteOffset(1000);
+        assertArrayEquals(Arrays.copyOfRange(fetcher.content, 1000, 6000), reader.readBytesRaw(5000));
+        assertEquals(2, fetcher.requests);
+        assertEquals(100 + 5000, fetcher.bytesFetched);
+
+        reader.seekToAbsoluteOffset(0);
+        reader.readBytesRaw(100);
+        assertEquals(2, fetcher.requests);
+    }
+
+    @Test
+    public void testDataView() throws Exception {
+        CountingRangeFetcher fetcher = new CountingRangeFetcher(getTestFile());
+        RangeRequestReader reader = new RangeRequestReader(fetcher);
+        ByteBuffer view = reader.getDataView(10, 20);
+        assertTrue(view.isReadOnly());
+        byte[] data = new byte[20];
+        view.get(data);
+        assertArrayEquals(Arrays.copyOfRange(fetcher.content, 10, 30), data);
+        assertEquals(0, reader.getCurrentOffset());
+    }
+
+    @Test
+    public void testReadPastEndOfFile() throws Exception {
+        RangeRequestReader reader = new RangeRequestReader(new CountingRangeFetcher(getTestFile()));
+        reader.seekToEndOfFile();
+        reader.seekBackwards(2);
+        exception.expect(ParseException.class);
+        exception.expectMessage("end of file");
+        reader.readBytesRaw(3);
+    }
+
+    @Test
+    public void testShortFetch() throws Exception {
+        RangeRequestReader reader = new RangeRequestReader(new RangeFetcher() {
+            @Override
+            public long getLength() {
+                return 1000;
+            }
+
+            @Override
+            public byte[] fetch(final long offset, final int length) {
+                return new byte[length - 1];
+            }
+        });
+        exception.expect(ParseException.class);
+        exception.expectMessage("returned the wrong number of bytes");
+        reader.readBytesRaw(10);
+    }
+
+    private File getTestFile() throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testfile));
+        return new File(getClass().getResource(testfile).toURI());
+    }
+}
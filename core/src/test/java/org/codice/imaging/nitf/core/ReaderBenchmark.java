@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Header-only parse benchmark for the file based NitfReader implementations.
+ *
+ * This is not a unit test. Run it after "mvn test-compile" with:
+ *
+ * java -cp target/classes:target/test-classes:$SLF4J_JAR org.codice.imaging.nitf.core.ReaderBenchmark [iterations]
+ *
+ * It parses every JITC sample with HeaderOnlyNitfParseStrategy using each reader, and reports the
+ * elapsed time and the number of read system calls. The system call count comes from
+ * /proc/self/io, so it is only reported on Linux, and includes any reads made by other JVM threads.
+ */
+public final class ReaderBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 20;
+    private static final int WARMUP_ITERATIONS = 5;
+
+    private interface ReaderFactory {
+        String getName();
+        NitfReader create(File file) throws ParseException;
+    }
+
+    private ReaderBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = DEFAULT_ITERATIONS;
+        if (args.length > 0) {
+            iterations = Integer.parseInt(args[0]);
+        }
+        List<File> samples = getSamples();
+        List<ReaderFactory> factories = Arrays.asList(
+                new ReaderFactory() {
+                    public String getName() {
+                        return "FileReader";
+                    }
+                    public NitfReader create(File file) throws ParseException {
+                        return new FileReader(file);
+                    }
+                },
+                new ReaderFactory() {
+                    public String getName() {
+                        return "BufferedFileReader";
+                    }
+                    public NitfReader create(File file) throws ParseException {
+                        return new BufferedFileReader(file);
+                    }
+                },
+                new ReaderFactory() {
+                    public String getName() {
+                        return "ChannelFileReader";
+                    }
+                    public NitfReader create(File file) throws ParseException {
+                        return new ChannelFileReader(file);
+                    }
+                },
+                new ReaderFactory() {
+                    public String getName() {
+                        return "MappedFileReader";
+                    }
+                    public NitfReader create(File file) throws ParseException {
+                        return new MappedFileReader(file);
+                    }
+                });
+
+        System.out.println(String.format("%d sample files, %d iterations", samples.size(), iterations));
+        for (ReaderFactory factory : factories) {
+            parseAll(factory, samples, WARMUP_ITERATIONS);
+            long syscallsBefore = getReadSyscallCount();
+            long start = System.nanoTime();
+            parseAll(factory, samples, iterations);
+            long elapsed = System.nanoTime() - start;
+            long syscalls = getReadSyscallCount() - syscallsBefore;
+            System.out.println(String.format("%-20s %10.3f ms/pass %12s read syscalls/pass",
+                    factory.getName(),
+                    elapsed / 1.0e6 / iterations,
+                    syscallsBefore < 0 ? "n/a" : String.valueOf(syscalls / iterations)));
+        }
+    }
+
+    private static void parseAll(ReaderFactory factory, List<File> samples, int iterations) throws ParseException {
+        for (int i = 0; i < iterations; ++i) {
+            for (File sample : samples) {
+                NitfFileParser.parse(factory.create(sample), new HeaderOnlyNitfParseStrategy());
+            }
+        }
+    }
+
+    private static List<File> getSamples() throws URISyntaxException {
+        List<File> samples = new ArrayList<>();
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            File[] files = new File(ReaderBenchmark.class.getResource(directory).toURI()).listFiles();
+            Arrays.sort(files);
+            samples.addAll(Arrays.asList(files));
+        }
+        return samples;
+    }
+
+    private static long getReadSyscallCount() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/io"), Charset.forName("US-ASCII"))) {
+                if (line.startsWith("syscr:")) {
+                    return Long.parseLong(line.substring("syscr:".length()).trim());
+                }
+            }
+        } catch (IOException ex) {
+            // Not Linux, fall through.
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SegmentDataConsumerParseStrategyTest {
+
+    @Test
+    public void testDataMatchesExtraction() throws IOException, ParseException, URISyntaxException {
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            assertNotNull("Test directory missing", getClass().getResource(directory));
+            for (File file : new File(getClass().getResource(directory).toURI()).listFiles()) {
+                if ("ns3321a.nsf".equals(file.getName())) {
+                    // streaming mode, which needs a seekable reader
+                    continue;
+                }
+                AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+                NitfFileParser.parse(new FileReader(file), expected);
+
+                final List<byte[]> imageData = new ArrayList<>();
+                final List<byte[]> graphicData = new ArrayList<>();
+                final List<byte[]> dataExtensionData = new ArrayList<>();
+                SegmentDataConsumerParseStrategy strategy = new SegmentDataConsumerParseStrategy(new SegmentDataConsumer() {
+                    @Override
+                    public void consume(final SegmentType segmentType, final int segmentIndex, final AbstractCommonNitfSegment header,
+                                        final InputStream data) throws IOException {
+                        byte[] bytes = readAll(data);
+                        switch (segmentType) {
+                            case IMAGE:
+                                imageData.add(bytes);
+                                break;
+                            case GRAPHIC:
+                                graphicData.add(bytes);
+                                break;
+                            case DATA_EXTENSION:
+                                dataExtensionData.add(bytes);
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                });
+                try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+                    NitfFileParser.parse(new NitfInputStreamReader(stream), strategy);
+                }
+
+                String name = file.getName();
+                assertEquals(name, 0, strategy.getImageSegmentData().size());
+                assertEquals(name, expected.getImageSegmentHeaders().size(), strategy.getImageSegmentHeaders().size());
+                assertSameData(name, expected.getImageSegmentData(), imageData);
+                assertSameData(name, expected.getGraphicSegmentData(), graphicData);
+                assertSameData(name, expected.dataExtensionSegmentData, dataExtensionData);
+                assertEquals(name, expected.getTextSegmentHeaders().size(), strategy.getTextSegmentHeaders().size());
+                assertEquals(name, expected.getDataExtensionSegmentHeaders().size(), strategy.getDataExtensionSegmentHeaders().size());
+            }
+        }
+    }
+
+    @Test
+    public void testPartiallyReadDataIsSkipped() throws IOException, ParseException, URISyntaxException {
+        File file = new File(getClass().getResource("/JitcNitf21Samples/ns3361c.nsf").toURI());
+        final List<Integer> firstBytes = new ArrayList<>();
+        SegmentDataConsumerParseStrategy strategy = new SegmentDataConsumerParseStrategy(new SegmentDataConsumer() {
+            @Override
+            public void consume(final SegmentType segmentType, final int segmentIndex, final AbstractCommonNitfSegment header,
+                                final InputStream data) throws IOException {
+                ReadableByteChannel channel = Channels.newChannel(data);
+                ByteBuffer buffer = ByteBuffer.allocate(1);
+                channel.read(buffer);
+                firstBytes.add(buffer.get(0) & 0xFF);
+            }
+        });
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+            NitfFileParser.parse(new NitfInputStreamReader(stream), strategy);
+        }
+        AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(file), expected);
+
+        assertEquals(4, strategy.getImageSegmentHeaders().size());
+        assertEquals(expected.getImageSegmentData().size(), firstBytes.size());
+        for (int i = 0; i < firstBytes.size(); ++i) {
+            assertEquals(expected.getImageSegmentData().get(i)[0] & 0xFF, (int) firstBytes.get(i));
+        }
+    }
+
+    @Test
+    public void testConsumerExceptionEndsParse() throws URISyntaxException {
+        File file = new File(getClass().getResource("/JitcNitf21Samples/ns3361c.nsf").toURI());
+        final List<Integer> consumedSegments = new ArrayList<>();
+        SegmentDataConsumerParseStrategy strategy = new SegmentDataConsumerParseStrategy(new SegmentDataConsumer() {
+            @Override
+            public void consume(final SegmentType segmentType, final int segmentIndex, final AbstractCommonNitfSegment header,
+                                final InputStream data) throws IOException {
+                consumedSegments.add(segmentIndex);
+                throw new IOException("disk full");
+            }
+        });
+        try {
+            NitfFileParser.parse(new FileReader(file), strategy);
+            fail("Expected the consumer exception to end the parse");
+        } catch (ParseException ex) {
+            assertTrue(ex.getMessage().contains("disk full"));
+        }
+        assertEquals(1, consumedSegments.size());
+    }
+
+    @Test
+    public void testAvailableIsLimitedByTheReader() throws IOException, ParseException, URISyntaxException {
+        File file = new File(getClass().getResource("/JitcNitf21Samples/ns3361c.nsf").toURI());
+        final List<Integer> available = new ArrayList<>();
+        final List<Long> lengths = new ArrayList<>();
+        SegmentDataConsumerParseStrategy strategy = new SegmentDataConsumerParseStrategy(new SegmentDataConsumer() {
+            @Override
+            public void consume(final SegmentType segmentType, final int segmentIndex, final AbstractCommonNitfSegment header,
+                                final InputStream data) throws IOException {
+                available.add(data.available());
+                lengths.add(((NitfImageSegmentHeader) header).getImageDataLength());
+            }
+        });
+        NitfFileParser.parse(new FileReader(file), strategy);
+        assertEquals(4, available.size());
+        for (int i = 0; i < available.size(); ++i) {
+            assertEquals(lengths.get(i).longValue(), (long) available.get(i));
+        }
+
+        // The reader only holds part of the segment.
+        SegmentDataInputStream data = new SegmentDataInputStream(new ByteArrayReader(new byte[10], 0), 100);
+        assertEquals(10, data.available());
+        assertEquals(4, data.skip(4));
+        assertEquals(6, data.available());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullConsumer() {
+        new SegmentDataConsumerParseStrategy(null);
+    }
+
+    private static byte[] readAll(final InputStream data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = data.read(buffer)) != -1) {
+            bytes.write(buffer, 0, count);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void assertSameData(final String name, final List<byte[]> expected, final List<byte[]> actual) {
+        assertEquals(name, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            if (expected.get(i) == null) {
+                assertEquals(name, 0, actual.get(i).length);
+            } else {
+                assertArrayEquals(name, expected.get(i), actual.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class SegmentDataViewTest {
+
+    private static final String[] TEST_FILES = {"/JitcNitf21Samples/i_3001a.ntf", "/JitcNitf20Samples/U_1122A.NTF",
+                                                "/JitcNitf21Samples/ns3301e.nsf"};
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testViewsMatchExtractedData() throws ParseException, URISyntaxException {
+        for (String testFile : TEST_FILES) {
+            File file = getTestFile(testFile);
+            AllDataExtractionParseStrategy extracted = new AllDataExtractionParseStrategy();
+            NitfFileParser.parse(new FileReader(file), extracted);
+
+            checkViews(extracted, parseHeaders(new FileReader(file)));
+            checkViews(extracted, parseHeaders(new BufferedFileReader(file)));
+            // A small window makes some views span mapping windows.
+            checkViews(extracted, parseHeaders(new MappedFileReader(file, 1000)));
+        }
+    }
+
+    @Test
+    public void testViewIsReadOnlyAndIndependentOfReader() throws ParseException, URISyntaxException {
+        NitfReader reader = new MappedFileReader(getTestFile(TEST_FILES[0]));
+        HeaderOnlyNitfParseStrategy strategy = parseHeaders(reader);
+        long offsetAfterParse = reader.getCurrentOffset();
+
+        ByteBuffer view = strategy.getSegmentDataView(SegmentType.IMAGE, 0);
+        assertTrue(view.isReadOnly());
+        assertEquals(0, view.position());
+        assertEquals(strategy.getImageSegmentHeaders().get(0).getImageDataLength(), view.remaining());
+        assertEquals(offsetAfterParse, reader.getCurrentOffset());
+    }
+
+    @Test
+    public void testStreamReaderFallsBackToExtractedData() throws ParseException, URISyntaxException, IOException {
+        File file = getTestFile(TEST_FILES[0]);
+        AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+        try (FileInputStream stream = new FileInputStream(file)) {
+            NitfFileParser.parse(new NitfInputStreamReader(stream), strategy);
+        }
+        ByteBuffer view = strategy.getSegmentDataView(SegmentType.IMAGE, 0);
+        assertTrue(view.isReadOnly());
+        assertArrayEquals(strategy.getImageSegmentData().get(0), toArray(view));
+    }
+
+    @Test
+    public void testStreamReaderWithoutExtractedData() throws ParseException, URISyntaxException, IOException {
+        File file = getTestFile(TEST_FILES[0]);
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        try (FileInputStream stream = new FileInputStream(file)) {
+            NitfFileParser.parse(new NitfInputStreamReader(stream), strategy);
+        }
+        exception.expect(ParseException.class);
+        exception.expectMessage("Data for IMAGE segment 0 was not extracted");
+        strategy.getSegmentDataView(SegmentType.IMAGE, 0);
+    }
+
+    @Test
+    public void testBadIndex() throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = parseHeaders(new FileReader(getTestFile(TEST_FILES[0])));
+        exception.expect(ParseException.class);
+        exception.expectMessage("No IMAGE segment at index 1");
+        strategy.getSegmentDataView(SegmentType.IMAGE, 1);
+    }
+
+    @Test
+    public void testViewOutsideFile() throws ParseException, URISyntaxException {
+        File file = getTestFile(TEST_FILES[0]);
+        NitfReader reader = new BufferedFileReader(file);
+        exception.expect(ParseException.class);
+        exception.expectMessage("is outside the file");
+        reader.getDataView(file.length() - 10, 11);
+    }
+
+    private void checkViews(final AllDataExtractionParseStrategy extracted, final HeaderOnlyNitfParseStrategy headersOnly)
+            throws ParseException {
+        for (int i = 0; i < extracted.getImageSegmentData().size(); ++i) {
+            checkView(extracted.getImageSegmentData().get(i), headersOnly.getSegmentDataView(SegmentType.IMAGE, i));
+        }
+        for (int i = 0; i < extracted.getGraphicSegmentData().size(); ++i) {
+            checkView(extracted.getGraphicSegmentData().get(i), headersOnly.getSegmentDataView(SegmentType.GRAPHIC, i));
+        }
+        for (int i = 0; i < extracted.getSymbolSegmentData().size(); ++i) {
+            checkView(extracted.getSymbolSegmentData().get(i), headersOnly.getSegmentDataView(SegmentType.SYMBOL, i));
+        }
+        for (int i = 0; i < extracted.getLabelSegmentData().size(); ++i) {
+            String label = new String(toArray(headersOnly.getSegmentDataView(SegmentType.LABEL, i)), StandardCharsets.UTF_8);
+            assertEquals(extracted.getLabelSegmentData().get(i), label);
+        }
+        for (int i = 0; i < extracted.getTextSegmentData().size(); ++i) {
+            String text = new String(toArray(headersOnly.getSegmentDataView(SegmentType.TEXT, i)), StandardCharsets.UTF_8);
+            assertEquals(extracted.getTextSegmentData().get(i), text);
+        }
+    }
+
+    private void checkView(final byte[] expected, final ByteBuffer view) {
+        if (expected == null) {
+            assertEquals(0, view.remaining());
+        } else {
+            assertArrayEquals(expected, toArray(view));
+        }
+    }
+
+    private HeaderOnlyNitfParseStrategy parseHeaders(final NitfReader reader) throws ParseException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(reader, strategy);
+        return strategy;
+    }
+
+    private byte[] toArray(final ByteBuffer view) {
+        byte[] bytes = new byte[view.remaining()];
+        view.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private File getTestFile(final String testFile) throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testFile));
+        return new File(getClass().getResource(testFile).toURI());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class SegmentDirectoryTest {
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testOffsetsMatchSegments() throws ParseException, URISyntaxException {
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            assertNotNull("Test directory missing", getClass().getResource(directory));
+            for (File file : new File(getClass().getResource(directory).toURI()).listFiles()) {
+                AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+                NitfFileParser.parse(new FileReader(file), strategy);
+                SegmentDirectory segments = strategy.getSegmentDirectory();
+                if (!"ns3321a.nsf".equals(file.getName())) {
+                    // The streaming file header follows the segments, and has its own HL.
+                    assertEquals(file.getName(), file.length(), segments.getEndOffset());
+                    assertEquals(file.getName(), segments.getEndOffset(), new SegmentDirectory(strategy.getNitfHeader()).getEndOffset());
+                }
+                checkImageSegments(file, strategy, segments);
+            }
+        }
+    }
+
+    @Test
+    public void testFileTypeSegments() throws ParseException, URISyntaxException {
+        SegmentDirectory nitf20 = parseDirectory("/JitcNitf20Samples/U_1122A.NTF");
+        assertEquals(Arrays.asList(SegmentType.IMAGE, SegmentType.SYMBOL, SegmentType.LABEL, SegmentType.TEXT, SegmentType.DATA_EXTENSION),
+                     nitf20.getSegmentTypes());
+        assertEquals(5, nitf20.getNumberOfSegments(SegmentType.IMAGE));
+        assertEquals(0, nitf20.getNumberOfSegments(SegmentType.GRAPHIC));
+
+        SegmentDirectory nitf21 = parseDirectory("/JitcNitf21Samples/i_3001a.ntf");
+        assertEquals(Arrays.asList(SegmentType.IMAGE, SegmentType.GRAPHIC, SegmentType.TEXT, SegmentType.DATA_EXTENSION),
+                     nitf21.getSegmentTypes());
+        assertEquals(0, nitf21.getNumberOfSegments(SegmentType.SYMBOL));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        SegmentDirectory segments = parseDirectory("/JitcNitf20Samples/U_1122A.NTF");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(segments);
+        }
+        SegmentDirectory copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (SegmentDirectory) in.readObject();
+        }
+        assertEquals(segments.getSegmentTypes(), copy.getSegmentTypes());
+        assertEquals(segments.getEndOffset(), copy.getEndOffset());
+        for (SegmentType segmentType : segments.getSegmentTypes()) {
+            assertEquals(segments.getNumberOfSegments(segmentType), copy.getNumberOfSegments(segmentType));
+            for (int i = 0; i < segments.getNumberOfSegments(segmentType); ++i) {
+                assertEquals(segments.getHeaderOffset(segmentType, i), copy.getHeaderOffset(segmentType, i));
+                assertEquals(segments.getDataOffset(segmentType, i), copy.getDataOffset(segmentType, i));
+                assertEquals(segments.getDataLength(segmentType, i), copy.getDataLength(segmentType, i));
+            }
+        }
+    }
+
+    @Test
+    public void testBadIndex() throws ParseException, URISyntaxException {
+        SegmentDirectory segments = parseDirectory("/JitcNitf21Samples/i_3001a.ntf");
+        exception.expect(ParseException.class);
+        exception.expectMessage("No GRAPHIC segment at index 0");
+        segments.getDataOffset(SegmentType.GRAPHIC, 0);
+    }
+
+    private void checkImageSegments(final File file, final AllDataExtractionParseStrategy strategy, final SegmentDirectory segments)
+            throws ParseException {
+        assertEquals(file.getName(), strategy.getImageSegmentHeaders().size(), segments.getNumberOfSegments(SegmentType.IMAGE));
+        NitfReader reader = new FileReader(file);
+        for (int i = 0; i < segments.getNumberOfSegments(SegmentType.IMAGE); ++i) {
+            // The subheader at each header offset parses to the same header.
+            reader.setFileType(strategy.getNitfHeader().getFileType());
+            reader.seekToAbsoluteOffset(segments.getHeaderOffset(SegmentType.IMAGE, i));
+            NitfImageSegmentHeader header = new NitfImageSegmentHeaderParser().parse(reader, strategy);
+            assertEquals(file.getName(), strategy.getImageSegmentHeaders().get(i).getIdentifier(), header.getIdentifier());
+            assertEquals(file.getName(), segments.getDataOffset(SegmentType.IMAGE, i), reader.getCurrentOffset());
+
+            byte[] data = strategy.getImageSegmentData().get(i);
+            if (data != null) {
+                assertEquals(file.getName(), data.length, segments.getDataLength(SegmentType.IMAGE, i));
+                assertArrayEquals(data, reader.readBytesRaw(data.length));
+            }
+        }
+    }
+
+    private SegmentDirectory parseDirectory(final String testFile) throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(new File(getClass().getResource(testFile).toURI())), strategy);
+        // Built from the file header alone, using HL.
+        return new SegmentDirectory(strategy.getNitfHeader());
+    }
+}
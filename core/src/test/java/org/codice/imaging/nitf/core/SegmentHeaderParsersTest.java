@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class SegmentHeaderParsersTest {
+
+    // Consecutive files differ in their comments, LUTs, TREs, segment types and number of segments.
+    private static final String[] FILES = {"/JitcNitf21Samples/ns3010a.nsf", "/JitcNitf21Samples/i_3034c.ntf",
+                                           "/JitcNitf21Samples/i_3128b.ntf", "/JitcNitf21Samples/i_3051e.ntf",
+                                           "/JitcNitf21Samples/ns3201a.nsf", "/JitcNitf21Samples/ns3361c.nsf",
+                                           "/JitcNitf20Samples/U_1122A.NTF", "/JitcNitf21Samples/ns3010a.nsf"};
+
+    @Test
+    public void testNoStateLeaksBetweenFilesOnOneThread() throws ParseException, URISyntaxException, InterruptedException,
+                                                                ExecutionException {
+        List<SlottedNitfParseStrategy> sequential = new ArrayList<>();
+        for (String name : FILES) {
+            sequential.add(parse(name));
+            checkParsersReleased();
+        }
+
+        for (int i = 0; i < FILES.length; ++i) {
+            checkSameHeaders(FILES[i], parseOnNewThread(FILES[i]), sequential.get(i));
+            if (i > 0) {
+                checkNothingShared(FILES[i], sequential.get(i - 1), sequential.get(i));
+            }
+        }
+    }
+
+    private SlottedNitfParseStrategy parse(final String name) throws ParseException, URISyntaxException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(new File(getClass().getResource(name).toURI())), strategy);
+        return strategy;
+    }
+
+    // A new thread has its own, unused, parsers.
+    private SlottedNitfParseStrategy parseOnNewThread(final String name) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<SlottedNitfParseStrategy> result = executor.submit(new Callable<SlottedNitfParseStrategy>() {
+                @Override
+                public SlottedNitfParseStrategy call() throws ParseException, URISyntaxException {
+                    return parse(name);
+                }
+            });
+            return result.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void checkParsersReleased() {
+        SegmentHeaderParsers parsers = SegmentHeaderParsers.forCurrentThread();
+        for (AbstractNitfSegmentParser parser : new AbstractNitfSegmentParser[] {parsers.getImageSegmentHeaderParser(),
+                parsers.getGraphicSegmentHeaderParser(), parsers.getSymbolSegmentHeaderParser(), parsers.getLabelSegmentHeaderParser(),
+                parsers.getTextSegmentHeaderParser(), parsers.getDataExtensionSegmentHeaderParser()}) {
+            assertNull(parser.getClass().getSimpleName(), parser.reader);
+            assertNull(parser.getClass().getSimpleName(), parser.parsingStrategy);
+        }
+    }
+
+    private void checkSameHeaders(final String name, final SlottedNitfParseStrategy expected, final SlottedNitfParseStrategy actual) {
+        assertEquals(name, expected.getNitfHeader().getFileTitle(), actual.getNitfHeader().getFileTitle());
+        assertEquals(name, expected.getNitfHeader().getTREsFlat(), actual.getNitfHeader().getTREsFlat());
+        assertEquals(name, expected.getImageSegmentHeaders().size(), actual.getImageSegmentHeaders().size());
+        for (int i = 0; i < expected.getImageSegmentHeaders().size(); ++i) {
+            checkSameImageHeader(name, expected.getImageSegmentHeaders().get(i), actual.getImageSegmentHeaders().get(i));
+        }
+        checkSameSegments(name, expected.getGraphicSegmentHeaders(), actual.getGraphicSegmentHeaders());
+        checkSameSegments(name, expected.getSymbolSegmentHeaders(), actual.getSymbolSegmentHeaders());
+        checkSameSegments(name, expected.getLabelSegmentHeaders(), actual.getLabelSegmentHeaders());
+        checkSameSegments(name, expected.getTextSegmentHeaders(), actual.getTextSegmentHeaders());
+        checkSameSegments(name, expected.getDataExtensionSegmentHeaders(), actual.getDataExtensionSegmentHeaders());
+    }
+
+    private void checkSameImageHeader(final String name, final NitfImageSegmentHeader expected, final NitfImageSegmentHeader actual) {
+        assertEquals(name, expected.getIdentifier(), actual.getIdentifier());
+        assertEquals(name, expected.getSecurityMetadata().getSecurityClassification(), actual.getSecurityMetadata().getSecurityClassification());
+        assertEquals(name, expected.getImageComments(), actual.getImageComments());
+        assertEquals(name, expected.getImageCompression(), actual.getImageCompression());
+        assertEquals(name, expected.getCompressionRate(), actual.getCompressionRate());
+        assertEquals(name, expected.getNumBands(), actual.getNumBands());
+        for (int i = 0; i < expected.getNumBands(); ++i) {
+            NitfImageBand expectedBand = expected.getImageBandZeroBase(i);
+            NitfImageBand actualBand = actual.getImageBandZeroBase(i);
+            assertEquals(name, expectedBand.getImageRepresentation(), actualBand.getImageRepresentation());
+            assertEquals(name, expectedBand.getNumLUTs(), actualBand.getNumLUTs());
+            assertEquals(name, expectedBand.getNumLUTEntries(), actualBand.getNumLUTEntries());
+        }
+        assertEquals(name, expected.getUserDefinedHeaderOverflow(), actual.getUserDefinedHeaderOverflow());
+        assertEquals(name, expected.getTREsFlat(), actual.getTREsFlat());
+    }
+
+    private void checkSameSegments(final String name, final List<? extends AbstractCommonNitfSegment> expected,
+                                   final List<? extends AbstractCommonNitfSegment> actual) {
+        assertEquals(name, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(name, expected.get(i).getIdentifier(), actual.get(i).getIdentifier());
+            assertEquals(name, expected.get(i).getSecurityMetadata().getSecurityClassification(),
+                         actual.get(i).getSecurityMetadata().getSecurityClassification());
+            assertEquals(name, expected.get(i).getTREsFlat(), actual.get(i).getTREsFlat());
+        }
+    }
+
+    private void checkNothingShared(final String name, final SlottedNitfParseStrategy previous, final SlottedNitfParseStrategy current) {
+        List<AbstractCommonNitfSegment> previousSegments = getSegments(previous);
+        for (AbstractCommonNitfSegment segment : getSegments(current)) {
+            for (AbstractCommonNitfSegment previousSegment : previousSegments) {
+                assertNotSame(name, previousSegment, segment);
+                assertNotSame(name, previousSegment.getTREsRawStructure(), segment.getTREsRawStructure());
+            }
+        }
+    }
+
+    private List<AbstractCommonNitfSegment> getSegments(final SlottedNitfParseStrategy strategy) {
+        List<AbstractCommonNitfSegment> segments = new ArrayList<>();
+        segments.addAll(strategy.getImageSegmentHeaders());
+        segments.addAll(strategy.getGraphicSegmentHeaders());
+        segments.addAll(strategy.getSymbolSegmentHeaders());
+        segments.addAll(strategy.getLabelSegmentHeaders());
+        segments.addAll(strategy.getTextSegmentHeaders());
+        segments.addAll(strategy.getDataExtensionSegmentHeaders());
+        return segments;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Allocation benchmark for segment subheader parsing.
+ *
+ * This is not a unit test. Run it after "mvn test-compile" with:
+ *
+ * java -cp target/classes:target/test-classes:$SLF4J_JAR org.codice.imaging.nitf.core.SegmentParserAllocationBenchmark [iterations]
+ *
+ * It builds an in-memory NITF 2.1 file with 999 image segments (each a copy of the image subheader from
+ * i_3034c.ntf), 999 text segments and 999 data extension segments, all with empty data, and reports the
+ * bytes allocated by the current thread per segment for a header-only parse of that file. It also reports
+ * the bytes allocated per image subheader with a new parser for each subheader, and with the reused
+ * per-thread parser. The allocation counts come from com.sun.management.ThreadMXBean, so a HotSpot JVM is
+ * required.
+ */
+public final class SegmentParserAllocationBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 20;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int SEGMENTS_PER_TYPE = 999;
+
+    // NITF 2.1 file header layout
+    private static final int FL_OFFSET = 342;
+    private static final int FL_LENGTH = 12;
+    private static final int HL_LENGTH = 6;
+
+    private static final String SECURITY = String.format("%-167s", "U");
+
+    private SegmentParserAllocationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = DEFAULT_ITERATIONS;
+        if (args.length > 0) {
+            iterations = Integer.parseInt(args[0]);
+        }
+        byte[] imageSubheader = getImageSubheader();
+        byte[] file = buildFile(imageSubheader);
+        int segmentCount = SEGMENTS_PER_TYPE * 3;
+
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            parseFile(file, segmentCount);
+        }
+        long before = getAllocatedBytes();
+        for (int i = 0; i < iterations; ++i) {
+            parseFile(file, segmentCount);
+        }
+        long perSegment = (getAllocatedBytes() - before) / iterations / segmentCount;
+        System.out.println(String.format("%d segments, %d iterations", segmentCount, iterations));
+        System.out.println(String.format("header-only parse: %d bytes allocated per segment", perSegment));
+
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            parseImageSubheaders(imageSubheader, false);
+            parseImageSubheaders(imageSubheader, true);
+        }
+        before = getAllocatedBytes();
+        parseImageSubheaders(imageSubheader, false);
+        System.out.println(String.format("new parser per image subheader: %d bytes allocated per subheader",
+                (getAllocatedBytes() - before) / SEGMENTS_PER_TYPE));
+        before = getAllocatedBytes();
+        parseImageSubheaders(imageSubheader, true);
+        System.out.println(String.format("reused parser: %d bytes allocated per subheader",
+                (getAllocatedBytes() - before) / SEGMENTS_PER_TYPE));
+    }
+
+    private static void parseFile(byte[] file, int segmentCount) throws ParseException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new ByteArrayReader(file, 0), strategy);
+        int parsed = strategy.getImageSegmentHeaders().size() + strategy.getTextSegmentHeaders().size()
+                + strategy.getDataExtensionSegmentHeaders().size();
+        if (parsed != segmentCount) {
+            throw new IllegalStateException("Parsed " + parsed + " segments, expected " + segmentCount);
+        }
+    }
+
+    private static void parseImageSubheaders(byte[] imageSubheader, boolean reuse) throws ParseException {
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        for (int i = 0; i < SEGMENTS_PER_TYPE; ++i) {
+            NitfReader reader = new ByteArrayReader(imageSubheader, 0);
+            reader.setFileType(FileType.NITF_TWO_ONE);
+            NitfImageSegmentHeaderParser parser;
+            if (reuse) {
+                parser = SegmentHeaderParsers.forCurrentThread().getImageSegmentHeaderParser();
+            } else {
+                parser = new NitfImageSegmentHeaderParser();
+            }
+            parser.parse(reader, strategy);
+        }
+    }
+
+    private static byte[] getImageSubheader() throws Exception {
+        File sample = new File(SegmentParserAllocationBenchmark.class.getResource("/JitcNitf21Samples/i_3034c.ntf").toURI());
+        HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(sample), strategy);
+        Nitf header = strategy.getNitfHeader();
+        byte[] bytes = Files.readAllBytes(sample.toPath());
+        int start = header.getHeaderLength();
+        return Arrays.copyOfRange(bytes, start, start + header.getImageSegmentSubHeaderLengths().get(0));
+    }
+
+    private static byte[] buildFile(byte[] imageSubheader) throws Exception {
+        File sample = new File(SegmentParserAllocationBenchmark.class.getResource("/JitcNitf21Samples/i_3034c.ntf").toURI());
+        byte[] prefix = Arrays.copyOf(Files.readAllBytes(sample.toPath()), FL_OFFSET);
+
+        byte[] textSubheader = ascii("TE" + "TEXT001" + "000" + "20261018120000" + String.format("%-80s", "Benchmark text")
+                + SECURITY + "0" + "STA" + "00000");
+        byte[] desSubheader = ascii("DE" + String.format("%-25s", "BENCHMARK") + "01" + SECURITY + "0000");
+
+        ByteArrayOutputStream tables = new ByteArrayOutputStream();
+        write(tables, String.format("%03d", SEGMENTS_PER_TYPE));
+        for (int i = 0; i < SEGMENTS_PER_TYPE; ++i) {
+            write(tables, String.format("%06d%010d", imageSubheader.length, 0));
+        }
+        write(tables, "000000");
+        write(tables, String.format("%03d", SEGMENTS_PER_TYPE));
+        for (int i = 0; i < SEGMENTS_PER_TYPE; ++i) {
+            write(tables, String.format("%04d%05d", textSubheader.length, 0));
+        }
+        write(tables, String.format("%03d", SEGMENTS_PER_TYPE));
+        for (int i = 0; i < SEGMENTS_PER_TYPE; ++i) {
+            write(tables, String.format("%04d%09d", desSubheader.length, 0));
+        }
+        write(tables, "000" + "00000" + "00000");
+
+        ByteArrayOutputStream segments = new ByteArrayOutputStream();
+        for (int i = 0; i < SEGMENTS_PER_TYPE; ++i) {
+            segments.write(imageSubheader);
+        }
+        for (int i = 0; i < SEGMENTS_PER_TYPE; ++i) {
+            segments.write(textSubheader);
+        }
+        for (int i = 0; i < SEGMENTS_PER_TYPE; ++i) {
+            segments.write(desSubheader);
+        }
+
+        int headerLength = FL_OFFSET + FL_LENGTH + HL_LENGTH + tables.size();
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        file.write(prefix);
+        write(file, String.format("%012d%06d", headerLength + segments.size(), headerLength));
+        tables.writeTo(file);
+        segments.writeTo(file);
+        return file.toByteArray();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void write(ByteArrayOutputStream stream, String value) throws IOException {
+        stream.write(ascii(value));
+    }
+
+    private static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpillingSegmentDataStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDataMatchesHeapExtraction() throws IOException, ParseException, URISyntaxException {
+        for (String directory : new String[] {"/JitcNitf20Samples", "/JitcNitf21Samples"}) {
+            assertNotNull("Test directory missing", getClass().getResource(directory));
+            for (File file : new File(getClass().getResource(directory).toURI()).listFiles()) {
+                if ("ns3321a.nsf".equals(file.getName())) {
+                    // streaming mode, which needs a seekable reader
+                    continue;
+                }
+                AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+                NitfFileParser.parse(new FileReader(file), expected);
+
+                // A small budget, so that most files use both memory and the spill file.
+                try (SpillingSegmentDataStore store = new SpillingSegmentDataStore(1024, temporaryFolder.getRoot())) {
+                    AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+                    strategy.setSegmentDataStore(store);
+                    try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+                        NitfFileParser.parse(new NitfInputStreamReader(stream), strategy);
+                    }
+                    String name = file.getName();
+                    assertTrue(name, store.getMemoryUsed() <= 1024);
+                    assertSameData(name, expected.getImageSegmentData(), strategy.getImageSegmentData());
+                    assertSameData(name, expected.getGraphicSegmentData(), strategy.getGraphicSegmentData());
+                    assertSameData(name, expected.getSymbolSegmentData(), strategy.getSymbolSegmentData());
+                    assertSameData(name, expected.getDataExtensionSegmentData(), strategy.getDataExtensionSegmentData());
+                    for (int i = 0; i < strategy.getImageSegmentData().size(); ++i) {
+                        ByteBuffer view = strategy.getSegmentDataView(SegmentType.IMAGE, i);
+                        assertEquals(name, strategy.getSegmentDataLength(SegmentType.IMAGE, i), view.remaining());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSpillAboveBudget() throws IOException, ParseException {
+        byte[] source = new byte[300 * 1024];
+        for (int i = 0; i < source.length; ++i) {
+            source[i] = (byte) (i * 31);
+        }
+        try (SpillingSegmentDataStore store = new SpillingSegmentDataStore(150 * 1024, temporaryFolder.getRoot())) {
+            NitfReader reader = new NitfInputStreamReader(new ByteArrayInputStream(source));
+            store.add(SegmentType.IMAGE, reader, 100 * 1024);
+            store.add(SegmentType.IMAGE, reader, 0);
+            store.add(SegmentType.IMAGE, reader, 100 * 1024);
+            store.add(SegmentType.GRAPHIC, reader, 100 * 1024);
+
+            assertEquals(100 * 1024, store.getMemoryUsed());
+            assertEquals(200 * 1024, store.getSpilledBytes());
+            assertEquals(3, store.getNumberOfSegments(SegmentType.IMAGE));
+            assertEquals(1, store.getNumberOfSegments(SegmentType.GRAPHIC));
+            assertEquals(0, store.getNumberOfSegments(SegmentType.TEXT));
+            checkData(source, 0, store.getData(SegmentType.IMAGE, 0));
+            assertEquals(0, store.getData(SegmentType.IMAGE, 1).remaining());
+            checkData(source, 100 * 1024, store.getData(SegmentType.IMAGE, 2));
+            checkData(source, 200 * 1024, store.getData(SegmentType.GRAPHIC, 0));
+
+            List<byte[]> images = new SegmentDataStoreList(store, SegmentType.IMAGE);
+            assertNull(images.get(1));
+            assertEquals(100 * 1024, images.get(2).length);
+            assertTrue(store.getData(SegmentType.IMAGE, 2).isReadOnly());
+        }
+        assertEquals(0, temporaryFolder.getRoot().list().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadAfterClose() throws IOException, ParseException {
+        SpillingSegmentDataStore store = new SpillingSegmentDataStore(1024);
+        store.add(SegmentType.IMAGE, new NitfInputStreamReader(new ByteArrayInputStream(new byte[10])), 10);
+        store.close();
+        store.getData(SegmentType.IMAGE, 0);
+    }
+
+    private static void checkData(final byte[] source, final int offset, final ByteBuffer data) {
+        assertEquals(100 * 1024, data.remaining());
+        for (int i = 0; i < data.remaining(); ++i) {
+            assertEquals(source[offset + i], data.get(i));
+        }
+    }
+
+    private static void assertSameData(final String name, final List<byte[]> expected, final List<byte[]> actual) {
+        assertEquals(name, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertArrayEquals(name, expected.get(i), actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) Codice Foundation
+ *
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ *
+ */
+package org.codice.imaging.nitf.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class SpoolingInputStreamReaderTest {
+
+    private static final String STREAMING_MODE_FILE = "/JitcNitf21Samples/ns3321a.nsf";
+
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void testStreamingModeSpooledToMemory() throws Exception {
+        try (InputStream is = getClass().getResourceAsStream(STREAMING_MODE_FILE);
+             SpoolingInputStreamReader reader = new SpoolingInputStreamReader(new BufferedInputStream(is))) {
+            HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+            NitfFileParser.parse(reader, strategy);
+            assertTrue(reader.isSpooled());
+            assertFalse(reader.isSpooledToFile());
+            checkMatchesFileParse(strategy);
+        }
+    }
+
+    @Test
+    public void testStreamingModeSpooledToFile() throws Exception {
+        try (InputStream is = getClass().getResourceAsStream(STREAMING_MODE_FILE);
+             SpoolingInputStreamReader reader = new SpoolingInputStreamReader(is, 1000)) {
+            HeaderOnlyNitfParseStrategy strategy = new HeaderOnlyNitfParseStrategy();
+            NitfFileParser.parse(reader, strategy);
+            assertTrue(reader.isSpooled());
+            assertTrue(reader.isSpooledToFile());
+            checkMatchesFileParse(strategy);
+        }
+    }
+
+    @Test
+    public void testStreamingModeDataExtraction() throws Exception {
+        AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(getTestFile(STREAMING_MODE_FILE)), expected);
+
+        try (InputStream is = getClass().getResourceAsStream(STREAMING_MODE_FILE);
+             SpoolingInputStreamReader reader = new SpoolingInputStreamReader(is, 1000)) {
+            AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+            NitfFileParser.parse(reader, strategy);
+            assertEquals(1, strategy.getImageSegmentData().size());
+            assertArrayEquals(expected.getImageSegmentData().get(0), strategy.getImageSegmentData().get(0));
+        }
+    }
+
+    @Test
+    public void testNormalFileIsNotSpooled() throws Exception {
+        final String testfile = "/JitcNitf20Samples/U_1122A.NTF";
+        AllDataExtractionParseStrategy expected = new AllDataExtractionParseStrategy();
+        NitfFileParser.parse(new FileReader(getTestFile(testfile)), expected);
+
+        try (InputStream is = getClass().getResourceAsStream(testfile);
+             SpoolingInputStreamReader reader = new SpoolingInputStreamReader(is)) {
+            AllDataExtractionParseStrategy strategy = new AllDataExtractionParseStrategy();
+            NitfFileParser.parse(reader, strategy);
+            assertFalse(reader.isSpooled());
+            assertFalse(reader.canSeek());
+            assertEquals(expected.getImageSegmentData().size(), strategy.getImageSegmentData().size());
+            for (int i = 0; i < expected.getImageSegmentData().size(); ++i) {
+                assertArrayEquals(expected.getImageSegmentData().get(i), strategy.getImageSegmentData().get(i));
+                // The reader can't provide a view, so the view wraps the extracted data.
+                assertEquals(expected.getSegmentDataView(SegmentType.IMAGE, i), strategy.getSegmentDataView(SegmentType.IMAGE, i));
+            }
+        }
+    }
+
+    @Test
+    public void testSeekBackwardsWithoutSpool() throws Exception {
+        try (SpoolingInputStreamReader reader = new SpoolingInputStreamReader(getClass().getResourceAsStream(STREAMING_MODE_FILE))) {
+            reader.skip(100);
+            reader.seekToAbsoluteOffset(110);
+            assertEquals(110, reader.getCurrentOffset());
+            exception.expect(ParseException.class);
+            exception.expectMessage("Unable to seek backwards in a stream that has not been spooled");
+            reader.seekBackwards(1);
+        }
+    }
+
+    @Test
+    public void testSeekBeforeSpool() throws Exception {
+        try (SpoolingInputStreamReader reader = new SpoolingInputStreamReader(getClass().getResourceAsStream(STREAMING_MODE_FILE))) {
+            reader.skip(100);
+            reader.seekToEndOfFile();
+            reader.seekToAbsoluteOffset(100);
+            exception.expect(ParseException.class);
+            exception.expectMessage("outside the spooled data");
+            reader.seekToAbsoluteOffset(99);
+        }
+    }
+
+    private void checkMatchesFileParse(final HeaderOnlyNitfParseStrategy strategy) throws Exception {
+        File file = getTestFile(STREAMING_MODE_FILE);
+        HeaderOnlyNitfParseStrategy expected = new HeaderOnlyNitfParseStrategy();
+        NitfFileParser.parse(new FileReader(file), expected);
+
+        assertEquals(expected.getNitfHeader().getFileTitle(), strategy.getNitfHeader().getFileTitle());
+        assertEquals(1, strategy.getImageSegmentHeaders().size());
+        assertEquals(1, strategy.getDataExtensionSegmentHeaders().size());
+        assertEquals(expected.getImageSegmentHeaders().get(0).getIdentifier(), strategy.getImageSegmentHeaders().get(0).getIdentifier());
+
+        // The segment data is in the spool, so is available as a view.
+        ByteBuffer view = strategy.getSegmentDataView(SegmentType.IMAGE, 0);
+        ByteBuffer expectedView = expected.getSegmentDataView(SegmentType.IMAGE, 0);
+        assertTrue(view.isReadOnly());
+        assertEquals(expectedView, view);
+    }
+
+    private File getTestFile(final String testFile) throws URISyntaxException {
+        assertNotNull("Test file missing", getClass().getResource(testFile));
+        return new File(getClass().getResource(testFile).toURI());
+    }
+}
@@ -17,6 +17,10 @@ package org.codice.imaging.nitf.core;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
 
+import java.io.StringReader;
+import java.text.ParseException;
+import javax.xml.transform.stream.StreamSource;
+
 import org.junit.Test;
 
 public class TreTest {
@@ -63,4 +67,18 @@ public class TreTest {
         subEntry.addGroup(new TreGroup());
         entry.dump();
     }
+
+    @Test
+    public void testAdditionalDescriptorOnlyAffectsOneParser() throws ParseException {
+        TreParser extended = new TreParser();
+        extended.registerAdditionalTREdescriptor(new StreamSource(new StringReader(
+                "<?xml version=\"1.0\"?><tres><tre name=\"TESTAA\" location=\"image\"><field name=\"Info\" length=\"4\"/></tre></tres>")));
+        TreParser standard = new TreParser();
+
+        Tre tre = extended.parseOneTre(new ByteArrayReader("ABCD".getBytes(), 0), "TESTAA", 4);
+        assertEquals("ABCD", tre.getFieldValue("Info"));
+        tre = standard.parseOneTre(new ByteArrayReader("ABCD".getBytes(), 0), "TESTAA", 4);
+        assertEquals(0, tre.getEntries().size());
+        assertEquals(4, tre.getRawData().length);
+    }
 }
@@ -16,6 +16,8 @@ package org.codice.imaging.nitf.nitfnetbeansfiletype;
 
 import java.text.ParseException;
 import java.util.List;
+import org.codice.imaging.nitf.core.SegmentDirectory;
+import org.codice.imaging.nitf.core.SegmentType;
 import org.openide.nodes.AbstractNode;
 import org.openide.nodes.ChildFactory;
 import org.openide.nodes.Children;
@@ -32,42 +34,43 @@ class NitfChildFactory extends ChildFactory<ChildSegmentKey> {
 
     @Override
     protected boolean createKeys(final List list) {
-        for (int i = 0; i < parseStrategy.getImageSegmentHeaderOffsets().size(); ++i) {
+        SegmentDirectory segments = parseStrategy.getSegmentDirectory();
+        for (int i = 0; i < segments.getNumberOfSegments(SegmentType.IMAGE); ++i) {
             ChildSegmentKey key = new ChildSegmentKey();
             key.setSegmentType("Image");
             key.setParseStrategy(parseStrategy);
             key.setIndex(i);
             list.add(key);
         }
-        for (int i = 0; i < parseStrategy.getGraphicSegmentHeaderOffsets().size(); ++i) {
+        for (int i = 0; i < segments.getNumberOfSegments(SegmentType.GRAPHIC); ++i) {
             ChildSegmentKey key = new ChildSegmentKey();
             key.setSegmentType("Graphic");
             key.setParseStrategy(parseStrategy);
             key.setIndex(i);
             list.add(key);
         }
-        for (int i = 0; i < parseStrategy.getSymbolSegmentHeaderOffsets().size(); ++i) {
+        for (int i = 0; i < segments.getNumberOfSegments(SegmentType.SYMBOL); ++i) {
             ChildSegmentKey key = new ChildSegmentKey();
             key.setSegmentType("Symbol");
             key.setParseStrategy(parseStrategy);
             key.setIndex(i);
             list.add(key);
         }
-        for (int i = 0; i < parseStrategy.getLabelSegmentHeaderOffsets().size(); ++i) {
+        for (int i = 0; i < segments.getNumberOfSegments(SegmentType.LABEL); ++i) {
             ChildSegmentKey key = new ChildSegmentKey();
             key.setSegmentType("Label");
             key.setParseStrategy(parseStrategy);
             key.setIndex(i);
             list.add(key);
         }
-        for (int i = 0; i < parseStrategy.getTextSegmentHeaderOffsets().size(); ++i) {
+        for (int i = 0; i < segments.getNumberOfSegments(SegmentType.TEXT); ++i) {
             ChildSegmentKey key = new ChildSegmentKey();
             key.setSegmentType("Text");
             key.setParseStrategy(parseStrategy);
             key.setIndex(i);
             list.add(key);
         }
-        for (int i = 0; i < parseStrategy.getDataExtensionSegmentHeaderOffsets().size(); ++i) {
+        for (int i = 0; i < segments.getNumberOfSegments(SegmentType.DATA_EXTENSION); ++i) {
             ChildSegmentKey key = new ChildSegmentKey();
             key.setSegmentType("DES");
             key.setParseStrategy(parseStrategy);
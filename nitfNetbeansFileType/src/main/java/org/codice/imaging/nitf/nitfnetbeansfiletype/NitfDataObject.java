@@ -20,7 +20,6 @@ import java.text.ParseException;
 import org.codice.imaging.nitf.core.FileReader;
 import org.codice.imaging.nitf.core.Nitf;
 import org.codice.imaging.nitf.core.NitfFileParser;
-import org.codice.imaging.nitf.core.NitfReader;
 import org.openide.awt.ActionID;
 import org.openide.awt.ActionReference;
 import org.openide.awt.ActionReferences;
@@ -111,8 +110,8 @@ class NitfDataObject extends MultiDataObject {
         FileObject fObj = getPrimaryFile();
 
         try {
-            NitfReader reader = new FileReader(new File(fObj.getPath()));
-            parseStrategy = new DeferredSegmentParseStrategy();
+            FileReader reader = new FileReader(new File(fObj.getPath()));
+            parseStrategy = new DeferredSegmentParseStrategy(reader);
             NitfFileParser.parse(reader, parseStrategy);
         } catch (ParseException e) {
             System.out.println("NitfDataObject Exception:" + e);